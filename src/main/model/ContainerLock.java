@@ -0,0 +1,117 @@
+package model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The lock of one model container in concurrent mode. Every container has its own read-write lock, so
+ * threads working on different containers never wait for each other and reads of one container run in
+ * parallel. Appends whose outcome the caller does not wait for never wait for the lock: the calling thread
+ * makes the append itself if the lock is free, and otherwise puts it on a lock-free queue, from which
+ * whichever thread holds the write lock next applies every queued append in order (flat combining), so
+ * appending threads never block on each other or on readers. Every read and
+ * write applies the queue first, so it sees every append that returned before it began.
+ * The lock is reentrant, and a thread holding it for writing may read; a thread holding it for reading
+ * must not write, and gets IllegalStateException instead of a deadlock if it tries.
+ */
+final class ContainerLock<T> {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> apply;
+
+    // EFFECTS: constructs a lock for a container that makes every change itself and queues nothing
+    ContainerLock() {
+        this(item -> { });
+    }
+
+    // EFFECTS: constructs a lock whose queued appends are applied, under the write lock, by apply
+    ContainerLock(Consumer<T> apply) {
+        this.apply = apply;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies item now if no thread holds the lock, and otherwise queues it to be applied
+    void append(T item) {
+        if (lock.isWriteLockedByCurrentThread()) {
+            // the outermost write of this thread applies the queue when it ends
+            pending.add(item);
+            return;
+        }
+        if (lock.writeLock().tryLock()) {
+            try {
+                drain();
+                apply.accept(item);
+                drain();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } else {
+            pending.add(item);
+        }
+        // an append queued while this thread held the lock may have missed the last drain
+        while (!pending.isEmpty() && lock.writeLock().tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // EFFECTS: applies the queue and returns the result of body, run while holding the read lock
+    <R> R read(Supplier<R> body) {
+        if (!pending.isEmpty() && lock.getReadHoldCount() == 0 && !lock.isWriteLockedByCurrentThread()) {
+            write(() -> { });
+        }
+        lock.readLock().lock();
+        try {
+            return body.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies the queue and returns the result of body, run while holding the write lock; throws
+    // IllegalStateException if this thread holds the read lock
+    <R> R write(Supplier<R> body) {
+        if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("A container cannot be modified while this thread is reading it");
+        }
+        lock.writeLock().lock();
+        try {
+            boolean outermost = lock.getWriteHoldCount() == 1;
+            if (outermost) {
+                drain();
+            }
+            R result = body.get();
+            if (outermost) {
+                drain();
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies the queue and runs body while holding the write lock; throws IllegalStateException
+    // if this thread holds the read lock
+    void write(Runnable body) {
+        write(() -> {
+            body.run();
+            return null;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies every queued append, in the order they were queued
+    private void drain() {
+        for (T item = pending.poll(); item != null; item = pending.poll()) {
+            apply.accept(item);
+        }
+    }
+}
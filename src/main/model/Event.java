@@ -1,10 +1,13 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 /**
  * Represents an fitness tracker event.
+ * An event is a type, a timestamp in nanoseconds since the epoch and an optional number (such as the
+ * duration of the workout added or the weight logged); only events of type MESSAGE carry text of their
+ * own. Logging one reads the system clock and allocates nothing else, and the date and text are only
+ * built when the event is read.
  */
 
 /**
@@ -12,8 +15,11 @@ import java.util.Date;
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private final EventType type;
+    private final long epochNanos;
+    private final double value;
+    private final String description;
 
     /**
      * Creates an event with the given description
@@ -21,16 +27,85 @@ public class Event {
      * @param description  a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(EventType.MESSAGE, Double.NaN, description);
+    }
+
+    /**
+     * Creates an event of the given type, without a value,
+     * and the current date/time stamp.
+     * @param type  the type of the event
+     */
+    public Event(EventType type) {
+        this(type, Double.NaN, null);
+    }
+
+    /**
+     * Creates an event of the given type with the given value
+     * and the current date/time stamp.
+     * @param type  the type of the event
+     * @param value  the number the event carries
+     */
+    public Event(EventType type, double value) {
+        this(type, value, null);
+    }
+
+    private Event(EventType type, double value, String description) {
+        // the wall clock is a plain read; it ticks in milliseconds, matching the Date handed out
+        this(type, System.currentTimeMillis() * NANOS_PER_MILLI, value, description);
+    }
+
+    /**
+     * Creates an event as it was logged earlier, such as one read back from a log file.
+     * @param type  the type of the event
+     * @param epochNanos  the time of the event, in nanoseconds since the epoch
+     * @param value  the number the event carries, or NaN if it has none
+     * @param description  the text of the event, or null to describe it by its type
+     */
+    public Event(EventType type, long epochNanos, double value, String description) {
+        this.epochNanos = epochNanos;
+        this.type = type;
+        this.value = value;
         this.description = description;
     }
 
+    /**
+     * Gets the type of this event.
+     * @return  the type of the event
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the time of this event.
+     * @return  the time of the event, in nanoseconds since the epoch
+     */
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    /**
+     * Gets whether this event carries a value.
+     * @return  true if the event carries a value
+     */
+    public boolean hasValue() {
+        return !Double.isNaN(value);
+    }
+
+    /**
+     * Gets the value of this event.
+     * @return  the value of the event, or NaN if it has none
+     */
+    public double getValue() {
+        return value;
+    }
+
     /**
      * Gets the date of this event (includes time).
      * @return  the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(epochNanos / NANOS_PER_MILLI);
     }
 
     /**
@@ -38,7 +113,7 @@ public class Event {
      * @return  the description of the event
      */
     public String getDescription() {
-        return description;
+        return description != null ? description : type.getDescription();
     }
 
     @Override
@@ -53,19 +128,22 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
+        return (this.type == otherEvent.type
+                &&
+                this.epochNanos == otherEvent.epochNanos
                 &&
-                this.description.equals(otherEvent.description));
+                Double.compare(this.value, otherEvent.value) == 0
+                &&
+                this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(epochNanos) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
-
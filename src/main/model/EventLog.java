@@ -1,30 +1,69 @@
 package model;
 
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * Represents a log of fitness application events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log keeps only the most recent CAPACITY events, in a ring buffer that overwrites the oldest
+ * event once it is full, and counts the events it has dropped since it was last cleared.
+ * Events may be logged from any thread without locking: each one claims the next sequence number and
+ * writes its own slot, stamped with that number once it is complete. Readers skip slots whose stamp
+ * does not match, so iterating while other threads log never fails and never sees a half-written slot.
+ * A Reader, such as a sink copying events to disk, can make loggers wait a bounded time for it rather
+ * than overwrite events it has not copied yet.
  */
 /**
  * This class is adapted from the EventLog class of Alarm System application.
  */
 public class EventLog implements Iterable<Event>  {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    public static final int CAPACITY = 1 << 14;
+    // stamps of a slot that holds no event yet, and of one an event is being written to
+    private static final long EMPTY = -1;
+    private static final long WRITING = -2;
+    private static final long READER_POLL_NANOS = 100_000;
+
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLongArray stamps;
+    // the sequence number of the next event to be logged
+    private final AtomicLong next = new AtomicLong();
+    // the sequence number of the first event logged since the log was last cleared
+    private volatile long first;
+    // the reader loggers wait for before overwriting events it has not read, or null
+    private volatile Reader reader;
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        this(CAPACITY);
+    }
+
+    /**
+     * Creates a log that keeps the given number of most recent events; only for tests.
+     * @param capacity  the number of events kept, a power of two
+     */
+    EventLog(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        stamps = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            stamps.set(i, EMPTY);
+        }
     }
 
     /**
@@ -34,30 +73,204 @@ public class EventLog implements Iterable<Event>  {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-        return theLog;
+        return Holder.THE_LOG;
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log, overwriting the oldest event if the log is full.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        long sequence = next.getAndIncrement();
+        Reader waitFor = reader;
+        if (waitFor != null && sequence - waitFor.position() > mask) {
+            awaitReader(waitFor, sequence);
+        }
+        int slot = (int) sequence & mask;
+        while (true) {
+            long stamp = stamps.get(slot);
+            if (stamp == WRITING) {
+                // a writer a whole lap ahead or behind is finishing this slot
+                Thread.onSpinWait();
+            } else if (stamp > sequence) {
+                // a newer event already took the slot; this one is counted as dropped like any overwritten one
+                return;
+            } else if (stamps.compareAndSet(slot, stamp, WRITING)) {
+                break;
+            }
+        }
+        slots.set(slot, e);
+        stamps.set(slot, sequence);
+    }
+
+    // EFFECTS: asks reader to catch up and waits until the event with the given sequence number would no
+    // longer overwrite one it has not read, or until reader.maxWaitNanos() has passed
+    private void awaitReader(Reader reader, long sequence) {
+        reader.behind();
+        long deadline = System.nanoTime() + reader.maxWaitNanos();
+        while (sequence - reader.position() > mask && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(READER_POLL_NANOS);
+        }
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        first = next.get();
+        logEvent(new Event(EventType.LOG_CLEARED));
+    }
+
+    /**
+     * Gets the number of most recent events the log keeps.
+     * @return  the capacity of the log
+     */
+    public int getCapacity() {
+        return mask + 1;
     }
 
+    /**
+     * Gets the number of events logged since the log was last cleared that it no longer holds, because
+     * newer events overwrote them (or, for a logger lapped while it was writing, took its slot first).
+     * @return  the number of dropped events
+     */
+    public long getDroppedCount() {
+        return Math.max(0, next.get() - first - getCapacity());
+    }
+
+    /**
+     * Gets the sequence number the next event logged will have; events are numbered from 0 in the
+     * order they are logged.
+     * @return  the sequence number of the next event
+     */
+    public long getNextSequence() {
+        return next.get();
+    }
+
+    /**
+     * Sets the reader that loggers wait for, for a bounded time, instead of overwriting events it has
+     * not read yet; null to let loggers overwrite old events without waiting.
+     * @param reader  the reader to wait for, or null
+     */
+    public void setReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Gives the events logged from the given sequence number on to action, oldest first, without
+     * allocating, so that a reader can copy each event out exactly once. Events that were overwritten or
+     * cleared before they were read are left out. It stops at the first event whose logger has not finished
+     * writing it, so that a later call starting where this one stopped does not miss it.
+     * @param sequence  the sequence number of the first event wanted
+     * @param action  the action to apply to each event
+     * @return  the sequence number of the first event not given to or left out by action
+     */
+    public long forEachSince(long sequence, Consumer<? super Event> action) {
+        long end = next.get();
+        long s = Math.max(sequence, first);
+        for (; s < end; s++) {
+            int slot = (int) s & mask;
+            long stamp = stamps.get(slot);
+            if (stamp < s) {
+                break;
+            }
+            Event event = stamp == s ? read(s) : null;
+            if (event != null) {
+                action.accept(event);
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Gets an iterator over the events in the log, oldest first. It holds no copy of the log: events
+     * overwritten while it is in use are skipped, and events logged after it was created are left out.
+     * @return  an iterator over the events in the log
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        return new Window();
+    }
+
+    /**
+     * Gives every event in the log to action, oldest first, without allocating.
+     * @param action  the action to apply to each event
+     */
+    @Override
+    public void forEach(Consumer<? super Event> action) {
+        long end = next.get();
+        for (long sequence = start(end); sequence < end; sequence++) {
+            Event event = read(sequence);
+            if (event != null) {
+                action.accept(event);
+            }
+        }
+    }
+
+    // EFFECTS: returns the sequence number of the oldest event still in the log, given that the next
+    // event logged will be end
+    private long start(long end) {
+        return Math.max(first, end - getCapacity());
+    }
+
+    // EFFECTS: returns the event with the given sequence number, or null if it has been overwritten or
+    // is still being written
+    private Event read(long sequence) {
+        int slot = (int) sequence & mask;
+        if (stamps.get(slot) != sequence) {
+            return null;
+        }
+        Event event = slots.get(slot);
+        return stamps.get(slot) == sequence ? event : null;
+    }
+
+    /**
+     * An iterator over the events in the log when it was created.
+     */
+    private final class Window implements Iterator<Event> {
+        private final long end = next.get();
+        private long sequence = start(end);
+        private Event pending;
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null && sequence < end) {
+                pending = read(sequence++);
+            }
+            return pending != null;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Event event = pending;
+            pending = null;
+            return event;
+        }
+    }
+
+    /**
+     * A reader that copies events out of the log as they are logged, such as a sink writing them to disk.
+     */
+    public interface Reader {
+        // EFFECTS: returns the sequence number of the next event this reader will read
+        long position();
+
+        // EFFECTS: asks this reader to catch up soon, because a logger is waiting for it
+        void behind();
+
+        // EFFECTS: returns how long, in nanoseconds, a logger waits for this reader before overwriting
+        // events it has not read
+        long maxWaitNanos();
+    }
+
+    /**
+     * Holds the only EventLog in the system (Singleton Design Pattern). The JVM creates it when
+     * getInstance first loads this class, exactly once even if several threads ask at the same time.
+     */
+    private static final class Holder {
+        private static final EventLog THE_LOG = new EventLog();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * The kinds of event the fitness application logs, each with the text it is described by.
+ * MESSAGE is an event described by free text of its own.
+ */
+public enum EventType {
+    WORKOUT_ADDED("Workout added."),
+    EXERCISE_ADDED("Exercise added."),
+    WEIGHT_LOGGED("Weight logged."),
+    GOAL_SET("Goal set successfully."),
+    LOG_CLEARED("Event log cleared."),
+    MESSAGE("");
+
+    private final String description;
+
+    EventType(String description) {
+        this.description = description;
+    }
+
+    // EFFECTS: returns the text events of this type are described by
+    public String getDescription() {
+        return description;
+    }
+}
@@ -6,10 +6,12 @@ import org.json.JSONObject;
  * Represents an exercise with a name and a set of instructions.
  * An Exercise object encapsulates the details of a physical exercise,
  * including what the exercise is called and how it should be performed.
+ * The setters of an exercise in a concurrent ExerciseDatabase take the database's lock.
  */
 public class Exercise {
     private String name;
     private String instructions;
+    private ExerciseDatabase owner;
 
     // REQUIRES: name and instructions to be non-null strings.
     // MODIFIES: this
@@ -45,7 +47,14 @@ public class Exercise {
     // MODIFIES: this
     // EFFECTS: Sets the exercise's name to the given name.
     public void setName(String name) {
-        this.name = name;
+        update(() -> {
+            String oldName = this.name;
+            this.name = name;
+            if (owner != null) {
+                owner.exerciseRenamed(this, oldName);
+            }
+            changed();
+        });
     }
 
     // EFFECTS: Returns the instructions of the exercise.
@@ -57,7 +66,39 @@ public class Exercise {
     // MODIFIES: this
     // EFFECTS: Sets the exercise's instructions to the given instructions.
     public void setInstructions(String instructions) {
-        this.instructions = instructions;
+        update(() -> {
+            this.instructions = instructions;
+            changed();
+        });
+    }
+
+    // EFFECTS: Returns the ExerciseDatabase this exercise was last added to, or null if it is in none.
+    ExerciseDatabase getOwner() {
+        return owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records the ExerciseDatabase that holds this exercise (null if none).
+    void setOwner(ExerciseDatabase owner) {
+        this.owner = owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Runs change while no other thread uses the ExerciseDatabase holding this exercise, if any.
+    private void update(Runnable change) {
+        ExerciseDatabase database = owner;
+        if (database == null) {
+            change.run();
+        } else {
+            database.update(change);
+        }
+    }
+
+    // EFFECTS: Tells the owning ExerciseDatabase, if any, that a field of this exercise changed.
+    private void changed() {
+        if (owner != null) {
+            owner.exerciseChanged(this);
+        }
     }
 
     // EFFECTS: Returns a string representation of the Exercise object.
@@ -1,7 +1,16 @@
 package model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -11,22 +20,58 @@ import org.json.JSONObject;
  * This class serves as a repository for all exercises available in the fitness application,
  * allowing for the addition of new exercises and retrieval of the existing ones.
  * It ensures that each exercise has a unique name within the database.
+ * Names are indexed case-insensitively in a hash map for duplicate checks and lookups,
+ * and in a prefix trie for completing partially typed names. The words of every name and its
+ * instructions are kept in a ranked full-text index for searching. The position of every exercise is kept
+ * in an identity map, and exercises renamed onto a name another one holds are kept aside under that name,
+ * so a change to an exercise updates the indexes without scanning the database.
+ * A concurrent database can be used by many threads at once: lookups and searches share its lock, and
+ * additions and changes take it alone (see ContainerLock).
+ * From its first snapshot on, a database also keeps a frozen copy of each exercise in a PersistentVector,
+ * so later snapshots take constant time.
  */
-public class ExerciseDatabase {
+public class ExerciseDatabase extends Subject {
     private List<Exercise> exercises;
+    private final List<Exercise> exercisesView = new ExerciseView();
+    private Map<String, Exercise> byName = new HashMap<>();
+    // the exercises whose name is held in byName by another exercise, by that name
+    private final Map<String, List<Exercise>> homonyms = new HashMap<>();
+    // the position of each exercise in exercises
+    private final Map<Exercise, Integer> positions = new IdentityHashMap<>();
+    private NameTrie names = new NameTrie();
+    private TextIndex<Exercise> text = new TextIndex<>();
+    private long modCount;
+    // null unless this database is concurrent
+    private final ContainerLock<Exercise> lock;
+    // frozen copies of the exercises in order, kept from the first snapshot on; null until then
+    private PersistentVector.Editor<Exercise> image;
 
     // EFFECTS: Constructs an empty ExerciseDatabase.
     public ExerciseDatabase() {
+        this(false);
+    }
+
+    // EFFECTS: Constructs an empty ExerciseDatabase that is safe to use from many threads at once if
+    // concurrent is true.
+    public ExerciseDatabase(boolean concurrent) {
         this.exercises = new ArrayList<>();
+        this.lock = concurrent ? new ContainerLock<>() : null;
+    }
+
+    // EFFECTS: Returns true if this database is safe to use from many threads at once.
+    public boolean isConcurrent() {
+        return lock != null;
     }
 
     // EFFECTS: Returns a JSONArray where each element is a JSONObject representation of an Exercise in the database.
     public JSONArray toJson() {
-        JSONArray jsonArray = new JSONArray();
-        for (Exercise exercise : exercises) {
-            jsonArray.put(exercise.toJson());
-        }
-        return jsonArray;
+        return read(() -> {
+            JSONArray jsonArray = new JSONArray();
+            for (Exercise exercise : exercises) {
+                jsonArray.put(exercise.toJson());
+            }
+            return jsonArray;
+        });
     }
 
     // REQUIRES: jsonArray to be a non-null JSONArray where each element is a JSONObject that represents an Exercise.
@@ -34,30 +79,277 @@ public class ExerciseDatabase {
     // EFFECTS: Clears the current exercise list and populates it with Exercise objects
     // created from the JSONObjects in the given JSONArray.
     public void loadFromJson(JSONArray jsonArray) {
-        exercises.clear(); // Clear the current list to avoid duplicating exercises
+        List<Exercise> loaded = new ArrayList<>(jsonArray.length());
         for (int i = 0; i < jsonArray.length(); i++) {
             JSONObject jsonObject = jsonArray.getJSONObject(i);
-            Exercise exercise = new Exercise(jsonObject);
-            exercises.add(exercise);
+            loaded.add(new Exercise(jsonObject));
         }
+        loadExercises(loaded);
+    }
+
+    // REQUIRES: loaded to be a non-null list of non-null Exercise objects.
+    // MODIFIES: this
+    // EFFECTS: Replaces the current exercises with the given ones, in order, without logging an event
+    // for each of them. Used by the persistence readers when restoring saved data.
+    public void loadExercises(List<Exercise> loaded) {
+        write(() -> {
+            for (Exercise exercise : exercises) {
+                if (exercise.getOwner() == this) {
+                    exercise.setOwner(null);
+                }
+            }
+            exercises.clear(); // Clear the current list to avoid duplicating exercises
+            exercises.addAll(loaded);
+            byName.clear();
+            homonyms.clear();
+            positions.clear();
+            names.clear();
+            text.clear();
+            for (Exercise exercise : exercises) {
+                positions.put(exercise, positions.size());
+                exercise.setOwner(this);
+                index(exercise);
+                text.add(exercise, searchableText(exercise));
+            }
+            if (image != null) {
+                image.clear();
+                exercises.forEach(exercise -> image.add(freeze(exercise)));
+            }
+            modCount++;
+            return null;
+        });
     }
 
     // REQUIRES: exercise to be a non-null Exercise object.
     // MODIFIES: this
     // EFFECTS: Adds the given exercise to the exercise database. Do not add if exercise already exists.
     public boolean addExercise(Exercise exercise) {
-        for (Exercise existingExercise : exercises) {
-            if (existingExercise.getName().equalsIgnoreCase(exercise.getName())) {
-                return false;
-            }
+        return write(() -> insert(exercise));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the given exercise unless one with the same name exists, and returns true if it did.
+    private boolean insert(Exercise exercise) {
+        if (byName.containsKey(normalize(exercise.getName()))) {
+            return false;
         }
+        positions.put(exercise, exercises.size());
         exercises.add(exercise);
-        EventLog.getInstance().logEvent(new Event("Exercise added."));
+        exercise.setOwner(this);
+        index(exercise);
+        text.add(exercise, searchableText(exercise));
+        if (image != null) {
+            image.add(freeze(exercise));
+        }
+        modCount++;
+        EventLog.getInstance().logEvent(new Event(EventType.EXERCISE_ADDED));
+        notifyObservers(o -> o.exerciseAdded(exercise));
         return true;
     }
 
+    // EFFECTS: Returns the exercise whose name equals the given name ignoring case, or null if there is none.
+    public Exercise findByName(String name) {
+        return read(() -> byName.get(normalize(name)));
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: Returns up to limit exercises whose names start with the given prefix ignoring case,
+    // ranked by name length (an exact match first) and then alphabetically.
+    public List<Exercise> completeName(String prefix, int limit) {
+        return read(() -> {
+            List<Exercise> completions = new ArrayList<>();
+            for (String key : names.complete(normalize(prefix), limit)) {
+                completions.add(byName.get(key));
+            }
+            return completions;
+        });
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: Returns up to limit exercises whose name or instructions contain any word of the query, ignoring
+    // case and word endings ("lunges" finds "lunge"), the most relevant first. Words that are rare in the
+    // database and exercises that use a word often count for more (BM25 ranking).
+    public List<Exercise> search(String query, int limit) {
+        return read(() -> text.search(query, limit));
+    }
+
+    // REQUIRES: exercise is in this database and was just renamed from oldName
+    // MODIFIES: this
+    // EFFECTS: Moves the exercise from oldName to its new name in the name indexes.
+    void exerciseRenamed(Exercise exercise, String oldName) {
+        String oldKey = normalize(oldName);
+        if (byName.get(oldKey) == exercise) {
+            unindex(oldKey);
+            // another exercise may have been renamed to the same name earlier
+            promoteHomonym(oldKey);
+        } else {
+            List<Exercise> waiting = homonyms.get(oldKey);
+            if (waiting != null && waiting.remove(exercise) && waiting.isEmpty()) {
+                homonyms.remove(oldKey);
+            }
+        }
+        index(exercise);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Indexes the exercise under its name, or keeps it aside under that name if another exercise
+    // already holds it.
+    private void index(Exercise exercise) {
+        String key = normalize(exercise.getName());
+        if (byName.putIfAbsent(key, exercise) == null) {
+            names.add(key);
+        } else {
+            homonyms.computeIfAbsent(key, k -> new ArrayList<>()).add(exercise);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Indexes the earliest exercise in the database kept aside under the given normalized name, if any.
+    private void promoteHomonym(String key) {
+        List<Exercise> waiting = homonyms.get(key);
+        if (waiting == null) {
+            return;
+        }
+        Exercise earliest = waiting.get(0);
+        for (Exercise other : waiting) {
+            if (positions.get(other) < positions.get(earliest)) {
+                earliest = other;
+            }
+        }
+        waiting.remove(earliest);
+        if (waiting.isEmpty()) {
+            homonyms.remove(key);
+        }
+        byName.put(key, earliest);
+        names.add(key);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the given normalized name from the indexes.
+    private void unindex(String key) {
+        byName.remove(key);
+        names.remove(key);
+    }
+
+    // EFFECTS: Returns the text of the exercise that search looks through.
+    private static String searchableText(Exercise exercise) {
+        return exercise.getName() + "\n" + exercise.getInstructions();
+    }
+
+    // EFFECTS: Returns the form of name used as an index key, so names differing only in case share a key.
+    static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Re-indexes the words of the given exercise in this database, since a field of it changed,
+    // and notifies observers.
+    void exerciseChanged(Exercise exercise) {
+        Integer position = positions.get(exercise);
+        if (position != null) {
+            int index = position;
+            text.update(exercise, searchableText(exercise));
+            if (image != null) {
+                image.set(index, freeze(exercise));
+            }
+            modCount++;
+            notifyObservers(o -> o.exerciseUpdated(index, exercise));
+        }
+    }
+
+    // EFFECTS: Returns a counter that changes whenever this database or one of its exercises is modified,
+    // so callers can tell whether anything changed since they last looked.
+    public long getModCount() {
+        return read(() -> modCount);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns an immutable snapshot of the exercises in the database, in order, as they are now. It
+    // never changes, shares its storage with the database and with other snapshots, and can be read from any
+    // thread without locking; each exercise read from it is a new copy that belongs to no database. The first
+    // snapshot copies every exercise once; later ones take constant time.
+    public List<Exercise> snapshot() {
+        return write(() -> {
+            if (image == null) {
+                image = new PersistentVector.Editor<>();
+                exercises.forEach(exercise -> image.add(freeze(exercise)));
+            }
+            return image.snapshot(ExerciseDatabase::freeze);
+        });
+    }
+
+    // EFFECTS: Returns a copy of exercise that belongs to no database.
+    private static Exercise freeze(Exercise exercise) {
+        return new Exercise(exercise.getName(), exercise.getInstructions());
+    }
+
     // EFFECTS: Returns a new list containing all the exercises in the database.
     public List<Exercise> getExercises() {
-        return new ArrayList<>(exercises);
+        return read(() -> new ArrayList<>(exercises));
+    }
+
+    // EFFECTS: Returns a read-only view of the exercises in the database, in order. Nothing is copied, and
+    // the view reflects later changes to the database. In a concurrent database each call on the view is
+    // safe, but iterating over it while other threads add exercises may miss them; getExercises and
+    // forEachExercise read the database in one go.
+    public List<Exercise> getExercisesView() {
+        return exercisesView;
+    }
+
+    // REQUIRES: offset >= 0 and limit >= 0
+    // EFFECTS: Returns a new list of at most limit exercises, starting at position offset of the database.
+    public List<Exercise> getExercises(int offset, int limit) {
+        return read(() -> {
+            int from = Math.min(offset, exercises.size());
+            int to = (int) Math.min(exercises.size(), (long) from + limit);
+            return new ArrayList<>(exercises.subList(from, to));
+        });
+    }
+
+    // EFFECTS: Passes every exercise in the database to action, in order. In a concurrent database, action
+    // runs while this thread holds the read lock, so it must not modify the database.
+    public void forEachExercise(Consumer<? super Exercise> action) {
+        read(() -> {
+            exercises.forEach(action);
+            return null;
+        });
+    }
+
+    // EFFECTS: Returns the result of body, run while no other thread modifies this database.
+    private <R> R read(Supplier<R> body) {
+        return lock == null ? body.get() : lock.read(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the result of body, run while no other thread uses this database.
+    private <R> R write(Supplier<R> body) {
+        return lock == null ? body.get() : lock.write(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Runs change while no other thread uses this database.
+    void update(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * The read-only view returned by getExercisesView.
+     */
+    private final class ExerciseView extends AbstractList<Exercise> implements RandomAccess {
+        @Override
+        public Exercise get(int index) {
+            return read(() -> {
+                Objects.checkIndex(index, exercises.size());
+                return exercises.get(index);
+            });
+        }
+
+        @Override
+        public int size() {
+            return read(exercises::size);
+        }
     }
 }
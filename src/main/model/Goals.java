@@ -7,9 +7,10 @@ import org.json.JSONObject;
  * A Goals object can encapsulate various types of fitness objectives, such as weight loss or muscle gain,
  * along with a detailed description of the goal, e.g., "Lose 10 pounds" or "Gain 5 pounds of muscle".
  */
-public class Goals {
+public class Goals extends Subject {
     private String goalType;
     private String description;
+    private long modCount;
 
     // REQUIRES: goalType and description to be non-null strings.
     // MODIFIES: this
@@ -33,8 +34,19 @@ public class Goals {
     //EFFECTS: Updates the goalType and description of the current
     // Goals object with values from the provided JSONObject.
     public void loadFromJson(JSONObject jsonObject) {
-        this.goalType = jsonObject.getString("goalType");
-        this.description = jsonObject.getString("description");
+        load(jsonObject.getString("goalType"), jsonObject.getString("description"));
+    }
+
+    // REQUIRES: goalType and description to be non-null strings.
+    // MODIFIES: this
+    // EFFECTS: Replaces the goalType and description without logging an event.
+    // Used by the persistence readers when restoring saved data.
+    public void load(String goalType, String description) {
+        synchronized (this) {
+            this.goalType = goalType;
+            this.description = description;
+            modCount++;
+        }
     }
 
     // EFFECTS: Returns a JSONObject representing the Goals object, including its goalType and description.
@@ -45,6 +57,18 @@ public class Goals {
         return json;
     }
 
+    // EFFECTS: Returns a counter that changes whenever the goal type or description is modified,
+    // so callers can tell whether anything changed since they last looked.
+    public long getModCount() {
+        return modCount;
+    }
+
+    // EFFECTS: Returns the goal type and description, in that order, as they were at one moment, even if
+    // another thread is changing them.
+    synchronized String[] snapshot() {
+        return new String[] {goalType, description};
+    }
+
     // EFFECTS: Returns the goal type.
     public String getGoalType() {
         return goalType;
@@ -54,7 +78,11 @@ public class Goals {
     // MODIFIES: this
     // EFFECTS: Sets the goal's type to the given goalType.
     public void setGoalType(String goalType) {
-        this.goalType = goalType;
+        synchronized (this) {
+            this.goalType = goalType;
+            modCount++;
+        }
+        notifyObservers(o -> o.goalsUpdated(this));
     }
 
     // EFFECTS: Returns the goal description.
@@ -66,7 +94,11 @@ public class Goals {
     // MODIFIES: this
     // EFFECTS: Sets the goal's description to the given description.
     public void setDescription(String description) {
-        this.description = description;
-        EventLog.getInstance().logEvent(new Event("Goal set successfully."));
+        synchronized (this) {
+            this.description = description;
+            modCount++;
+        }
+        EventLog.getInstance().logEvent(new Event(EventType.GOAL_SET));
+        notifyObservers(o -> o.goalsUpdated(this));
     }
 }
@@ -0,0 +1,92 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of long values, used by WorkoutList to hold sorted runs of sequence numbers
+ * without boxing them. Callers keep the values in whatever order they need.
+ */
+class LongList {
+    private long[] values;
+    private int size;
+
+    // EFFECTS: constructs an empty list
+    LongList() {
+        values = new long[4];
+    }
+
+    // EFFECTS: returns the number of values in this list
+    int size() {
+        return size;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the value at index
+    long get(int index) {
+        return values[index];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends value to the end of this list
+    void add(long value) {
+        insert(size, value);
+    }
+
+    // REQUIRES: 0 <= index <= size()
+    // MODIFIES: this
+    // EFFECTS: inserts value at index, moving the values after it up by one
+    void insert(int index, long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // MODIFIES: this
+    // EFFECTS: removes the value at index, moving the values after it down by one
+    void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every value
+    void clear() {
+        size = 0;
+    }
+
+    // REQUIRES: this list is in increasing order
+    // EFFECTS: returns the index of value, or -(insertion point) - 1 if it is not in this list
+    int search(long value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    // REQUIRES: this list is in increasing order
+    // MODIFIES: this
+    // EFFECTS: inserts value at its place in the order, if it is not already there
+    void addSorted(long value) {
+        if (size == 0 || values[size - 1] < value) {
+            add(value);
+            return;
+        }
+        int index = search(value);
+        if (index < 0) {
+            insert(-index - 1, value);
+        }
+    }
+
+    // REQUIRES: this list is in increasing order
+    // MODIFIES: this
+    // EFFECTS: removes value if it is in this list and returns true if it was
+    boolean removeSorted(long value) {
+        int index = search(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package model;
+
+/**
+ * Receives a callback after each user-visible change to the model.
+ * Observers are notified of changes made through addWorkout, removeWorkout, addExercise,
+ * logWeight and the setters of Workout, Exercise and Goals. Bulk loads from saved data
+ * (loadFromJson and the load* methods) are not reported, since they restore state rather than change it.
+ * Observers of a concurrent container are called on whichever thread puts the change in, while it holds
+ * the container's lock, so they must not modify that container.
+ */
+public interface ModelObserver {
+
+    // EFFECTS: called after workout was appended to a WorkoutList
+    void workoutAdded(Workout workout);
+
+    // EFFECTS: called after the workout at the given position was removed from a WorkoutList
+    void workoutRemoved(int index);
+
+    // EFFECTS: called after a field of the workout at the given position of a WorkoutList changed
+    void workoutUpdated(int index, Workout workout);
+
+    // EFFECTS: called after exercise was appended to an ExerciseDatabase
+    void exerciseAdded(Exercise exercise);
+
+    // EFFECTS: called after a field of the exercise at the given position of an ExerciseDatabase changed
+    void exerciseUpdated(int index, Exercise exercise);
+
+    // EFFECTS: called after the goal type or description of goals changed
+    void goalsUpdated(Goals goals);
+
+    // EFFECTS: called after record was logged in a WeightTracker
+    void weightLogged(WeightRecord record);
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable copy of the whole model at one point in time: the exercises, workouts, goals and weight
+ * records, taken with the snapshot() methods of the containers, so it takes constant time once each
+ * container has been snapshotted before. It shares its storage with the model and never changes, so
+ * background jobs, writers and views can read it from any thread without locking while the model goes
+ * on changing. The parts are taken one after another, so a snapshot of containers that other threads are
+ * changing is consistent per container; taken on the thread that changes the model, it is consistent as
+ * a whole.
+ */
+public final class ModelSnapshot {
+    private final List<Exercise> exercises;
+    private final List<Workout> workouts;
+    private final String goalType;
+    private final String goalDescription;
+    private final List<WeightRecord> weightRecords;
+
+    // EFFECTS: Constructs a snapshot of the given parts.
+    private ModelSnapshot(List<Exercise> exercises, List<Workout> workouts, String goalType,
+                          String goalDescription, List<WeightRecord> weightRecords) {
+        this.exercises = exercises;
+        this.workouts = workouts;
+        this.goalType = goalType;
+        this.goalDescription = goalDescription;
+        this.weightRecords = weightRecords;
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, weightTracker
+    // EFFECTS: Returns a snapshot of the given model as it is now.
+    public static ModelSnapshot of(ExerciseDatabase exerciseDatabase, WorkoutList workoutList, Goals goals,
+                                   WeightTracker weightTracker) {
+        String[] goal = goals.snapshot();
+        return new ModelSnapshot(exerciseDatabase.snapshot(), workoutList.snapshot(), goal[0], goal[1],
+                weightTracker.snapshot());
+    }
+
+    // EFFECTS: Returns the exercises, in order; each one read is a new copy that belongs to no database.
+    public List<Exercise> getExercises() {
+        return exercises;
+    }
+
+    // EFFECTS: Returns the workouts, in order; each one read is a new copy that belongs to no list.
+    public List<Workout> getWorkouts() {
+        return workouts;
+    }
+
+    // EFFECTS: Returns the goal type.
+    public String getGoalType() {
+        return goalType;
+    }
+
+    // EFFECTS: Returns the goal description.
+    public String getGoalDescription() {
+        return goalDescription;
+    }
+
+    // EFFECTS: Returns the weight records, in the order of WeightTracker.getWeightRecords().
+    public List<WeightRecord> getWeightRecords() {
+        return weightRecords;
+    }
+}
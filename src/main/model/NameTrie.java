@@ -0,0 +1,207 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A prefix tree of strings, used to complete exercise names as they are typed.
+ * Each node keeps its children in a small array sorted by character and remembers the length of the
+ * shortest key below it, so completions can be found best first: the shortest keys with the prefix come
+ * first, keys of equal length come in character order, and only the branches that lead to the next
+ * best key are explored, however many keys share the prefix.
+ */
+class NameTrie {
+    private final Node root = new Node();
+    private int size;
+
+    // MODIFIES: this
+    // EFFECTS: adds key to the trie; returns true if it was not already present
+    boolean add(String key) {
+        if (contains(key)) {
+            return false;
+        }
+        Node node = root;
+        node.shortest = Math.min(node.shortest, key.length());
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.shortest = Math.min(node.shortest, key.length());
+        }
+        node.terminal = true;
+        size++;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes key from the trie, pruning nodes that no longer lead to any key;
+    // returns true if it was present
+    boolean remove(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        Node node = path[key.length()];
+        if (!node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        size--;
+        for (int i = key.length(); i >= 0; i--) {
+            if (i > 0 && !path[i].terminal && path[i].childCount == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            } else {
+                path[i].updateShortest(i);
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns true if key is in the trie
+    boolean contains(String key) {
+        Node node = find(key);
+        return node != null && node.terminal;
+    }
+
+    // EFFECTS: returns the number of keys in the trie
+    int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every key
+    void clear() {
+        root.childCount = 0;
+        root.keys = Node.NO_KEYS;
+        root.children = Node.NO_CHILDREN;
+        root.terminal = false;
+        root.shortest = Node.NONE;
+        size = 0;
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: returns up to limit keys that start with prefix, shortest first and then in character order
+    List<String> complete(String prefix, int limit) {
+        List<String> completions = new ArrayList<>();
+        Node start = find(prefix);
+        if (start == null || start.shortest == Node.NONE) {
+            return completions;
+        }
+        // a node waits under the length of the shortest key below it; no key below it can come before
+        // a waiting key of that length that is smaller in character order than the node's own prefix
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        candidates.add(new Candidate(start.shortest, prefix, start));
+        while (completions.size() < limit && !candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            Node node = candidate.node;
+            if (node == null) {
+                completions.add(candidate.key);
+                continue;
+            }
+            if (node.terminal) {
+                candidates.add(new Candidate(candidate.key.length(), candidate.key, null));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                candidates.add(new Candidate(child.shortest, candidate.key + node.keys[i], child));
+            }
+        }
+        return completions;
+    }
+
+    // EFFECTS: returns the node reached by following key from the root, or null if there is none
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * A key found by complete (node is null), or a node still to be explored, ordered by length and then
+     * by key in character order.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private final int length;
+        private final String key;
+        private final Node node;
+
+        private Candidate(int length, String key, Node node) {
+            this.length = length;
+            this.key = key;
+            this.node = node;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byLength = Integer.compare(length, other.length);
+            return byLength != 0 ? byLength : key.compareTo(other.key);
+        }
+    }
+
+    private static final class Node {
+        private static final int NONE = Integer.MAX_VALUE;
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private boolean terminal;
+        private int shortest = NONE;
+
+        // MODIFIES: this
+        // EFFECTS: recomputes the length of the shortest key below this node, which is at the given depth
+        private void updateShortest(int depth) {
+            shortest = terminal ? depth : NONE;
+            for (int i = 0; i < childCount; i++) {
+                shortest = Math.min(shortest, children[i].shortest);
+            }
+        }
+
+        // EFFECTS: returns the child for c, or null if there is none
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the child for c, adding an empty one in sorted position if there is none
+        private Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, at, keys, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            keys[at] = c;
+            children[at] = new Node();
+            childCount++;
+            return children[at];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: removes the child for c if there is one
+        private void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(keys, i + 1, keys, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+}
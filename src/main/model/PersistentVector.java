@@ -0,0 +1,229 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable list taken from an Editor in constant time, sharing its elements with the editor and with
+ * every other snapshot. Elements live in the leaves of a tree whose nodes have WIDTH slots, so reaching
+ * one takes a step per level (three levels hold 32768 elements). Each node remembers the editor identity
+ * that may change it in place. Taking a snapshot gives the editor a new identity, so the editor copies a
+ * node the first time it changes it afterwards (path copying) and never touches a node a snapshot can
+ * reach; a run of changes between two snapshots copies each node at most once. Because nothing a snapshot
+ * reaches ever changes, it can be read from any thread without locking.
+ * Appending, replacing and removing the last element change one path of the tree. Inserting or removing
+ * anywhere else shifts every later element, leaf by leaf, so it costs time in proportion to the elements
+ * after that position and, after a snapshot, copies the leaves that hold them; the elements before it stay
+ * shared.
+ * A snapshot passes each element through a reader as it is read, so that stored elements that are
+ * mutable can be handed out as copies.
+ */
+final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+    static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final Node root;
+    private final int shift;
+    private final int size;
+    private final UnaryOperator<T> reader;
+
+    // EFFECTS: constructs a snapshot of the tree under root, whose leaves are shift bits below it
+    private PersistentVector(Node root, int shift, int size, UnaryOperator<T> reader) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+        this.reader = reader;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return reader.apply((T) leaf(root, shift, index)[index & MASK]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // REQUIRES: 0 <= index < the number of elements under root
+    // EFFECTS: returns the slots of the leaf holding the element at index
+    private static Object[] leaf(Node root, int shift, int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.slots[(index >>> level) & MASK];
+        }
+        return node.slots;
+    }
+
+    /**
+     * A node of the tree: the slots of a leaf hold elements, and those of an inner node hold child nodes.
+     */
+    private static final class Node {
+        private final Object edit;
+        private final Object[] slots;
+
+        private Node(Object edit, Object[] slots) {
+            this.edit = edit;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * The mutable side of a PersistentVector: a growable list that changes its own nodes in place and
+     * copies the nodes it shares with snapshots before changing them.
+     */
+    static final class Editor<T> {
+        private Object edit = new Object();
+        private Node root = new Node(edit, new Object[WIDTH]);
+        private int shift;
+        private int size;
+
+        // EFFECTS: returns the number of elements
+        int size() {
+            return size;
+        }
+
+        // REQUIRES: 0 <= index < size()
+        // EFFECTS: returns the element at index
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) leaf(root, shift, index)[index & MASK];
+        }
+
+        // REQUIRES: 0 <= index < size()
+        // MODIFIES: this
+        // EFFECTS: replaces the element at index with element
+        void set(int index, T element) {
+            editableLeaf(index)[index & MASK] = element;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: appends element
+        void add(T element) {
+            if (size == WIDTH << shift) {
+                Node grown = new Node(edit, new Object[WIDTH]);
+                grown.slots[0] = root;
+                root = grown;
+                shift += BITS;
+            }
+            size++;
+            set(size - 1, element);
+        }
+
+        // REQUIRES: 0 <= index <= size()
+        // MODIFIES: this
+        // EFFECTS: inserts element at index, moving the elements after it up by one
+        void add(int index, T element) {
+            if (index == size) {
+                add(element);
+                return;
+            }
+            add(null);
+            int last = size - 1;
+            // from the last leaf back, so the element carried into each leaf is read before its leaf shifts
+            for (int start = last & ~MASK; start >= (index & ~MASK); start -= WIDTH) {
+                Object[] leaf = editableLeaf(start);
+                int low = Math.max(index, start) - start;
+                int high = Math.min(last, start + MASK) - start;
+                System.arraycopy(leaf, low, leaf, low + 1, high - low);
+                leaf[low] = start > index ? get(start - 1) : element;
+            }
+        }
+
+        // REQUIRES: 0 <= index < size()
+        // MODIFIES: this
+        // EFFECTS: removes the element at index, moving the elements after it down by one
+        void remove(int index) {
+            int last = size - 1;
+            // from the leaf of index on, so the element carried out of each next leaf is read before it shifts
+            for (int start = index & ~MASK; start <= last; start += WIDTH) {
+                Object[] leaf = editableLeaf(start);
+                int low = Math.max(index, start) - start;
+                int high = Math.min(last, start + MASK) - start;
+                System.arraycopy(leaf, low + 1, leaf, low, high - low);
+                leaf[high] = start + WIDTH <= last ? get(start + WIDTH) : null;
+            }
+            size--;
+            trim();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: removes every element
+        void clear() {
+            root = new Node(edit, new Object[WIDTH]);
+            shift = 0;
+            size = 0;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: drops the leaf after the last element if it has become empty, with any inner node left
+        // empty, and removes levels of the tree that the remaining elements no longer need
+        private void trim() {
+            if (size == 0) {
+                clear();
+                return;
+            }
+            if (shift > 0 && (size & MASK) == 0) {
+                root = editable(root);
+                prune(root, shift, size);
+            }
+            while (shift > 0 && size <= WIDTH << (shift - BITS)) {
+                root = (Node) root.slots[0];
+                shift -= BITS;
+            }
+        }
+
+        // REQUIRES: node is owned by this editor and level > 0
+        // MODIFIES: this
+        // EFFECTS: removes the leaf that starts at index from the subtree under node, whose children are level
+        // bits below it, and removes the children left empty on the way
+        private void prune(Node node, int level, int index) {
+            int slot = (index >>> level) & MASK;
+            if (level > BITS && node.slots[slot] != null) {
+                Node child = editable((Node) node.slots[slot]);
+                node.slots[slot] = child;
+                prune(child, level - BITS, index);
+            }
+            // a child holds nothing before index once the leaf at index, its first, is gone
+            if (level == BITS || (index & ((1 << level) - 1)) == 0) {
+                node.slots[slot] = null;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns an immutable snapshot of the elements, which passes each element through reader as
+        // it is read; from now on this editor copies any node before changing it
+        PersistentVector<T> snapshot(UnaryOperator<T> reader) {
+            PersistentVector<T> snapshot = new PersistentVector<>(root, shift, size, reader);
+            edit = new Object();
+            return snapshot;
+        }
+
+        // REQUIRES: 0 <= index < size()
+        // MODIFIES: this
+        // EFFECTS: returns the slots of the leaf holding index, copying every node on the way down that this
+        // editor does not own and creating the nodes that are missing
+        private Object[] editableLeaf(int index) {
+            root = editable(root);
+            Node node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int slot = (index >>> level) & MASK;
+                Node child = (Node) node.slots[slot];
+                child = child == null ? new Node(edit, new Object[WIDTH]) : editable(child);
+                node.slots[slot] = child;
+                node = child;
+            }
+            return node.slots;
+        }
+
+        // EFFECTS: returns node if this editor owns it, and otherwise a copy that it owns
+        private Node editable(Node node) {
+            return node.edit == edit ? node : new Node(edit, node.slots.clone());
+        }
+    }
+}
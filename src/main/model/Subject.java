@@ -0,0 +1,33 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Represents a part of the model that can be observed by ModelObservers
+ * (Observer Design Pattern).
+ * Observers may be added and removed from any thread, including while they are being notified.
+ */
+public abstract class Subject {
+    private final CopyOnWriteArrayList<ModelObserver> observers = new CopyOnWriteArrayList<>();
+
+    // REQUIRES: observer to be non-null
+    // MODIFIES: this
+    // EFFECTS: registers observer to be notified of changes, if it is not registered already
+    public void addObserver(ModelObserver observer) {
+        observers.addIfAbsent(observer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops notifying observer of changes
+    public void removeObserver(ModelObserver observer) {
+        observers.remove(observer);
+    }
+
+    // EFFECTS: delivers a notification to every registered observer
+    protected void notifyObservers(Consumer<ModelObserver> notification) {
+        for (ModelObserver observer : observers) {
+            notification.accept(observer);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An inverted index from words to the documents that contain them, ranked with BM25.
+ * Text is split into lower case words of letters and digits, common English words are skipped,
+ * and a light stemmer folds plurals, the usual suffixes and a final e ("lunges", "lunging" and "lunged"
+ * all become "lung"). Each document gets a small integer id; a posting list holds the ids of the documents
+ * containing a word in increasing order, with the number of times the word occurs in each.
+ * Documents can be added, removed and re-added as their text changes. Searches only read the index and
+ * score in scratch space of the searching thread, so any number of them may run at once while no document
+ * is being added or removed.
+ */
+class TextIndex<T> {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_STEM = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "of",
+            "on", "or", "the", "then", "to", "with", "your", "you");
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<T, Integer> ids = new HashMap<>();
+    private final Map<T, String[]> terms = new HashMap<>();
+    private Object[] documents = new Object[16];
+    private int[] lengths = new int[16];
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private int nextId;
+    private long totalLength;
+
+    // scratch space for search, one per searching thread, cleared after each query
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // REQUIRES: document is not in this index
+    // MODIFIES: this
+    // EFFECTS: indexes every word of text under document
+    void add(T document, String text) {
+        int id = allocate(document);
+        Map<String, Integer> counts = count(text);
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new Postings()).add(id, entry.getValue());
+            length += entry.getValue();
+        }
+        lengths[id] = length;
+        totalLength += length;
+        terms.put(document, counts.keySet().toArray(new String[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes document and all of its words from this index; returns false if it was not indexed
+    boolean remove(T document) {
+        Integer id = ids.remove(document);
+        if (id == null) {
+            return false;
+        }
+        for (String term : terms.remove(document)) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths[id];
+        documents[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(16, freeCount * 2));
+        }
+        freeIds[freeCount++] = id;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: indexes document under the words of text in place of the words it had before
+    void update(T document, String text) {
+        remove(document);
+        add(document, text);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every document from this index
+    void clear() {
+        postings.clear();
+        ids.clear();
+        terms.clear();
+        Arrays.fill(documents, null);
+        freeCount = 0;
+        nextId = 0;
+        totalLength = 0;
+    }
+
+    // EFFECTS: returns the number of documents in this index
+    int size() {
+        return ids.size();
+    }
+
+    // REQUIRES: limit >= 0
+    // EFFECTS: returns up to limit documents containing any word of query, best BM25 score first
+    @SuppressWarnings("unchecked")
+    List<T> search(String query, int limit) {
+        Set<String> queryTerms = count(query).keySet();
+        if (queryTerms.isEmpty() || limit == 0 || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int documentCount = ids.size();
+        double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+        Scratch space = scratch.get();
+        space.ensureCapacity(documents.length);
+        double[] scores = space.scores;
+        int[] touched = space.touched;
+        int touchedCount = 0;
+        for (String term : queryTerms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int id = list.ids[i];
+                double frequency = list.frequencies[i];
+                double norm = K1 * (1 - B + B * lengths[id] / averageLength);
+                if (scores[id] == 0) {
+                    touched[touchedCount++] = id;
+                }
+                scores[id] += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        List<T> results = new ArrayList<>(Math.min(limit, touchedCount));
+        for (int id : topIds(space, touchedCount, limit)) {
+            results.add((T) documents[id]);
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            scores[touched[i]] = 0;
+        }
+        return results;
+    }
+
+    // EFFECTS: returns the ids of the best scoring limit of the first touchedCount documents touched in space,
+    // best first, keeping only limit candidates in a heap at any time
+    private static int[] topIds(Scratch space, int touchedCount, int limit) {
+        double[] scores = space.scores;
+        int[] touched = space.touched;
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> {
+            int byScore = Double.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Integer.compare(b, a);
+        });
+        double worst = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (heap.size() < limit) {
+                heap.add(id);
+                worst = scores[heap.peek()];
+            } else if (scores[id] >= worst && heap.comparator().compare(id, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(id);
+                worst = scores[heap.peek()];
+            }
+        }
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
+        return top;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: gives document a previously freed id or the next unused one, growing the per-document arrays if needed
+    private int allocate(T document) {
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == documents.length) {
+            int capacity = documents.length * 2;
+            documents = Arrays.copyOf(documents, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        documents[id] = document;
+        ids.put(document, id);
+        return id;
+    }
+
+    // EFFECTS: returns how many times each indexed word occurs in text, in order of first occurrence
+    private static Map<String, Integer> count(String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String word : tokenize(text)) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // EFFECTS: returns the stemmed words of text that are not stop words, in order
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                String word = lower.substring(start, i);
+                if (!STOP_WORDS.contains(word)) {
+                    words.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // EFFECTS: strips one common English suffix and then a final e from word, leaving at least a few
+    // characters of stem
+    static String stem(String word) {
+        if (word.endsWith("sses")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("ies") && word.length() > MIN_STEM + 1) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        String stem = word;
+        for (String suffix : new String[] {"ing", "ed", "ly", "es", "s"}) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM
+                    && !word.endsWith("ss") && !(suffix.equals("es") && !endsWithSibilant(word))) {
+                stem = undouble(word.substring(0, word.length() - suffix.length()), suffix);
+                break;
+            }
+        }
+        if (stem.endsWith("e") && stem.length() > MIN_STEM + 1) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    // EFFECTS: returns true if word ends in a sibilant followed by "es", as in "lunges" or "crunches"
+    private static boolean endsWithSibilant(String word) {
+        String stem = word.substring(0, word.length() - 2);
+        return stem.endsWith("ch") || stem.endsWith("sh") || stem.endsWith("x") || stem.endsWith("z");
+    }
+
+    // EFFECTS: drops the doubled final consonant left by "ing" or "ed", as in "stepping" or "skipped"
+    private static String undouble(String stem, String suffix) {
+        int n = stem.length();
+        if ((suffix.equals("ing") || suffix.equals("ed")) && n > MIN_STEM
+                && stem.charAt(n - 1) == stem.charAt(n - 2) && "lsz".indexOf(stem.charAt(n - 1)) < 0
+                && "aeiou".indexOf(stem.charAt(n - 1)) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    /**
+     * The scores one thread's query has given the documents so far, indexed by document id, and the ids of
+     * the documents it has touched.
+     */
+    private static final class Scratch {
+        private double[] scores = new double[0];
+        private int[] touched = new int[0];
+
+        // MODIFIES: this
+        // EFFECTS: makes room for documents with ids below capacity
+        private void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new double[capacity];
+                touched = new int[capacity];
+            }
+        }
+    }
+
+    /**
+     * The documents containing one word, by increasing id, with the number of occurrences in each.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        // MODIFIES: this
+        // EFFECTS: records frequency occurrences in the document with the given id
+        private void add(int id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int at = size;
+            if (size > 0 && ids[size - 1] > id) {
+                // a reused id goes back into its sorted place
+                at = -Arrays.binarySearch(ids, 0, size, id) - 1;
+                System.arraycopy(ids, at, ids, at + 1, size - at);
+                System.arraycopy(frequencies, at, frequencies, at + 1, size - at);
+            }
+            ids[at] = id;
+            frequencies[at] = frequency;
+            size++;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: removes the document with the given id
+        private void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                System.arraycopy(frequencies, at + 1, frequencies, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+}
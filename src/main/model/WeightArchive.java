@@ -0,0 +1,15 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Older weight records that a WeightTracker has not loaded yet, grouped by month.
+ * A tracker asks its archive for a month only when a query reaches back that far.
+ */
+public interface WeightArchive {
+
+    // REQUIRES: month is one of the archived months given to the tracker, in "YYYY-MM" form
+    // EFFECTS: returns the weight records of the given month, in the order they were logged;
+    // throws java.io.UncheckedIOException if they can no longer be read
+    List<WeightRecord> loadMonth(String month);
+}
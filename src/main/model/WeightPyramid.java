@@ -0,0 +1,172 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily, weekly (Monday to Sunday) and monthly minimum, maximum and mean weights of a WeightTracker's dated
+ * records, so a chart of any period can be drawn from at most a given number of points without visiting
+ * the records. Each level keeps one bucket per period that has records, in date order, in parallel
+ * primitive arrays; a record updates one bucket per level, normally the last.
+ */
+class WeightPyramid {
+    private final Level days = new Level(Period.DAY);
+    private final Level weeks = new Level(Period.WEEK);
+    private final Level months = new Level(Period.MONTH);
+
+    // MODIFIES: this
+    // EFFECTS: Adds a record of the given weight on the given epoch day to every level.
+    void add(int day, double weight) {
+        days.add(day, weight);
+        weeks.add(day, weight);
+        months.add(day, weight);
+    }
+
+    // REQUIRES: maxPoints >= 1
+    // EFFECTS: Returns summaries of the records dated from epoch day first through epoch day last, in date
+    // order and at most maxPoints of them: one per day if that fits, otherwise one per week or per month,
+    // and otherwise runs of consecutive months. Weekly and monthly summaries at either end of the period
+    // cover their whole week or month.
+    List<WeightSummary> series(int first, int last, int maxPoints) {
+        Level level = days.count(first, last) <= maxPoints ? days
+                : weeks.count(first, last) <= maxPoints ? weeks : months;
+        return level.summarize(first, last, maxPoints);
+    }
+
+    /**
+     * The periods buckets can cover, each numbering its periods with consecutive int keys.
+     */
+    private enum Period {
+        DAY, WEEK, MONTH;
+
+        // EFFECTS: Returns the key of the period containing the given epoch day.
+        int key(int day) {
+            switch (this) {
+                case DAY:
+                    return day;
+                case WEEK:
+                    // 1970-01-01 was a Thursday, so shifting by 3 starts weeks on Mondays
+                    return Math.floorDiv(day + 3, 7);
+                default:
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    return date.getYear() * 12 + date.getMonthValue() - 1;
+            }
+        }
+
+        // EFFECTS: Returns the epoch day the period with the given key starts on.
+        int firstDay(int key) {
+            switch (this) {
+                case DAY:
+                    return key;
+                case WEEK:
+                    return key * 7 - 3;
+                default:
+                    return (int) LocalDate.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1, 1).toEpochDay();
+            }
+        }
+
+        // EFFECTS: Returns the epoch day the period with the given key ends on.
+        int lastDay(int key) {
+            return firstDay(key + 1) - 1;
+        }
+    }
+
+    /**
+     * The buckets of one period length, by increasing key.
+     */
+    private static final class Level {
+        private final Period period;
+        private int[] keys = new int[16];
+        private double[] mins = new double[16];
+        private double[] maxes = new double[16];
+        private double[] sums = new double[16];
+        private int[] counts = new int[16];
+        private int size;
+
+        private Level(Period period) {
+            this.period = period;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Adds a record of the given weight on the given epoch day to the bucket of its period.
+        private void add(int day, double weight) {
+            int key = period.key(day);
+            int index = size > 0 && keys[size - 1] == key ? size - 1 : lowerBound(key);
+            if (index == size || keys[index] != key) {
+                insert(index, key);
+            }
+            mins[index] = counts[index] == 0 ? weight : Math.min(mins[index], weight);
+            maxes[index] = counts[index] == 0 ? weight : Math.max(maxes[index], weight);
+            sums[index] += weight;
+            counts[index]++;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Inserts an empty bucket with the given key at index.
+        private void insert(int index, int key) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                mins = Arrays.copyOf(mins, capacity);
+                maxes = Arrays.copyOf(maxes, capacity);
+                sums = Arrays.copyOf(sums, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            int moved = size - index;
+            System.arraycopy(keys, index, keys, index + 1, moved);
+            System.arraycopy(mins, index, mins, index + 1, moved);
+            System.arraycopy(maxes, index, maxes, index + 1, moved);
+            System.arraycopy(sums, index, sums, index + 1, moved);
+            System.arraycopy(counts, index, counts, index + 1, moved);
+            keys[index] = key;
+            sums[index] = 0;
+            counts[index] = 0;
+            size++;
+        }
+
+        // EFFECTS: Returns the index of the first bucket with a key at or after the given one.
+        private int lowerBound(int key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // EFFECTS: Returns the number of buckets for the periods containing epoch days first through last.
+        private int count(int first, int last) {
+            return Math.max(0, lowerBound(period.key(last) + 1) - lowerBound(period.key(first)));
+        }
+
+        // EFFECTS: Returns summaries of the buckets for the periods containing epoch days first through last,
+        // merging runs of consecutive buckets so that there are at most maxPoints.
+        private List<WeightSummary> summarize(int first, int last, int maxPoints) {
+            int from = lowerBound(period.key(first));
+            int to = Math.max(from, lowerBound(period.key(last) + 1));
+            int run = Math.max(1, (to - from + maxPoints - 1) / maxPoints);
+            List<WeightSummary> series = new ArrayList<>(Math.min(maxPoints, to - from));
+            for (int i = from; i < to; i += run) {
+                WeightSummary summary = summary(i);
+                for (int j = i + 1; j < Math.min(i + run, to); j++) {
+                    summary = summary.merge(summary(j));
+                }
+                series.add(summary);
+            }
+            return series;
+        }
+
+        // EFFECTS: Returns the summary of the bucket at index.
+        private WeightSummary summary(int index) {
+            return new WeightSummary(period.firstDay(keys[index]), period.lastDay(keys[index]), mins[index],
+                    maxes[index], sums[index], counts[index]);
+        }
+    }
+}
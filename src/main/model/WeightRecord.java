@@ -3,6 +3,9 @@ package model;
 
 import org.json.JSONObject;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents a record of a user's weight at a specific date.
  * This class is used to log and track changes in a user's weight over time,
@@ -46,4 +49,16 @@ public class WeightRecord {
     public double getWeight() {
         return weight;
     }
+
+    // EFFECTS: Returns the epoch day of date if it is written exactly in "YYYY-MM-DD" form and the day fits
+    // in an int, or null otherwise.
+    public static Integer epochDay(String date) {
+        try {
+            LocalDate parsed = LocalDate.parse(date);
+            long day = parsed.toEpochDay();
+            return parsed.toString().equals(date) && day == (int) day ? (int) day : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
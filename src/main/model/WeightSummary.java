@@ -0,0 +1,80 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * A point of a downsampled weight series: the lowest, highest and mean weight of the records dated from
+ * a first day through a last day, and how many records there were.
+ */
+public class WeightSummary {
+    private final int firstDay;
+    private final int lastDay;
+    private final double min;
+    private final double max;
+    private final double sum;
+    private final int count;
+
+    // REQUIRES: firstDay <= lastDay and count >= 1
+    // EFFECTS: Constructs a summary of count records dated from epoch day firstDay through epoch day lastDay,
+    // with the given lowest and highest weights and sum of weights.
+    WeightSummary(int firstDay, int lastDay, double min, double max, double sum, int count) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.count = count;
+    }
+
+    // EFFECTS: Returns the first day covered, in "YYYY-MM-DD" form.
+    public String getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay).toString();
+    }
+
+    // EFFECTS: Returns the last day covered, in "YYYY-MM-DD" form.
+    public String getLastDate() {
+        return LocalDate.ofEpochDay(lastDay).toString();
+    }
+
+    // EFFECTS: Returns the first day covered, as an epoch day.
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    // EFFECTS: Returns the last day covered, as an epoch day.
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    // EFFECTS: Returns the lowest weight recorded in the period.
+    public double getMin() {
+        return min;
+    }
+
+    // EFFECTS: Returns the highest weight recorded in the period.
+    public double getMax() {
+        return max;
+    }
+
+    // EFFECTS: Returns the mean weight recorded in the period.
+    public double getMean() {
+        return sum / count;
+    }
+
+    // EFFECTS: Returns the number of records in the period.
+    public int getCount() {
+        return count;
+    }
+
+    // EFFECTS: Returns a summary covering this period and the later period of other.
+    WeightSummary merge(WeightSummary other) {
+        return new WeightSummary(firstDay, other.lastDay, Math.min(min, other.min), Math.max(max, other.max),
+                sum + other.sum, count + other.count);
+    }
+
+    @Override
+    public String toString() {
+        return getFirstDate() + ".." + getLastDate() + ": " + min + "-" + max + ", mean " + getMean()
+                + " (" + count + ")";
+    }
+}
@@ -3,8 +3,15 @@ package model;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 /**
@@ -12,22 +19,67 @@ import java.util.List;
  * This class allows for logging new weight records and provides functionality
  * to retrieve the history of weight records. It ensures the user's weight tracking
  * is organized and accessible for review and analysis.
+ * Records of older months can be left in a WeightArchive and are only loaded when needed.
+ * Records dated "YYYY-MM-DD" are kept in date order in two parallel arrays, of epoch days and of weights,
+ * with records of the same day in the order they were logged; the date is parsed once, when the record
+ * is logged or loaded, and range, latest and nearest-date lookups are binary searches. Records with any
+ * other date are kept as they were given and listed after the dated ones.
+ * Daily, weekly and monthly summaries of the dated records answer chart queries at a point budget.
+ * A concurrent tracker can be used by many threads at once: reads share its lock and changes take it
+ * alone (see ContainerLock). Weights logged to it are queued without locking and put in, with the
+ * observers notified, by whichever thread takes the lock next. So that reads never change it, a
+ * concurrent tracker loads archived months and builds its summaries as soon as records are loaded.
+ * From its first snapshot on, a tracker also keeps its records, in the order of getWeightRecords(), in a
+ * PersistentVector, so later snapshots take constant time. Keeping it costs little for records logged in
+ * date order, but a back-dated record shifts every later one in it (see PersistentVector).
  */
-public class WeightTracker {
-    private List<WeightRecord> weightRecords;
+public class WeightTracker extends Subject {
+    private static final int MONTH_LENGTH = 7;
+    private static final int INITIAL_CAPACITY = 16;
+    private int[] days = new int[INITIAL_CAPACITY];
+    private double[] weights = new double[INITIAL_CAPACITY];
+    private int size;
+    private List<WeightRecord> undated = new ArrayList<>();
+    private long modCount;
+    private WeightArchive archive;
+    private List<String> archivedMonths = new ArrayList<>();
+    private List<WeightTrend> trends = new ArrayList<>();
+    // built on the first series query after a load and then kept up to date; null until then
+    private WeightPyramid pyramid;
+    private final List<WeightRecord> view = new RecordView();
+    // null unless this tracker is concurrent
+    private final ContainerLock<WeightRecord> lock;
+    // the records in the order of getWeightRecords(), kept from the first snapshot on; null until then
+    private PersistentVector.Editor<WeightRecord> image;
 
     // EFFECTS: Constructs an empty WeightTracker.
     public WeightTracker() {
-        this.weightRecords = new ArrayList<>();
+        this(false);
+    }
+
+    // EFFECTS: Constructs an empty WeightTracker that is safe to use from many threads at once if concurrent
+    // is true.
+    public WeightTracker(boolean concurrent) {
+        this.lock = concurrent ? new ContainerLock<>(this::insert) : null;
+        if (concurrent) {
+            pyramid = new WeightPyramid();
+        }
+    }
+
+    // EFFECTS: Returns true if this tracker is safe to use from many threads at once.
+    public boolean isConcurrent() {
+        return lock != null;
     }
 
     //EFFECTS: Returns a JSONArray where each element is a JSONObject representation of a WeightRecord in the tracker.
     public JSONArray toJson() {
-        JSONArray jsonArray = new JSONArray();
-        for (WeightRecord record : weightRecords) {
-            jsonArray.put(record.toJson());
-        }
-        return jsonArray;
+        return read(() -> {
+            JSONArray jsonArray = new JSONArray();
+            for (WeightRecord record : getWeightRecordsView()) {
+                jsonArray.put(record.toJson());
+            }
+            return jsonArray;
+        });
     }
 
     // REQUIRES: jsonArray to be a non-null JSONArray where each element is a JSONObject that represents a WeightRecord.
@@ -35,24 +87,513 @@ public class WeightTracker {
     //EFFECTS: Clears the current weight records list and populates it with WeightRecord
     // objects created from the JSONObjects in the given JSONArray.
     public void loadFromJson(JSONArray jsonArray) {
-        weightRecords.clear(); // Clear the current list to avoid duplicating records
+        List<WeightRecord> loaded = new ArrayList<>(jsonArray.length());
         for (int i = 0; i < jsonArray.length(); i++) {
             JSONObject jsonObject = jsonArray.getJSONObject(i);
-            WeightRecord record = new WeightRecord(jsonObject);
-            weightRecords.add(record);
+            loaded.add(new WeightRecord(jsonObject));
         }
+        loadWeightRecords(loaded);
+    }
+
+    // REQUIRES: loaded to be a non-null list of non-null WeightRecord objects.
+    // MODIFIES: this
+    // EFFECTS: Replaces the current weight records with the given ones, in order, without logging an event
+    // for each of them. Used by the persistence readers when restoring saved data.
+    public void loadWeightRecords(List<WeightRecord> loaded) {
+        loadWeightRecords(loaded, new ArrayList<>(), null);
+    }
+
+    // REQUIRES: loaded to be a non-null list of non-null WeightRecord objects, archivedMonths to be in
+    // ascending "YYYY-MM" order and older than the records in loaded, and archive to be non-null
+    // unless archivedMonths is empty.
+    // MODIFIES: this
+    // EFFECTS: Replaces the current weight records with the given recent ones, leaving the records of
+    // the archived months in the archive until a query reaches back to them.
+    public void loadWeightRecords(List<WeightRecord> loaded, List<String> archivedMonths, WeightArchive archive) {
+        update(() -> {
+            size = 0; // Clear the current records to avoid duplicating them
+            undated.clear();
+            merge(loaded, false);
+            this.archivedMonths = new ArrayList<>(archivedMonths);
+            this.archive = archivedMonths.isEmpty() ? null : archive;
+            modCount++;
+            if (lock != null) {
+                hydrateFrom("");
+            }
+        });
     }
 
     // REQUIRES: date to be in the format "YYYY-MM-DD" and weight to be a positive number.
     // MODIFIES: this
-    // EFFECTS: Adds a new weight record to the tracker with the given date and weight.
+    // EFFECTS: Adds a new weight record to the tracker with the given date and weight. A concurrent tracker
+    // queues the record without waiting for the lock; it is in the tracker for every read that begins after
+    // this returns.
     public void logWeight(String date, double weight) {
-        weightRecords.add(new WeightRecord(date, weight));
-        EventLog.getInstance().logEvent(new Event("Weight logged."));
+        WeightRecord record = new WeightRecord(date, weight);
+        if (lock == null) {
+            insert(record);
+        } else {
+            lock.append(record);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the given record to the tracker, logs it and notifies observers.
+    private void insert(WeightRecord record) {
+        String date = record.getDate();
+        double weight = record.getWeight();
+        Integer day = WeightRecord.epochDay(date);
+        if (day == null) {
+            undated.add(record);
+            if (image != null) {
+                image.add(record);
+            }
+        } else {
+            int index = upperBound(day);
+            insert(index, day, weight);
+            if (image != null) {
+                image.add(index, record(index));
+            }
+            if (pyramid != null) {
+                pyramid.add(day, weight);
+            }
+            for (WeightTrend trend : trends) {
+                trend.inserted(index);
+            }
+        }
+        modCount++;
+        EventLog.getInstance().logEvent(new Event(EventType.WEIGHT_LOGGED, record.getWeight()));
+        notifyObservers(o -> o.weightLogged(record));
+    }
+
+    // EFFECTS: Returns a counter that changes whenever this tracker is modified,
+    // so callers can tell whether anything changed since they last looked.
+    public long getModCount() {
+        return read(() -> modCount);
     }
 
-    // EFFECTS: Returns a new list containing all the weight records in this tracker.
+    // MODIFIES: this
+    // EFFECTS: Returns a new list containing all the weight records in this tracker, in date order followed
+    // by any records whose date is not "YYYY-MM-DD", loading any archived months first.
     public List<WeightRecord> getWeightRecords() {
-        return new ArrayList<>(weightRecords);
+        return read(() -> {
+            hydrateFrom("");
+            List<WeightRecord> records = new ArrayList<>(size + undated.size());
+            for (int i = 0; i < size; i++) {
+                records.add(record(i));
+            }
+            records.addAll(undated);
+            return records;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns a read-only view of the weight records in this tracker, in the order of
+    // getWeightRecords(). Nothing is copied: each record is created as it is read, any archived months are
+    // loaded when the view is first read, and the view reflects later changes to this tracker. In a concurrent
+    // tracker each call on the view is safe, but iterating over it while other threads log weights may fail;
+    // getWeightRecords and forEachWeightRecord read the tracker in one go.
+    public List<WeightRecord> getWeightRecordsView() {
+        return view;
+    }
+
+    // REQUIRES: offset >= 0 and limit >= 0
+    // MODIFIES: this
+    // EFFECTS: Returns a new list of at most limit weight records, starting at position offset in the order
+    // of getWeightRecords(), loading any archived months first.
+    public List<WeightRecord> getWeightRecords(int offset, int limit) {
+        return read(() -> {
+            hydrateFrom("");
+            int from = Math.min(offset, size + undated.size());
+            int to = (int) Math.min(size + undated.size(), (long) from + limit);
+            List<WeightRecord> records = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                records.add(view.get(i));
+            }
+            return records;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Passes every weight record in this tracker to action, in the order of getWeightRecords(),
+    // loading any archived months first. In a concurrent tracker, action runs while this thread holds the
+    // read lock, so it must not modify this tracker.
+    public void forEachWeightRecord(Consumer<? super WeightRecord> action) {
+        read(() -> {
+            view.forEach(action);
+            return null;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns an immutable snapshot of the weight records in this tracker, in the order of
+    // getWeightRecords(), as they are now. It never changes, shares its storage with this tracker and with
+    // other snapshots, and can be read from any thread without locking. The first snapshot loads any archived
+    // months and creates every record once; later ones take constant time unless months were archived again.
+    public List<WeightRecord> snapshot() {
+        return write(() -> {
+            hydrateFrom("");
+            if (image == null) {
+                image = new PersistentVector.Editor<>();
+                fillImage();
+            }
+            return image.snapshot(record -> record);
+        });
+    }
+
+    // REQUIRES: date to be in the format "YYYY-MM-DD"
+    // MODIFIES: this
+    // EFFECTS: Returns a new list of the weight records dated on or after the given date, loading only the
+    // archived months that reach back that far.
+    public List<WeightRecord> getWeightRecordsSince(String date) {
+        return read(() -> {
+            hydrateFrom(monthOf(date));
+            Integer day = WeightRecord.epochDay(date);
+            List<WeightRecord> since = new ArrayList<>();
+            for (int i = day == null ? 0 : lowerBound(day); i < size; i++) {
+                WeightRecord record = record(i);
+                if (day != null || record.getDate().compareTo(date) >= 0) {
+                    since.add(record);
+                }
+            }
+            for (WeightRecord record : undated) {
+                if (record.getDate().compareTo(date) >= 0) {
+                    since.add(record);
+                }
+            }
+            return since;
+        });
+    }
+
+    // REQUIRES: from and to to be in the format "YYYY-MM-DD"
+    // MODIFIES: this
+    // EFFECTS: Returns a new list of the weight records dated from the given date through the given date, in
+    // date order, loading only the archived months that reach back that far.
+    public List<WeightRecord> getWeightRecordsBetween(String from, String to) {
+        return read(() -> {
+            List<WeightRecord> between = new ArrayList<>();
+            hydrateFrom(monthOf(from));
+            for (int i = lowerBound(WeightRecord.epochDay(from)); i < upperBound(WeightRecord.epochDay(to)); i++) {
+                between.add(record(i));
+            }
+            return between;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the record with the latest date (the last logged of that day), or null if no record
+    // has a "YYYY-MM-DD" date; archived months are only loaded if no loaded record has one.
+    public WeightRecord getLatestWeightRecord() {
+        return read(() -> {
+            hydrateUntilDatedOnOrBefore(Integer.MAX_VALUE);
+            return size == 0 ? null : record(size - 1);
+        });
+    }
+
+    // REQUIRES: date to be in the format "YYYY-MM-DD"
+    // MODIFIES: this
+    // EFFECTS: Returns the record dated closest to the given date, the earlier one if two are equally close
+    // and the last logged if several share a day, or null if no record has a "YYYY-MM-DD" date.
+    public WeightRecord getNearestWeightRecord(String date) {
+        return read(() -> {
+            int day = WeightRecord.epochDay(date);
+            hydrateFrom(monthOf(date));
+            hydrateUntilDatedOnOrBefore(day);
+            int after = lowerBound(day);
+            if (size == 0) {
+                return null;
+            }
+            int nearest;
+            if (after == size || (after > 0 && (long) day - days[after - 1] <= (long) days[after] - day)) {
+                nearest = days[after - 1];
+            } else {
+                nearest = days[after];
+            }
+            return record(upperBound(nearest) - 1);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Passes the epoch day and weight of every record with a "YYYY-MM-DD" date to visitor, in date
+    // order, without creating any objects; loads any archived months first.
+    public void forEachWeight(WeightVisitor visitor) {
+        read(() -> {
+            hydrateFrom("");
+            for (int i = 0; i < size; i++) {
+                visitor.visit(days[i], weights[i]);
+            }
+            return null;
+        });
+    }
+
+    // REQUIRES: from and to to be in the format "YYYY-MM-DD"
+    // MODIFIES: this
+    // EFFECTS: Passes the epoch day and weight of every record dated from the given date through the given
+    // date to visitor, in date order, without creating any objects; loads only the archived months that
+    // reach back that far.
+    public void forEachWeight(String from, String to, WeightVisitor visitor) {
+        read(() -> {
+            hydrateFrom(monthOf(from));
+            int end = upperBound(WeightRecord.epochDay(to));
+            for (int i = lowerBound(WeightRecord.epochDay(from)); i < end; i++) {
+                visitor.visit(days[i], weights[i]);
+            }
+            return null;
+        });
+    }
+
+    // REQUIRES: from and to to be in the format "YYYY-MM-DD" and maxPoints >= 1
+    // MODIFIES: this
+    // EFFECTS: Returns at most maxPoints summaries (lowest, highest and mean weight) of the records dated from
+    // the given date through the given date, in date order, for drawing them as a chart: one per day if
+    // that fits, otherwise one per week or per month, otherwise runs of months. Weekly and monthly summaries
+    // at either end cover their whole week or month. The summaries are kept up to date as weights are
+    // logged, and rebuilt on the first query after records are loaded, so a query takes time in proportion
+    // to the points returned (or the months in the period) rather than to the records.
+    public List<WeightSummary> getWeightSeries(String from, String to, int maxPoints) {
+        return read(() -> {
+            int first = WeightRecord.epochDay(from);
+            hydrateFrom(monthOf(LocalDate.ofEpochDay(first - 6L).toString()));
+            if (pyramid == null) {
+                pyramid = buildPyramid();
+            }
+            return pyramid.series(first, WeightRecord.epochDay(to), maxPoints);
+        });
+    }
+
+    // REQUIRES: windowDays >= 1 and 0 < smoothing <= 1
+    // MODIFIES: this
+    // EFFECTS: Returns a trend of this tracker over windows of windowDays days and with the given smoothing
+    // factor for its moving average, which this tracker keeps up to date from now on.
+    public WeightTrend addTrend(int windowDays, double smoothing) {
+        return write(() -> {
+            WeightTrend trend = new WeightTrend(this, windowDays, smoothing);
+            trends.add(trend);
+            return trend;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Stops keeping the given trend up to date.
+    public void removeTrend(WeightTrend trend) {
+        write(() -> {
+            trends.remove(trend);
+            return null;
+        });
+    }
+
+    // EFFECTS: Returns the result of body, run while no other thread modifies this tracker.
+    <R> R read(Supplier<R> body) {
+        return lock == null ? body.get() : lock.read(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the result of body, run while no other thread uses this tracker.
+    private <R> R write(Supplier<R> body) {
+        return lock == null ? body.get() : lock.write(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Runs change while no other thread uses this tracker.
+    private void update(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    // EFFECTS: Returns the number of records with a "YYYY-MM-DD" date currently held in memory.
+    int datedCount() {
+        return size;
+    }
+
+    // REQUIRES: 0 <= index < datedCount()
+    // EFFECTS: Returns the epoch day of the dated record at index, in date order.
+    int dayAt(int index) {
+        return days[index];
+    }
+
+    // REQUIRES: 0 <= index < datedCount()
+    // EFFECTS: Returns the weight of the dated record at index, in date order.
+    double weightAt(int index) {
+        return weights[index];
+    }
+
+    // EFFECTS: Returns the months whose records are still in the archive, oldest first.
+    public List<String> getArchivedMonths() {
+        return read(() -> {
+            return new ArrayList<>(archivedMonths);
+        });
+    }
+
+    // EFFECTS: Returns the number of weight records currently held in memory.
+    public int getLoadedRecordCount() {
+        return read(() -> {
+            return size + undated.size();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Moves the records of every archived month from the given "YYYY-MM" month onwards out of the
+    // archive and in front of the records already loaded. Loading does not count as a modification.
+    private void hydrateFrom(String month) {
+        int first = archivedMonths.size();
+        while (first > 0 && archivedMonths.get(first - 1).compareTo(month) >= 0) {
+            first--;
+        }
+        if (first == archivedMonths.size()) {
+            return;
+        }
+        List<String> months = archivedMonths.subList(first, archivedMonths.size());
+        List<WeightRecord> older = new ArrayList<>();
+        for (String archived : months) {
+            older.addAll(archive.loadMonth(archived));
+        }
+        merge(older, true);
+        months.clear();
+        if (archivedMonths.isEmpty()) {
+            archive = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Loads archived months, latest first, until a loaded record is dated on or before the given
+    // epoch day or the archive is empty.
+    private void hydrateUntilDatedOnOrBefore(int day) {
+        while (!archivedMonths.isEmpty() && (size == 0 || days[0] > day)) {
+            hydrateFrom(archivedMonths.get(archivedMonths.size() - 1));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the given records to this tracker: the dated ones into date order, going before the
+    // records of the same day already held if older is true and after them otherwise, and the others
+    // before or after the records without a "YYYY-MM-DD" date already held. The records keep their
+    // relative order. Takes time linear in the records held plus n log n in the records given.
+    private void merge(List<WeightRecord> records, boolean older) {
+        long[] keys = new long[records.size()];
+        int count = 0;
+        List<WeightRecord> others = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            Integer day = WeightRecord.epochDay(records.get(i).getDate());
+            if (day == null) {
+                others.add(records.get(i));
+            } else {
+                // the day in the high half and the position in the low half sorts by day, then position
+                keys[count++] = ((long) day << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] mergedDays = new int[Math.max(INITIAL_CAPACITY, size + count)];
+        double[] mergedWeights = new double[mergedDays.length];
+        int held = 0;
+        int given = 0;
+        for (int i = 0; i < size + count; i++) {
+            int day = given < count ? (int) (keys[given] >> 32) : 0;
+            if (held == size || (given < count && (older ? day <= days[held] : day < days[held]))) {
+                mergedDays[i] = day;
+                mergedWeights[i] = records.get((int) keys[given++]).getWeight();
+            } else {
+                mergedDays[i] = days[held];
+                mergedWeights[i] = weights[held++];
+            }
+        }
+        days = mergedDays;
+        weights = mergedWeights;
+        size += count;
+        undated.addAll(older ? 0 : undated.size(), others);
+        if (image != null) {
+            fillImage();
+        }
+        pyramid = lock == null ? null : buildPyramid();
+        for (WeightTrend trend : trends) {
+            trend.rebuild();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Puts the records held in memory into the image, in place of what it held.
+    private void fillImage() {
+        image.clear();
+        for (int i = 0; i < size; i++) {
+            image.add(record(i));
+        }
+        undated.forEach(image::add);
+    }
+
+    // EFFECTS: Returns summaries of the dated records held in memory.
+    private WeightPyramid buildPyramid() {
+        WeightPyramid built = new WeightPyramid();
+        for (int i = 0; i < size; i++) {
+            built.add(days[i], weights[i]);
+        }
+        return built;
+    }
+
+    // REQUIRES: 0 <= index <= size and the arrays stay in date order with day at index
+    // MODIFIES: this
+    // EFFECTS: Inserts a dated record at index, moving the records after it up by one.
+    private void insert(int index, int day, double weight) {
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(days, index, days, index + 1, size - index);
+        System.arraycopy(weights, index, weights, index + 1, size - index);
+        days[index] = day;
+        weights[index] = weight;
+        size++;
+    }
+
+    // EFFECTS: Returns the index of the first dated record on or after the given epoch day.
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // EFFECTS: Returns the index of the first dated record after the given epoch day.
+    private int upperBound(int day) {
+        return day == Integer.MAX_VALUE ? size : lowerBound(day + 1);
+    }
+
+    // EFFECTS: Returns the dated record at index as a WeightRecord.
+    private WeightRecord record(int index) {
+        return new WeightRecord(LocalDate.ofEpochDay(days[index]).toString(), weights[index]);
+    }
+
+    // EFFECTS: Returns the "YYYY-MM" month of date, or date itself if it is shorter.
+    private static String monthOf(String date) {
+        return date.length() > MONTH_LENGTH ? date.substring(0, MONTH_LENGTH) : date;
+    }
+
+    /**
+     * The read-only view returned by getWeightRecordsView.
+     */
+    private final class RecordView extends AbstractList<WeightRecord> implements RandomAccess {
+        @Override
+        public WeightRecord get(int index) {
+            return read(() -> {
+                hydrateFrom("");
+                Objects.checkIndex(index, size + undated.size());
+                return index < size ? record(index) : undated.get(index - size);
+            });
+        }
+
+        @Override
+        public int size() {
+            return read(() -> {
+                hydrateFrom("");
+                return size + undated.size();
+            });
+        }
     }
 }
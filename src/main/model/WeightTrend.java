@@ -0,0 +1,174 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A smoothed view of a WeightTracker's history, kept up to date as records are logged instead of being
+ * recomputed from the whole history on every query. It tracks the records dated within windowDays days of
+ * the latest record (that day included) with running sums, giving their mean and the least-squares slope of
+ * weight against day, and an exponential moving average of every dated record in date order.
+ * Logging a record in date order costs constant amortized time. A record logged before later ones costs
+ * constant time for the window and a recompute of the moving averages after it, which stops as soon as one
+ * comes out unchanged: the effect of a record shrinks by a factor of (1 - smoothing) per later record, so
+ * it is gone within a few hundred records for the usual smoothing factors. Loading
+ * records or archived months rebuilds the trend once. Every query takes constant time.
+ * Records whose date is not "YYYY-MM-DD" are not part of the trend, and neither are archived months the
+ * tracker has not loaded yet. The queries of a trend of a concurrent tracker take the tracker's lock.
+ */
+public class WeightTrend {
+    private final WeightTracker tracker;
+    private final int windowDays;
+    private final double smoothing;
+
+    // the moving average at each dated record of the tracker, in the same order
+    private double[] averages = new double[16];
+    // the first record of the window, and sums over the records of the window; days are counted from origin
+    // to keep the sums of squares small
+    private int windowStart;
+    private int origin;
+    private int count;
+    private double sumWeight;
+    private double sumDay;
+    private double sumDaySquared;
+    private double sumDayWeight;
+
+    // REQUIRES: windowDays >= 1 and 0 < smoothing <= 1
+    // EFFECTS: Constructs a trend of the given tracker over windows of windowDays days, with each record
+    // moving the average smoothing of the way towards its weight.
+    WeightTrend(WeightTracker tracker, int windowDays, double smoothing) {
+        this.tracker = tracker;
+        this.windowDays = windowDays;
+        this.smoothing = smoothing;
+        rebuild();
+    }
+
+    // EFFECTS: Returns the number of days in the window.
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    // EFFECTS: Returns how far each record moves the moving average towards its weight.
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    // EFFECTS: Returns the number of records in the window.
+    public int getWindowCount() {
+        return tracker.read(() -> count);
+    }
+
+    // EFFECTS: Returns the mean weight of the records in the window, or NaN if there are none.
+    public double getWindowAverage() {
+        return tracker.read(() -> count == 0 ? Double.NaN : sumWeight / count);
+    }
+
+    // EFFECTS: Returns the least-squares slope of weight against day over the records in the window, in weight
+    // per day, or NaN unless the window holds records of at least two different days.
+    public double getSlope() {
+        return tracker.read(() -> {
+            double spread = count * sumDaySquared - sumDay * sumDay;
+            if (count < 2 || spread <= 0) {
+                return Double.NaN;
+            }
+            return (count * sumDayWeight - sumDay * sumWeight) / spread;
+        });
+    }
+
+    // EFFECTS: Returns the exponential moving average at the latest record, or NaN if there are no records.
+    public double getMovingAverage() {
+        return tracker.read(() -> {
+            int size = tracker.datedCount();
+            return size == 0 ? Double.NaN : averages[size - 1];
+        });
+    }
+
+    // REQUIRES: the tracker just inserted a dated record at index, after any records of the same day
+    // MODIFIES: this
+    // EFFECTS: Takes the new record into the window and the moving average.
+    void inserted(int index) {
+        int size = tracker.datedCount();
+        if (size == 1) {
+            rebuild();
+            return;
+        }
+        if (averages.length < size) {
+            averages = Arrays.copyOf(averages, Math.max(size, averages.length * 2));
+        }
+        System.arraycopy(averages, index, averages, index + 1, size - 1 - index);
+        average(index);
+        for (int i = index + 1; i < size; i++) {
+            // once an average comes out as before, so do all the later ones
+            double before = averages[i];
+            average(i);
+            if (averages[i] == before) {
+                break;
+            }
+        }
+        int day = tracker.dayAt(index);
+        if (index == size - 1) {
+            add(index);
+            int first = day - windowDays + 1;
+            while (tracker.dayAt(windowStart) < first) {
+                subtract(windowStart++);
+            }
+        } else if (day >= tracker.dayAt(size - 1) - windowDays + 1) {
+            add(index);
+        } else {
+            windowStart++;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Recomputes the trend from every dated record of the tracker.
+    void rebuild() {
+        int size = tracker.datedCount();
+        if (averages.length < size) {
+            averages = new double[size];
+        }
+        count = 0;
+        sumWeight = 0;
+        sumDay = 0;
+        sumDaySquared = 0;
+        sumDayWeight = 0;
+        origin = size == 0 ? 0 : tracker.dayAt(size - 1);
+        windowStart = size;
+        for (int i = 0; i < size; i++) {
+            average(i);
+        }
+        int first = size == 0 ? 0 : tracker.dayAt(size - 1) - windowDays + 1;
+        while (windowStart > 0 && tracker.dayAt(windowStart - 1) >= first) {
+            add(--windowStart);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the moving average at the record at index from the one before it.
+    private void average(int index) {
+        double weight = tracker.weightAt(index);
+        averages[index] = index == 0 ? weight : averages[index - 1] + smoothing * (weight - averages[index - 1]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the record at index to the window sums.
+    private void add(int index) {
+        double day = tracker.dayAt(index) - origin;
+        double weight = tracker.weightAt(index);
+        count++;
+        sumWeight += weight;
+        sumDay += day;
+        sumDaySquared += day * day;
+        sumDayWeight += day * weight;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the record at index from the window sums.
+    private void subtract(int index) {
+        double day = tracker.dayAt(index) - origin;
+        double weight = tracker.weightAt(index);
+        count--;
+        sumWeight -= weight;
+        sumDay -= day;
+        sumDaySquared -= day * day;
+        sumDayWeight -= day * weight;
+    }
+}
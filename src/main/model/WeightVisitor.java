@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * Receives weight records one at a time from WeightTracker.forEachWeight, as an epoch day and a weight,
+ * so a long history can be walked without creating a WeightRecord per entry.
+ */
+public interface WeightVisitor {
+
+    // EFFECTS: handles the weight logged on the given epoch day (days since 1970-01-01)
+    void visit(int epochDay, double weight);
+}
@@ -2,87 +2,270 @@ package model;
 
 import org.json.JSONObject;
 
+import java.time.Instant;
+import java.util.function.Supplier;
+
 /**
- * Represents a single workout session, including the type of exercise, duration, and intensity.
+ * Represents a single workout session, including the type of exercise, duration, intensity, and
+ * the instant the session started.
  * A Workout object encapsulates all relevant details of a workout, making it possible
  * to log diverse types of workouts with varying durations and intensities.
+ * Workouts saved before start times were recorded have no start (null).
+ * A workout in a columnar WorkoutList is a view of its row there: it reads and writes the columns for as
+ * long as the row exists, and otherwise its own fields, which hold the values it was created or last set
+ * with (or, for the workout passed to removeWorkout, the values of its row when it was removed).
+ * The getters of a view and all the setters of a workout in a concurrent WorkoutList take the list's lock.
  */
 public class Workout {
     private String exerciseType;
     private int duration;
     private String intensity;
+    private Instant start;
+    private WorkoutList owner;
+    private WorkoutColumns.Row row;
 
     // REQUIRES: exerciseType to be a non-null string, duration to be a positive integer,
     //              and intensity to be one of "Low", "Medium", or "High".
     // MODIFIES: this
-    // EFFECTS: Constructs a Workout object with the given exercise type, duration, and intensity.
+    // EFFECTS: Constructs a Workout object with the given exercise type, duration, and intensity,
+    // starting now.
     public Workout(String exerciseType, int duration, String intensity) {
+        this(exerciseType, duration, intensity, Instant.now());
+    }
+
+    // REQUIRES: exerciseType to be a non-null string, duration to be a positive integer,
+    //              and intensity to be one of "Low", "Medium", or "High".
+    // MODIFIES: this
+    // EFFECTS: Constructs a Workout object with the given exercise type, duration, intensity, and start,
+    // which may be null if it is not known.
+    public Workout(String exerciseType, int duration, String intensity, Instant start) {
         this.exerciseType = exerciseType;
         this.duration = duration;
         this.intensity = intensity;
+        this.start = start;
     }
 
+    // REQUIRES: 0 <= row < columns.size()
+    // EFFECTS: Constructs a view of the given row of columns, owned by the list that keeps them.
+    Workout(WorkoutColumns columns, int row) {
+        this(columns.exerciseTypeAt(row), columns.durationAt(row), columns.intensityAt(row), columns.startAt(row));
+        this.owner = columns.getOwner();
+        this.row = new WorkoutColumns.Row(columns, row);
+    }
 
     //REQUIRES: jsonObject to contain a non-null string for exerciseType, a positive integer for duration,
     // and a string that is one of "Low", "Medium", or "High" for intensity.
     //MODIFIES: this (the current Workout object)
     //EFFECTS: Constructs a Workout object by extracting and setting the exercise
-    // type, duration, and intensity from the given JSONObject.
+    // type, duration, intensity, and start (an ISO-8601 instant such as "2024-03-01T07:30:00Z") from the
+    // given JSONObject. A missing start, as in files saved before start times were recorded, leaves the
+    // start null; a malformed one throws DateTimeParseException.
     public Workout(JSONObject jsonObject) {
         this.exerciseType = jsonObject.getString("exerciseType");
         this.duration = jsonObject.getInt("duration");
         this.intensity = jsonObject.getString("intensity");
+        this.start = jsonObject.has("start") ? Instant.parse(jsonObject.getString("start")) : null;
     }
 
     // EFFECTS: Returns a JSONObject that represents the current state of the Workout
-    // object, including its exercise type, duration, and intensity.
+    // object, including its exercise type, duration, intensity, and start if it is known.
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("exerciseType", exerciseType);
-        json.put("duration", duration);
-        json.put("intensity", intensity);
+        json.put("exerciseType", getExerciseType());
+        json.put("duration", getDuration());
+        json.put("intensity", getIntensity());
+        if (getStart() != null) {
+            json.put("start", getStart().toString());
+        }
         return json;
     }
 
     // EFFECTS: Returns the exercise type of this workout.
     public String getExerciseType() {
-        return exerciseType;
+        if (row == null) {
+            return exerciseType;
+        }
+        return read(() -> {
+            int stored = storedRow();
+            return stored < 0 ? exerciseType : row.columns().exerciseTypeAt(stored);
+        });
     }
 
     // REQUIRES: exerciseType to be a non-null string.
     // MODIFIES: this
     // EFFECTS: Sets the exercise type of this workout to the given exerciseType.
     public void setExerciseType(String exerciseType) {
-        this.exerciseType = exerciseType;
+        update(() -> {
+            String oldType = getExerciseType();
+            int stored = storedRow();
+            if (stored >= 0) {
+                row.columns().setExerciseTypeAt(stored, exerciseType);
+            }
+            this.exerciseType = exerciseType;
+            if (owner != null) {
+                owner.workoutReindexed(this, oldType, getIntensity());
+            }
+            changed();
+        });
     }
 
     // EFFECTS: Returns the duration of this workout in minutes.
     public int getDuration() {
-        return duration;
+        if (row == null) {
+            return duration;
+        }
+        return read(() -> {
+            int stored = storedRow();
+            return stored < 0 ? duration : row.columns().durationAt(stored);
+        });
     }
 
     // REQUIRES: duration to be a positive integer.
     // MODIFIES: this
     // EFFECTS: Sets the duration of this workout to the given duration.
     public void setDuration(int duration) {
-        this.duration = duration;
+        update(() -> {
+            int oldDuration = getDuration();
+            int stored = storedRow();
+            if (stored >= 0) {
+                row.columns().setDurationAt(stored, duration);
+            }
+            this.duration = duration;
+            if (owner != null) {
+                owner.workoutDurationChanged(this, oldDuration);
+            }
+            changed();
+        });
     }
 
     // EFFECTS: Returns the intensity level of this workout.
     public String getIntensity() {
-        return intensity;
+        if (row == null) {
+            return intensity;
+        }
+        return read(() -> {
+            int stored = storedRow();
+            return stored < 0 ? intensity : row.columns().intensityAt(stored);
+        });
     }
 
     // REQUIRES: intensity to be one of "Low", "Medium", or "High".
     // MODIFIES: this
-    // EFFECTS: Sets the intensity level of this workout to the given intensity.
+    // EFFECTS: Sets the intensity level of this workout to the given intensity. Throws IllegalStateException,
+    // changing nothing, if this workout is in a columnar WorkoutList that already holds the most distinct
+    // intensities it can.
     public void setIntensity(String intensity) {
-        this.intensity = intensity;
+        update(() -> {
+            String oldIntensity = getIntensity();
+            int stored = storedRow();
+            if (stored >= 0) {
+                row.columns().setIntensityAt(stored, intensity);
+            }
+            this.intensity = intensity;
+            if (owner != null) {
+                owner.workoutReindexed(this, getExerciseType(), oldIntensity);
+            }
+            changed();
+        });
+    }
+
+    // EFFECTS: Returns the instant this workout started, or null if it is not known.
+    public Instant getStart() {
+        if (row == null) {
+            return start;
+        }
+        return read(() -> {
+            int stored = storedRow();
+            return stored < 0 ? start : row.columns().startAt(stored);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the instant this workout started; null means it is not known.
+    public void setStart(Instant start) {
+        update(() -> {
+            Instant oldStart = getStart();
+            int stored = storedRow();
+            if (stored >= 0) {
+                row.columns().setStartAt(stored, start);
+            }
+            this.start = start;
+            if (owner != null) {
+                owner.workoutRescheduled(this, oldStart);
+            }
+            changed();
+        });
+    }
+
+    // EFFECTS: Returns the handle on the row this workout is a view of, or null if it is not a view.
+    WorkoutColumns.Row getRow() {
+        return row;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes this workout a view of the given row.
+    void store(WorkoutColumns.Row row) {
+        this.row = row;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Copies the current values of the row this workout is a view of into its own fields and stops
+    // it being a view.
+    void unstore() {
+        exerciseType = getExerciseType();
+        duration = getDuration();
+        intensity = getIntensity();
+        start = getStart();
+        row = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the current index of the row this workout is a view of, or -1 if it is not a view or
+    // the row no longer exists.
+    private int storedRow() {
+        return row == null ? -1 : row.row();
+    }
+
+    // EFFECTS: Returns the WorkoutList this workout was last added to, or null if it is in none.
+    WorkoutList getOwner() {
+        return owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records the WorkoutList that holds this workout (null if none).
+    void setOwner(WorkoutList owner) {
+        this.owner = owner;
+    }
+
+    // EFFECTS: Returns the result of body, run while the WorkoutList holding this workout, if any, is not being
+    // modified by another thread.
+    private <T> T read(Supplier<T> body) {
+        WorkoutList list = owner;
+        return list == null ? body.get() : list.read(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Runs change while no other thread uses the WorkoutList holding this workout, if any.
+    private void update(Runnable change) {
+        WorkoutList list = owner;
+        if (list == null) {
+            change.run();
+        } else {
+            list.update(change);
+        }
+    }
+
+    // EFFECTS: Tells the owning WorkoutList, if any, that a field of this workout changed.
+    private void changed() {
+        if (owner != null) {
+            owner.workoutChanged(this);
+        }
     }
 
     // EFFECTS: Returns a string representation of the Workout object.
     @Override
     public String toString() {
-        return "Exercise Type: " + exerciseType + ", Duration: " + duration + " minutes, Intensity: " + intensity;
+        return "Exercise Type: " + getExerciseType() + ", Duration: " + getDuration() + " minutes, Intensity: "
+                + getIntensity();
     }
 }
@@ -0,0 +1,253 @@
+package model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WorkoutList storage that keeps each field of the workouts in its own column of primitives instead of
+ * keeping Workout objects: the exercise type as an int code into a dictionary of the distinct types, the
+ * duration as an int, the intensity as a byte code into a dictionary of at most MAX_INTENSITIES distinct
+ * intensities, and the start as a long of epoch seconds (NO_START if unknown) and an int of nanoseconds.
+ * Each dictionary holds every distinct string once, so all rows with the same type share one String.
+ * Columns grow in chunks of CHUNK_SIZE rows, so a growing list never copies what it already holds.
+ * The workouts handed out are views: Workout objects created on demand that read and write their row
+ * through a Row handle, so no object per workout is kept.
+ */
+class WorkoutColumns implements WorkoutRows {
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int MAX_INTENSITIES = 256;
+    static final long NO_START = Long.MIN_VALUE;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private int[][] types = new int[0][];
+    private int[][] durations = new int[0][];
+    private byte[][] intensities = new byte[0][];
+    private long[][] startSeconds = new long[0][];
+    private int[][] startNanos = new int[0][];
+    private long[][] sequences = new long[0][];
+    private int size;
+    // changes whenever rows move, so views know to look their row up again
+    private long layout;
+
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private final List<String> intensityNames = new ArrayList<>();
+    private final Map<String, Integer> intensityCodes = new HashMap<>();
+    private final WorkoutList owner;
+
+    // EFFECTS: constructs empty columns for the given list
+    WorkoutColumns(WorkoutList owner) {
+        this.owner = owner;
+    }
+
+    // EFFECTS: returns the list these columns belong to
+    WorkoutList getOwner() {
+        return owner;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns a new view of the workout in the given row
+    @Override
+    public Workout get(int row) {
+        return new Workout(this, row);
+    }
+
+    @Override
+    public long sequenceAt(int row) {
+        return sequences[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    @Override
+    public String exerciseTypeAt(int row) {
+        return typeNames.get(types[row >>> CHUNK_BITS][row & CHUNK_MASK]);
+    }
+
+    @Override
+    public int durationAt(int row) {
+        return durations[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    @Override
+    public String intensityAt(int row) {
+        return intensityNames.get(intensities[row >>> CHUNK_BITS][row & CHUNK_MASK] & 0xFF);
+    }
+
+    @Override
+    public Instant startAt(int row) {
+        long seconds = startSeconds[row >>> CHUNK_BITS][row & CHUNK_MASK];
+        if (seconds == NO_START) {
+            return null;
+        }
+        return Instant.ofEpochSecond(seconds, startNanos[row >>> CHUNK_BITS][row & CHUNK_MASK]);
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this
+    // EFFECTS: sets the exercise type of the workout in the given row
+    void setExerciseTypeAt(int row, String exerciseType) {
+        types[row >>> CHUNK_BITS][row & CHUNK_MASK] = code(typeNames, typeCodes, exerciseType);
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this
+    // EFFECTS: sets the duration of the workout in the given row
+    void setDurationAt(int row, int duration) {
+        durations[row >>> CHUNK_BITS][row & CHUNK_MASK] = duration;
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this
+    // EFFECTS: sets the intensity of the workout in the given row; throws IllegalStateException if it would
+    // be the MAX_INTENSITIES + 1st distinct intensity
+    void setIntensityAt(int row, String intensity) {
+        intensities[row >>> CHUNK_BITS][row & CHUNK_MASK] = intensityCode(intensity);
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this
+    // EFFECTS: sets the start of the workout in the given row; null means it is not known
+    void setStartAt(int row, Instant start) {
+        startSeconds[row >>> CHUNK_BITS][row & CHUNK_MASK] = start == null ? NO_START : start.getEpochSecond();
+        startNanos[row >>> CHUNK_BITS][row & CHUNK_MASK] = start == null ? 0 : start.getNano();
+    }
+
+    // MODIFIES: this, workout
+    // EFFECTS: appends a row holding the fields of workout and makes workout a view of that row; throws
+    // IllegalStateException if its intensity would be the MAX_INTENSITIES + 1st distinct intensity
+    @Override
+    public void add(Workout workout, long sequence) {
+        byte intensity = intensityCode(workout.getIntensity());
+        if (size == types.length * CHUNK_SIZE) {
+            grow();
+        }
+        int row = size++;
+        types[row >>> CHUNK_BITS][row & CHUNK_MASK] = code(typeNames, typeCodes, workout.getExerciseType());
+        durations[row >>> CHUNK_BITS][row & CHUNK_MASK] = workout.getDuration();
+        intensities[row >>> CHUNK_BITS][row & CHUNK_MASK] = intensity;
+        setStartAt(row, workout.getStart());
+        sequences[row >>> CHUNK_BITS][row & CHUNK_MASK] = sequence;
+        workout.store(new Row(this, row));
+    }
+
+    @Override
+    public void remove(int row) {
+        for (Object[] column : new Object[][] {types, durations, intensities, startSeconds, startNanos, sequences}) {
+            shiftDown(column, row);
+        }
+        size--;
+        layout++;
+    }
+
+    // EFFECTS: removes every row; the dictionaries and allocated chunks are kept for reuse
+    @Override
+    public void clear() {
+        size = 0;
+        layout++;
+    }
+
+    // MODIFIES: column
+    // EFFECTS: moves the values after row in the chunks of column down by one, overwriting row
+    private void shiftDown(Object[] column, int row) {
+        int lastChunk = (size - 1) >>> CHUNK_BITS;
+        int start = row & CHUNK_MASK;
+        for (int chunk = row >>> CHUNK_BITS; chunk <= lastChunk; chunk++) {
+            int end = chunk == lastChunk ? (size - 1) & CHUNK_MASK : CHUNK_MASK;
+            System.arraycopy(column[chunk], start + 1, column[chunk], start, end - start);
+            if (chunk < lastChunk) {
+                System.arraycopy(column[chunk + 1], 0, column[chunk], CHUNK_MASK, 1);
+            }
+            start = 0;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a chunk to every column
+    private void grow() {
+        int chunk = types.length;
+        types = Arrays.copyOf(types, chunk + 1);
+        types[chunk] = new int[CHUNK_SIZE];
+        durations = Arrays.copyOf(durations, chunk + 1);
+        durations[chunk] = new int[CHUNK_SIZE];
+        intensities = Arrays.copyOf(intensities, chunk + 1);
+        intensities[chunk] = new byte[CHUNK_SIZE];
+        startSeconds = Arrays.copyOf(startSeconds, chunk + 1);
+        startSeconds[chunk] = new long[CHUNK_SIZE];
+        startNanos = Arrays.copyOf(startNanos, chunk + 1);
+        startNanos[chunk] = new int[CHUNK_SIZE];
+        sequences = Arrays.copyOf(sequences, chunk + 1);
+        sequences[chunk] = new long[CHUNK_SIZE];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the byte code of intensity, adding it to the dictionary if it is new; throws
+    // IllegalStateException if the dictionary is full
+    private byte intensityCode(String intensity) {
+        if (!intensityCodes.containsKey(intensity) && intensityNames.size() == MAX_INTENSITIES) {
+            throw new IllegalStateException("A columnar workout list holds at most " + MAX_INTENSITIES
+                    + " distinct intensities");
+        }
+        return (byte) code(intensityNames, intensityCodes, intensity);
+    }
+
+    // MODIFIES: names, codes
+    // EFFECTS: returns the code of value in the dictionary of names and codes, adding it if it is new
+    private static int code(List<String> names, Map<String, Integer> codes, String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = names.size();
+            names.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * The row a view reads and writes. Rows move up when rows before them are removed, so the handle
+     * remembers the row by its sequence number and looks it up again after the columns change.
+     */
+    static final class Row {
+        private final WorkoutColumns columns;
+        private final long sequence;
+        private int row;
+        // volatile so that a thread seeing the layout another thread looked the row up for also sees the row
+        private volatile long layout;
+
+        // REQUIRES: 0 <= row < columns.size()
+        // EFFECTS: constructs a handle on the given row of columns
+        Row(WorkoutColumns columns, int row) {
+            this.columns = columns;
+            this.sequence = columns.sequenceAt(row);
+            this.row = row;
+            this.layout = columns.layout;
+        }
+
+        // EFFECTS: returns the columns this handle points into
+        WorkoutColumns columns() {
+            return columns;
+        }
+
+        // EFFECTS: returns the sequence number of the row
+        long sequence() {
+            return sequence;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns the current row of the workout, or -1 if it has been removed from the columns
+        int row() {
+            if (layout != columns.layout) {
+                row = row < 0 ? -1 : columns.rowOf(sequence);
+                layout = columns.layout;
+            }
+            return row;
+        }
+    }
+}
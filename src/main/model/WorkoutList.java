@@ -3,29 +3,103 @@ package model;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Manages a collection of Workout objects.
  * This class acts as a container for all logged workouts in the fitness application,
  * supporting operations such as adding new workouts, removing workouts, and retrieving the list of all workouts.
+ * Workouts are also indexed by exercise type and by intensity, ignoring case and surrounding spaces,
+ * so filtered lookups only touch the matching workouts. Each index bucket is ordered by a sequence number
+ * given to a workout when it enters the list, which keeps the results in list order.
+ * A time index orders the workouts with a known start by start (and by sequence number among equal starts),
+ * answering range and latest-N queries in logarithmic time plus the size of the answer.
+ * The indexes hold sequence numbers only, and a workout is found from its sequence number by binary search.
+ * A columnar list keeps its workouts in primitive columns (see WorkoutColumns) rather than as objects,
+ * for histories too long to keep an object per workout; the workouts it hands out are views of their rows.
+ * Statistics over the workouts (see WorkoutStats) are kept up to date along with the indexes.
+ * A concurrent list can be used by many threads at once: reads share its lock and changes take it alone
+ * (see ContainerLock). Workouts added to a concurrent list that keeps objects are queued without locking
+ * and put in, with the observers notified, by whichever thread takes the lock next. A workout should be
+ * changed by one thread at a time.
+ * From its first snapshot on, a list also keeps a frozen copy of each workout in a PersistentVector, so
+ * later snapshots take constant time and share everything that has not changed since. Keeping it costs
+ * little for appends and updates, but removing a workout shifts every later one in it (see
+ * PersistentVector).
  */
-public class WorkoutList {
-    private List<Workout> workouts;
+public class WorkoutList extends Subject {
+    private final boolean columnar;
+    private final WorkoutRows rows;
+    // null unless this list is concurrent
+    private final ContainerLock<Workout> lock;
+    // the sequence numbers of each workout object in the list, for lists that keep the objects
+    private Map<Workout, LongList> occurrences = new IdentityHashMap<>();
+    private Map<String, LongList> byType = new HashMap<>();
+    private Map<String, LongList> byIntensity = new HashMap<>();
+    private WorkoutTimeline timeline = new WorkoutTimeline();
+    private final WorkoutStats stats = new WorkoutStats(ZoneId.systemDefault());
+    private final List<Workout> view = new WorkoutView();
+    // frozen copies of the workouts in list order, kept from the first snapshot on; null until then
+    private PersistentVector.Editor<Workout> image;
+    private long nextSequence;
+    private long modCount;
 
     // EFFECTS: Constructs an empty WorkoutList.
     public WorkoutList() {
-        this.workouts = new ArrayList<>();
+        this(false);
+    }
+
+    // EFFECTS: Constructs an empty WorkoutList; if columnar is true, it stores its workouts in columns of
+    // primitives and hands out views of them. A columnar list holds at most WorkoutColumns.MAX_INTENSITIES
+    // distinct intensities.
+    public WorkoutList(boolean columnar) {
+        this(columnar, false);
+    }
+
+    // EFFECTS: Constructs an empty WorkoutList that stores its workouts in columns if columnar is true, as
+    // WorkoutList(columnar) does, and that is safe to use from many threads at once if concurrent is true.
+    public WorkoutList(boolean columnar, boolean concurrent) {
+        this.columnar = columnar;
+        this.rows = columnar ? new WorkoutColumns(this) : new WorkoutObjects();
+        this.lock = concurrent ? new ContainerLock<>(this::insert) : null;
+    }
+
+    // EFFECTS: Returns true if this list stores its workouts in columns.
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    // EFFECTS: Returns true if this list is safe to use from many threads at once.
+    public boolean isConcurrent() {
+        return lock != null;
     }
 
     // EFFECTS: Returns a JSONArray where each element is a JSONObject representing a Workout in the list.
     public JSONArray toJson() {
-        JSONArray jsonArray = new JSONArray();
-        for (Workout workout : workouts) {
-            jsonArray.put(workout.toJson());
-        }
-        return jsonArray;
+        return read(() -> {
+            JSONArray jsonArray = new JSONArray();
+            for (int row = 0; row < rows.size(); row++) {
+                jsonArray.put(rows.get(row).toJson());
+            }
+            return jsonArray;
+        });
     }
 
     // REQUIRES: jsonArray to be a non-null JSONArray where each element is a JSONObject that represents a Workout.
@@ -33,31 +107,460 @@ public class WorkoutList {
     // EFFECTS: Clears the current workouts list and populates it with Workout
     // objects created from the JSONObjects in the given JSONArray.
     public void loadFromJson(JSONArray jsonArray) {
-        workouts.clear(); // Clear the current list to avoid duplicating workouts
+        List<Workout> loaded = new ArrayList<>(jsonArray.length());
         for (int i = 0; i < jsonArray.length(); i++) {
             JSONObject jsonObject = jsonArray.getJSONObject(i);
-            Workout workout = new Workout(jsonObject);
-            workouts.add(workout);
+            loaded.add(new Workout(jsonObject));
         }
+        loadWorkouts(loaded);
+    }
+
+    // REQUIRES: loaded to be a non-null list of non-null Workout objects.
+    // MODIFIES: this
+    // EFFECTS: Replaces the current workouts with the given ones, in order, without logging an event
+    // for each of them. Used by the persistence readers when restoring saved data. A columnar list
+    // copies the workouts into its columns and makes each of them a view of its row. Throws
+    // IllegalStateException if a columnar list would hold too many distinct intensities.
+    public void loadWorkouts(List<Workout> loaded) {
+        update(() -> {
+            for (int row = 0; !columnar && row < rows.size(); row++) {
+                release(rows.get(row));
+            }
+            rows.clear();
+            occurrences.clear();
+            byType.clear();
+            byIntensity.clear();
+            timeline.clear();
+            stats.clear();
+            if (image != null) {
+                image.clear();
+            }
+            for (Workout workout : loaded) {
+                long sequence = append(workout);
+                Instant start = workout.getStart();
+                if (start != null) {
+                    timeline.append(start, sequence);
+                }
+            }
+            timeline.sort();
+            modCount++;
+        });
     }
 
     // REQUIRES: workout to be a non-null Workout object.
     // MODIFIES: this
-    // EFFECTS: Adds the given workout to the list of workouts.
+    // EFFECTS: Adds the given workout to the list of workouts. A columnar list copies it into a new row and
+    // makes it a view of that row; it throws IllegalStateException, adding nothing, if the workout's intensity
+    // would be one more distinct intensity than it can hold. A concurrent list that keeps objects queues the
+    // workout without waiting for the lock; it is in the list for every read that begins after this returns.
     public void addWorkout(Workout workout) {
-        workouts.add(workout);
-        EventLog.getInstance().logEvent(new Event("Workout added."));
+        if (lock == null) {
+            insert(workout);
+        } else if (columnar) {
+            // taken under the lock so that a full intensity dictionary fails this call and not another thread
+            lock.write(() -> insert(workout));
+        } else {
+            // owned from now on, so its setters wait for the lock, and so for it to be put in
+            workout.setOwner(this);
+            lock.append(workout);
+        }
+    }
+
+    // REQUIRES: workout to be a non-null Workout object.
+    // MODIFIES: this
+    // EFFECTS: Adds the given workout to the list of workouts, logs it and notifies observers.
+    private void insert(Workout workout) {
+        long sequence = append(workout);
+        if (workout.getStart() != null) {
+            timeline.add(workout.getStart(), sequence);
+        }
+        modCount++;
+        EventLog.getInstance().logEvent(new Event(EventType.WORKOUT_ADDED, workout.getDuration()));
+        notifyObservers(o -> o.workoutAdded(workout));
     }
 
     // REQUIRES: workout to be a non-null Workout object that is already in the list.
     // MODIFIES: this
-    // EFFECTS: Removes the given workout from the list of workouts, if it exists.
+    // EFFECTS: Removes the given workout from the list of workouts, if it exists. A workout removed from a
+    // columnar list keeps the values of its row.
     public boolean removeWorkout(Workout workout) {
-        return workouts.remove(workout);
+        return write(() -> remove(workout));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the given workout from the list of workouts, if it exists, and returns true if it did.
+    private boolean remove(Workout workout) {
+        LongList sequences = sequencesOf(workout);
+        if (sequences == null) {
+            return false;
+        }
+        long sequence = sequences.get(0);
+        int index = rows.rowOf(sequence);
+        bucketRemove(byType, key(rows.exerciseTypeAt(index)), sequence);
+        bucketRemove(byIntensity, key(rows.intensityAt(index)), sequence);
+        stats.remove(rows.exerciseTypeAt(index), rows.durationAt(index), rows.intensityAt(index),
+                rows.startAt(index));
+        if (rows.startAt(index) != null) {
+            timeline.remove(rows.startAt(index), sequence);
+        }
+        if (columnar) {
+            workout.unstore();
+            release(workout);
+        } else {
+            sequences.removeAt(0);
+            if (sequences.size() == 0) {
+                occurrences.remove(workout);
+                release(workout);
+            }
+        }
+        rows.remove(index);
+        if (image != null) {
+            image.remove(index);
+        }
+        modCount++;
+        notifyObservers(o -> o.workoutRemoved(index));
+        return true;
+    }
+
+    // EFFECTS: Returns the workouts in this list with the given exercise type and intensity, in list order,
+    // ignoring case and surrounding spaces; a null exerciseType or intensity matches any. Takes time in
+    // proportion to the number of workouts with the more selective of the two, not to the whole list.
+    public List<Workout> findWorkouts(String exerciseType, String intensity) {
+        return read(() -> find(exerciseType, intensity));
+    }
+
+    // EFFECTS: Returns the workouts in this list with the given exercise type and intensity, in list order.
+    private List<Workout> find(String exerciseType, String intensity) {
+        if (exerciseType == null && intensity == null) {
+            return getWorkouts();
+        }
+        LongList types = exerciseType == null ? null : byType.get(key(exerciseType));
+        LongList intensities = intensity == null ? null : byIntensity.get(key(intensity));
+        if ((exerciseType != null && types == null) || (intensity != null && intensities == null)) {
+            return new ArrayList<>();
+        }
+        LongList smaller = types == null || (intensities != null && intensities.size() < types.size())
+                ? intensities : types;
+        LongList other = smaller == types ? intensities : types;
+        List<Workout> found = new ArrayList<>();
+        for (int i = 0; i < smaller.size(); i++) {
+            long sequence = smaller.get(i);
+            if (other == null || other.search(sequence) >= 0) {
+                found.add(rows.get(rows.rowOf(sequence)));
+            }
+        }
+        return found;
+    }
+
+    // EFFECTS: Returns a read-only view of the workouts in this list that started at or after from and before
+    // to, in order of start. Finding the range takes logarithmic time and nothing is copied, so a long
+    // history can be walked one window at a time; the view reflects later changes to this list, and
+    // iterating over it while the list is modified throws ConcurrentModificationException. Workouts
+    // without a start are never included. A concurrent list returns a copy of the range instead, since other
+    // threads may modify it at any time.
+    public Collection<Workout> getWorkoutsBetween(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        if (lock != null) {
+            return read(() -> {
+                List<Workout> between = new ArrayList<>();
+                new TimelineIterator(timeline.indexOf(from), timeline.indexOf(to)).forEachRemaining(between::add);
+                return between;
+            });
+        }
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Workout> iterator() {
+                return new TimelineIterator(timeline.indexOf(from), timeline.indexOf(to));
+            }
+
+            @Override
+            public int size() {
+                return timeline.indexOf(to) - timeline.indexOf(from);
+            }
+        };
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: Returns the n workouts in this list with the latest starts (fewer if there are not that many),
+    // latest first; workouts without a start are never included.
+    public List<Workout> getLatestWorkouts(int n) {
+        return read(() -> {
+            List<Workout> latest = new ArrayList<>(Math.min(n, timeline.size()));
+            for (int i = timeline.size() - 1; i >= 0 && latest.size() < n; i--) {
+                latest.add(rows.get(rows.rowOf(timeline.sequenceAt(i))));
+            }
+            return latest;
+        });
+    }
+
+    // REQUIRES: workout is in this list and its start was just changed from oldStart
+    // MODIFIES: this
+    // EFFECTS: Moves the workout to its new place in the time index.
+    void workoutRescheduled(Workout workout, Instant oldStart) {
+        LongList sequences = sequencesOf(workout);
+        for (int i = 0; sequences != null && i < sequences.size(); i++) {
+            if (oldStart != null) {
+                timeline.remove(oldStart, sequences.get(i));
+            }
+            if (workout.getStart() != null) {
+                timeline.add(workout.getStart(), sequences.get(i));
+            }
+            stats.remove(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(), oldStart);
+            stats.add(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(), workout.getStart());
+        }
+    }
+
+    // REQUIRES: workout is in this list and its exercise type and intensity were just changed from the given ones
+    // MODIFIES: this
+    // EFFECTS: Moves the workout to the index buckets of its new exercise type and intensity.
+    void workoutReindexed(Workout workout, String oldType, String oldIntensity) {
+        LongList sequences = sequencesOf(workout);
+        for (int i = 0; sequences != null && i < sequences.size(); i++) {
+            long sequence = sequences.get(i);
+            bucketRemove(byType, key(oldType), sequence);
+            bucketRemove(byIntensity, key(oldIntensity), sequence);
+            bucketAdd(byType, key(workout.getExerciseType()), sequence);
+            bucketAdd(byIntensity, key(workout.getIntensity()), sequence);
+            stats.remove(oldType, workout.getDuration(), oldIntensity, workout.getStart());
+            stats.add(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(), workout.getStart());
+        }
+    }
+
+    // REQUIRES: workout is in this list and its duration was just changed from oldDuration
+    // MODIFIES: this
+    // EFFECTS: Moves the workout's minutes in the statistics.
+    void workoutDurationChanged(Workout workout, int oldDuration) {
+        LongList sequences = sequencesOf(workout);
+        for (int i = 0; sequences != null && i < sequences.size(); i++) {
+            stats.remove(workout.getExerciseType(), oldDuration, workout.getIntensity(), workout.getStart());
+            stats.add(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(), workout.getStart());
+        }
+    }
+
+    // EFFECTS: Notifies observers that a field of the given workout in this list changed.
+    void workoutChanged(Workout workout) {
+        LongList sequences = sequencesOf(workout);
+        for (int i = 0; image != null && sequences != null && i < sequences.size(); i++) {
+            image.set(rows.rowOf(sequences.get(i)), freeze(workout));
+        }
+        if (sequences != null) {
+            int index = rows.rowOf(sequences.get(0));
+            modCount++;
+            notifyObservers(o -> o.workoutUpdated(index, workout));
+        }
+    }
+
+    // MODIFIES: this, workout
+    // EFFECTS: Adds a row for the workout with the next sequence number and puts it in the index buckets;
+    // returns the sequence number. The time index is left to the caller.
+    private long append(Workout workout) {
+        long sequence = nextSequence;
+        rows.add(workout, sequence);
+        nextSequence++;
+        workout.setOwner(this);
+        if (!columnar) {
+            occurrences.computeIfAbsent(workout, w -> new LongList()).add(sequence);
+        }
+        int row = rows.size() - 1;
+        bucketAdd(byType, key(rows.exerciseTypeAt(row)), sequence);
+        bucketAdd(byIntensity, key(rows.intensityAt(row)), sequence);
+        stats.add(rows.exerciseTypeAt(row), rows.durationAt(row), rows.intensityAt(row), rows.startAt(row));
+        if (image != null) {
+            image.add(freeze(workout));
+        }
+        return sequence;
+    }
+
+    // EFFECTS: Returns a copy of workout that belongs to no list.
+    private static Workout freeze(Workout workout) {
+        return new Workout(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(),
+                workout.getStart());
+    }
+
+    // EFFECTS: Returns the sequence numbers of the rows in this list that hold the given workout, in
+    // increasing order, or null if it is in none. A columnar list has at most one: the row the workout is
+    // currently a view of.
+    private LongList sequencesOf(Workout workout) {
+        if (!columnar) {
+            return occurrences.get(workout);
+        }
+        WorkoutColumns.Row row = workout.getRow();
+        if (row == null || row.columns() != rows || row.row() < 0) {
+            return null;
+        }
+        LongList sequences = new LongList();
+        sequences.add(row.sequence());
+        return sequences;
+    }
+
+    // MODIFIES: index
+    // EFFECTS: Adds the workout with the given sequence number to the bucket for key.
+    private static void bucketAdd(Map<String, LongList> index, String key, long sequence) {
+        index.computeIfAbsent(key, k -> new LongList()).addSorted(sequence);
+    }
+
+    // MODIFIES: index
+    // EFFECTS: Removes the workout with the given sequence number from the bucket for key, dropping the
+    // bucket once it is empty.
+    private static void bucketRemove(Map<String, LongList> index, String key, long sequence) {
+        LongList bucket = index.get(key);
+        if (bucket != null) {
+            bucket.removeSorted(sequence);
+            if (bucket.size() == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // EFFECTS: Returns the form of an exercise type or intensity used as an index key.
+    static String key(String value) {
+        return ExerciseDatabase.normalize(value.trim());
+    }
+
+    // MODIFIES: workout
+    // EFFECTS: Clears the owner of the given workout if it is this list.
+    private void release(Workout workout) {
+        if (workout.getOwner() == this) {
+            workout.setOwner(null);
+        }
+    }
+
+    // EFFECTS: Returns a counter that changes whenever this list or one of its workouts is modified,
+    // so callers can tell whether anything changed since they last looked.
+    public long getModCount() {
+        return read(() -> modCount);
+    }
+
+    // EFFECTS: Returns the statistics over the workouts in this list, which this list keeps up to date. A
+    // concurrent list returns a copy of them as they are now, since other threads may change them at any time.
+    public WorkoutStats getStats() {
+        return lock == null ? stats : read(() -> new WorkoutStats(stats));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns an immutable snapshot of the workouts in this list, in order, as they are now. It never
+    // changes, shares its storage with this list and with other snapshots, and can be read from any thread
+    // without locking; each workout read from it is a new copy that belongs to no list. The first snapshot
+    // of a list copies every workout once; later ones take constant time.
+    public List<Workout> snapshot() {
+        return write(() -> {
+            if (image == null) {
+                image = new PersistentVector.Editor<>();
+                for (int row = 0; row < rows.size(); row++) {
+                    image.add(freeze(rows.get(row)));
+                }
+            }
+            return image.snapshot(WorkoutList::freeze);
+        });
     }
 
     // EFFECTS: Returns a new list containing all the workouts in this list.
     public List<Workout> getWorkouts() {
-        return new ArrayList<>(workouts);
+        return getWorkouts(0, Integer.MAX_VALUE);
+    }
+
+    // EFFECTS: Returns a read-only view of the workouts in this list, in order. Nothing is copied, and the
+    // view reflects later changes to this list; a columnar list creates each workout as it is read. In a
+    // concurrent list each call on the view is safe, but iterating over it while other threads remove
+    // workouts may skip one or fail; getWorkouts and forEachWorkout read the list in one go.
+    public List<Workout> getWorkoutsView() {
+        return view;
+    }
+
+    // REQUIRES: offset >= 0 and limit >= 0
+    // EFFECTS: Returns a new list of at most limit workouts, starting at position offset of this list.
+    public List<Workout> getWorkouts(int offset, int limit) {
+        return read(() -> {
+            int from = Math.min(offset, rows.size());
+            int to = (int) Math.min(rows.size(), (long) from + limit);
+            List<Workout> workouts = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                workouts.add(rows.get(row));
+            }
+            return workouts;
+        });
+    }
+
+    // EFFECTS: Passes every workout in this list to action, in order. In a concurrent list, action runs while
+    // this thread holds the read lock, so it must not modify this list.
+    public void forEachWorkout(Consumer<? super Workout> action) {
+        read(() -> {
+            for (int row = 0; row < rows.size(); row++) {
+                action.accept(rows.get(row));
+            }
+            return null;
+        });
+    }
+
+    // EFFECTS: Returns the result of body, run while no other thread modifies this list.
+    <R> R read(Supplier<R> body) {
+        return lock == null ? body.get() : lock.read(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the result of body, run while no other thread uses this list.
+    private <R> R write(Supplier<R> body) {
+        return lock == null ? body.get() : lock.write(body);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Runs change while no other thread uses this list.
+    void update(Runnable change) {
+        if (lock == null) {
+            change.run();
+        } else {
+            lock.write(change);
+        }
+    }
+
+    /**
+     * The read-only view returned by getWorkoutsView.
+     */
+    private final class WorkoutView extends AbstractList<Workout> implements RandomAccess {
+        @Override
+        public Workout get(int index) {
+            return read(() -> {
+                Objects.checkIndex(index, rows.size());
+                return rows.get(index);
+            });
+        }
+
+        @Override
+        public int size() {
+            return read(rows::size);
+        }
+    }
+
+    /**
+     * Walks a range of the time index, failing fast if the index changes underneath it.
+     */
+    private final class TimelineIterator implements Iterator<Workout> {
+        private final int end;
+        private final int changes;
+        private int next;
+
+        private TimelineIterator(int from, int end) {
+            this.next = from;
+            this.end = end;
+            this.changes = timeline.getChanges();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public Workout next() {
+            if (timeline.getChanges() != changes) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            return rows.get(rows.rowOf(timeline.sequenceAt(next++)));
+        }
     }
 }
@@ -0,0 +1,66 @@
+package model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorkoutList storage that keeps the Workout objects it is given, with their sequence numbers alongside.
+ */
+class WorkoutObjects implements WorkoutRows {
+    private final List<Workout> workouts = new ArrayList<>();
+    private final LongList sequences = new LongList();
+
+    @Override
+    public int size() {
+        return workouts.size();
+    }
+
+    @Override
+    public Workout get(int row) {
+        return workouts.get(row);
+    }
+
+    @Override
+    public long sequenceAt(int row) {
+        return sequences.get(row);
+    }
+
+    @Override
+    public String exerciseTypeAt(int row) {
+        return workouts.get(row).getExerciseType();
+    }
+
+    @Override
+    public int durationAt(int row) {
+        return workouts.get(row).getDuration();
+    }
+
+    @Override
+    public String intensityAt(int row) {
+        return workouts.get(row).getIntensity();
+    }
+
+    @Override
+    public Instant startAt(int row) {
+        return workouts.get(row).getStart();
+    }
+
+    @Override
+    public void add(Workout workout, long sequence) {
+        workouts.add(workout);
+        sequences.add(sequence);
+    }
+
+    @Override
+    public void remove(int row) {
+        workouts.remove(row);
+        sequences.removeAt(row);
+    }
+
+    @Override
+    public void clear() {
+        workouts.clear();
+        sequences.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import java.time.Instant;
+
+/**
+ * The storage behind a WorkoutList: one row per workout, in list order. Every row carries the sequence
+ * number its workout was given when it entered the list; sequence numbers increase along the rows, so a
+ * row can be found from its sequence number by binary search.
+ */
+interface WorkoutRows {
+
+    // EFFECTS: returns the number of rows
+    int size();
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the workout in the given row
+    Workout get(int row);
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the sequence number of the given row
+    long sequenceAt(int row);
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the exercise type of the workout in the given row
+    String exerciseTypeAt(int row);
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the duration of the workout in the given row
+    int durationAt(int row);
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the intensity of the workout in the given row
+    String intensityAt(int row);
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the start of the workout in the given row, or null if it is not known
+    Instant startAt(int row);
+
+    // REQUIRES: sequence is greater than the sequence number of every row
+    // MODIFIES: this, workout
+    // EFFECTS: appends a row for workout with the given sequence number
+    void add(Workout workout, long sequence);
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this
+    // EFFECTS: removes the given row, moving the rows after it up by one
+    void remove(int row);
+
+    // MODIFIES: this
+    // EFFECTS: removes every row
+    void clear();
+
+    // EFFECTS: returns the row with the given sequence number, or -1 if there is none
+    default int rowOf(long sequence) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = sequenceAt(middle);
+            if (found < sequence) {
+                low = middle + 1;
+            } else if (found > sequence) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
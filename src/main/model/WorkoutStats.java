@@ -0,0 +1,308 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals over the workouts of a WorkoutList, which the list keeps up to date as workouts are
+ * added, removed and changed, and rebuilds in one pass when it is loaded: sessions and minutes per
+ * exercise type and per intensity (ignoring case and surrounding spaces, under the spelling first seen),
+ * sessions and minutes per Monday-to-Sunday week, and streaks of consecutive days with a workout.
+ * Weeks and days are those of the time zone the statistics were created in; workouts without a start
+ * count towards the totals but not towards weeks or streaks. Every query reads a stored value.
+ * A concurrent WorkoutList hands out copies, which do not change.
+ */
+public class WorkoutStats {
+    private final ZoneId zone;
+    private int sessions;
+    private long minutes;
+    private final Map<String, Tally> byType = new HashMap<>();
+    private final Map<String, Tally> byIntensity = new HashMap<>();
+    private final Map<Long, Tally> byWeek = new HashMap<>();
+    private final Map<Long, Integer> sessionsByDay = new HashMap<>();
+    // the runs of consecutive active days, from their first day to their last, and how many runs have each length
+    private final TreeMap<Long, Long> runs = new TreeMap<>();
+    private final TreeMap<Long, Integer> runLengths = new TreeMap<>();
+    private long longestStreak;
+    private long latestRunFirst;
+    private long latestRunLast;
+
+    // EFFECTS: Constructs empty statistics that count days and weeks in the given time zone.
+    WorkoutStats(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    // EFFECTS: Constructs a copy of the given statistics, which does not follow later changes to them.
+    WorkoutStats(WorkoutStats other) {
+        this.zone = other.zone;
+        this.sessions = other.sessions;
+        this.minutes = other.minutes;
+        copyTallies(other.byType, byType);
+        copyTallies(other.byIntensity, byIntensity);
+        copyTallies(other.byWeek, byWeek);
+        sessionsByDay.putAll(other.sessionsByDay);
+        runs.putAll(other.runs);
+        runLengths.putAll(other.runLengths);
+        this.longestStreak = other.longestStreak;
+        this.latestRunFirst = other.latestRunFirst;
+        this.latestRunLast = other.latestRunLast;
+    }
+
+    // EFFECTS: Returns the time zone days and weeks are counted in.
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // EFFECTS: Returns the number of workouts.
+    public int getSessionCount() {
+        return sessions;
+    }
+
+    // EFFECTS: Returns the total duration of the workouts, in minutes.
+    public long getTotalMinutes() {
+        return minutes;
+    }
+
+    // EFFECTS: Returns the number of workouts of the given exercise type, ignoring case and surrounding spaces.
+    public int getSessionCount(String exerciseType) {
+        Tally tally = byType.get(WorkoutList.key(exerciseType));
+        return tally == null ? 0 : tally.sessions;
+    }
+
+    // EFFECTS: Returns the total minutes of the workouts of the given exercise type, ignoring case and
+    // surrounding spaces.
+    public long getMinutes(String exerciseType) {
+        Tally tally = byType.get(WorkoutList.key(exerciseType));
+        return tally == null ? 0 : tally.minutes;
+    }
+
+    // EFFECTS: Returns the number of workouts with the given intensity, ignoring case and surrounding spaces.
+    public int getSessionCountAt(String intensity) {
+        Tally tally = byIntensity.get(WorkoutList.key(intensity));
+        return tally == null ? 0 : tally.sessions;
+    }
+
+    // EFFECTS: Returns the number of workouts of each exercise type, in no particular order.
+    public Map<String, Integer> getSessionsByType() {
+        return sessions(byType);
+    }
+
+    // EFFECTS: Returns the total minutes of each exercise type, in no particular order.
+    public Map<String, Long> getMinutesByType() {
+        Map<String, Long> totals = new HashMap<>();
+        for (Tally tally : byType.values()) {
+            totals.put(tally.name, tally.minutes);
+        }
+        return totals;
+    }
+
+    // EFFECTS: Returns the number of workouts at each intensity, in no particular order.
+    public Map<String, Integer> getSessionsByIntensity() {
+        return sessions(byIntensity);
+    }
+
+    // EFFECTS: Returns the number of workouts started in the Monday-to-Sunday week containing the given day.
+    public int getWeeklySessions(LocalDate day) {
+        Tally tally = byWeek.get(weekOf(day.toEpochDay()));
+        return tally == null ? 0 : tally.sessions;
+    }
+
+    // EFFECTS: Returns the total minutes of the workouts started in the Monday-to-Sunday week containing the
+    // given day.
+    public long getWeeklyMinutes(LocalDate day) {
+        Tally tally = byWeek.get(weekOf(day.toEpochDay()));
+        return tally == null ? 0 : tally.minutes;
+    }
+
+    // EFFECTS: Returns the total minutes of each Monday-to-Sunday week from the week containing from through
+    // the week containing to, keyed by the Monday starting the week, in order and including empty weeks.
+    public Map<LocalDate, Long> getWeeklyMinutes(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> weeks = new LinkedHashMap<>();
+        for (long week = weekOf(from.toEpochDay()); week <= to.toEpochDay(); week += 7) {
+            Tally tally = byWeek.get(week);
+            weeks.put(LocalDate.ofEpochDay(week), tally == null ? 0 : tally.minutes);
+        }
+        return weeks;
+    }
+
+    // EFFECTS: Returns the most consecutive days that all have a workout.
+    public long getLongestStreak() {
+        return longestStreak;
+    }
+
+    // EFFECTS: Returns the number of consecutive days with a workout up to the given day, counting from
+    // the latest day with a workout if that is the given day or the day before (so a streak lasts until a
+    // whole day is missed), or 0 otherwise.
+    public long getCurrentStreak(LocalDate today) {
+        if (runs.isEmpty() || latestRunLast < today.toEpochDay() - 1) {
+            return 0;
+        }
+        return latestRunLast - latestRunFirst + 1;
+    }
+
+    // EFFECTS: Returns the current streak as of today in the time zone of these statistics.
+    public long getCurrentStreak() {
+        return getCurrentStreak(LocalDate.now(zone));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Counts a workout with the given fields.
+    void add(String exerciseType, int duration, String intensity, Instant start) {
+        update(exerciseType, duration, intensity, start, 1);
+    }
+
+    // REQUIRES: a workout with the given fields was counted
+    // MODIFIES: this
+    // EFFECTS: Stops counting a workout with the given fields.
+    void remove(String exerciseType, int duration, String intensity, Instant start) {
+        update(exerciseType, duration, intensity, start, -1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Forgets every workout.
+    void clear() {
+        sessions = 0;
+        minutes = 0;
+        byType.clear();
+        byIntensity.clear();
+        byWeek.clear();
+        sessionsByDay.clear();
+        runs.clear();
+        runLengths.clear();
+        longestStreak = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds (sign 1) or removes (sign -1) a workout with the given fields from every total.
+    private void update(String exerciseType, int duration, String intensity, Instant start, int sign) {
+        sessions += sign;
+        minutes += (long) sign * duration;
+        count(byType, WorkoutList.key(exerciseType), exerciseType.trim(), duration, sign);
+        count(byIntensity, WorkoutList.key(intensity), intensity.trim(), duration, sign);
+        if (start != null) {
+            long day = LocalDate.ofInstant(start, zone).toEpochDay();
+            count(byWeek, weekOf(day), null, duration, sign);
+            int onDay = sessionsByDay.merge(day, sign, Integer::sum);
+            if (onDay == 0) {
+                sessionsByDay.remove(day);
+                leaveDay(day);
+            } else if (onDay == 1 && sign > 0) {
+                enterDay(day);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes day, which had no workout, an active day, joining the runs either side of it.
+    private void enterDay(long day) {
+        long first = day;
+        long last = day;
+        Map.Entry<Long, Long> before = runs.floorEntry(day - 1);
+        if (before != null && before.getValue() == day - 1) {
+            first = before.getKey();
+            dropRun(first, before.getValue());
+        }
+        Long after = runs.get(day + 1);
+        if (after != null) {
+            last = after;
+            dropRun(day + 1, after);
+        }
+        addRun(first, last);
+        streaksChanged();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes day, which no longer has a workout, inactive, splitting the run it was in.
+    private void leaveDay(long day) {
+        Map.Entry<Long, Long> run = runs.floorEntry(day);
+        dropRun(run.getKey(), run.getValue());
+        if (run.getKey() < day) {
+            addRun(run.getKey(), day - 1);
+        }
+        if (day < run.getValue()) {
+            addRun(day + 1, run.getValue());
+        }
+        streaksChanged();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records a run of active days.
+    private void addRun(long first, long last) {
+        runs.put(first, last);
+        runLengths.merge(last - first + 1, 1, Integer::sum);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Forgets a run of active days.
+    private void dropRun(long first, long last) {
+        runs.remove(first);
+        runLengths.computeIfPresent(last - first + 1, (length, count) -> count == 1 ? null : count - 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Refreshes the stored longest and latest runs after the runs changed.
+    private void streaksChanged() {
+        longestStreak = runLengths.isEmpty() ? 0 : runLengths.lastKey();
+        if (!runs.isEmpty()) {
+            latestRunFirst = runs.lastKey();
+            latestRunLast = runs.get(latestRunFirst);
+        }
+    }
+
+    // MODIFIES: tallies
+    // EFFECTS: Adds (sign 1) or removes (sign -1) a workout of the given duration from the tally for key,
+    // creating it under the given name if needed and dropping it once it counts no workouts.
+    private static <K> void count(Map<K, Tally> tallies, K key, String name, int duration, int sign) {
+        Tally tally = tallies.computeIfAbsent(key, k -> new Tally(name));
+        tally.sessions += sign;
+        tally.minutes += (long) sign * duration;
+        if (tally.sessions == 0) {
+            tallies.remove(key);
+        }
+    }
+
+    // MODIFIES: to
+    // EFFECTS: Puts a copy of every tally of from into to, under the same key.
+    private static <K> void copyTallies(Map<K, Tally> from, Map<K, Tally> to) {
+        for (Map.Entry<K, Tally> entry : from.entrySet()) {
+            Tally tally = new Tally(entry.getValue().name);
+            tally.sessions = entry.getValue().sessions;
+            tally.minutes = entry.getValue().minutes;
+            to.put(entry.getKey(), tally);
+        }
+    }
+
+    // EFFECTS: Returns the number of workouts counted by each tally, by name.
+    private static Map<String, Integer> sessions(Map<String, Tally> tallies) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Tally tally : tallies.values()) {
+            counts.put(tally.name, tally.sessions);
+        }
+        return counts;
+    }
+
+    // EFFECTS: Returns the epoch day of the Monday starting the week that contains the given epoch day.
+    private static long weekOf(long day) {
+        // 1970-01-01 was a Thursday
+        return day - Math.floorMod(day + DayOfWeek.THURSDAY.getValue() - 1, 7);
+    }
+
+    /**
+     * The number of workouts and minutes counted under one key.
+     */
+    private static final class Tally {
+        private final String name;
+        private int sessions;
+        private long minutes;
+
+        private Tally(String name) {
+            this.name = name;
+        }
+    }
+}
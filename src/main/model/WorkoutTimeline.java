@@ -0,0 +1,183 @@
+package model;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * The time index of a WorkoutList: the sequence numbers of the workouts with a known start, ordered by
+ * start and then by sequence number. The key of each entry is kept in parallel primitive arrays, so
+ * finding a range takes a binary search over the arrays and never touches the workouts themselves.
+ * Workouts are usually logged in time order, so adding one normally appends.
+ */
+class WorkoutTimeline {
+    private long[] seconds = new long[8];
+    private int[] nanos = new int[8];
+    private long[] sequences = new long[8];
+    private int size;
+    // changes whenever entries are added or removed, so iterators can detect concurrent modification
+    private int changes;
+
+    // EFFECTS: returns the number of entries
+    int size() {
+        return size;
+    }
+
+    // EFFECTS: returns a counter that changes whenever an entry is added or removed
+    int getChanges() {
+        return changes;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the sequence number of the entry at index
+    long sequenceAt(int index) {
+        return sequences[index];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an entry for the workout with the given start and sequence number
+    void add(Instant start, long sequence) {
+        int index = size;
+        if (size > 0 && compare(size - 1, start.getEpochSecond(), start.getNano(), sequence) > 0) {
+            index = -search(start.getEpochSecond(), start.getNano(), sequence) - 1;
+        }
+        if (size == sequences.length) {
+            int capacity = size * 2;
+            seconds = Arrays.copyOf(seconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+        }
+        System.arraycopy(seconds, index, seconds, index + 1, size - index);
+        System.arraycopy(nanos, index, nanos, index + 1, size - index);
+        System.arraycopy(sequences, index, sequences, index + 1, size - index);
+        seconds[index] = start.getEpochSecond();
+        nanos[index] = start.getNano();
+        sequences[index] = sequence;
+        size++;
+        changes++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the entry for the workout with the given start and sequence number, if there is one
+    void remove(Instant start, long sequence) {
+        int index = search(start.getEpochSecond(), start.getNano(), sequence);
+        if (index >= 0) {
+            System.arraycopy(seconds, index + 1, seconds, index, size - index - 1);
+            System.arraycopy(nanos, index + 1, nanos, index, size - index - 1);
+            System.arraycopy(sequences, index + 1, sequences, index, size - index - 1);
+            size--;
+            changes++;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every entry
+    void clear() {
+        size = 0;
+        changes++;
+    }
+
+    // EFFECTS: returns the index of the first entry that starts at or after the given instant
+    int indexOf(Instant instant) {
+        int index = search(instant.getEpochSecond(), instant.getNano(), Long.MIN_VALUE);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends an entry without keeping the order; sort() must be called before the index is used
+    void append(Instant start, long sequence) {
+        if (size == sequences.length) {
+            int capacity = size * 2;
+            seconds = Arrays.copyOf(seconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+        }
+        seconds[size] = start.getEpochSecond();
+        nanos[size] = start.getNano();
+        sequences[size] = sequence;
+        size++;
+        changes++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: puts the entries in order after a run of appends; takes linear time if they already are
+    void sort() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = compare(i - 1, seconds[i], nanos[i], sequences[i]) < 0;
+        }
+        if (sorted) {
+            return;
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, new int[size], 0, size);
+        long[] sortedSeconds = new long[seconds.length];
+        int[] sortedNanos = new int[nanos.length];
+        long[] sortedSequences = new long[sequences.length];
+        for (int i = 0; i < size; i++) {
+            sortedSeconds[i] = seconds[order[i]];
+            sortedNanos[i] = nanos[order[i]];
+            sortedSequences[i] = sequences[order[i]];
+        }
+        seconds = sortedSeconds;
+        nanos = sortedNanos;
+        sequences = sortedSequences;
+    }
+
+    // MODIFIES: order, scratch
+    // EFFECTS: sorts order[from, to) by the keys of the entries it names
+    private void mergeSort(int[] order, int[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, scratch, from, middle);
+        mergeSort(order, scratch, middle, to);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(order[left], order[right]) <= 0)) {
+                scratch[i] = order[left++];
+            } else {
+                scratch[i] = order[right++];
+            }
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+    }
+
+    // EFFECTS: returns the index of the entry with the given key, or -(insertion point) - 1 if there is none
+    private int search(long second, int nano, long sequence) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = compare(middle, second, nano, sequence);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // EFFECTS: compares the key of the entry at index with the given key
+    private int compare(int index, long second, int nano, long sequence) {
+        if (seconds[index] != second) {
+            return Long.compare(seconds[index], second);
+        }
+        if (nanos[index] != nano) {
+            return Integer.compare(nanos[index], nano);
+        }
+        return Long.compare(sequences[index], sequence);
+    }
+
+    // EFFECTS: compares the keys of the entries at the two indexes
+    private int compare(int index, int other) {
+        return compare(index, seconds[other], nanos[other], sequences[other]);
+    }
+}
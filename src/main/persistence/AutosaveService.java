@@ -0,0 +1,361 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.ModelObserver;
+import model.Subject;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves the model to a Storage in the background shortly after it stops changing.
+ * Every change reported to it as a ModelObserver (re)starts a quiet period; when the period ends, or the
+ * oldest unsaved change reaches the maximum delay, the model is snapshotted on the thread that owns it and
+ * the snapshot is saved on a dedicated "autosave" thread, so the owning thread never waits for the disk.
+ * Snapshots share their storage with the model (see WorkoutList.snapshot()), so after the first one the
+ * owning thread spends constant time per save and the copying is done on the autosave thread.
+ * Only the collections whose modification count changed since the previous snapshot are taken again.
+ * The copy is saved with Storage.saveCopy, so a storage that journals the model keeps journaling it, and the
+ * weight records are left out of it while the storage keeps the logged ones itself, so archived months stay
+ * unread.
+ *
+ * <p>Every use of the storage by the service is synchronized on it; other code that uses the same
+ * storage from another thread must synchronize on it too.
+ */
+public class AutosaveService implements ModelObserver {
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 2000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 30000;
+
+    private final Storage storage;
+    private final Executor modelThread;
+    private final long quietPeriodMillis;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService autosaveThread;
+
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+    private long exerciseModCount;
+    private long workoutModCount;
+    private long goalsModCount;
+    private long weightModCount;
+
+    private ScheduledFuture<?> scheduled;
+    private long firstPendingNanos;
+
+    private final ExerciseDatabase savedExercises = new ExerciseDatabase();
+    private final WorkoutList savedWorkouts = new WorkoutList();
+    private final Goals savedGoals = new Goals("", "");
+    private final WeightTracker savedWeights = new WeightTracker();
+
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong savedChanges = new AtomicLong();
+    private final AtomicLong saveCount = new AtomicLong();
+    private volatile boolean storageKeepsWeights;
+    private volatile long lastSaveNanos = -1;
+    private volatile IOException lastFailure;
+
+    // EFFECTS: constructs a service saving to storage with the default quiet period and maximum delay,
+    // snapshotting the model on the given executor, which must run tasks on the thread that changes the model
+    public AutosaveService(Storage storage, Executor modelThread) {
+        this(storage, modelThread, DEFAULT_QUIET_PERIOD_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    // REQUIRES: 0 <= quietPeriodMillis <= maxDelayMillis
+    // EFFECTS: constructs a service saving to storage once the model has not changed for quietPeriodMillis,
+    // or at the latest maxDelayMillis after the first unsaved change, snapshotting the model on modelThread
+    public AutosaveService(Storage storage, Executor modelThread, long quietPeriodMillis, long maxDelayMillis) {
+        this.storage = storage;
+        this.modelThread = modelThread;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.autosaveThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // REQUIRES: called on the model thread
+    // MODIFIES: this, exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: starts watching the given model objects for changes, replacing any previously watched ones
+    public void attach(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) {
+        detach();
+        this.exerciseDatabase = exerciseDatabase;
+        this.workoutList = workoutList;
+        this.goals = goals;
+        this.weightTracker = weightTracker;
+        exerciseModCount = -1;
+        workoutModCount = -1;
+        goalsModCount = -1;
+        weightModCount = -1;
+        synchronized (storage) {
+            storageKeepsWeights = storage.keepsLoggedWeights();
+        }
+        observe(true);
+    }
+
+    // REQUIRES: called on the model thread
+    // MODIFIES: this
+    // EFFECTS: stops watching the model, cancelling any save that has not started yet
+    public void detach() {
+        if (exerciseDatabase == null) {
+            return;
+        }
+        observe(false);
+        exerciseDatabase = null;
+        cancelScheduled();
+    }
+
+    // REQUIRES: called on the model thread while a model is attached
+    // MODIFIES: this
+    // EFFECTS: snapshots the model now and saves the snapshot on the autosave thread; the returned future
+    // completes when the save has finished, exceptionally with an IOException if it failed
+    public CompletableFuture<Void> saveNow() {
+        cancelScheduled();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Snapshot snapshot = capture();
+        autosaveThread.execute(() -> {
+            try {
+                write(snapshot);
+                done.complete(null);
+            } catch (IOException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    // REQUIRES: called on the model thread
+    // MODIFIES: this
+    // EFFECTS: stops watching the model; if saveFirst is true, saves it first and waits until that save
+    // and any earlier one has finished, otherwise drops changes whose save has not started.
+    // Throws IOException if the final save failed.
+    public void close(boolean saveFirst) throws IOException {
+        CompletableFuture<Void> last = saveFirst && exerciseDatabase != null ? saveNow() : null;
+        detach();
+        autosaveThread.shutdown();
+        try {
+            autosaveThread.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (last != null && last.isCompletedExceptionally()) {
+            throw lastFailure;
+        }
+    }
+
+    // EFFECTS: returns how long the last completed save took in milliseconds, or -1 if none has completed
+    public double getLastSaveLatencyMillis() {
+        long nanos = lastSaveNanos;
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    // EFFECTS: returns the number of changes to the model that no completed save includes yet
+    public long getPendingChangeCount() {
+        return changes.get() - savedChanges.get();
+    }
+
+    // EFFECTS: returns the number of saves that have completed
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    // EFFECTS: returns the failure of the most recent save, or null if it succeeded or none has run
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts the change and restarts the quiet period, unless that would push the save past
+    // the maximum delay after the first unsaved change
+    private synchronized void changed() {
+        changes.incrementAndGet();
+        long now = System.nanoTime();
+        if (scheduled == null) {
+            firstPendingNanos = now;
+        } else {
+            scheduled.cancel(false);
+        }
+        long waited = TimeUnit.NANOSECONDS.toMillis(now - firstPendingNanos);
+        long delay = Math.max(0, Math.min(quietPeriodMillis, maxDelayMillis - waited));
+        scheduled = autosaveThread.schedule(this::quietPeriodEnded, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // EFFECTS: runs on the autosave thread once the quiet period has ended; asks the model thread to snapshot
+    // the model and hand the snapshot back to be saved
+    private void quietPeriodEnded() {
+        synchronized (this) {
+            scheduled = null;
+        }
+        modelThread.execute(() -> {
+            if (exerciseDatabase == null || autosaveThread.isShutdown()) {
+                return;
+            }
+            Snapshot snapshot = capture();
+            autosaveThread.execute(() -> {
+                try {
+                    write(snapshot);
+                } catch (IOException e) {
+                    // recorded in lastFailure and retried with the next change
+                }
+            });
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: cancels the pending quiet period, if any
+    private synchronized void cancelScheduled() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    // REQUIRES: called on the model thread
+    // MODIFIES: this, weightTracker
+    // EFFECTS: returns snapshots of the parts of the model that changed since the previous snapshot
+    private Snapshot capture() {
+        Snapshot snapshot = new Snapshot(changes.get());
+        if (exerciseDatabase.getModCount() != exerciseModCount) {
+            exerciseModCount = exerciseDatabase.getModCount();
+            snapshot.exercises = exerciseDatabase.snapshot();
+        }
+        if (workoutList.getModCount() != workoutModCount) {
+            workoutModCount = workoutList.getModCount();
+            snapshot.workouts = workoutList.snapshot();
+        }
+        if (goals.getModCount() != goalsModCount) {
+            goalsModCount = goals.getModCount();
+            snapshot.goals = new String[] {goals.getGoalType(), goals.getDescription()};
+        }
+        if (weightTracker.getModCount() != weightModCount) {
+            if (storageKeepsWeights) {
+                snapshot.weightsLeftOut = true;
+            } else {
+                weightModCount = weightTracker.getModCount();
+                snapshot.weightRecords = weightTracker.snapshot();
+            }
+        }
+        return snapshot;
+    }
+
+    // REQUIRES: called on the autosave thread
+    // MODIFIES: this, storage
+    // EFFECTS: brings the saved copy of the model up to date with snapshot and saves it, recording how long
+    // the save took; throws IOException if it failed. If the snapshot left out weight records the storage
+    // no longer keeps itself, nothing is saved, IOException is thrown and a save including them is scheduled.
+    private void write(Snapshot snapshot) throws IOException {
+        if (snapshot.exercises != null) {
+            savedExercises.loadExercises(snapshot.exercises);
+        }
+        if (snapshot.workouts != null) {
+            savedWorkouts.loadWorkouts(snapshot.workouts);
+        }
+        if (snapshot.goals != null) {
+            savedGoals.load(snapshot.goals[0], snapshot.goals[1]);
+        }
+        if (snapshot.weightRecords != null) {
+            savedWeights.loadWeightRecords(snapshot.weightRecords);
+        }
+        long start = System.nanoTime();
+        try {
+            synchronized (storage) {
+                if (snapshot.weightsLeftOut && !storage.keepsLoggedWeights()) {
+                    storageKeepsWeights = false;
+                    changed();
+                    throw new IOException("Weight records were left out of the copy saved to "
+                            + storage.getLocation() + "; saving again with them");
+                }
+                storage.saveCopy(savedExercises, savedWorkouts, savedGoals, savedWeights);
+                storageKeepsWeights = storage.keepsLoggedWeights();
+            }
+        } catch (IOException e) {
+            lastFailure = e;
+            throw e;
+        }
+        lastSaveNanos = System.nanoTime() - start;
+        lastFailure = null;
+        savedChanges.accumulateAndGet(snapshot.changeCount, Math::max);
+        saveCount.incrementAndGet();
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: registers or unregisters this service as an observer of the watched model objects
+    private void observe(boolean register) {
+        Subject[] subjects = {exerciseDatabase, workoutList, goals, weightTracker};
+        for (Subject subject : subjects) {
+            if (register) {
+                subject.addObserver(this);
+            } else {
+                subject.removeObserver(this);
+            }
+        }
+    }
+
+    @Override
+    public void workoutAdded(Workout workout) {
+        changed();
+    }
+
+    @Override
+    public void workoutRemoved(int index) {
+        changed();
+    }
+
+    @Override
+    public void workoutUpdated(int index, Workout workout) {
+        changed();
+    }
+
+    @Override
+    public void exerciseAdded(Exercise exercise) {
+        changed();
+    }
+
+    @Override
+    public void exerciseUpdated(int index, Exercise exercise) {
+        changed();
+    }
+
+    @Override
+    public void goalsUpdated(Goals goals) {
+        changed();
+    }
+
+    @Override
+    public void weightLogged(WeightRecord record) {
+        changed();
+    }
+
+    /**
+     * The parts of the model that changed since the previous snapshot; unchanged parts are null.
+     */
+    private static final class Snapshot {
+        private final long changeCount;
+        private List<Exercise> exercises;
+        private List<Workout> workouts;
+        private String[] goals;
+        private List<WeightRecord> weightRecords;
+        private boolean weightsLeftOut;
+
+        private Snapshot(long changeCount) {
+            this.changeCount = changeCount;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Loads the application state from a binary snapshot written by BinaryWriter.
+ * The file is memory-mapped rather than read into the heap, and each dictionary string is decoded
+ * once no matter how many records refer to it.
+ */
+public class BinaryReader {
+    private static final int HEADER_MAGIC_SIZE = 4;
+    private static final int TRAILER_SIZE = 4;
+
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: returns true if file exists and starts with the binary snapshot magic bytes
+    public static boolean isBinary(Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) < HEADER_MAGIC_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(HEADER_MAGIC_SIZE);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // keep reading until the magic is complete
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == BinaryWriter.MAGIC;
+        }
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: loads the snapshot in the source file into exerciseDatabase, workoutList, goals, and
+    // weightTracker; throws IOException if the file cannot be read, is not a binary snapshot, has a newer
+    // version than this reader understands, or is damaged
+    public void read(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        read(Paths.get(source), exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: loads the snapshot in file as described for read
+    static void read(Path file, ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            short version = checkHeader(file, buffer);
+            String[] dictionary = readDictionary(buffer);
+            List<Exercise> exercises = readExercises(buffer, dictionary);
+            List<Workout> workouts = readWorkouts(buffer, dictionary, version);
+            String goalType = lookup(dictionary, buffer.getInt());
+            String description = lookup(dictionary, buffer.getInt());
+            List<WeightRecord> records = readWeightRecords(buffer, dictionary);
+            if (buffer.remaining() != TRAILER_SIZE) {
+                throw new IOException("Unexpected data after the last section");
+            }
+            exerciseDatabase.loadExercises(exercises);
+            workoutList.loadWorkouts(workouts);
+            goals.load(goalType, description);
+            weightTracker.loadWeightRecords(records);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | DateTimeException e) {
+            throw new IOException("Malformed binary snapshot " + file, e);
+        } catch (IOException e) {
+            throw new IOException("Malformed binary snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // EFFECTS: checks the magic bytes, version and trailing checksum, leaving buffer positioned after the
+    // header, and returns the version; throws IOException if any of them is wrong
+    private static short checkHeader(Path file, ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < BinaryWriter.HEADER_SIZE + TRAILER_SIZE
+                || buffer.getInt() != BinaryWriter.MAGIC) {
+            throw new IOException("Not a binary snapshot");
+        }
+        short version = buffer.getShort();
+        if (version > BinaryWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        buffer.getShort();
+        int bodyLength = buffer.limit() - TRAILER_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(0).limit(bodyLength);
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+            throw new IOException("Checksum mismatch");
+        }
+        return version;
+    }
+
+    // EFFECTS: reads the string dictionary
+    private static String[] readDictionary(ByteBuffer buffer) throws IOException {
+        String[] dictionary = new String[count(buffer, 4)];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[count(buffer, 1)];
+            buffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+
+    // EFFECTS: reads the exercise section
+    private static List<Exercise> readExercises(ByteBuffer buffer, String[] dictionary) throws IOException {
+        int count = count(buffer, BinaryWriter.EXERCISE_SIZE);
+        List<Exercise> exercises = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            exercises.add(new Exercise(lookup(dictionary, buffer.getInt()), lookup(dictionary, buffer.getInt())));
+        }
+        return exercises;
+    }
+
+    // EFFECTS: reads the workout section of a file of the given version; workouts from version 1 files
+    // have no start
+    private static List<Workout> readWorkouts(ByteBuffer buffer, String[] dictionary, short version)
+            throws IOException {
+        boolean hasStart = version >= 2;
+        int count = count(buffer, hasStart ? BinaryWriter.WORKOUT_SIZE : BinaryWriter.WORKOUT_SIZE_V1);
+        List<Workout> workouts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String exerciseType = lookup(dictionary, buffer.getInt());
+            int duration = buffer.getInt();
+            String intensity = lookup(dictionary, buffer.getInt());
+            Instant start = null;
+            if (hasStart) {
+                long seconds = buffer.getLong();
+                int nanos = buffer.getInt();
+                start = seconds == BinaryWriter.NO_START ? null : Instant.ofEpochSecond(seconds, nanos);
+            }
+            workouts.add(new Workout(exerciseType, duration, intensity, start));
+        }
+        return workouts;
+    }
+
+    // EFFECTS: reads the weight record section
+    private static List<WeightRecord> readWeightRecords(ByteBuffer buffer, String[] dictionary) throws IOException {
+        int count = count(buffer, BinaryWriter.WEIGHT_RECORD_SIZE);
+        List<WeightRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = buffer.get();
+            int date = buffer.getInt();
+            double weight = buffer.getDouble();
+            if (kind == BinaryWriter.DATE_EPOCH_DAY) {
+                records.add(new WeightRecord(LocalDate.ofEpochDay(date).toString(), weight));
+            } else if (kind == BinaryWriter.DATE_STRING) {
+                records.add(new WeightRecord(lookup(dictionary, date), weight));
+            } else {
+                throw new IOException("Unknown date kind " + kind);
+            }
+        }
+        return records;
+    }
+
+    // EFFECTS: reads a record count and checks that that many records of recordSize bytes can follow
+    private static int count(ByteBuffer buffer, int recordSize) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * recordSize > buffer.remaining() - TRAILER_SIZE) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+
+    // EFFECTS: returns the dictionary string with the given index
+    private static String lookup(String[] dictionary, int index) throws IOException {
+        if (index < 0 || index >= dictionary.length) {
+            throw new IOException("Invalid dictionary index " + index);
+        }
+        return dictionary[index];
+    }
+}
@@ -0,0 +1,201 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Saves the application state in a compact binary snapshot that BinaryReader (or a JsonReader,
+ * which recognises the magic bytes) can load back.
+ * All numbers are big-endian. The file starts with a header of MAGIC, a two byte format VERSION and
+ * two reserved bytes, followed by a dictionary holding every distinct string once (an int count, then
+ * each string as an int byte length and its UTF-8 bytes). The sections come next, each an int count
+ * followed by fixed-width records that refer to strings by dictionary index:
+ * exercises (name, instructions), workouts (exercise type, duration, intensity, and the start as a long
+ * of epoch seconds, NO_START if unknown, and an int of nanoseconds), the goals
+ * (goal type, description) without a count, and weight records (a date kind byte, an int date and a
+ * double weight). A date in "YYYY-MM-DD" form is stored as its epoch day (kind 0), anything else as a
+ * dictionary index (kind 1). The file ends with the CRC-32 of everything before it.
+ * Version 1 files, from before workouts had a start, hold workouts of WORKOUT_SIZE_V1 bytes without it.
+ * Like an atomic JsonWriter, the snapshot is written to a temporary file and moved into place,
+ * keeping rotated earlier generations.
+ */
+public class BinaryWriter {
+    static final int MAGIC = 0x46544253;
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 8;
+    static final int EXERCISE_SIZE = 8;
+    static final int WORKOUT_SIZE = 24;
+    static final int WORKOUT_SIZE_V1 = 12;
+    static final long NO_START = Long.MIN_VALUE;
+    static final int GOALS_SIZE = 8;
+    static final int WEIGHT_RECORD_SIZE = 13;
+    static final byte DATE_EPOCH_DAY = 0;
+    static final byte DATE_STRING = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String destination;
+    private int keptGenerations = JsonWriter.DEFAULT_KEPT_GENERATIONS;
+
+    // EFFECTS: constructs writer to write to destination file
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // REQUIRES: keptGenerations >= 0
+    // MODIFIES: this
+    // EFFECTS: sets how many earlier snapshots a write keeps next to the destination
+    public void setKeptGenerations(int keptGenerations) {
+        this.keptGenerations = keptGenerations;
+    }
+
+    // EFFECTS: returns the destination file of this writer
+    public String getDestination() {
+        return destination;
+    }
+
+    // MODIFIES: file at destination
+    // EFFECTS: writes a binary snapshot of ExerciseDatabase, WorkoutList, Goals, and WeightTracker and moves
+    // it over the destination once it is safely on disk; throws IOException if it cannot be written
+    public void write(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                      Goals goals, WeightTracker weightTracker) throws IOException {
+        Path target;
+        try {
+            target = Paths.get(destination);
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(destination + " (" + e.getMessage() + ")");
+        }
+        Path temp = SnapshotFiles.tempFor(target);
+        Map<String, Integer> dictionary = buildDictionary(exerciseDatabase, workoutList, goals, weightTracker);
+        long crc;
+        long length;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream file = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+            CheckedOutputStream body = new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE),
+                    new CRC32());
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            writeDictionary(out, dictionary);
+            writeExercises(out, dictionary, exerciseDatabase);
+            writeWorkouts(out, dictionary, workoutList);
+            out.writeInt(dictionary.get(goals.getGoalType()));
+            out.writeInt(dictionary.get(goals.getDescription()));
+            writeWeightRecords(out, dictionary, weightTracker);
+            out.flush();
+            out.writeInt((int) body.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+            crc = file.getChecksum().getValue();
+            length = channel.size();
+        }
+        SnapshotFiles.commit(temp, target, crc, length, keptGenerations);
+    }
+
+    // EFFECTS: returns every distinct string of the model mapped to its dictionary index, in first-use order
+    private static Map<String, Integer> buildDictionary(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                                                        Goals goals, WeightTracker weightTracker) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Exercise exercise : exerciseDatabase.getExercisesView()) {
+            intern(dictionary, exercise.getName());
+            intern(dictionary, exercise.getInstructions());
+        }
+        for (Workout workout : workoutList.getWorkoutsView()) {
+            intern(dictionary, workout.getExerciseType());
+            intern(dictionary, workout.getIntensity());
+        }
+        intern(dictionary, goals.getGoalType());
+        intern(dictionary, goals.getDescription());
+        for (WeightRecord record : weightTracker.getWeightRecordsView()) {
+            if (WeightRecord.epochDay(record.getDate()) == null) {
+                intern(dictionary, record.getDate());
+            }
+        }
+        return dictionary;
+    }
+
+    // MODIFIES: dictionary
+    // EFFECTS: gives s the next dictionary index unless it already has one
+    private static void intern(Map<String, Integer> dictionary, String s) {
+        dictionary.putIfAbsent(s, dictionary.size());
+    }
+
+
+    // EFFECTS: writes the dictionary strings in index order
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String s : dictionary.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // EFFECTS: writes the exercise section
+    private static void writeExercises(DataOutputStream out, Map<String, Integer> dictionary,
+                                       ExerciseDatabase exerciseDatabase) throws IOException {
+        List<Exercise> exercises = exerciseDatabase.getExercisesView();
+        out.writeInt(exercises.size());
+        for (Exercise exercise : exercises) {
+            out.writeInt(dictionary.get(exercise.getName()));
+            out.writeInt(dictionary.get(exercise.getInstructions()));
+        }
+    }
+
+    // EFFECTS: writes the workout section
+    private static void writeWorkouts(DataOutputStream out, Map<String, Integer> dictionary,
+                                      WorkoutList workoutList) throws IOException {
+        List<Workout> workouts = workoutList.getWorkoutsView();
+        out.writeInt(workouts.size());
+        for (Workout workout : workouts) {
+            out.writeInt(dictionary.get(workout.getExerciseType()));
+            out.writeInt(workout.getDuration());
+            out.writeInt(dictionary.get(workout.getIntensity()));
+            Instant start = workout.getStart();
+            out.writeLong(start == null ? NO_START : start.getEpochSecond());
+            out.writeInt(start == null ? 0 : start.getNano());
+        }
+    }
+
+    // EFFECTS: writes the weight record section
+    private static void writeWeightRecords(DataOutputStream out, Map<String, Integer> dictionary,
+                                           WeightTracker weightTracker) throws IOException {
+        List<WeightRecord> records = weightTracker.getWeightRecordsView();
+        out.writeInt(records.size());
+        for (WeightRecord record : records) {
+            Integer epochDay = WeightRecord.epochDay(record.getDate());
+            if (epochDay != null) {
+                out.writeByte(DATE_EPOCH_DAY);
+                out.writeInt(epochDay);
+            } else {
+                out.writeByte(DATE_STRING);
+                out.writeInt(dictionary.get(record.getDate()));
+            }
+            out.writeDouble(record.getWeight());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The compression applied to a JSON snapshot. Both compressed formats carry a recognisable header
+ * (the gzip magic bytes, or a zlib header for deflate), so a reader can tell them apart from plain JSON,
+ * which always starts with whitespace or a bracket.
+ */
+public enum Compression {
+    NONE, GZIP, DEFLATE;
+
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int ZLIB_DEFLATE_METHOD = 8;
+    private static final int ZLIB_MAX_WINDOW_BITS = 7;
+    private static final int ZLIB_CHECK_MODULUS = 31;
+
+    // REQUIRES: level is DEFAULT_LEVEL or between Deflater.NO_COMPRESSION and Deflater.BEST_COMPRESSION
+    // EFFECTS: returns a stream that compresses what is written to it into out at the given level,
+    // or out itself for NONE; the returned stream must be finished before out is complete
+    OutputStream compress(OutputStream out, int level) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            case DEFLATE:
+                return new DeflaterOutputStream(out) {
+                    {
+                        def.setLevel(level);
+                        buf = new byte[BUFFER_SIZE];
+                    }
+                };
+            default:
+                return out;
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes the end of the compressed data to the stream returned by compress, without closing it
+    static void finish(OutputStream out) throws IOException {
+        if (out instanceof DeflaterOutputStream) {
+            ((DeflaterOutputStream) out).finish();
+        }
+    }
+
+    // EFFECTS: returns a stream that decompresses in, or in itself for NONE
+    InputStream decompress(InputStream in) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            case DEFLATE:
+                return new InflaterInputStream(in) {
+                    {
+                        buf = new byte[BUFFER_SIZE];
+                    }
+                };
+            default:
+                return in;
+        }
+    }
+
+    // EFFECTS: returns the compression of file judged by its first two bytes
+    static Compression detect(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // keep reading until the header is complete
+            }
+        }
+        if (header.hasRemaining()) {
+            return NONE;
+        }
+        int first = header.get(0) & 0xff;
+        int second = header.get(1) & 0xff;
+        if (first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2) {
+            return GZIP;
+        }
+        if ((first & 0x0f) == ZLIB_DEFLATE_METHOD && first >> 4 <= ZLIB_MAX_WINDOW_BITS
+                && (first << 8 | second) % ZLIB_CHECK_MODULUS == 0) {
+            return DEFLATE;
+        }
+        return NONE;
+    }
+}
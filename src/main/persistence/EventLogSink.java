@@ -0,0 +1,467 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.EventType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies the events of an EventLog to rotating files in a directory on a dedicated "event-log" thread, so
+ * the audit history survives the session (and, up to the last group flush, a crash) while loggers never
+ * wait for the disk. Every flush interval the thread writes every event logged since the previous batch,
+ * then flushes and forces the file once for the whole batch. An event still being logged when a batch is
+ * taken waits for the next one.
+ * A file is named after the time of its first event, "events-&lt;epoch nanos&gt;.log", and holds one
+ * event per line: the instant, the type, the value (empty if none) and the description, separated by tabs.
+ * A batch that finds the current file at the maximum size or age starts a new one, so a batch is always
+ * written to a single file (which may grow past the maximum by one batch), and the oldest files beyond
+ * the retained count are deleted. A batch that fails is cut back off its file, so retrying it never
+ * duplicates events.
+ *
+ * <p>The events waiting to be written are held by the log itself, so the backlog is bounded by its
+ * capacity. Under Backpressure.DROP, events the log overwrites before they are written are lost and
+ * counted; under Backpressure.BLOCK, a logger that would overwrite one waits for the sink, for at most
+ * the given time, before dropping it.
+ */
+public class EventLogSink implements EventLog.Reader {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    public static final long DEFAULT_MAX_FILE_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_FILE_MILLIS = 24 * 60 * 60 * 1000L;
+    public static final int DEFAULT_RETAINED_FILES = 10;
+    private static final String PREFIX = "events-";
+    private static final String SUFFIX = ".log";
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * What a logger does when the log is full of events the sink has not written yet.
+     */
+    public enum Backpressure {
+        // overwrite the oldest of them, losing it
+        DROP,
+        // wait for the sink to write them, for a bounded time
+        BLOCK
+    }
+
+    private final EventLog log;
+    private final Path directory;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService sinkThread;
+
+    private long maxFileBytes = DEFAULT_MAX_FILE_BYTES;
+    private long maxFileMillis = DEFAULT_MAX_FILE_MILLIS;
+    private int retainedFiles = DEFAULT_RETAINED_FILES;
+    private Backpressure backpressure = Backpressure.DROP;
+    private long maxBlockNanos;
+
+    private volatile boolean started;
+    private volatile long position;
+    private final AtomicBoolean catchUpQueued = new AtomicBoolean();
+    private Writer out;
+    private FileChannel channel;
+    private long fileStartNanos;
+    private long fileChars;
+    // the size of the current file before the batch being written
+    private long batchOffset;
+    private long lastFileNanos = Long.MIN_VALUE;
+    private final StringBuilder line = new StringBuilder();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private volatile IOException lastFailure;
+
+    // EFFECTS: constructs a sink writing the events of log to files in directory with the default flush
+    // interval; it writes nothing until started
+    public EventLogSink(EventLog log, String directory) {
+        this(log, directory, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    // REQUIRES: flushIntervalMillis > 0
+    // EFFECTS: constructs a sink writing the events of log to files in directory in batches every
+    // flushIntervalMillis; it writes nothing until started
+    public EventLogSink(EventLog log, String directory, long flushIntervalMillis) {
+        this.log = log;
+        this.directory = Paths.get(directory);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sinkThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // REQUIRES: maxFileBytes > 0, maxFileMillis > 0, and the sink has not been started
+    // MODIFIES: this
+    // EFFECTS: sets the size and age at which the sink starts a new file
+    public void setRotation(long maxFileBytes, long maxFileMillis) {
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileMillis = maxFileMillis;
+    }
+
+    // REQUIRES: retainedFiles > 0, and the sink has not been started
+    // MODIFIES: this
+    // EFFECTS: sets how many files the sink keeps; older ones are deleted when a new file is started
+    public void setRetainedFiles(int retainedFiles) {
+        this.retainedFiles = retainedFiles;
+    }
+
+    // REQUIRES: maxBlockMillis >= 0, and the sink has not been started
+    // MODIFIES: this
+    // EFFECTS: sets what loggers do when the log is full of events the sink has not written, and how long
+    // they wait under Backpressure.BLOCK
+    public void setBackpressure(Backpressure backpressure, long maxBlockMillis) {
+        this.backpressure = backpressure;
+        this.maxBlockNanos = maxBlockMillis * NANOS_PER_MILLI;
+    }
+
+    // MODIFIES: this, log
+    // EFFECTS: starts writing every event logged from now on, in batches on the sink thread
+    public void start() {
+        position = log.getNextSequence();
+        started = true;
+        if (backpressure == Backpressure.BLOCK) {
+            log.setReader(this);
+        }
+        sinkThread.scheduleWithFixedDelay(this::drainQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // EFFECTS: writes every event logged so far on the sink thread; the returned future completes once they
+    // are on disk, exceptionally with an IOException if they could not be written
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        sinkThread.execute(() -> {
+            try {
+                drain();
+                done.complete(null);
+            } catch (IOException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    // MODIFIES: this, log
+    // EFFECTS: writes every event logged so far, stops the sink thread and closes the current file, unless
+    // the sink is already closed; throws IOException if the final batch could not be written
+    public void close() throws IOException {
+        if (sinkThread.isShutdown()) {
+            return;
+        }
+        log.setReader(null);
+        if (started) {
+            flush();
+        }
+        sinkThread.shutdown();
+        try {
+            sinkThread.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeFile();
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+    }
+
+    // EFFECTS: returns the number of events written to disk
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    // EFFECTS: returns the number of events the log overwrote before the sink could write them
+    public long getMissedCount() {
+        return missed.get();
+    }
+
+    // EFFECTS: returns the failure of the most recent batch, or null if it succeeded or none has run
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void behind() {
+        // every waiting logger asks, but one batch catches up for all of them
+        if (catchUpQueued.compareAndSet(false, true)) {
+            try {
+                sinkThread.execute(() -> {
+                    catchUpQueued.set(false);
+                    drainQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // the sink is closing and writes everything logged so far before it stops
+            }
+        }
+    }
+
+    @Override
+    public long maxWaitNanos() {
+        return maxBlockNanos;
+    }
+
+    // EFFECTS: returns the events in the log files in directory whose time is between from and to
+    // inclusive, oldest first; throws IOException if a file cannot be read or is not a log file
+    public static List<Event> read(String directory, Instant from, Instant to) throws IOException {
+        long fromNanos = epochNanos(from);
+        long toNanos = epochNanos(to);
+        List<Path> files = logFiles(Paths.get(directory));
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < files.size() && startOf(files.get(i)) <= toNanos; i++) {
+            // every event in a file is no later than the first event of the next one
+            if (i + 1 < files.size() && startOf(files.get(i + 1)) < fromNanos) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(files.get(i), StandardCharsets.UTF_8)) {
+                for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                    Event event = parse(files.get(i), text);
+                    if (event.getEpochNanos() >= fromNanos && event.getEpochNanos() <= toNanos) {
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drains the log as described for drain, recording any failure in lastFailure
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (IOException e) {
+            // recorded in lastFailure; the events are retried with the next batch while the log holds them
+        }
+    }
+
+    // REQUIRES: called on the sink thread
+    // MODIFIES: this, files in directory
+    // EFFECTS: writes every event logged since the previous batch, then flushes and forces the file once;
+    // throws IOException if they could not be written
+    private void drain() throws IOException {
+        long from = position;
+        long end = log.getNextSequence();
+        if (from == end) {
+            return;
+        }
+        long[] count = new long[1];
+        try {
+            long next = log.forEachSince(from, event -> {
+                try {
+                    if (count[0] == 0) {
+                        startBatch(event.getEpochNanos());
+                    }
+                    append(event);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (out != null) {
+                out.flush();
+                channel.force(false);
+            }
+            missed.addAndGet(next - from - count[0]);
+            written.addAndGet(count[0]);
+            position = next;
+            lastFailure = null;
+        } catch (UncheckedIOException e) {
+            abortBatch();
+            lastFailure = e.getCause();
+            throw e.getCause();
+        } catch (IOException e) {
+            abortBatch();
+            lastFailure = e;
+            throw e;
+        }
+    }
+
+    // MODIFIES: this, files in directory
+    // EFFECTS: starts a new file for a batch whose first event has the given time if there is no current
+    // file or it is full or too old, and records where the batch starts in it
+    private void startBatch(long nanos) throws IOException {
+        if (out == null || fileChars >= maxFileBytes || nanos - fileStartNanos >= maxFileMillis * NANOS_PER_MILLI) {
+            rotate(nanos);
+        }
+        batchOffset = channel.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes event to the current file
+    private void append(Event event) throws IOException {
+        long nanos = event.getEpochNanos();
+        line.setLength(0);
+        line.append(Instant.ofEpochSecond(0, nanos)).append('\t').append(event.getType()).append('\t');
+        if (event.hasValue()) {
+            line.append(event.getValue());
+        }
+        line.append('\t');
+        escape(event.getDescription());
+        line.append('\n');
+        out.append(line);
+        // one byte per character, except for the rare non-ASCII description
+        fileChars += line.length();
+    }
+
+    // MODIFIES: this, files in directory
+    // EFFECTS: closes the current file, starts one named after the given time and deletes the oldest files
+    // beyond the retained count
+    private void rotate(long nanos) throws IOException {
+        closeFile();
+        Files.createDirectories(directory);
+        // a file is named after its first event, and a later file never sorts before an earlier one
+        long start = Math.max(nanos, lastFileNanos + 1);
+        channel = FileChannel.open(directory.resolve(String.format("%s%019d%s", PREFIX, start, SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+        fileStartNanos = nanos;
+        fileChars = 0;
+        batchOffset = 0;
+        lastFileNanos = start;
+        List<Path> files = logFiles(directory);
+        for (int i = 0; i < files.size() - retainedFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current file, if any, ignoring failures
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // every batch has been flushed, so nothing is lost
+            }
+            out = null;
+            channel = null;
+        }
+    }
+
+    // MODIFIES: this, the current file
+    // EFFECTS: drops the part of the failed batch still buffered, cuts what reached the current file back to
+    // where the batch started and closes it, so the retry (in a new file) writes each event once
+    private void abortBatch() {
+        if (out == null) {
+            return;
+        }
+        try {
+            channel.truncate(batchOffset);
+            channel.close();
+        } catch (IOException e) {
+            // the disk is failing; the retry may repeat some events rather than lose them
+        }
+        out = null;
+        channel = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends text to line with backslashes, tabs and line breaks escaped
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                line.append("\\\\");
+            } else if (c == '\t') {
+                line.append("\\t");
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c == '\r') {
+                line.append("\\r");
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    // EFFECTS: returns the event on the given line of file; throws IOException if it is malformed
+    private static Event parse(Path file, String text) throws IOException {
+        String[] fields = text.split("\t", -1);
+        if (fields.length != 4) {
+            throw new IOException("Malformed event in " + file + ": " + text);
+        }
+        try {
+            EventType type = EventType.valueOf(fields[1]);
+            double value = fields[2].isEmpty() ? Double.NaN : Double.parseDouble(fields[2]);
+            String description = type == EventType.MESSAGE ? unescape(fields[3]) : null;
+            return new Event(type, epochNanos(Instant.parse(fields[0])), value, description);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IOException("Malformed event in " + file + ": " + text, e);
+        }
+    }
+
+    // EFFECTS: returns text with the escapes written by escape undone
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                result.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // EFFECTS: returns the log files in directory, oldest first; none if it does not exist
+    private static List<Path> logFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // names hold the start time zero-padded, so they sort by it
+        files.sort(null);
+        return files;
+    }
+
+    // EFFECTS: returns the time of the first event in the given log file, in nanoseconds since the epoch
+    private static long startOf(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Not an event log file: " + file, e);
+        }
+    }
+
+    // EFFECTS: returns instant in nanoseconds since the epoch, saturating at the limits of a long
+    private static long epochNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+}
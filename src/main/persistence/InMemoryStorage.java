@@ -0,0 +1,78 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the application state in memory only, for tests and benchmarks that should not touch the disk.
+ * Saved state is copied, so later changes to the model do not leak into it until the next save or append.
+ */
+public class InMemoryStorage implements Storage {
+    private List<Exercise> exercises;
+    private List<Workout> workouts;
+    private String goalType;
+    private String description;
+    private List<WeightRecord> weightRecords;
+    private int saveCount;
+
+    // EFFECTS: returns true if any state has been saved
+    public boolean hasData() {
+        return exercises != null;
+    }
+
+    // EFFECTS: returns the number of times state has been saved or appended
+    public int getSaveCount() {
+        return saveCount;
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: replaces the contents of the given model objects with copies of the saved state;
+    // throws IOException if nothing has been saved
+    @Override
+    public void load(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        if (!hasData()) {
+            throw new IOException("Nothing has been saved");
+        }
+        exerciseDatabase.loadExercises(ModelCopies.copyExercises(exercises));
+        workoutList.loadWorkouts(ModelCopies.copyWorkouts(workouts));
+        goals.load(goalType, description);
+        weightTracker.loadWeightRecords(new ArrayList<>(weightRecords));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keeps a copy of the state of the given model objects
+    @Override
+    public void save(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) {
+        exercises = ModelCopies.copyExercises(exerciseDatabase.getExercisesView());
+        workouts = ModelCopies.copyWorkouts(workoutList.getWorkoutsView());
+        goalType = goals.getGoalType();
+        description = goals.getDescription();
+        weightRecords = weightTracker.getWeightRecords();
+        saveCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keeps a copy of the state of the given model objects; copying the whole state in memory
+    // is as cheap as tracking the changes would be
+    @Override
+    public void append(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) {
+        save(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    @Override
+    public String getLocation() {
+        return "memory";
+    }
+}
@@ -0,0 +1,426 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.ModelObserver;
+import model.Subject;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An append-only write-ahead journal of model changes that sits next to a JSON snapshot.
+ * Once attached to the model, every change reported to it as a ModelObserver is encoded as a
+ * compact, checksummed entry. Entries are written and forced to disk in groups, so saving costs
+ * time proportional to the number of changes rather than to the size of the history.
+ * When the journal grows past a threshold, it is folded into a new snapshot on a background thread, which
+ * replays it onto the snapshot it applies to rather than reading the model, so the thread changing the
+ * model only moves the journal aside.
+ *
+ * <p>The journal header records a fingerprint (length and CRC-32) of the snapshot it applies to,
+ * so a journal left over from an older snapshot is never replayed on top of a newer one.
+ */
+public class Journal implements ModelObserver {
+    public static final int DEFAULT_GROUP_SIZE = 32;
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private static final int MAGIC = 0x46544A31; // "FTJ1"
+    private static final int HEADER_SIZE = 12;
+    private static final long PENDING_BASE = -1L;
+
+    private final Path journalPath;
+    private final Path previousPath;
+    private final Path snapshotPath;
+    private final int groupSize;
+    private final long compactionThreshold;
+
+    private FileChannel channel;
+    private long position;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingEntries;
+    private IOException failure;
+
+    private ExecutorService compactor;
+    private Future<?> compaction;
+
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    private long replayedEnd = -1;
+    private boolean recoveryPending;
+
+    // EFFECTS: constructs a journal stored at journalPath for the snapshot at snapshotPath,
+    // using the default group size and compaction threshold
+    public Journal(String journalPath, String snapshotPath) {
+        this(journalPath, snapshotPath, DEFAULT_GROUP_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // REQUIRES: groupSize > 0 and compactionThreshold > 0
+    // EFFECTS: constructs a journal stored at journalPath for the snapshot at snapshotPath that forces
+    // entries to disk every groupSize entries and compacts once the journal exceeds compactionThreshold bytes
+    public Journal(String journalPath, String snapshotPath, int groupSize, long compactionThreshold) {
+        this.journalPath = Paths.get(journalPath);
+        this.previousPath = Paths.get(journalPath + ".old");
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.groupSize = groupSize;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // REQUIRES: the journal is not attached, and the given model objects were just loaded from the snapshot
+    // MODIFIES: this, exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: applies every intact journal entry that belongs to the current snapshot to the model,
+    // stopping at the first torn or corrupt entry; throws IOException if the journal cannot be read
+    public void replay(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) throws IOException {
+        long base = fingerprint(snapshotPath);
+        JournalReplay replay = new JournalReplay(exerciseDatabase, workoutList, goals, weightTracker);
+        recoveryPending = Files.exists(previousPath);
+        if (recoveryPending && readBase(previousPath) == base) {
+            replay.apply(Files.readAllBytes(previousPath), HEADER_SIZE);
+        }
+        replayedEnd = -1;
+        if (Files.exists(journalPath)) {
+            long journalBase = readBase(journalPath);
+            if (journalBase == base || journalBase == PENDING_BASE) {
+                replayedEnd = replay.apply(Files.readAllBytes(journalPath), HEADER_SIZE);
+                recoveryPending |= journalBase == PENDING_BASE;
+            }
+        }
+        replay.load(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // REQUIRES: the given model objects reflect the snapshot plus any replayed journal entries
+    // MODIFIES: this, exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: starts journaling every change to the given model objects. If replay found an interrupted
+    // compaction, the model is first folded into a new snapshot. Throws IOException if the journal or
+    // snapshot cannot be written.
+    public void attach(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) throws IOException {
+        detach();
+        awaitCompaction();
+        synchronized (this) {
+            open(exerciseDatabase, workoutList, goals, weightTracker);
+            this.exerciseDatabase = exerciseDatabase;
+            this.workoutList = workoutList;
+            this.goals = goals;
+            this.weightTracker = weightTracker;
+            observe(true);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the journal file for appending, folding the model into a new snapshot first
+    // if replay found an interrupted compaction
+    private void open(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                      Goals goals, WeightTracker weightTracker) throws IOException {
+        if (recoveryPending) {
+            writeSnapshot(exerciseDatabase, workoutList, goals, weightTracker);
+            reset();
+        } else if (replayedEnd >= 0) {
+            channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+            channel.truncate(replayedEnd);
+            position = replayedEnd;
+        } else {
+            reset();
+        }
+        recoveryPending = false;
+        replayedEnd = -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes any pending entries, waits for a running compaction and stops journaling;
+    // throws IOException if pending entries could not be written
+    public void detach() throws IOException {
+        if (!isAttached()) {
+            return;
+        }
+        observe(false);
+        try {
+            sync();
+        } finally {
+            awaitCompaction();
+            closeChannel();
+        }
+    }
+
+    // EFFECTS: returns true if changes to the model are currently being journaled
+    public synchronized boolean isAttached() {
+        return channel != null;
+    }
+
+    // EFFECTS: returns true if changes to exactly the given model objects are currently being journaled
+    public synchronized boolean isAttachedTo(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                                             Goals goals, WeightTracker weightTracker) {
+        return channel != null && this.exerciseDatabase == exerciseDatabase && this.workoutList == workoutList
+                && this.goals == goals && this.weightTracker == weightTracker;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes all pending entries and forces them to disk; throws IOException if this or
+    // an earlier group commit or background compaction failed
+    public synchronized void sync() throws IOException {
+        if (failure != null) {
+            IOException reported = failure;
+            failure = null;
+            throw reported;
+        }
+        commit();
+    }
+
+    // EFFECTS: returns the number of bytes in the journal, including entries not yet written
+    public synchronized long size() {
+        return position + pending.size();
+    }
+
+    // EFFECTS: blocks until any running background compaction has finished
+    public void awaitCompaction() {
+        Future<?> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        if (running != null) {
+            try {
+                running.get();
+            } catch (Exception e) {
+                // failures are recorded by the compaction itself and reported by sync
+            }
+        }
+    }
+
+    @Override
+    public void workoutAdded(Workout workout) {
+        append(JournalReplay.ADD_WORKOUT, entry -> entry.writeWorkout(workout));
+    }
+
+    @Override
+    public void workoutRemoved(int index) {
+        append(JournalReplay.REMOVE_WORKOUT, entry -> entry.writeInt(index));
+    }
+
+    @Override
+    public void workoutUpdated(int index, Workout workout) {
+        append(JournalReplay.UPDATE_WORKOUT, entry -> {
+            entry.writeInt(index);
+            entry.writeWorkout(workout);
+        });
+    }
+
+    @Override
+    public void exerciseAdded(Exercise exercise) {
+        append(JournalReplay.ADD_EXERCISE, entry -> entry.writeExercise(exercise));
+    }
+
+    @Override
+    public void exerciseUpdated(int index, Exercise exercise) {
+        append(JournalReplay.UPDATE_EXERCISE, entry -> {
+            entry.writeInt(index);
+            entry.writeExercise(exercise);
+        });
+    }
+
+    @Override
+    public void goalsUpdated(Goals goals) {
+        append(JournalReplay.SET_GOALS, entry -> {
+            entry.writeString(goals.getGoalType());
+            entry.writeString(goals.getDescription());
+        });
+    }
+
+    @Override
+    public void weightLogged(WeightRecord record) {
+        append(JournalReplay.LOG_WEIGHT, entry -> {
+            entry.writeString(record.getDate());
+            entry.writeDouble(record.getWeight());
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: encodes an entry into the pending group, committing the group once it is full;
+    // a failed commit is remembered and reported by the next call to sync
+    private synchronized void append(byte op, JournalEntry.Body body) {
+        JournalEntry.encode(op, body, pending);
+        pendingEntries++;
+        if (pendingEntries >= groupSize) {
+            try {
+                commit();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the pending group to the journal file, forces it to disk, and starts
+    // a compaction if the journal has grown past the threshold
+    private synchronized void commit() throws IOException {
+        if (pending.size() == 0 || channel == null) {
+            return;
+        }
+        ByteBuffer group = ByteBuffer.wrap(pending.toByteArray());
+        while (group.hasRemaining()) {
+            position += channel.write(group, position);
+        }
+        channel.force(false);
+        pending.reset();
+        pendingEntries = 0;
+        if (position > compactionThreshold && compaction == null && !Files.exists(previousPath)) {
+            startCompaction();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the full journal aside, starts a fresh one and folds the full one into a new snapshot
+    // on a background thread; it takes constant time and never reads the model, whose observers may be
+    // holding locks of their own
+    private void startCompaction() throws IOException {
+        closeChannel();
+        Files.move(journalPath, previousPath, StandardCopyOption.REPLACE_EXISTING);
+        createJournal(PENDING_BASE);
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compaction = compactor.submit(this::compact);
+    }
+
+    // MODIFIES: this, snapshot file
+    // EFFECTS: replays the journal moved aside onto the snapshot it applies to, writes the result as the new
+    // snapshot, points the current journal at it and deletes the journal that was folded in; a failure is
+    // remembered and reported by the next call to sync
+    private void compact() {
+        try {
+            ExerciseDatabase exercises = new ExerciseDatabase();
+            WorkoutList workouts = new WorkoutList();
+            Goals folded = new Goals("", "");
+            WeightTracker weights = new WeightTracker();
+            if (Files.exists(snapshotPath)) {
+                new JsonReader(snapshotPath.toString(), true).read(exercises, workouts, folded, weights);
+            }
+            JournalReplay replay = new JournalReplay(exercises, workouts, folded, weights);
+            replay.apply(Files.readAllBytes(previousPath), HEADER_SIZE);
+            replay.load(exercises, workouts, folded, weights);
+            writeSnapshot(exercises, workouts, folded, weights);
+            long base = fingerprint(snapshotPath);
+            synchronized (this) {
+                writeHeader(channel, base);
+                channel.force(false);
+            }
+            Files.deleteIfExists(previousPath);
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        } finally {
+            synchronized (this) {
+                compaction = null;
+            }
+        }
+    }
+
+    // MODIFIES: snapshot file
+    // EFFECTS: atomically replaces the snapshot with the given model, keeping the default number of earlier
+    // generations
+    private void writeSnapshot(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                               Goals goals, WeightTracker weightTracker) throws IOException {
+        JsonWriter writer = new JsonWriter(snapshotPath.toString(), true);
+        writer.setAtomic(true);
+        writer.write(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // REQUIRES: no compaction is running
+    // MODIFIES: this
+    // EFFECTS: discards any previous journals and starts an empty one for the current snapshot
+    private void reset() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(previousPath);
+        pending.reset();
+        pendingEntries = 0;
+        createJournal(fingerprint(snapshotPath));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates an empty journal file whose header names the given snapshot fingerprint
+    private void createJournal(long base) throws IOException {
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader(channel, base);
+        channel.force(true);
+        position = HEADER_SIZE;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the journal file, if open
+    private synchronized void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: registers or unregisters this journal with every attached model object
+    private void observe(boolean register) {
+        Subject[] subjects = {exerciseDatabase, workoutList, goals, weightTracker};
+        for (Subject subject : subjects) {
+            if (register) {
+                subject.addObserver(this);
+            } else {
+                subject.removeObserver(this);
+            }
+        }
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes the journal header naming the given snapshot fingerprint
+    private static void writeHeader(FileChannel file, long base) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(base);
+        header.flip();
+        while (header.hasRemaining()) {
+            file.write(header, header.position());
+        }
+    }
+
+    // EFFECTS: returns the snapshot fingerprint named by the header of the journal at path,
+    // or 0 if the header is missing or not a journal header
+    private static long readBase(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && file.read(header) > 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                return 0;
+            }
+            return header.getLong();
+        }
+    }
+
+    // EFFECTS: returns a fingerprint combining the length and CRC-32 of the file at path, or 0 if it is missing
+    static long fingerprint(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return (Files.size(path) << 32) | SnapshotFiles.crc(path);
+    }
+}
@@ -0,0 +1,94 @@
+package persistence;
+
+import model.Exercise;
+import model.Workout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes a single journal entry. Each entry is framed as its payload length and CRC-32
+ * followed by the payload: a one byte operation code and the fields of the change.
+ */
+final class JournalEntry {
+
+    // The fields of an entry, written after its operation code
+    interface Body {
+        void write(JournalEntry entry) throws IOException;
+    }
+
+    private final DataOutputStream out;
+
+    // EFFECTS: constructs an entry writing its fields to out
+    private JournalEntry(DataOutputStream out) {
+        this.out = out;
+    }
+
+    // MODIFIES: target
+    // EFFECTS: appends the framed entry with the given operation code and fields to target
+    static void encode(byte op, Body body, ByteArrayOutputStream target) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(payload);
+            data.writeByte(op);
+            body.write(new JournalEntry(data));
+            byte[] bytes = payload.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+
+            DataOutputStream frame = new DataOutputStream(target);
+            frame.writeInt(bytes.length);
+            frame.writeInt((int) crc.getValue());
+            frame.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams never fail
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an int field
+    void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a double field
+    void writeDouble(double value) throws IOException {
+        out.writeDouble(value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string field as its UTF-8 byte count followed by the bytes
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the fields of a workout, ending with a byte telling whether its start is known and,
+    // if so, the start as epoch seconds and nanoseconds
+    void writeWorkout(Workout workout) throws IOException {
+        writeString(workout.getExerciseType());
+        writeInt(workout.getDuration());
+        writeString(workout.getIntensity());
+        Instant start = workout.getStart();
+        out.writeBoolean(start != null);
+        if (start != null) {
+            out.writeLong(start.getEpochSecond());
+            out.writeInt(start.getNano());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the fields of an exercise
+    void writeExercise(Exercise exercise) throws IOException {
+        writeString(exercise.getName());
+        writeString(exercise.getInstructions());
+    }
+}
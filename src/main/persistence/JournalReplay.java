@@ -0,0 +1,148 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Applies journal entries to a detached copy of the model state and loads the result back into
+ * the model in one step, so the model is never left half replayed and no events are logged.
+ */
+final class JournalReplay {
+    static final byte ADD_WORKOUT = 1;
+    static final byte REMOVE_WORKOUT = 2;
+    static final byte UPDATE_WORKOUT = 3;
+    static final byte ADD_EXERCISE = 4;
+    static final byte UPDATE_EXERCISE = 5;
+    static final byte SET_GOALS = 6;
+    static final byte LOG_WEIGHT = 7;
+
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private final List<Exercise> exercises = new ArrayList<>();
+    private final List<Workout> workouts = new ArrayList<>();
+    private final List<WeightRecord> records = new ArrayList<>();
+    private String goalType;
+    private String description;
+
+    // EFFECTS: constructs a replay starting from a copy of the current contents of the given model objects
+    JournalReplay(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                  Goals goals, WeightTracker weightTracker) {
+        for (Exercise exercise : exerciseDatabase.getExercisesView()) {
+            exercises.add(new Exercise(exercise.getName(), exercise.getInstructions()));
+        }
+        for (Workout workout : workoutList.getWorkoutsView()) {
+            workouts.add(new Workout(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(),
+                    workout.getStart()));
+        }
+        for (WeightRecord record : weightTracker.getWeightRecordsView()) {
+            records.add(new WeightRecord(record.getDate(), record.getWeight()));
+        }
+        goalType = goals.getGoalType();
+        description = goals.getDescription();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies the framed entries in data starting at offset, stopping at the end of the data or at
+    // the first torn or corrupt entry; returns the offset just past the last entry applied
+    long apply(byte[] data, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int end = Math.min(offset, data.length);
+        buffer.position(end);
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() || crc(data, buffer.position(), length) != checksum) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.wrap(data, buffer.position(), length).slice();
+            try {
+                applyEntry(payload);
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            end = buffer.position();
+        }
+        return end;
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: replaces the contents of the given model objects with the replayed state
+    void load(ExerciseDatabase exerciseDatabase, WorkoutList workoutList, Goals goals, WeightTracker weightTracker) {
+        exerciseDatabase.loadExercises(exercises);
+        workoutList.loadWorkouts(workouts);
+        goals.load(goalType, description);
+        weightTracker.loadWeightRecords(records);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies a single entry payload; throws IOException if its operation code is unknown
+    private void applyEntry(ByteBuffer payload) throws IOException {
+        byte op = payload.get();
+        switch (op) {
+            case ADD_WORKOUT: workouts.add(readWorkout(payload));
+                break;
+            case REMOVE_WORKOUT: workouts.remove(payload.getInt());
+                break;
+            case UPDATE_WORKOUT: workouts.set(payload.getInt(), readWorkout(payload));
+                break;
+            case ADD_EXERCISE: exercises.add(new Exercise(readString(payload), readString(payload)));
+                break;
+            case UPDATE_EXERCISE: exercises.set(payload.getInt(), new Exercise(readString(payload),
+                    readString(payload)));
+                break;
+            case SET_GOALS: goalType = readString(payload);
+                description = readString(payload);
+                break;
+            case LOG_WEIGHT: records.add(new WeightRecord(readString(payload), payload.getDouble()));
+                break;
+            default: throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    // EFFECTS: reads the fields of a workout; entries written before workouts had a start end after the
+    // intensity, and give a workout without a start
+    private static Workout readWorkout(ByteBuffer payload) {
+        String exerciseType = readString(payload);
+        int duration = payload.getInt();
+        String intensity = readString(payload);
+        Instant start = null;
+        if (payload.hasRemaining() && payload.get() != 0) {
+            start = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+        }
+        return new Workout(exerciseType, duration, intensity, start);
+    }
+
+    // EFFECTS: reads a string written as its UTF-8 byte count followed by the bytes
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+                StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    // EFFECTS: returns the CRC-32 of the given range of data
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,275 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes a JSON document as UTF-8 bytes into a fixed-size buffer that is drained to an
+ * output stream whenever it fills up, so no String or JSONObject copy of the document is built.
+ * Output can be compact or pretty-printed with a four space indent.
+ */
+class JsonGenerator {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int INDENT = 4;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final double MAX_EXACT_LONG = 1e15;
+
+    private final OutputStream out;
+    private final boolean prettyPrint;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+
+    private boolean[] hasElements = new boolean[32];
+    private int depth;
+    private boolean afterName;
+
+    // EFFECTS: constructs a generator writing to out, pretty-printed if prettyPrint is true
+    JsonGenerator(OutputStream out, boolean prettyPrint) {
+        this.out = out;
+        this.prettyPrint = prettyPrint;
+    }
+
+    // REQUIRES: depth >= 0
+    // EFFECTS: constructs a generator for a single value that will be placed after a member name at the
+    // given nesting depth of another document, so its indentation matches that document
+    JsonGenerator(OutputStream out, boolean prettyPrint, int depth) {
+        this(out, prettyPrint);
+        this.depth = depth;
+        if (depth >= hasElements.length) {
+            hasElements = new boolean[depth * 2];
+        }
+        this.afterName = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new object
+    JsonGenerator beginObject() throws IOException {
+        return open('{');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current object
+    JsonGenerator endObject() throws IOException {
+        return close('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new array
+    JsonGenerator beginArray() throws IOException {
+        return open('[');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current array
+    JsonGenerator endArray() throws IOException {
+        return close(']');
+    }
+
+    // REQUIRES: the generator is inside an object and not directly after another name
+    // MODIFIES: this
+    // EFFECTS: writes the name of the next object member
+    JsonGenerator name(String name) throws IOException {
+        beforeValue();
+        writeQuoted(name);
+        writeByte(':');
+        if (prettyPrint) {
+            writeByte(' ');
+        }
+        afterName = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string value
+    JsonGenerator value(String value) throws IOException {
+        beforeValue();
+        writeQuoted(value);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes an integral number value
+    JsonGenerator value(long value) throws IOException {
+        beforeValue();
+        writeAscii(Long.toString(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a number value, dropping a zero fraction the same way org.json does;
+    // throws IOException if value is NaN or infinite, since JSON cannot represent it
+    JsonGenerator value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IOException("JSON does not allow non-finite numbers: " + value);
+        }
+        beforeValue();
+        if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            writeAscii(Long.toString((long) value));
+        } else {
+            writeAscii(Double.toString(value));
+        }
+        return this;
+    }
+
+    // REQUIRES: encoded is one complete JSON value produced for the current nesting depth
+    // MODIFIES: this
+    // EFFECTS: writes an already encoded value as is
+    JsonGenerator rawValue(byte[] encoded) throws IOException {
+        beforeValue();
+        if (encoded.length >= buffer.length - pos) {
+            flushBuffer();
+            out.write(encoded);
+        } else {
+            System.arraycopy(encoded, 0, buffer, pos, encoded.length);
+            pos += encoded.length;
+        }
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes any buffered bytes to the underlying stream and flushes it
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens an object or array with the given bracket
+    private JsonGenerator open(char bracket) throws IOException {
+        beforeValue();
+        writeByte(bracket);
+        if (++depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current object or array with the given bracket
+    private JsonGenerator close(char bracket) throws IOException {
+        boolean nonEmpty = hasElements[depth];
+        depth--;
+        if (nonEmpty) {
+            newline();
+        }
+        writeByte(bracket);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the separator and indentation that precede a value or member name
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth]) {
+                writeByte(',');
+            }
+            hasElements[depth] = true;
+            newline();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new indented line if pretty printing
+    private void newline() throws IOException {
+        if (prettyPrint) {
+            writeByte('\n');
+            for (int i = 0; i < depth * INDENT; i++) {
+                writeByte(' ');
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes s as a quoted JSON string, escaping quotes, backslashes and control characters
+    private void writeQuoted(String s) throws IOException {
+        writeByte('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                writeByte(c);
+            } else if (c < 0x80) {
+                writeEscaped(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+            } else {
+                writeCodePoint(Character.isSurrogate(c) ? '?' : c);
+            }
+        }
+        writeByte('"');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the escape sequence for an ASCII character that cannot appear raw in a string
+    private void writeEscaped(char c) throws IOException {
+        writeByte('\\');
+        switch (c) {
+            case '"': writeByte('"');
+                break;
+            case '\\': writeByte('\\');
+                break;
+            case '\b': writeByte('b');
+                break;
+            case '\f': writeByte('f');
+                break;
+            case '\n': writeByte('n');
+                break;
+            case '\r': writeByte('r');
+                break;
+            case '\t': writeByte('t');
+                break;
+            default:
+                writeAscii("u00");
+                writeByte(HEX[c >> 4]);
+                writeByte(HEX[c & 0xF]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the UTF-8 encoding of a non-ASCII code point
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x800) {
+            writeByte(0xC0 | (codePoint >> 6));
+        } else if (codePoint < 0x10000) {
+            writeByte(0xE0 | (codePoint >> 12));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+        } else {
+            writeByte(0xF0 | (codePoint >> 18));
+            writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+        }
+        writeByte(0x80 | (codePoint & 0x3F));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string known to contain only ASCII characters
+    private void writeAscii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            writeByte(s.charAt(i));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends one byte to the buffer, draining it first if it is full
+    private void writeByte(int b) throws IOException {
+        if (pos == buffer.length) {
+            flushBuffer();
+        }
+        buffer[pos++] = (byte) b;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the buffered bytes to the underlying stream and empties the buffer
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+}
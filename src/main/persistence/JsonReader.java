@@ -4,12 +4,21 @@ import model.ExerciseDatabase;
 import model.WorkoutList;
 import model.Goals;
 import model.WeightTracker;
+import org.json.JSONException;
 import org.json.JSONObject;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.time.format.DateTimeParseException;
 
 /**
  * Handles reading and loading the application state from a JSON-formatted file.
@@ -20,35 +29,134 @@ import java.util.stream.Stream;
 
 // Represents a reader that reads workroom from JSON data stored in file
 public class JsonReader {
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
     private String source;
-    // EFFECTS: constructs reader to read from source file
+    private boolean streaming;
+    private int fallbackGenerations;
+    private boolean usedFallback;
 
+    // EFFECTS: constructs reader to read from source file
     public JsonReader(String source) {
+        this(source, false);
+    }
+
+    // EFFECTS: constructs reader to read from source file; if streaming is true, the file is parsed
+    // token by token straight into the model instead of being loaded into a JSONObject first
+    public JsonReader(String source, boolean streaming) {
         this.source = source;
+        this.streaming = streaming;
     }
 
+    // EFFECTS: returns true if this reader parses the file token by token
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    // REQUIRES: fallbackGenerations >= 0
+    // MODIFIES: this
+    // EFFECTS: sets how many rotated earlier snapshots (as kept by an atomic JsonWriter) read may fall
+    // back to when the source file is missing, fails its checksum or cannot be parsed
+    public void setFallbackGenerations(int fallbackGenerations) {
+        this.fallbackGenerations = fallbackGenerations;
+    }
+
+    // EFFECTS: returns true if the last successful read had to fall back to an earlier snapshot
+    public boolean usedFallback() {
+        return usedFallback;
+    }
 
     // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
     // EFFECTS: reads and parses the JSON data from the source file, and initializes
     // the exerciseDatabase, workoutList, goals, and weightTracker with the parsed data;
-    // throws IOException if an error occurs reading data from the file
+    // throws IOException if an error occurs reading data from the file. Gzip or deflate compressed files
+    // and binary snapshots written by BinaryWriter are recognised by their first bytes and loaded as well.
+    // With fallback generations set, candidates are tried newest first: a candidate whose checksum does
+    // not match is skipped without being parsed, and the first one that loads is used.
     public void read(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
                      Goals goals, WeightTracker weightTracker) throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        exerciseDatabase.loadFromJson(jsonObject.getJSONArray("exerciseDatabase"));
-        workoutList.loadFromJson(jsonObject.getJSONArray("workoutList"));
-        goals.loadFromJson(jsonObject.getJSONObject("goals"));
-        weightTracker.loadFromJson(jsonObject.getJSONArray("weightTracker"));
+        usedFallback = false;
+        Path target = Paths.get(source);
+        IOException firstFailure = null;
+        for (Path candidate : SnapshotFiles.candidates(target, fallbackGenerations)) {
+            try {
+                if (candidate != target && !Files.exists(candidate)) {
+                    continue;
+                }
+                if (SnapshotFiles.hasChecksum(candidate) && !SnapshotFiles.isIntact(candidate)) {
+                    throw new IOException("Checksum mismatch in " + candidate);
+                }
+                readFrom(candidate, exerciseDatabase, workoutList, goals, weightTracker);
+                usedFallback = candidate != target;
+                return;
+            } catch (IOException e) {
+                firstFailure = firstFailure == null ? e : firstFailure;
+            }
+        }
+        throw firstFailure;
     }
 
-    // EFFECTS: reads source file as string and returns it; throws IOException if an error occurs reading from the file
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: reads the given file in this reader's mode, or with BinaryReader if it starts with the binary
+    // snapshot magic bytes; throws IOException if it cannot be read or parsed
+    private void readFrom(Path file, ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                          Goals goals, WeightTracker weightTracker) throws IOException {
+        if (BinaryReader.isBinary(file)) {
+            BinaryReader.read(file, exerciseDatabase, workoutList, goals, weightTracker);
+            return;
+        }
+        Compression compression = Compression.detect(file);
+        if (streaming) {
+            readStreaming(file, compression, exerciseDatabase, workoutList, goals, weightTracker);
+            return;
+        }
+        try {
+            JSONObject jsonObject = new JSONObject(readFile(file, compression));
+            exerciseDatabase.loadFromJson(jsonObject.getJSONArray("exerciseDatabase"));
+            workoutList.loadFromJson(jsonObject.getJSONArray("workoutList"));
+            goals.loadFromJson(jsonObject.getJSONObject("goals"));
+            weightTracker.loadFromJson(jsonObject.getJSONArray("weightTracker"));
+        } catch (JSONException | DateTimeParseException e) {
+            throw new IOException("Malformed JSON in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: reads the source file through a buffered channel, decompressing it on the fly if needed, and
+    // builds the model objects directly from the JSON tokens; throws IOException if an error occurs reading
+    // or parsing the file
+    private void readStreaming(Path file, Compression compression, ExerciseDatabase exerciseDatabase,
+                               WorkoutList workoutList, Goals goals, WeightTracker weightTracker) throws IOException {
+        try (Reader in = open(file, compression)) {
+            new JsonStreamReader(in).read(exerciseDatabase, workoutList, goals, weightTracker);
+        }
+    }
+
+    // EFFECTS: reads source file as string, decompressing it if needed, and returns it;
+    // throws IOException if an error occurs reading from the file
 
-    private String readFile(String source) throws IOException {
+    private String readFile(Path source, Compression compression) throws IOException {
         StringBuilder contentBuilder = new StringBuilder();
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+        try (BufferedReader in = new BufferedReader(open(source, compression))) {
+            in.lines().forEach(s -> contentBuilder.append(s));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
         return contentBuilder.toString();
     }
+
+    // EFFECTS: opens file as UTF-8 text through a channel, decompressing it if needed
+    private static Reader open(Path file, Compression compression) throws IOException {
+        FileChannel channel = FileChannel.open(file);
+        if (compression == Compression.NONE) {
+            return Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), CHANNEL_BUFFER_SIZE);
+        }
+        try {
+            InputStream in = compression.decompress(Channels.newInputStream(channel));
+            return new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package persistence;
+
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.WorkoutList;
+
+import java.io.IOException;
+
+/**
+ * Keeps the application state in a JSON snapshot with a journal of the changes made since it was written.
+ * Snapshots are replaced atomically and only re-encode the sections that changed since the last save,
+ * and loading falls back to the earlier snapshots kept next to the file if the latest one is damaged.
+ * After a load or save, every change to the model is journaled, so append, and saving a copy of the model
+ * taken for a background save, only have to force the latest journal entries to disk.
+ */
+public class JsonStorage implements Storage {
+    public static final String DEFAULT_SNAPSHOT = "./data/fitnessApp.json";
+    public static final String DEFAULT_JOURNAL = "./data/fitnessApp.journal";
+
+    private final String snapshotPath;
+    private final JsonWriter jsonWriter;
+    private final JsonReader jsonReader;
+    private final Journal journal;
+
+    // EFFECTS: constructs a storage using the default snapshot and journal files
+    public JsonStorage() {
+        this(DEFAULT_SNAPSHOT, DEFAULT_JOURNAL);
+    }
+
+    // EFFECTS: constructs a storage using the given snapshot and journal files
+    public JsonStorage(String snapshotPath, String journalPath) {
+        this.snapshotPath = snapshotPath;
+        jsonWriter = new JsonWriter(snapshotPath, true);
+        jsonWriter.setAtomic(true);
+        jsonWriter.setSectionCaching(true);
+        jsonReader = new JsonReader(snapshotPath, true);
+        jsonReader.setFallbackGenerations(JsonWriter.DEFAULT_KEPT_GENERATIONS);
+        journal = new Journal(journalPath, snapshotPath);
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: reads the snapshot, replays the journal of changes made since it was written and starts
+    // journaling the model objects; throws IOException if the snapshot or journal cannot be read
+    @Override
+    public void load(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        journal.detach();
+        jsonReader.read(exerciseDatabase, workoutList, goals, weightTracker);
+        if (jsonReader.usedFallback()) {
+            // the journal belongs to the damaged snapshot, so start over from the one that loaded
+            jsonWriter.write(exerciseDatabase, workoutList, goals, weightTracker);
+        } else {
+            journal.replay(exerciseDatabase, workoutList, goals, weightTracker);
+        }
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a new snapshot, empties the journal and starts journaling the model objects;
+    // throws IOException if the snapshot or journal cannot be written
+    @Override
+    public void save(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        journal.detach();
+        jsonWriter.write(exerciseDatabase, workoutList, goals, weightTracker);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the journal entries of the given model objects to disk if they are being journaled,
+    // otherwise saves them in full
+    @Override
+    public void append(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) throws IOException {
+        if (journal.isAttachedTo(exerciseDatabase, workoutList, goals, weightTracker)) {
+            journal.sync();
+        } else {
+            save(exerciseDatabase, workoutList, goals, weightTracker);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the model the copy was taken from is being journaled, forces the journal to disk, since it
+    // already holds every change the copy reflects; otherwise writes the copy as a new snapshot without
+    // journaling it
+    @Override
+    public void saveCopy(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                         Goals goals, WeightTracker weightTracker) throws IOException {
+        if (journal.isAttached()) {
+            journal.sync();
+        } else {
+            jsonWriter.write(exerciseDatabase, workoutList, goals, weightTracker);
+        }
+    }
+
+    // EFFECTS: returns true while a model is being journaled, since saveCopy then only syncs the journal
+    @Override
+    public boolean keepsLoggedWeights() {
+        return journal.isAttached();
+    }
+
+    @Override
+    public String getLocation() {
+        return snapshotPath;
+    }
+}
@@ -0,0 +1,201 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the application state from a JSON document token by token.
+ * Workouts, weight records and exercises are created directly from the tokens,
+ * so no intermediate JSONObject tree or String copy of the file is ever built.
+ */
+class JsonStreamReader {
+    private final JsonTokenizer tokenizer;
+
+    // EFFECTS: constructs a stream reader over the given character stream
+    JsonStreamReader(Reader in) {
+        this.tokenizer = new JsonTokenizer(in);
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: parses the document and loads every section into the given model objects;
+    // members that are not recognized are skipped. Throws IOException if the document is malformed
+    // or a required section is missing, in which case none of the model objects are modified.
+    void read(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+              Goals goals, WeightTracker weightTracker) throws IOException {
+        List<Exercise> exercises = null;
+        List<Workout> workouts = null;
+        List<WeightRecord> records = null;
+        String[] goal = null;
+
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "exerciseDatabase": exercises = readExercises();
+                    break;
+                case "workoutList": workouts = readWorkouts();
+                    break;
+                case "goals": goal = readGoals();
+                    break;
+                case "weightTracker": records = readWeightRecords();
+                    break;
+                default: tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        tokenizer.peek(); // rejects trailing content
+
+        requireSection(exercises, "exerciseDatabase");
+        requireSection(workouts, "workoutList");
+        requireSection(goal, "goals");
+        requireSection(records, "weightTracker");
+        exerciseDatabase.loadExercises(exercises);
+        workoutList.loadWorkouts(workouts);
+        goals.load(goal[0], goal[1]);
+        weightTracker.loadWeightRecords(records);
+    }
+
+    // EFFECTS: throws IOException if the given section was not found in the document
+    private void requireSection(Object section, String name) throws IOException {
+        if (section == null) {
+            throw new IOException("Missing section \"" + name + "\"");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an array of exercises
+    private List<Exercise> readExercises() throws IOException {
+        List<Exercise> exercises = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            String name = null;
+            String instructions = null;
+            tokenizer.beginObject();
+            while (tokenizer.hasNext()) {
+                switch (tokenizer.nextName()) {
+                    case "name": name = tokenizer.nextString();
+                        break;
+                    case "instructions": instructions = tokenizer.nextString();
+                        break;
+                    default: tokenizer.skipValue();
+                }
+            }
+            tokenizer.endObject();
+            exercises.add(new Exercise(require(name, "name"), require(instructions, "instructions")));
+        }
+        tokenizer.endArray();
+        return exercises;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an array of workouts
+    private List<Workout> readWorkouts() throws IOException {
+        List<Workout> workouts = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            workouts.add(readWorkout());
+        }
+        tokenizer.endArray();
+        return workouts;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a single workout object
+    private Workout readWorkout() throws IOException {
+        String exerciseType = null;
+        String intensity = null;
+        Integer duration = null;
+        Instant start = null;
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "exerciseType": exerciseType = tokenizer.nextString();
+                    break;
+                case "duration": duration = tokenizer.nextInt();
+                    break;
+                case "intensity": intensity = tokenizer.nextString();
+                    break;
+                case "start": start = readInstant();
+                    break;
+                default: tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        return new Workout(require(exerciseType, "exerciseType"), require(duration, "duration"),
+                require(intensity, "intensity"), start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an ISO-8601 instant; throws IOException if the string is not one
+    private Instant readInstant() throws IOException {
+        String value = tokenizer.nextString();
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IOException("Malformed workout start: " + value, e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the goals object and returns its goal type and description
+    private String[] readGoals() throws IOException {
+        String goalType = null;
+        String description = null;
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "goalType": goalType = tokenizer.nextString();
+                    break;
+                case "description": description = tokenizer.nextString();
+                    break;
+                default: tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        return new String[] {require(goalType, "goalType"), require(description, "description")};
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an array of weight records
+    private List<WeightRecord> readWeightRecords() throws IOException {
+        List<WeightRecord> records = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            String date = null;
+            Double weight = null;
+            tokenizer.beginObject();
+            while (tokenizer.hasNext()) {
+                switch (tokenizer.nextName()) {
+                    case "date": date = tokenizer.nextString();
+                        break;
+                    case "weight": weight = tokenizer.nextDouble();
+                        break;
+                    default: tokenizer.skipValue();
+                }
+            }
+            tokenizer.endObject();
+            records.add(new WeightRecord(require(date, "date"), require(weight, "weight")));
+        }
+        tokenizer.endArray();
+        return records;
+    }
+
+    // EFFECTS: returns value, or throws IOException naming the missing key if it is null
+    private static <T> T require(T value, String key) throws IOException {
+        if (value == null) {
+            throw new IOException("Missing key \"" + key + "\"");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.ModelSnapshot;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the application state as a JSON document by walking the model directly.
+ * The output uses the same member names as the toJson() methods of the model classes,
+ * so it can be read back by JsonReader in either mode. Given a SectionCache, sections whose
+ * container has not been modified since they were last encoded are copied from the cache.
+ * A ModelSnapshot is written the same way, without the cache.
+ */
+class JsonStreamWriter {
+    private final JsonGenerator generator;
+    private final boolean prettyPrint;
+    private final SectionCache cache;
+
+    // EFFECTS: constructs a stream writer that encodes into out, pretty-printed if prettyPrint is true
+    JsonStreamWriter(OutputStream out, boolean prettyPrint) {
+        this(out, prettyPrint, null);
+    }
+
+    // EFFECTS: constructs a stream writer that encodes into out, pretty-printed if prettyPrint is true,
+    // reusing and updating the sections in cache unless it is null
+    JsonStreamWriter(OutputStream out, boolean prettyPrint, SectionCache cache) {
+        this.generator = new JsonGenerator(out, prettyPrint);
+        this.prettyPrint = prettyPrint;
+        this.cache = cache;
+    }
+
+    // MODIFIES: this, cache
+    // EFFECTS: writes the whole document and flushes it to the underlying stream
+    void write(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+               Goals goals, WeightTracker weightTracker) throws IOException {
+        generator.beginObject();
+        writeSection("exerciseDatabase", exerciseDatabase, exerciseDatabase.getModCount(),
+                g -> writeExercises(g, exerciseDatabase.getExercisesView()));
+        writeSection("workoutList", workoutList, workoutList.getModCount(),
+                g -> writeWorkouts(g, workoutList.getWorkoutsView()));
+        writeSection("goals", goals, goals.getModCount(),
+                g -> writeGoals(g, goals.getGoalType(), goals.getDescription()));
+        writeSection("weightTracker", weightTracker, weightTracker.getModCount(),
+                g -> writeWeightRecords(g, weightTracker.getWeightRecordsView()));
+        generator.endObject();
+        generator.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the whole document from snapshot and flushes it to the underlying stream
+    void write(ModelSnapshot snapshot) throws IOException {
+        generator.beginObject();
+        writeExercises(generator.name("exerciseDatabase"), snapshot.getExercises());
+        writeWorkouts(generator.name("workoutList"), snapshot.getWorkouts());
+        writeGoals(generator.name("goals"), snapshot.getGoalType(), snapshot.getGoalDescription());
+        writeWeightRecords(generator.name("weightTracker"), snapshot.getWeightRecords());
+        generator.endObject();
+        generator.flush();
+    }
+
+    // MODIFIES: this, cache
+    // EFFECTS: writes the named member; without a cache the section is encoded in place, otherwise it is
+    // taken from the cache or encoded on its own and cached for owner at modCount
+    private void writeSection(String name, Object owner, long modCount, Section section) throws IOException {
+        generator.name(name);
+        if (cache == null) {
+            section.write(generator);
+            return;
+        }
+        byte[] encoded = cache.get(name, owner, modCount);
+        if (encoded == null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            JsonGenerator nested = new JsonGenerator(bytes, prettyPrint, 1);
+            section.write(nested);
+            nested.flush();
+            encoded = bytes.toByteArray();
+            cache.put(name, owner, modCount, encoded);
+        }
+        generator.rawValue(encoded);
+    }
+
+    // EFFECTS: writes the exercise database as an array of exercise objects
+    private static void writeExercises(JsonGenerator g, List<Exercise> exercises) throws IOException {
+        g.beginArray();
+        for (Exercise exercise : exercises) {
+            g.beginObject();
+            g.name("name").value(exercise.getName());
+            g.name("instructions").value(exercise.getInstructions());
+            g.endObject();
+        }
+        g.endArray();
+    }
+
+    // EFFECTS: writes the workout list as an array of workout objects
+    private static void writeWorkouts(JsonGenerator g, List<Workout> workouts) throws IOException {
+        g.beginArray();
+        for (Workout workout : workouts) {
+            g.beginObject();
+            g.name("exerciseType").value(workout.getExerciseType());
+            g.name("duration").value(workout.getDuration());
+            g.name("intensity").value(workout.getIntensity());
+            if (workout.getStart() != null) {
+                g.name("start").value(workout.getStart().toString());
+            }
+            g.endObject();
+        }
+        g.endArray();
+    }
+
+    // EFFECTS: writes the goals object
+    private static void writeGoals(JsonGenerator g, String goalType, String description) throws IOException {
+        g.beginObject();
+        g.name("goalType").value(goalType);
+        g.name("description").value(description);
+        g.endObject();
+    }
+
+    // EFFECTS: writes the weight tracker as an array of weight record objects
+    private static void writeWeightRecords(JsonGenerator g, List<WeightRecord> records) throws IOException {
+        g.beginArray();
+        for (WeightRecord record : records) {
+            g.beginObject();
+            g.name("date").value(record.getDate());
+            g.name("weight").value(record.getWeight());
+            g.endObject();
+        }
+        g.endArray();
+    }
+
+    /**
+     * Encodes one section of the document with the given generator.
+     */
+    private interface Section {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,467 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A small pull parser that reads JSON tokens one at a time from a character stream.
+ * Unlike org.json, it never holds the whole document in memory: only a fixed-size
+ * character buffer and the stack of currently open objects and arrays are kept.
+ */
+class JsonTokenizer {
+
+    // The kinds of tokens the tokenizer can produce
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // The states of an open object or array (and of the document itself)
+    private enum Scope {
+        EMPTY_DOCUMENT, NONEMPTY_DOCUMENT, EMPTY_OBJECT, DANGLING_NAME, NONEMPTY_OBJECT, EMPTY_ARRAY, NONEMPTY_ARRAY
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+
+    private Scope[] stack = new Scope[32];
+    private int stackSize;
+    private Token peeked;
+
+    // EFFECTS: constructs a tokenizer positioned at the start of the document read from in
+    JsonTokenizer(Reader in) {
+        this.in = in;
+        stack[stackSize++] = Scope.EMPTY_DOCUMENT;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the kind of the next token without consuming it;
+    // throws IOException if the input is malformed or cannot be read
+    Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns true if the current object or array has another element
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an object; throws IOException if the next token is not '{'
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(Scope.EMPTY_OBJECT);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of an object; throws IOException if the next token is not '}'
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an array; throws IOException if the next token is not '['
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(Scope.EMPTY_ARRAY);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of an array; throws IOException if the next token is not ']'
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next member name; throws IOException if the next token is not a name
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        String name = readString();
+        stack[stackSize - 1] = Scope.DANGLING_NAME;
+        return name;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next string value; throws IOException if the next token is not a string
+    String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next number and returns it as a double; throws IOException if it is not a number
+    // as JSON spells them
+    double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        String literal = readLiteral();
+        if (!isNumber(literal)) {
+            throw syntaxError("Malformed number " + literal);
+        }
+        return Double.parseDouble(literal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next number and returns it as an int, truncating any fraction the same
+    // way JSONObject.getInt does; throws IOException if it is not a number
+    int nextInt() throws IOException {
+        return (int) nextDouble();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next value, including any nested objects or arrays, and discards it
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT: beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY: beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT: endObject();
+                    depth--;
+                    break;
+                case END_ARRAY: endArray();
+                    depth--;
+                    break;
+                case NAME: nextName();
+                    break;
+                case STRING: nextString();
+                    break;
+                case NUMBER: nextDouble();
+                    break;
+                case BOOLEAN: expectLiteral(Token.BOOLEAN, "true", "false");
+                    break;
+                case NULL: expectLiteral(Token.NULL, "null");
+                    break;
+                default: throw syntaxError("Expected a value but was " + peek());
+            }
+        } while (depth > 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next literal if it is of the expected kind and has one of the given spellings;
+    // throws IOException otherwise
+    private void expectLiteral(Token expected, String... spellings) throws IOException {
+        expect(expected);
+        String literal = readLiteral();
+        if (!Arrays.asList(spellings).contains(literal)) {
+            throw syntaxError("Malformed literal " + literal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next token if it is of the expected kind; throws IOException otherwise
+    private void expect(Token expected) throws IOException {
+        Token actual = peek();
+        if (actual != expected) {
+            throw syntaxError("Expected " + expected + " but was " + actual);
+        }
+        peeked = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads past any separators required by the enclosing scope and classifies the next token
+    private Token doPeek() throws IOException {
+        Scope scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                return peekInArray(scope);
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                return peekInObject(scope);
+            case DANGLING_NAME:
+                consumeSeparator(':');
+                stack[stackSize - 1] = Scope.NONEMPTY_OBJECT;
+                return peekValue();
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = Scope.NONEMPTY_DOCUMENT;
+                return peekValue();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Unexpected content after the end of the document");
+                }
+                return Token.END_DOCUMENT;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: classifies the next token inside an array
+    private Token peekInArray(Scope scope) throws IOException {
+        int c = nextNonWhitespace();
+        if (c == ']') {
+            pos++;
+            return Token.END_ARRAY;
+        }
+        if (scope == Scope.NONEMPTY_ARRAY) {
+            consumeSeparator(',');
+        }
+        stack[stackSize - 1] = Scope.NONEMPTY_ARRAY;
+        return peekValue();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: classifies the next token inside an object, which must be '}' or a member name
+    private Token peekInObject(Scope scope) throws IOException {
+        int c = nextNonWhitespace();
+        if (c == '}') {
+            pos++;
+            return Token.END_OBJECT;
+        }
+        if (scope == Scope.NONEMPTY_OBJECT) {
+            consumeSeparator(',');
+            c = nextNonWhitespace();
+        }
+        if (c != '"') {
+            throw syntaxError("Expected a member name");
+        }
+        pos++;
+        return Token.NAME;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: classifies the next value token; string contents and literals are left unread
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{': pos++;
+                return Token.BEGIN_OBJECT;
+            case '[': pos++;
+                return Token.BEGIN_ARRAY;
+            case '"': pos++;
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            case -1:
+                throw syntaxError("Unexpected end of input");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the given separator character; throws IOException if something else is found
+    private void consumeSeparator(char separator) throws IOException {
+        if (nextNonWhitespace() != separator) {
+            throw syntaxError("Expected '" + separator + "'");
+        }
+        pos++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the rest of a string whose opening quote was already consumed, decoding escapes
+    private String readString() throws IOException {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    return finish(builder, start, pos - 1 - start);
+                } else if (c == '\\') {
+                    builder = append(builder, start, pos - 1 - start);
+                    builder.append(readEscape());
+                    start = pos;
+                }
+            }
+            builder = append(builder, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    // EFFECTS: returns the decoded string, avoiding a builder when the string had no escapes or refills
+    private String finish(StringBuilder builder, int start, int length) {
+        if (builder == null) {
+            return new String(buffer, start, length);
+        }
+        return builder.append(buffer, start, length).toString();
+    }
+
+    // MODIFIES: builder
+    // EFFECTS: appends the given buffer range to builder, creating it if needed
+    private StringBuilder append(StringBuilder builder, int start, int length) {
+        StringBuilder result = builder == null ? new StringBuilder(Math.max(16, length * 2)) : builder;
+        return result.append(buffer, start, length);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the character(s) following a backslash and returns the escaped character; throws
+    // IOException unless they are one of the escapes JSON defines
+    private char readEscape() throws IOException {
+        if (!ensure(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                if (!ensure(4)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                String hex = new String(buffer, pos, 4);
+                pos += 4;
+                int value = 0;
+                for (int i = 0; i < hex.length(); i++) {
+                    int digit = hexDigit(hex.charAt(i));
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape \\u" + hex);
+                    }
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence \\" + c);
+        }
+    }
+
+    // EFFECTS: returns the value of c as an ASCII hexadecimal digit, or -1 if it is not one
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an unquoted literal (number, true, false or null) up to the next delimiter
+    private String readLiteral() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        while (ensure(1)) {
+            char c = buffer[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c)) {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+        if (builder.length() == 0) {
+            throw syntaxError("Expected a value");
+        }
+        return builder.toString();
+    }
+
+    // EFFECTS: returns true if literal is a number as JSON spells it: an optional minus sign, an integer part
+    // without leading zeros, and an optional fraction and exponent
+    private static boolean isNumber(String literal) {
+        int i = literal.startsWith("-") ? 1 : 0;
+        int start = i;
+        i = skipDigits(literal, i);
+        if (i == start || (literal.charAt(start) == '0' && i - start > 1)) {
+            return false;
+        }
+        if (i < literal.length() && literal.charAt(i) == '.') {
+            int fraction = i + 1;
+            i = skipDigits(literal, fraction);
+            if (i == fraction) {
+                return false;
+            }
+        }
+        if (i < literal.length() && (literal.charAt(i) == 'e' || literal.charAt(i) == 'E')) {
+            i++;
+            if (i < literal.length() && (literal.charAt(i) == '+' || literal.charAt(i) == '-')) {
+                i++;
+            }
+            int exponent = i;
+            i = skipDigits(literal, exponent);
+            if (i == exponent) {
+                return false;
+            }
+        }
+        return i == literal.length();
+    }
+
+    // EFFECTS: returns the index of the first character of literal at or after i that is not a digit
+    private static int skipDigits(String literal, int i) {
+        while (i < literal.length() && literal.charAt(i) >= '0' && literal.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips whitespace and returns the next character without consuming it, or -1 at end of input
+    private int nextNonWhitespace() throws IOException {
+        while (ensure(1)) {
+            char c = buffer[pos];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes sure at least count characters are buffered; returns false if the input ends first
+    private boolean ensure(int count) throws IOException {
+        while (limit - pos < count) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves unread characters to the front of the buffer and reads more input;
+    // returns false if no more characters are available
+    private boolean fill() throws IOException {
+        int remaining = limit - pos;
+        System.arraycopy(buffer, pos, buffer, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: pushes a new scope onto the stack, growing it if needed
+    private void push(Scope scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    // EFFECTS: returns an IOException describing a syntax error
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
@@ -1,11 +1,23 @@
 package persistence;
 
 import model.ExerciseDatabase;
+import model.ModelSnapshot;
 import model.WorkoutList;
 import model.Goals;
 import model.WeightTracker;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 
 /**
@@ -16,38 +28,253 @@ import java.io.*;
  */
 // Represents a writer that writes JSON representation of workroom to file
 public class JsonWriter {
+    public static final int DEFAULT_KEPT_GENERATIONS = 2;
     private static final int TAB = 4;
+    private static final int COMPRESSED_BUFFER_SIZE = 64 * 1024;
     private PrintWriter writer;
+    private OutputStream stream;
     private String destination;
+    private boolean streaming;
+    private boolean prettyPrint = true;
+    private boolean atomic;
+    private int keptGenerations = DEFAULT_KEPT_GENERATIONS;
+    private FileChannel channel;
+    private CheckedOutputStream checked;
+    private SectionCache sectionCache;
+    private Compression compression = Compression.NONE;
+    private int compressionLevel = Compression.DEFAULT_LEVEL;
 
 
     // EFFECTS: constructs writer to write to destination file
     public JsonWriter(String destination) {
+        this(destination, false);
+    }
+
+    // EFFECTS: constructs writer to write to destination file; if streaming is true, the model is
+    // encoded straight to the file instead of being rendered from a JSONObject first
+    public JsonWriter(String destination, boolean streaming) {
         this.destination = destination;
+        this.streaming = streaming;
+    }
+
+    // EFFECTS: returns true if this writer encodes the model straight to the file
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether streaming output is indented for readability or written compactly
+    public void setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+        if (sectionCache != null) {
+            sectionCache.clear();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether streaming writes keep the encoded bytes of each section and reuse them on the
+    // next write if that section's container has not been modified since, instead of encoding it again;
+    // the cache costs about as much memory as the file it was written to
+    public void setSectionCaching(boolean sectionCaching) {
+        sectionCache = sectionCaching ? new SectionCache() : null;
+    }
+
+    // EFFECTS: returns true if streaming writes reuse the sections that did not change since the last write
+    public boolean isSectionCaching() {
+        return sectionCache != null;
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-    // be opened for writing
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+    // EFFECTS: sets whether writes go to a temporary file that is forced to disk and then atomically
+    // moved over the destination, keeping rotated earlier generations and a checksum of each file
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    // EFFECTS: returns true if this writer replaces the destination atomically
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    // REQUIRES: keptGenerations >= 0
+    // MODIFIES: this
+    // EFFECTS: sets how many earlier snapshots an atomic write keeps next to the destination
+    public void setKeptGenerations(int keptGenerations) {
+        this.keptGenerations = keptGenerations;
+    }
+
+    // REQUIRES: level is Compression.DEFAULT_LEVEL or between 0 (fastest) and 9 (smallest)
+    // MODIFIES: this
+    // EFFECTS: sets whether snapshots are written gzip or deflate compressed, and at which level;
+    // JsonReader recognises either from the first bytes of the file
+    public void setCompression(Compression compression, int level) {
+        this.compression = compression;
+        this.compressionLevel = level;
+    }
+
+    // EFFECTS: returns the compression applied to snapshots
+    public Compression getCompression() {
+        return compression;
+    }
+
+    // EFFECTS: returns the destination file of this writer
+    public String getDestination() {
+        return destination;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws IOException if destination file (or its temporary
+    // sibling in atomic mode) cannot be opened for writing
+    public void open() throws IOException {
+        stream = atomic ? openTemp() : openInPlace();
+        if (compression != Compression.NONE) {
+            stream = compression.compress(new BufferedOutputStream(stream, COMPRESSED_BUFFER_SIZE),
+                    compressionLevel);
+        }
+        if (!streaming) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+        if (!atomic) {
+            // a plain write leaves any checksum from an earlier atomic write out of date
+            Files.deleteIfExists(SnapshotFiles.checksumFor(Paths.get(destination)));
+        }
     }
 
 
     // MODIFIES: this, file at destination
-    // EFFECTS: writes JSON representation of ExerciseDatabase, WorkoutList, Goals, and WeightTracker to file
+    // EFFECTS: writes JSON representation of ExerciseDatabase, WorkoutList, Goals, and WeightTracker to file;
+    // throws IOException if the file cannot be opened or written. In atomic mode the destination is only
+    // replaced once the new contents are safely on disk, and a failed write leaves no temporary file behind.
     public void write(ExerciseDatabase exerciseDatabase,
-                      WorkoutList workoutList, Goals goals, WeightTracker weightTracker) throws FileNotFoundException {
+                      WorkoutList workoutList, Goals goals, WeightTracker weightTracker) throws IOException {
         open();
-        JSONObject json = new JSONObject();
-        json.put("exerciseDatabase", exerciseDatabase.toJson());
-        json.put("workoutList", workoutList.toJson());
-        json.put("goals", goals.toJson());
-        json.put("weightTracker", weightTracker.toJson());
-        saveToFile(json.toString(TAB));
+        try {
+            if (streaming) {
+                new JsonStreamWriter(stream, prettyPrint, sectionCache).write(exerciseDatabase, workoutList, goals, weightTracker);
+            } else {
+                JSONObject json = new JSONObject();
+                json.put("exerciseDatabase", exerciseDatabase.toJson());
+                json.put("workoutList", workoutList.toJson());
+                json.put("goals", goals.toJson());
+                json.put("weightTracker", weightTracker.toJson());
+                saveToFile(json.toString(TAB));
+            }
+            finish();
+        } catch (IOException | RuntimeException e) {
+            abandon(e);
+            throw e;
+        }
         close();
     }
 
+    // MODIFIES: this, file at destination
+    // EFFECTS: writes JSON representation of the model as it was when snapshot was taken to file, in the same
+    // form as write with the containers, so it can run on any thread while the model goes on changing;
+    // throws IOException if the file cannot be opened or written. The section cache is not used.
+    public void write(ModelSnapshot snapshot) throws IOException {
+        open();
+        try {
+            if (streaming) {
+                new JsonStreamWriter(stream, prettyPrint).write(snapshot);
+            } else {
+                JSONObject json = new JSONObject();
+                JSONArray exercises = new JSONArray();
+                snapshot.getExercises().forEach(exercise -> exercises.put(exercise.toJson()));
+                json.put("exerciseDatabase", exercises);
+                JSONArray workouts = new JSONArray();
+                snapshot.getWorkouts().forEach(workout -> workouts.put(workout.toJson()));
+                json.put("workoutList", workouts);
+                json.put("goals", new Goals(snapshot.getGoalType(), snapshot.getGoalDescription()).toJson());
+                JSONArray weightRecords = new JSONArray();
+                snapshot.getWeightRecords().forEach(record -> weightRecords.put(record.toJson()));
+                json.put("weightTracker", weightRecords);
+                saveToFile(json.toString(TAB));
+            }
+            finish();
+        } catch (IOException | RuntimeException e) {
+            abandon(e);
+            throw e;
+        }
+        close();
+    }
+
+    // EFFECTS: opens the destination file for writing in place and returns a stream to it; a destination that
+    // an interrupted atomic write left hard-linked to its first generation is removed first rather than
+    // truncated, so that generation keeps its contents
+    private OutputStream openInPlace() throws IOException {
+        try {
+            Path target = Paths.get(destination);
+            Path previous = SnapshotFiles.generation(target, 1);
+            if (Files.exists(target) && Files.exists(previous) && Files.isSameFile(target, previous)) {
+                Files.delete(target);
+            }
+        } catch (InvalidPathException e) {
+            // FileOutputStream reports the invalid name
+        }
+        return new FileOutputStream(destination);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the temporary sibling of the destination through a FileChannel and returns a stream
+    // to it that computes a checksum of everything written
+    private OutputStream openTemp() throws IOException {
+        Path temp;
+        try {
+            temp = SnapshotFiles.tempFor(Paths.get(destination));
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(destination + " (" + e.getMessage() + ")");
+        }
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+        return checked;
+    }
+
+    // MODIFIES: this, file at destination
+    // EFFECTS: makes sure everything written, including the end of any compressed data, has reached the file;
+    // in atomic mode, forces the temporary file to disk and moves it over the destination
+    private void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("Unable to write to " + destination);
+            }
+        }
+        Compression.finish(stream);
+        stream.flush();
+        if (atomic) {
+            channel.force(true);
+            long length = channel.size();
+            long crc = checked.getChecksum().getValue();
+            close();
+            Path target = Paths.get(destination);
+            SnapshotFiles.commit(SnapshotFiles.tempFor(target), target, crc, length, keptGenerations);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the writer after a failed write and, in atomic mode, deletes the temporary file and its
+    // checksum; a checksum whose file was already moved over the destination is kept, since it is the one
+    // that matches it. Failures to clean up are added to failure as suppressed exceptions.
+    private void abandon(Exception failure) {
+        try {
+            close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        if (!atomic) {
+            return;
+        }
+        try {
+            Path temp = SnapshotFiles.tempFor(Paths.get(destination));
+            if (Files.deleteIfExists(temp)) {
+                Files.deleteIfExists(SnapshotFiles.checksumFor(temp));
+            }
+        } catch (IOException | InvalidPathException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
     // MODIFIES: this, file at destination
     // EFFECTS: writes given string to file
     private void saveToFile(String json) {
@@ -55,8 +282,29 @@ public class JsonWriter {
     }
 
     // MODIFIES: this
-    // EFFECTS: closes the writer
-    public void close() {
-        writer.close();
+    // EFFECTS: closes the writer; throws IOException if closing failed, since compressed or buffered data
+    // written out on close may not have reached the file
+    public void close() throws IOException {
+        IOException failure = null;
+        if (writer != null) {
+            writer.close();
+            if (writer.checkError()) {
+                failure = new IOException("Unable to write to " + destination);
+            }
+            writer = null;
+        }
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+            stream = null;
+        }
+        channel = null;
+        checked = null;
+        if (failure != null) {
+            throw failure;
+        }
     }
 }
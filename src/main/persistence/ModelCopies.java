@@ -0,0 +1,35 @@
+package persistence;
+
+import model.Exercise;
+import model.Workout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies of model objects that can be handed to another owner or thread without sharing state.
+ * Weight records are immutable and never need copying.
+ */
+final class ModelCopies {
+    private ModelCopies() {
+    }
+
+    // EFFECTS: returns copies of the given exercises
+    static List<Exercise> copyExercises(List<Exercise> exercises) {
+        List<Exercise> copies = new ArrayList<>(exercises.size());
+        for (Exercise exercise : exercises) {
+            copies.add(new Exercise(exercise.getName(), exercise.getInstructions()));
+        }
+        return copies;
+    }
+
+    // EFFECTS: returns copies of the given workouts
+    static List<Workout> copyWorkouts(List<Workout> workouts) {
+        List<Workout> copies = new ArrayList<>(workouts.size());
+        for (Workout workout : workouts) {
+            copies.add(new Workout(workout.getExerciseType(), workout.getDuration(), workout.getIntensity(),
+                    workout.getStart()));
+        }
+        return copies;
+    }
+}
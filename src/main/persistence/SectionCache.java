@@ -0,0 +1,47 @@
+package persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the encoded bytes of each top-level section of the last document written, together with
+ * the container they came from and its modification count, so a section that has not changed since
+ * can be copied into the next document instead of being encoded again.
+ */
+class SectionCache {
+    private final Map<String, Section> sections = new HashMap<>();
+
+    // EFFECTS: returns the bytes cached for the named section if they were encoded from owner when its
+    // modification count was modCount, or null otherwise
+    byte[] get(String name, Object owner, long modCount) {
+        Section section = sections.get(name);
+        if (section == null || section.owner != owner || section.modCount != modCount) {
+            return null;
+        }
+        return section.bytes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: caches bytes as the encoding of the named section of owner at the given modification count
+    void put(String name, Object owner, long modCount, byte[] bytes) {
+        sections.put(name, new Section(owner, modCount, bytes));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every cached section
+    void clear() {
+        sections.clear();
+    }
+
+    private static final class Section {
+        private final Object owner;
+        private final long modCount;
+        private final byte[] bytes;
+
+        private Section(Object owner, long modCount, byte[] bytes) {
+            this.owner = owner;
+            this.modCount = modCount;
+            this.bytes = bytes;
+        }
+    }
+}
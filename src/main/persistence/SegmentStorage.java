@@ -0,0 +1,558 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.ModelObserver;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the application state in a directory of per-month segment files described by a small manifest.
+ * Weight records dated "YYYY-MM-DD" are stored in the segment of their month; everything else (exercises,
+ * workouts, goals and any weight records with other dates) is stored in a base snapshot written by
+ * BinaryWriter. Loading reads the base and the most recent months; older months stay on disk and are
+ * handed to the WeightTracker as a WeightArchive, so they are only read when a query reaches back to them.
+ *
+ * <p>Segments only grow between full saves: append writes newly logged records after the ones already in
+ * their segment, forces them to disk, and then replaces the manifest, which records how many records of
+ * each segment are valid. A crash before the manifest is replaced leaves the extra records unused.
+ * The manifest ends with the CRC-32 of the lines before it, so it is replaced by a single atomic move and
+ * is never out of step with a separate checksum file.
+ * A copy saved with saveCopy while a model is bound is stored the same way: the records logged in the bound
+ * model are appended, and the base is rewritten from the copy only if the copy's other parts changed.
+ *
+ * <p>A full save writes every segment under a new generation number ("2023-01.4.seg") that only the new
+ * manifest refers to, and deletes the previous generation once that manifest is in place, so a crash during
+ * a full save leaves the old manifest and the segments it counts untouched.
+ *
+ * <p>Workouts are all kept in the base snapshot, so any change to them rewrites it. Splitting them into
+ * monthly segments by their start instants, as is done for weight records, is follow-up work.
+ */
+public class SegmentStorage implements Storage {
+    public static final String DEFAULT_DIRECTORY = "./data/fitnessApp.segments";
+    public static final int DEFAULT_RECENT_MONTHS = 3;
+
+    private static final String MANIFEST = "manifest";
+    private static final String MANIFEST_HEADER = "fitness-segments 2";
+    private static final String MANIFEST_GENERATION = "generation ";
+    private static final String MANIFEST_CHECKSUM = "checksum ";
+    private static final String BASE = "base.bin";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int SEGMENT_MAGIC = 0x46545347; // "FTSG"
+    private static final short SEGMENT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 12;
+    private static final int MONTH_LENGTH = 7;
+
+    private final Path directory;
+    private final int recentMonths;
+    private final Map<String, Integer> counts = new TreeMap<>();
+    private final List<WeightRecord> undated = new ArrayList<>();
+    private final List<WeightRecord> logged = new ArrayList<>(); // guarded by itself
+    private final WeightLog weightLog = new WeightLog();
+    private int generation;
+
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+    private long exerciseModCount;
+    private long workoutModCount;
+    private long goalsModCount;
+    private long weightModCount;
+    private ExerciseDatabase copiedExercises;
+    private WorkoutList copiedWorkouts;
+    private Goals copiedGoals;
+    private long copiedExerciseModCount;
+    private long copiedWorkoutModCount;
+    private long copiedGoalsModCount;
+
+    // EFFECTS: constructs a storage in the default directory that loads the default number of recent months
+    public SegmentStorage() {
+        this(DEFAULT_DIRECTORY, DEFAULT_RECENT_MONTHS);
+    }
+
+    // REQUIRES: recentMonths >= 0
+    // EFFECTS: constructs a storage in the given directory whose loads read the given number of most
+    // recent months eagerly and leave older months to be read on demand
+    public SegmentStorage(String directory, int recentMonths) {
+        this.directory = Paths.get(directory);
+        this.recentMonths = recentMonths;
+    }
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: loads the base snapshot and the recent months, leaving older months archived in the
+    // WeightTracker; throws IOException if the manifest, base or a recent segment cannot be read
+    @Override
+    public void load(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        unbind();
+        Map<String, Integer> manifest = new TreeMap<>();
+        int manifestGeneration = readManifest(manifest);
+        WeightTracker baseWeights = new WeightTracker();
+        BinaryReader.read(directory.resolve(BASE), exerciseDatabase, workoutList, goals, baseWeights);
+
+        List<String> months = new ArrayList<>(manifest.keySet());
+        int firstRecent = Math.max(0, months.size() - recentMonths);
+        List<WeightRecord> recent = new ArrayList<>();
+        for (String month : months.subList(firstRecent, months.size())) {
+            recent.addAll(readSegment(month, manifestGeneration, manifest.get(month)));
+        }
+        recent.addAll(baseWeights.getWeightRecords());
+        Map<String, Integer> archivedCounts = new HashMap<>(manifest);
+        weightTracker.loadWeightRecords(recent, months.subList(0, firstRecent), month -> {
+            try {
+                return readSegment(month, manifestGeneration, archivedCounts.get(month));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        counts.clear();
+        counts.putAll(manifest);
+        generation = manifestGeneration;
+        undated.clear();
+        undated.addAll(baseWeights.getWeightRecords());
+        bind(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rewrites every segment, the base snapshot and the manifest from the given model objects,
+    // loading any archived months first, and removes segments of months that no longer have records;
+    // throws IOException if they cannot be written
+    @Override
+    public void save(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                     Goals goals, WeightTracker weightTracker) throws IOException {
+        unbind();
+        write(exerciseDatabase, workoutList, goals, weightTracker);
+        bind(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if a model is bound, appends the weight records logged in it since it was last stored and rewrites
+    // the base snapshot from the copy only if the copy's exercises, workouts or goals changed since the last copy
+    // saved, leaving the bound model's archived months unread; otherwise writes the copy in full. The binding
+    // is left as it is either way.
+    @Override
+    public void saveCopy(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                         Goals goals, WeightTracker weightTracker) throws IOException {
+        if (this.weightTracker == null) {
+            write(exerciseDatabase, workoutList, goals, weightTracker);
+            return;
+        }
+        List<WeightRecord> records;
+        synchronized (logged) {
+            records = new ArrayList<>(logged);
+        }
+        boolean baseChanged = exerciseDatabase != copiedExercises || workoutList != copiedWorkouts
+                || goals != copiedGoals || exerciseDatabase.getModCount() != copiedExerciseModCount
+                || workoutList.getModCount() != copiedWorkoutModCount || goals.getModCount() != copiedGoalsModCount;
+        if (appendRecords(records, baseChanged, exerciseDatabase, workoutList, goals)) {
+            copiedExercises = exerciseDatabase;
+            copiedWorkouts = workoutList;
+            copiedGoals = goals;
+            copiedExerciseModCount = exerciseDatabase.getModCount();
+            copiedWorkoutModCount = workoutList.getModCount();
+            copiedGoalsModCount = goals.getModCount();
+        }
+        synchronized (logged) {
+            // records logged while the copy was being stored stay for the next append or copy
+            logged.subList(0, records.size()).clear();
+        }
+        weightModCount += records.size();
+    }
+
+    // EFFECTS: returns true while a model is bound, since saveCopy then stores the weight records logged in it
+    // rather than the copy's
+    @Override
+    public boolean keepsLoggedWeights() {
+        return weightTracker != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every segment under a new generation, the base snapshot and then the manifest from the
+    // given model objects without binding them, loading any archived months first, and removes the segments
+    // of earlier generations; throws IOException if they cannot be written
+    private void write(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, List<WeightRecord>> byMonth = new TreeMap<>();
+        List<WeightRecord> otherDates = new ArrayList<>();
+        for (WeightRecord record : weightTracker.getWeightRecordsView()) {
+            String month = monthOf(record);
+            if (month == null) {
+                otherDates.add(record);
+            } else {
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(record);
+            }
+        }
+        int newGeneration = nextGeneration();
+        Map<String, Integer> newCounts = new TreeMap<>();
+        for (Map.Entry<String, List<WeightRecord>> entry : byMonth.entrySet()) {
+            writeSegment(entry.getKey(), newGeneration, entry.getValue());
+            newCounts.put(entry.getKey(), entry.getValue().size());
+        }
+        writeBase(exerciseDatabase, workoutList, goals, otherDates);
+        writeManifest(newCounts, newGeneration);
+        counts.clear();
+        counts.putAll(newCounts);
+        generation = newGeneration;
+        deleteStaleSegments();
+        undated.clear();
+        undated.addAll(otherDates);
+        copiedExercises = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the given model objects were last loaded or saved through this storage and only changed
+    // through their own methods since, appends newly logged weight records to their segments and rewrites
+    // the base snapshot only if exercises, workouts or goals changed; otherwise saves them in full
+    @Override
+    public void append(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                       Goals goals, WeightTracker weightTracker) throws IOException {
+        List<WeightRecord> records;
+        synchronized (logged) {
+            records = new ArrayList<>(logged);
+        }
+        if (!isBoundTo(exerciseDatabase, workoutList, goals, weightTracker)
+                || weightTracker.getModCount() != weightModCount + records.size()) {
+            save(exerciseDatabase, workoutList, goals, weightTracker);
+            return;
+        }
+        boolean baseChanged = exerciseDatabase.getModCount() != exerciseModCount
+                || workoutList.getModCount() != workoutModCount || goals.getModCount() != goalsModCount;
+        appendRecords(records, baseChanged, exerciseDatabase, workoutList, goals);
+        remember();
+    }
+
+    // MODIFIES: this, files in the directory
+    // EFFECTS: appends the dated records to their segments and replaces the manifest, and rewrites the base
+    // snapshot from the given exercises, workouts and goals if baseChanged or a record is not dated
+    // "YYYY-MM-DD"; the record counts and undated records are only updated once everything is written.
+    // Returns true if the base snapshot was rewritten.
+    private boolean appendRecords(List<WeightRecord> records, boolean baseChanged, ExerciseDatabase exerciseDatabase,
+                                  WorkoutList workoutList, Goals goals) throws IOException {
+        Map<String, List<WeightRecord>> byMonth = new TreeMap<>();
+        List<WeightRecord> newUndated = new ArrayList<>(undated);
+        for (WeightRecord record : records) {
+            String month = monthOf(record);
+            if (month == null) {
+                newUndated.add(record);
+                baseChanged = true;
+            } else {
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(record);
+            }
+        }
+        Map<String, Integer> newCounts = new TreeMap<>(counts);
+        for (Map.Entry<String, List<WeightRecord>> entry : byMonth.entrySet()) {
+            int count = newCounts.getOrDefault(entry.getKey(), 0);
+            appendSegment(entry.getKey(), count, entry.getValue());
+            newCounts.put(entry.getKey(), count + entry.getValue().size());
+        }
+        if (baseChanged) {
+            writeBase(exerciseDatabase, workoutList, goals, newUndated);
+        }
+        if (!byMonth.isEmpty()) {
+            writeManifest(newCounts, generation);
+        }
+        counts.clear();
+        counts.putAll(newCounts);
+        undated.clear();
+        undated.addAll(newUndated);
+        return baseChanged;
+    }
+
+    @Override
+    public String getLocation() {
+        return directory.toString();
+    }
+
+    // EFFECTS: returns the month of record's date in "YYYY-MM" form, or null if the date is not "YYYY-MM-DD"
+    private static String monthOf(WeightRecord record) {
+        return WeightRecord.epochDay(record.getDate()) == null ? null
+                : record.getDate().substring(0, MONTH_LENGTH);
+    }
+
+    // EFFECTS: returns the segment file of the given month and generation
+    private Path segmentFile(String month, int generation) {
+        return directory.resolve(month + "." + generation + SEGMENT_SUFFIX);
+    }
+
+    // EFFECTS: returns a generation higher than that of any segment file in the directory, so none of them
+    // is overwritten by a full save
+    private int nextGeneration() throws IOException {
+        int highest = generation;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                String[] parts = name.substring(0, name.length() - SEGMENT_SUFFIX.length()).split("\\.");
+                try {
+                    highest = Math.max(highest, Integer.parseInt(parts[parts.length - 1]));
+                } catch (NumberFormatException e) {
+                    // not a segment this storage wrote
+                }
+            }
+        }
+        return highest + 1;
+    }
+
+    // EFFECTS: reads the first count records of the given month's segment of the given generation
+    private List<WeightRecord> readSegment(String month, int generation, int count) throws IOException {
+        Path file = segmentFile(month, generation);
+        ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_HEADER_SIZE + count * RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // keep reading until the valid records are in
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() != buffer.capacity() || buffer.getInt() != SEGMENT_MAGIC
+                || buffer.getShort() > SEGMENT_VERSION) {
+            throw new IOException("Malformed segment " + file);
+        }
+        buffer.getShort();
+        List<WeightRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String date = LocalDate.ofEpochDay(buffer.getInt()).toString();
+            records.add(new WeightRecord(date, buffer.getDouble()));
+        }
+        return records;
+    }
+
+    // MODIFIES: segment file of month
+    // EFFECTS: replaces the segment of the given month and generation with one holding exactly the given records
+    private void writeSegment(String month, int generation, List<WeightRecord> records) throws IOException {
+        Path file = segmentFile(month, generation);
+        Path temp = SnapshotFiles.tempFor(file);
+        ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_HEADER_SIZE + records.size() * RECORD_SIZE);
+        buffer.putInt(SEGMENT_MAGIC).putShort(SEGMENT_VERSION).putShort((short) 0);
+        putRecords(buffer, records);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, buffer, 0);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // MODIFIES: segment file of month
+    // EFFECTS: writes records after the first count records of the given month's segment, creating the
+    // segment if count is 0, and forces them to disk
+    private void appendSegment(String month, int count, List<WeightRecord> records) throws IOException {
+        if (count == 0) {
+            writeSegment(month, generation, records);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_SIZE);
+        putRecords(buffer, records);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(segmentFile(month, generation), StandardOpenOption.WRITE)) {
+            writeFully(channel, buffer, SEGMENT_HEADER_SIZE + (long) count * RECORD_SIZE);
+            channel.force(false);
+        }
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: puts each record as its epoch day and weight
+    private static void putRecords(ByteBuffer buffer, List<WeightRecord> records) {
+        for (WeightRecord record : records) {
+            buffer.putInt(WeightRecord.epochDay(record.getDate()));
+            buffer.putDouble(record.getWeight());
+        }
+    }
+
+    // MODIFIES: channel
+    // EFFECTS: writes all of buffer to channel starting at the given position
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // MODIFIES: base snapshot file
+    // EFFECTS: writes exercises, workouts, goals and the weight records without a "YYYY-MM-DD" date
+    private void writeBase(ExerciseDatabase exerciseDatabase, WorkoutList workoutList, Goals goals,
+                           List<WeightRecord> otherDates) throws IOException {
+        WeightTracker baseWeights = new WeightTracker();
+        baseWeights.loadWeightRecords(otherDates);
+        BinaryWriter writer = new BinaryWriter(directory.resolve(BASE).toString());
+        writer.setKeptGenerations(0);
+        writer.write(exerciseDatabase, workoutList, goals, baseWeights);
+    }
+
+    // MODIFIES: manifest
+    // EFFECTS: puts the record count of each month listed in the manifest into manifest and returns the
+    // generation of the segments it refers to
+    private int readManifest(Map<String, Integer> manifest) throws IOException {
+        Path file = directory.resolve(MANIFEST);
+        byte[] bytes = Files.readAllBytes(file);
+        String contents = new String(bytes, StandardCharsets.US_ASCII);
+        int checksumLine = contents.lastIndexOf('\n' + MANIFEST_CHECKSUM) + 1;
+        if (!contents.startsWith(MANIFEST_HEADER + '\n') || checksumLine == 0 || !contents.endsWith("\n")) {
+            throw new IOException("Malformed manifest " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, checksumLine);
+        String recorded = contents.substring(checksumLine + MANIFEST_CHECKSUM.length(), contents.length() - 1);
+        if (!recorded.equals(String.format("%08x", crc.getValue()))) {
+            throw new IOException("Checksum mismatch in " + file);
+        }
+        List<String> lines = List.of(contents.substring(0, checksumLine).split("\n"));
+        try {
+            if (lines.size() < 2 || !lines.get(1).startsWith(MANIFEST_GENERATION)) {
+                throw new IOException("Malformed manifest " + file);
+            }
+            for (String line : lines.subList(2, lines.size())) {
+                String[] fields = line.split(" ");
+                manifest.put(fields[0], Integer.parseInt(fields[1]));
+            }
+            return Integer.parseInt(lines.get(1).substring(MANIFEST_GENERATION.length()));
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IOException("Malformed manifest " + file, e);
+        }
+    }
+
+    // MODIFIES: manifest file
+    // EFFECTS: atomically replaces the manifest with the given segment generation and record counts, followed
+    // by their checksum
+    private void writeManifest(Map<String, Integer> counts, int generation) throws IOException {
+        StringBuilder contents = new StringBuilder(MANIFEST_HEADER).append('\n');
+        contents.append(MANIFEST_GENERATION).append(generation).append('\n');
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            contents.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        CRC32 crc = new CRC32();
+        crc.update(contents.toString().getBytes(StandardCharsets.US_ASCII));
+        contents.append(MANIFEST_CHECKSUM).append(String.format("%08x", crc.getValue())).append('\n');
+        byte[] bytes = contents.toString().getBytes(StandardCharsets.US_ASCII);
+        Path file = directory.resolve(MANIFEST);
+        Path temp = SnapshotFiles.tempFor(file);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(bytes), 0);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        SnapshotFiles.forceDirectory(file);
+    }
+
+    // MODIFIES: files in the directory
+    // EFFECTS: deletes the segments the manifest does not refer to
+    private void deleteStaleSegments() throws IOException {
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                String month = name.substring(0, Math.min(MONTH_LENGTH, name.length()));
+                if (!counts.containsKey(month) || !segment.equals(segmentFile(month, generation))) {
+                    Files.delete(segment);
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this, weightTracker
+    // EFFECTS: starts tracking the weight records logged in the given model objects
+    private void bind(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                      Goals goals, WeightTracker weightTracker) {
+        this.exerciseDatabase = exerciseDatabase;
+        this.workoutList = workoutList;
+        this.goals = goals;
+        this.weightTracker = weightTracker;
+        weightTracker.addObserver(weightLog);
+        remember();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the modification counts of the bound model objects and forgets the logged records
+    private void remember() {
+        synchronized (logged) {
+            logged.clear();
+        }
+        exerciseModCount = exerciseDatabase.getModCount();
+        workoutModCount = workoutList.getModCount();
+        goalsModCount = goals.getModCount();
+        weightModCount = weightTracker.getModCount();
+    }
+
+    // MODIFIES: this, weightTracker
+    // EFFECTS: stops tracking the bound model objects
+    private void unbind() {
+        if (weightTracker != null) {
+            weightTracker.removeObserver(weightLog);
+        }
+        exerciseDatabase = null;
+        workoutList = null;
+        goals = null;
+        weightTracker = null;
+        copiedExercises = null;
+        synchronized (logged) {
+            logged.clear();
+        }
+    }
+
+    // EFFECTS: returns true if the given model objects are the ones last loaded or saved
+    private boolean isBoundTo(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                              Goals goals, WeightTracker weightTracker) {
+        return this.exerciseDatabase == exerciseDatabase && this.workoutList == workoutList
+                && this.goals == goals && this.weightTracker == weightTracker;
+    }
+
+    /**
+     * Collects the weight records logged in the bound WeightTracker since the last load or save.
+     */
+    private final class WeightLog implements ModelObserver {
+        @Override
+        public void weightLogged(WeightRecord record) {
+            synchronized (logged) {
+                logged.add(record);
+            }
+        }
+
+        @Override
+        public void workoutAdded(Workout workout) {
+        }
+
+        @Override
+        public void workoutRemoved(int index) {
+        }
+
+        @Override
+        public void workoutUpdated(int index, Workout workout) {
+        }
+
+        @Override
+        public void exerciseAdded(Exercise exercise) {
+        }
+
+        @Override
+        public void exerciseUpdated(int index, Exercise exercise) {
+        }
+
+        @Override
+        public void goalsUpdated(Goals goals) {
+        }
+    }
+}
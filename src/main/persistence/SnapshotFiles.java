@@ -0,0 +1,174 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Naming, checksums and rotation for snapshot files written atomically.
+ * A snapshot "fitnessApp.json" is written as "fitnessApp.json.tmp" and then moved into place;
+ * the previous snapshots are kept as "fitnessApp.json.1", "fitnessApp.json.2", and so on (newest first).
+ * Each file has a sidecar "&lt;file&gt;.crc" holding its CRC-32 and length, so an intact
+ * generation can be recognised without parsing it.
+ * The target stays in place until the temporary file replaces it, so a reader always finds a complete
+ * snapshot there; the previous one becomes generation 1 through a hard link, or a copy where links are
+ * not supported.
+ */
+final class SnapshotFiles {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private SnapshotFiles() {
+    }
+
+    // EFFECTS: returns the temporary file a snapshot of target is written to before being moved into place
+    static Path tempFor(Path target) {
+        return Paths.get(target + ".tmp");
+    }
+
+    // REQUIRES: generation >= 0
+    // EFFECTS: returns the file holding the given generation of target; generation 0 is target itself
+    static Path generation(Path target, int generation) {
+        return generation == 0 ? target : Paths.get(target + "." + generation);
+    }
+
+    // EFFECTS: returns the checksum sidecar of file
+    static Path checksumFor(Path file) {
+        return Paths.get(file + ".crc");
+    }
+
+    // EFFECTS: returns target followed by up to generations rotated copies of it, newest first
+    static List<Path> candidates(Path target, int generations) {
+        List<Path> candidates = new ArrayList<>();
+        for (int i = 0; i <= generations; i++) {
+            candidates.add(generation(target, i));
+        }
+        return candidates;
+    }
+
+    // REQUIRES: temp holds a complete snapshot that has been forced to disk, with the given crc and length
+    // MODIFIES: files next to target
+    // EFFECTS: writes the checksum of temp, shifts the earlier generations of target down by one (dropping
+    // the oldest beyond the kept count), keeps target itself as generation 1 without moving it, and then
+    // atomically moves temp over target, followed by its checksum
+    static void commit(Path temp, Path target, long crc, long length, int keptGenerations) throws IOException {
+        writeChecksum(checksumFor(temp), crc, length);
+        if (keptGenerations > 0) {
+            for (int i = keptGenerations - 1; i >= 1; i--) {
+                moveIfExists(generation(target, i), generation(target, i + 1));
+                Files.deleteIfExists(checksumFor(generation(target, i + 1)));
+                moveIfExists(checksumFor(generation(target, i)), checksumFor(generation(target, i + 1)));
+            }
+            Path previous = generation(target, 1);
+            Files.deleteIfExists(previous);
+            Files.deleteIfExists(checksumFor(previous));
+            if (Files.exists(target)) {
+                linkOrCopy(target, previous);
+                if (hasChecksum(target)) {
+                    Files.copy(checksumFor(target), checksumFor(previous));
+                }
+            }
+        }
+        // until the checksum follows, isIntact accepts the one still next to the temporary file
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(checksumFor(temp), checksumFor(target), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(target);
+    }
+
+    // EFFECTS: returns true if file has a checksum sidecar
+    static boolean hasChecksum(Path file) {
+        return Files.exists(checksumFor(file));
+    }
+
+    // EFFECTS: returns true if file exists, has a checksum sidecar, and its contents match the recorded
+    // CRC-32 and length, or the ones recorded for the temporary file last moved over it whose checksum
+    // has not followed yet; the file is only checksummed, never parsed
+    static boolean isIntact(Path file) throws IOException {
+        if (!Files.exists(file) || !hasChecksum(file)) {
+            return false;
+        }
+        return matches(file, checksumFor(file)) || matches(file, checksumFor(tempFor(file)));
+    }
+
+    // EFFECTS: returns true if the checksum file exists and file matches the CRC-32 and length it records
+    private static boolean matches(Path file, Path checksum) throws IOException {
+        String[] recorded;
+        try {
+            recorded = new String(Files.readAllBytes(checksum), StandardCharsets.US_ASCII).trim().split(" ");
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try {
+            if (recorded.length != 2 || Files.size(file) != Long.parseLong(recorded[1])) {
+                return false;
+            }
+            return crc(file) == Long.parseLong(recorded[0], 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // EFFECTS: returns the CRC-32 of the contents of file
+    static long crc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes the checksum sidecar contents and forces them to disk
+    private static void writeChecksum(Path file, long crc, long length) throws IOException {
+        byte[] contents = String.format("%08x %d%n", crc, length).getBytes(StandardCharsets.US_ASCII);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    // EFFECTS: makes link a hard link to file, or a copy of it where the file system has no hard links
+    private static void linkOrCopy(Path file, Path link) throws IOException {
+        try {
+            Files.createLink(link, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, link, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // EFFECTS: moves from to to, replacing to, if from exists
+    private static void moveIfExists(Path from, Path to) throws IOException {
+        if (Files.exists(from)) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // EFFECTS: forces the directory entry changes for file to disk where the platform allows it
+    static void forceDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform can open a directory; the renames are still atomic, just not yet durable
+        }
+    }
+}
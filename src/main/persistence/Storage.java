@@ -0,0 +1,73 @@
+package persistence;
+
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.WorkoutList;
+
+import java.io.IOException;
+
+/**
+ * A place the application state is loaded from and saved to.
+ * Besides loading and saving the complete state, a storage can persist just the changes made since
+ * the last load or save, which backends that record changes as they happen do far more cheaply.
+ * Storages are not thread-safe: code sharing one between threads synchronizes on the storage object.
+ */
+public interface Storage {
+
+    // MODIFIES: exerciseDatabase, workoutList, goals, weightTracker
+    // EFFECTS: replaces the contents of the given model objects with the stored state; throws IOException
+    // if nothing is stored or the stored state cannot be read
+    void load(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+              Goals goals, WeightTracker weightTracker) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: stores the complete state of the given model objects, replacing whatever was stored;
+    // throws IOException if it cannot be stored
+    void save(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+              Goals goals, WeightTracker weightTracker) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: stores the changes made to the given model objects since they were last loaded or saved
+    // through this storage, or their complete state if there was no such load or save;
+    // throws IOException if they cannot be stored
+    void append(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                Goals goals, WeightTracker weightTracker) throws IOException;
+
+    // REQUIRES: the given model objects are a copy of the ones last loaded into or saved from this storage,
+    // or nothing has been loaded or saved through this storage
+    // MODIFIES: this
+    // EFFECTS: stores the complete state of the given copy like save, but leaves any recording of changes to the
+    // model it was copied from in place, so a copy taken off the model's thread can be saved without
+    // the storage switching over to it; throws IOException if it cannot be stored
+    default void saveCopy(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                          Goals goals, WeightTracker weightTracker) throws IOException {
+        save(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // EFFECTS: returns true if saveCopy currently stores the weight records of the model a copy was taken from
+    // from the records it saw being logged rather than from the copy, so a copy's weight records need not be
+    // brought up to date before it is saved
+    default boolean keepsLoggedWeights() {
+        return false;
+    }
+
+    // EFFECTS: returns a description of where this storage keeps the state, for messages to the user
+    String getLocation();
+
+    // EFFECTS: returns the storage with the given name: "json" for the JSON file and journal in the default
+    // data directory, "segments" for the monthly segments in the default data directory, or "memory" for a
+    // new InMemoryStorage; throws IllegalArgumentException otherwise
+    static Storage named(String name) {
+        switch (name) {
+            case "json":
+                return new JsonStorage();
+            case "segments":
+                return new SegmentStorage();
+            case "memory":
+                return new InMemoryStorage();
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + name);
+        }
+    }
+}
@@ -5,12 +5,12 @@ import model.ExerciseDatabase;
 import model.Goals;
 import model.WeightRecord;
 import model.WeightTracker;
+import model.WeightTrend;
 import model.Workout;
 import model.WorkoutList;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import model.WorkoutStats;
+import persistence.Storage;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
@@ -27,11 +27,14 @@ public class FitnessApp {
     private ExerciseDatabase exerciseDatabase;
     private Goals goals;
     private WeightTracker weightTracker;
+    private WeightTrend weightTrend;
     private Scanner scanner;
 
-    private static final String JSON_STORE = "./data/fitnessApp.json";
-    private JsonWriter jsonWriter;
-    private JsonReader jsonReader;
+    public static final String STORAGE_PROPERTY = "fitnessapp.storage";
+    private static final int SEARCH_RESULTS = 20;
+    private static final int TREND_DAYS = 7;
+    private static final double TREND_SMOOTHING = 0.25;
+    private Storage storage;
 
     // EFFECTS: Initializes the application with default exercises, sets up an empty
     // workout list, goals, and weight tracker, and starts the application loop.
@@ -40,26 +43,39 @@ public class FitnessApp {
         exerciseDatabase = new ExerciseDatabase();
         goals = new Goals("", "");
         weightTracker = new WeightTracker();
+        weightTrend = weightTracker.addTrend(TREND_DAYS, TREND_SMOOTHING);
         scanner = new Scanner(System.in);
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        storage = defaultStorage();
         initializeExerciseDatabase();
         run();
     }
 
     public FitnessApp(boolean startConsole) {
+        this(startConsole, defaultStorage());
+    }
+
+    // EFFECTS: Initializes the application with default exercises, keeping its data in the given storage,
+    // and starts the console loop if startConsole is true.
+    public FitnessApp(boolean startConsole, Storage storage) {
         workoutList = new WorkoutList();
         exerciseDatabase = new ExerciseDatabase();
         goals = new Goals("", "");
         weightTracker = new WeightTracker();
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        weightTrend = weightTracker.addTrend(TREND_DAYS, TREND_SMOOTHING);
+        this.storage = storage;
         initializeExerciseDatabase();
         if (startConsole) {
+            scanner = new Scanner(System.in);
             run(); // Only enter the console loop if startConsole is true
         }
     }
 
+    // EFFECTS: Returns the storage named by the fitnessapp.storage system property ("json", "segments" or
+    // "memory"),
+    // or the JSON storage in the data directory if the property is not set.
+    public static Storage defaultStorage() {
+        return Storage.named(System.getProperty(STORAGE_PROPERTY, "json"));
+    }
 
     // MODIFIES: this
     // EFFECTS: Adds default exercises to the exercise database.
@@ -163,14 +179,19 @@ public class FitnessApp {
 
     // EFFECTS: Displays all logged workouts, if any.
     private void viewWorkouts() {
-        if (workoutList.getWorkouts().isEmpty()) {
+        List<Workout> workouts = workoutList.getWorkoutsView();
+        if (workouts.isEmpty()) {
             System.out.println("No workouts logged yet.");
             return;
         }
         System.out.println("Logged Workouts:");
-        for (Workout workout : workoutList.getWorkouts()) {
+        for (Workout workout : workouts) {
             System.out.println(workout);
         }
+        WorkoutStats stats = workoutList.getStats();
+        System.out.println("Total: " + stats.getSessionCount() + " sessions, " + stats.getTotalMinutes()
+                + " minutes. Current streak: " + stats.getCurrentStreak() + " days, longest: "
+                + stats.getLongestStreak() + " days.");
     }
 
 
@@ -193,14 +214,23 @@ public class FitnessApp {
         }
     }
 
-    // EFFECTS: Displays all exercises in the exercise database, if any.
+    // EFFECTS: Asks for search words and displays the best matching exercises in the exercise database,
+    // or all of them if no words are given.
     private void viewExercises() {
-        if (exerciseDatabase.getExercises().isEmpty()) {
+        if (exerciseDatabase.getExercisesView().isEmpty()) {
             System.out.println("No exercises in database.");
             return;
         }
-        System.out.println("Available Exercises:");
-        for (Exercise exercise : exerciseDatabase.getExercises()) {
+        System.out.println("Search exercises (or press Enter to list all):");
+        String query = scanner.nextLine().trim();
+        List<Exercise> exercises = query.isEmpty() ? exerciseDatabase.getExercisesView()
+                : exerciseDatabase.search(query, SEARCH_RESULTS);
+        if (exercises.isEmpty()) {
+            System.out.println("No exercises match \"" + query + "\".");
+            return;
+        }
+        System.out.println(query.isEmpty() ? "Available Exercises:" : "Matching Exercises:");
+        for (Exercise exercise : exercises) {
             System.out.println(exercise);
         }
     }
@@ -251,7 +281,7 @@ public class FitnessApp {
             System.out.println("Fitness Goal: " + goals.getGoalType() + " - " + goals.getDescription());
         }
 
-        List<WeightRecord> records = weightTracker.getWeightRecords();
+        List<WeightRecord> records = weightTracker.getWeightRecordsView();
         if (records.isEmpty()) {
             System.out.println("No weight records found.");
         } else {
@@ -259,8 +289,25 @@ public class FitnessApp {
             for (WeightRecord record : records) {
                 System.out.println("Date: " + record.getDate() + ", Weight: " + record.getWeight());
             }
+            String trend = describeWeightTrend();
+            if (trend != null) {
+                System.out.println(trend);
+            }
+        }
+    }
 
+    // EFFECTS: Returns a one-line summary of the smoothed weight trend, or null if no weight has been logged
+    // with a "YYYY-MM-DD" date.
+    public String describeWeightTrend() {
+        if (Double.isNaN(weightTrend.getMovingAverage())) {
+            return null;
+        }
+        String summary = String.format("Trend: %.1f smoothed, %.1f on average over the last %d days",
+                weightTrend.getMovingAverage(), weightTrend.getWindowAverage(), TREND_DAYS);
+        if (!Double.isNaN(weightTrend.getSlope())) {
+            summary += String.format(", %+.2f per week", weightTrend.getSlope() * 7);
         }
+        return summary;
     }
 
 
@@ -280,29 +327,34 @@ public class FitnessApp {
 
     // MODIFIES: External data storage
     //EFFECTS: Saves the current state of the FitnessApp,
-    // including exerciseDatabase, workoutList, goals, and weightTracker, to a file.
-    // Prints a message indicating the success of the operation or an error if the file cannot be found.
+    // including exerciseDatabase, workoutList, goals, and weightTracker, to the storage.
+    // Once data has been loaded or saved, only the changes made since then have to be stored.
+    // Prints a message indicating the success of the operation or an error if the data cannot be stored.
     protected void saveFitnessAppData() {
         try {
-            jsonWriter.write(exerciseDatabase, workoutList, goals, weightTracker);
-            System.out.println("Data saved to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+            synchronized (storage) {
+                storage.append(exerciseDatabase, workoutList, goals, weightTracker);
+            }
+            System.out.println("Data saved to " + storage.getLocation());
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + storage.getLocation());
         }
     }
 
 
-    //REQUIRES: The file specified by JSON_STORE exists and is in the correct format.
+    //REQUIRES: The storage holds previously saved data.
     //MODIFIES: this (exerciseDatabase, workoutList, goals, and weightTracker are modified based on the loaded data)
-    //EFFECTS: Loads the state of the FitnessApp from a file, updating the exerciseDatabase,
+    //EFFECTS: Loads the state of the FitnessApp from the storage, updating the exerciseDatabase,
     // workoutList, goals, and weightTracker with the loaded data.
-    // Prints a message indicating the success of the operation or an error if there is an issue with reading the file.
+    // Prints a message indicating the success of the operation or an error if there is an issue with reading the data.
     protected void loadFitnessAppData() {
         try {
-            jsonReader.read(exerciseDatabase, workoutList, goals, weightTracker);
-            System.out.println("Data loaded from " + JSON_STORE);
+            synchronized (storage) {
+                storage.load(exerciseDatabase, workoutList, goals, weightTracker);
+            }
+            System.out.println("Data loaded from " + storage.getLocation());
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to read from file: " + storage.getLocation());
         }
     }
 
@@ -310,6 +362,10 @@ public class FitnessApp {
 
 
     // Getters for GUI access
+    public Storage getStorage() {
+        return storage;
+    }
+
     public WorkoutList getWorkoutList() {
         return workoutList;
     }
@@ -7,10 +7,14 @@ import java.util.ArrayList;
 import model.Exercise;
 import model.WeightRecord;
 import model.Workout;
+import persistence.AutosaveService;
+import persistence.EventLogSink;
+import persistence.Storage;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -20,34 +24,47 @@ import java.util.ArrayList;
  * It uses a CardLayout to switch between different views.
  */
 public class FitnessTrackerGUI extends JFrame {
+    private static final int EXERCISE_SEARCH_RESULTS = 50;
     private CardLayout cardLayout = new CardLayout();
     private JPanel cardPanel = new JPanel(cardLayout);
     private FitnessApp fitnessApp;
+    private AutosaveService autosave;
+    private EventLogSink eventLogSink;
 
     private JPanel navigationPanel;
     private boolean isMainMenu = true;
 
-    private DefaultListModel<Exercise> exerciseListModel = new DefaultListModel<>();
-    private DefaultListModel<Workout> workoutListModel = new DefaultListModel<>();
-    private DefaultListModel<String> weightRecordListModel = new DefaultListModel<>();
+    private SnapshotListModel<Exercise> exerciseListModel = new SnapshotListModel<>();
+    private JTextField exerciseSearchField = new JTextField();
+    private SnapshotListModel<Workout> workoutListModel = new SnapshotListModel<>();
+    private SnapshotListModel<WeightRecord> weightRecordListModel = new SnapshotListModel<>();
+    private JLabel weightTrendLabel = new JLabel(" ");
 
 
      //EFFECTS: Constructs the FitnessTrackerGUI, initializes the fitness application without console input,
      //prompts the user to load data, and sets up the splash screen and UI initialization.
     public FitnessTrackerGUI() {
-        fitnessApp = new FitnessApp(false);
+        this(FitnessApp.defaultStorage());
+    }
+
+     //EFFECTS: Constructs the FitnessTrackerGUI as above, keeping the application data in the given storage.
+    public FitnessTrackerGUI(Storage storage) {
+        fitnessApp = new FitnessApp(false, storage);
         // Initialize navigationPanel here to ensure it's done once
         navigationPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         navigationPanel.setVisible(false);
         add(navigationPanel, BorderLayout.SOUTH);
 
         promptLoadData();
+        startAutosave();
+        startEventLogSink();
         showSplashScreen(this::initializeUI);
         this.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
                 printEventLog(); // Print the event log before exiting
                 promptSaveDataBeforeExiting();
+                closeEventLogSink();
             }
         });
     }
@@ -97,17 +114,55 @@ public class FitnessTrackerGUI extends JFrame {
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: Starts saving changes to the model in the background shortly after the user stops making them.
+    private void startAutosave() {
+        autosave = new AutosaveService(fitnessApp.getStorage(), SwingUtilities::invokeLater);
+        autosave.attach(fitnessApp.getExerciseDatabase(), fitnessApp.getWorkoutList(), fitnessApp.getGoals(),
+                fitnessApp.getWeightTracker());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Starts copying the event log to rotating files under ./data/events in the background.
+    private void startEventLogSink() {
+        eventLogSink = new EventLogSink(EventLog.getInstance(), "./data/events");
+        eventLogSink.start();
+    }
+
+    // EFFECTS: Writes the rest of the event log to its files and stops copying it; a failure is only
+    //          reported on the console, since the window is closing.
+    private void closeEventLogSink() {
+        try {
+            eventLogSink.close();
+        } catch (IOException e) {
+            System.out.println("Unable to write the event log: " + e.getMessage());
+        }
+    }
+
+    // EFFECTS: Saves the data on the autosave thread and shows a message once the save has finished,
+    //          so the window stays responsive while the data is written.
+    private void saveInBackground() {
+        autosave.saveNow().whenComplete((ignored, failure) -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(this, failure == null ? "Data saved successfully."
+                        : "Unable to save data: " + failure.getMessage())));
+    }
+
     // EFFECTS: Shows a confirmation dialog asking the user if they want to save their
     //          current session data before exiting.
-    //          If the user confirms, saves the data and shows a message indicating success.
+    //          If the user confirms, saves the data, waits for it and any background save to finish,
+    //          and shows a message indicating success; otherwise changes not yet autosaved are dropped.
     private void promptSaveDataBeforeExiting() {
         int saveChoice = JOptionPane.showConfirmDialog(this,
                 "Would you like to save your data before exiting?",
                 "Save Data",
                 JOptionPane.YES_NO_OPTION);
-        if (saveChoice == JOptionPane.YES_OPTION) {
-            fitnessApp.saveFitnessAppData();
-            JOptionPane.showMessageDialog(this, "Data saved successfully.");
+        try {
+            autosave.close(saveChoice == JOptionPane.YES_OPTION);
+            if (saveChoice == JOptionPane.YES_OPTION) {
+                JOptionPane.showMessageDialog(this, "Data saved successfully.");
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Unable to save data: " + e.getMessage());
         }
     }
 
@@ -187,8 +242,7 @@ public class FitnessTrackerGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "Data loaded successfully.");
                 break;
             case "Save Data":
-                fitnessApp.saveFitnessAppData();
-                JOptionPane.showMessageDialog(this, "Data saved successfully.");
+                saveInBackground();
                 break;
             case "Exercise Database":
                 updateExerciseList();
@@ -346,9 +400,15 @@ public class FitnessTrackerGUI extends JFrame {
         return panel;
     }
 
-    //EFFECTS: Creates and returns the panel for viewing the list of exercises from the exercise database.
+    //EFFECTS: Creates and returns the panel for viewing the list of exercises from the exercise database,
+    // with a search field that narrows the list to the best matches for the words typed into it.
     private JPanel createViewExercisesPanel() {
         JPanel panel = new JPanel(new BorderLayout());
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 5));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.LINE_START);
+        searchPanel.add(exerciseSearchField, BorderLayout.CENTER);
+        exerciseSearchField.addActionListener(e -> updateExerciseList());
+        panel.add(searchPanel, BorderLayout.PAGE_START);
         JList<Exercise> exerciseList = new JList<>(exerciseListModel);
         panel.add(new JScrollPane(exerciseList), BorderLayout.CENTER);
         JButton backButton = new JButton("Back");
@@ -399,7 +459,17 @@ public class FitnessTrackerGUI extends JFrame {
     //EFFECTS: Creates and returns the panel for viewing the list of logged weight records.
     private JPanel createViewWeightRecordsPanel() {
         JPanel panel = new JPanel(new BorderLayout());
-        JList<String> weightRecordList = new JList<>(weightRecordListModel);
+        JList<WeightRecord> weightRecordList = new JList<>(weightRecordListModel);
+        weightRecordList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                WeightRecord record = (WeightRecord) value;
+                return super.getListCellRendererComponent(list, "Date: " + record.getDate() + ", Weight: "
+                        + record.getWeight(), index, isSelected, cellHasFocus);
+            }
+        });
+        panel.add(weightTrendLabel, BorderLayout.PAGE_START);
         panel.add(new JScrollPane(weightRecordList), BorderLayout.CENTER);
         JButton backButton = new JButton("Back");
         backButton.addActionListener(e -> switchCard("Main Menu"));
@@ -409,31 +479,28 @@ public class FitnessTrackerGUI extends JFrame {
 
 
     //MODIFIES: this
-    //EFFECTS: Updates the list model for exercises with the latest data from the exercise database.
+    //EFFECTS: Updates the list model for exercises with the latest data from the exercise database,
+    // keeping only the best matches for the search field if it is not empty.
     private void updateExerciseList() {
-        exerciseListModel.clear();
-        for (Exercise exercise : fitnessApp.getExerciseDatabase().getExercises()) {
-            exerciseListModel.addElement(exercise);
-        }
+        String query = exerciseSearchField.getText().trim();
+        exerciseListModel.show(query.isEmpty() ? fitnessApp.getExerciseDatabase().snapshot()
+                : fitnessApp.getExerciseDatabase().search(query, EXERCISE_SEARCH_RESULTS));
     }
 
 
     //MODIFIES: this
     //EFFECTS: Updates the list model for workouts with the latest data from the workout list.
     private void updateWorkoutList() {
-        workoutListModel.clear();
-        for (Workout workout : fitnessApp.getWorkoutList().getWorkouts()) {
-            workoutListModel.addElement(workout);
-        }
+        workoutListModel.show(fitnessApp.getWorkoutList().snapshot());
     }
 
     //MODIFIES: this
-    //EFFECTS: Updates the list model for weight records with the latest data from the weight tracker.
+    //EFFECTS: Updates the list model for weight records with the latest data from the weight tracker,
+    // and the trend above it.
     private void updateWeightRecordList() {
-        weightRecordListModel.clear();
-        for (WeightRecord record : fitnessApp.getWeightTracker().getWeightRecords()) {
-            weightRecordListModel.addElement("Date: " + record.getDate() + ", Weight: " + record.getWeight());
-        }
+        weightRecordListModel.show(fitnessApp.getWeightTracker().snapshot());
+        String trend = fitnessApp.describeWeightTrend();
+        weightTrendLabel.setText(trend == null ? " " : trend);
     }
 
 
@@ -445,6 +512,9 @@ public class FitnessTrackerGUI extends JFrame {
             eventList.add(event);
         }
         StringBuilder logBuilder = new StringBuilder("Event Log:\n");
+        if (eventLog.getDroppedCount() > 0) {
+            logBuilder.append("(").append(eventLog.getDroppedCount()).append(" older events dropped)\n");
+        }
         for (Event event : eventList) {
             logBuilder.append(event.toString()).append("\n");
         }
@@ -457,4 +527,38 @@ public class FitnessTrackerGUI extends JFrame {
         SwingUtilities.invokeLater(FitnessTrackerGUI::new);
 
     }
+
+    /**
+     * A list model that shows a list that never changes, usually a snapshot of the model, so the rows the
+     * list paints stay the rows it was told about until the next call to show.
+     */
+    private static final class SnapshotListModel<T> extends AbstractListModel<T> {
+        private static final long serialVersionUID = 1L;
+
+        private List<? extends T> source = new ArrayList<>();
+        private int shown;
+
+        //MODIFIES: this
+        //EFFECTS: shows the given list, which must never change, in place of the one shown before
+        private void show(List<? extends T> source) {
+            if (shown > 0) {
+                fireIntervalRemoved(this, 0, shown - 1);
+            }
+            this.source = source;
+            shown = source.size();
+            if (shown > 0) {
+                fireIntervalAdded(this, 0, shown - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return source.size();
+        }
+
+        @Override
+        public T getElementAt(int index) {
+            return source.get(index);
+        }
+    }
 }
@@ -0,0 +1,302 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentContainersTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int PER_WRITER = 2_000;
+    private static final String[] TYPES = {"Running", "Cycling", "Swimming", "Rowing", "Yoga"};
+    private static final String[] INTENSITIES = {"Low", "Medium", "High"};
+    private static final Instant EPOCH = Instant.parse("2024-01-01T07:00:00Z");
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2023-01-01");
+
+    @Test
+    public void testConcurrentWorkoutListsStayConsistent() throws Exception {
+        for (boolean columnar : new boolean[] {false, true}) {
+            WorkoutList list = new WorkoutList(columnar, true);
+            AtomicInteger added = new AtomicInteger();
+            list.addObserver(new ModelObserver() {
+                @Override
+                public void workoutAdded(Workout workout) {
+                    added.incrementAndGet();
+                }
+
+                @Override
+                public void workoutRemoved(int index) {
+                }
+
+                @Override
+                public void workoutUpdated(int index, Workout workout) {
+                }
+
+                @Override
+                public void exerciseAdded(Exercise exercise) {
+                }
+
+                @Override
+                public void exerciseUpdated(int index, Exercise exercise) {
+                }
+
+                @Override
+                public void goalsUpdated(Goals goals) {
+                }
+
+                @Override
+                public void weightLogged(WeightRecord record) {
+                }
+            });
+            AtomicBoolean writing = new AtomicBoolean(true);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                tasks.add(() -> {
+                    Random random = new Random(writer);
+                    for (int i = 0; i < PER_WRITER; i++) {
+                        Workout workout = new Workout(TYPES[random.nextInt(TYPES.length)], 10 + random.nextInt(50),
+                                INTENSITIES[random.nextInt(INTENSITIES.length)],
+                                EPOCH.plusSeconds(3_600L * random.nextInt(24 * 365)));
+                        list.addWorkout(workout);
+                        if (i % 10 == 0) {
+                            workout.setDuration(workout.getDuration() + 1);
+                            workout.setIntensity("High");
+                        }
+                        if (i % 50 == 0) {
+                            assertTrue(list.removeWorkout(workout));
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int r = 0; r < READERS; r++) {
+                tasks.add(() -> {
+                    while (writing.get()) {
+                        for (Workout workout : list.findWorkouts("running", "high")) {
+                            assertEquals("Running", workout.getExerciseType());
+                        }
+                        List<Workout> latest = list.getLatestWorkouts(20);
+                        for (int i = 1; i < latest.size(); i++) {
+                            assertFalse(latest.get(i).getStart().isAfter(latest.get(i - 1).getStart()));
+                        }
+                        WorkoutStats stats = list.getStats();
+                        assertEquals(stats.getSessionCount(), stats.getSessionsByType().values().stream()
+                                .mapToInt(Integer::intValue).sum());
+                    }
+                    return null;
+                });
+            }
+            runAll(tasks, writing);
+
+            int expected = WRITERS * (PER_WRITER - PER_WRITER / 50);
+            assertEquals(expected, list.getWorkouts().size());
+            assertEquals(WRITERS * PER_WRITER, added.get());
+            int byType = 0;
+            long minutes = 0;
+            for (String type : TYPES) {
+                byType += list.findWorkouts(type, null).size();
+            }
+            for (Workout workout : list.getWorkouts()) {
+                minutes += workout.getDuration();
+            }
+            assertEquals(expected, byType);
+            assertEquals(expected, list.getStats().getSessionCount());
+            assertEquals(minutes, list.getStats().getTotalMinutes());
+            assertEquals(expected, list.getWorkoutsBetween(EPOCH, EPOCH.plusSeconds(3_600L * 24 * 366)).size());
+        }
+    }
+
+    @Test
+    public void testConcurrentWeightTrackerKeepsDateOrderAndTrend() throws Exception {
+        WeightTracker tracker = new WeightTracker(true);
+        WeightTrend trend = tracker.addTrend(7, 0.25);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            tasks.add(() -> {
+                Random random = new Random(writer);
+                for (int i = 0; i < PER_WRITER; i++) {
+                    String date = FIRST_DAY.plusDays(random.nextInt(730)).toString();
+                    tracker.logWeight(date, 60 + random.nextInt(400) / 10.0);
+                }
+                return null;
+            });
+        }
+        for (int r = 0; r < READERS; r++) {
+            tasks.add(() -> {
+                while (writing.get()) {
+                    tracker.getLatestWeightRecord();
+                    tracker.getWeightSeries("2023-01-01", "2024-12-31", 50);
+                    trend.getMovingAverage();
+                }
+                return null;
+            });
+        }
+        runAll(tasks, writing);
+
+        List<WeightRecord> records = tracker.getWeightRecords();
+        assertEquals(WRITERS * PER_WRITER, records.size());
+        for (int i = 1; i < records.size(); i++) {
+            assertTrue(records.get(i - 1).getDate().compareTo(records.get(i).getDate()) <= 0);
+        }
+        int charted = 0;
+        for (WeightSummary summary : tracker.getWeightSeries("2023-01-01", "2024-12-31", 1_000)) {
+            charted += summary.getCount();
+        }
+        assertEquals(records.size(), charted);
+        WeightTrend rebuilt = tracker.addTrend(7, 0.25);
+        assertEquals(rebuilt.getWindowCount(), trend.getWindowCount());
+        assertEquals(rebuilt.getMovingAverage(), trend.getMovingAverage(), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentExerciseDatabaseAddsEachNameOnce() throws Exception {
+        ExerciseDatabase db = new ExerciseDatabase(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            tasks.add(() -> {
+                for (int i = 0; i < PER_WRITER / 4; i++) {
+                    if (db.addExercise(new Exercise("Exercise " + i, "Hold for " + i + " seconds"))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            while (writing.get()) {
+                db.search("hold seconds", 5);
+                db.completeName("exercise 1", 5);
+            }
+            return null;
+        });
+        runAll(tasks, writing);
+
+        assertEquals(PER_WRITER / 4, accepted.get());
+        assertEquals(PER_WRITER / 4, db.getExercises().size());
+        for (int i = 0; i < PER_WRITER / 4; i++) {
+            assertNotNull(db.findByName("EXERCISE " + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentSearchesScoreApart() throws Exception {
+        ExerciseDatabase db = new ExerciseDatabase(true);
+        for (int i = 0; i < PER_WRITER / 4; i++) {
+            db.addExercise(new Exercise(TYPES[i % TYPES.length] + " " + i,
+                    "Hold for " + (i % 60) + " seconds at " + INTENSITIES[i % INTENSITIES.length] + " effort"));
+        }
+        String[] queries = {"hold seconds", "running low", "yoga 17", "high effort rowing"};
+        List<List<Exercise>> expected = new ArrayList<>();
+        for (String query : queries) {
+            expected.add(db.search(query, 10));
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < WRITERS; t++) {
+            int first = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 200; i++) {
+                    int q = (first + i) % queries.length;
+                    assertEquals(expected.get(q), db.search(queries[q], 10));
+                }
+                return null;
+            });
+        }
+        runAll(tasks, new AtomicBoolean());
+    }
+
+    @Test
+    public void testEventLogIsOneInstanceAcrossThreads() throws Exception {
+        Set<EventLog> instances = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        // the log keeps only its most recent events, so start from an empty one to count them all
+        EventLog.getInstance().clear();
+        int before = count(EventLog.getInstance());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < WRITERS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < PER_WRITER; i++) {
+                    instances.add(EventLog.getInstance());
+                    EventLog.getInstance().logEvent(new Event("Stress event."));
+                }
+                return null;
+            });
+        }
+        runAll(tasks, new AtomicBoolean());
+
+        assertEquals(1, instances.size());
+        assertSame(EventLog.getInstance(), instances.iterator().next());
+        assertEquals(before + WRITERS * PER_WRITER, count(EventLog.getInstance()));
+        assertEquals(0, EventLog.getInstance().getDroppedCount());
+    }
+
+    @Test
+    public void testModifyingWhileReadingFailsInsteadOfDeadlocking() {
+        WorkoutList list = new WorkoutList(false, true);
+        list.addWorkout(new Workout("Running", 30, "High"));
+        assertThrows(IllegalStateException.class, () -> list.forEachWorkout(list::removeWorkout));
+        assertEquals(1, list.getWorkouts().size());
+    }
+
+    // EFFECTS: runs every task on its own thread, all starting together, clears running once they are all
+    // started and every task that does not wait for it has finished, and rethrows the first failure
+    private static void runAll(List<Callable<Void>> tasks, AtomicBoolean running) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            // the writers come first in every test; the readers run until they are done
+            for (int i = 0; i < futures.size(); i++) {
+                if (i == WRITERS) {
+                    running.set(false);
+                }
+                futures.get(i).get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+        } finally {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    // EFFECTS: returns the number of events in log
+    private static int count(EventLog log) {
+        int n = 0;
+        for (Event ignored : log) {
+            n++;
+        }
+        return n;
+    }
+}
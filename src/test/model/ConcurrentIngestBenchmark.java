@@ -0,0 +1,138 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of the model containers in concurrent mode as threads are added, up to twice the
+ * number of cores: appending workouts from every thread, importing workouts, weights and exercises into
+ * their three containers at once, and filtered workout lookups. Each is run next to the same work on plain
+ * containers behind one shared monitor, the way callers had to synchronize before concurrent mode.
+ * Not part of the unit test suite; run its main method directly.
+ */
+public class ConcurrentIngestBenchmark {
+    private static final int OPERATIONS = 200_000;
+    private static final int LOOKUPS = 5_000;
+    private static final int PREFILLED = 50_000;
+    private static final int ROUNDS = 3;
+    private static final String[] TYPES = {"Running", "Cycling", "Swimming", "Rowing", "Yoga"};
+    private static final String[] INTENSITIES = {"Low", "Medium", "High"};
+    private static final Instant EPOCH = Instant.parse("2024-01-01T07:00:00Z");
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2020-01-01");
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d cores%n", cores);
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int threads = 1; threads <= 2 * cores || threads <= 2; threads *= 2) {
+                benchmark(threads);
+            }
+        }
+    }
+
+    // EFFECTS: prints the throughput of each workload on the given number of threads, in operations per
+    // millisecond, with concurrent containers and with plain ones behind one monitor
+    private static void benchmark(int threads) throws InterruptedException {
+        WorkoutList concurrentList = new WorkoutList(false, true);
+        double append = run(threads, OPERATIONS, i -> concurrentList.addWorkout(workout(i)));
+        WorkoutList plainList = new WorkoutList();
+        double appendLocked = run(threads, OPERATIONS, i -> {
+            Workout workout = workout(i);
+            synchronized (plainList) {
+                plainList.addWorkout(workout);
+            }
+        });
+
+        WorkoutList workouts = new WorkoutList(false, true);
+        WeightTracker weights = new WeightTracker(true);
+        ExerciseDatabase exercises = new ExerciseDatabase(true);
+        double mixed = run(threads, OPERATIONS, i -> ingest(i, workouts, weights, exercises));
+        Object monitor = new Object();
+        WorkoutList plainWorkouts = new WorkoutList();
+        WeightTracker plainWeights = new WeightTracker();
+        ExerciseDatabase plainExercises = new ExerciseDatabase();
+        double mixedLocked = run(threads, OPERATIONS, i -> {
+            synchronized (monitor) {
+                ingest(i, plainWorkouts, plainWeights, plainExercises);
+            }
+        });
+
+        WorkoutList searched = new WorkoutList(false, true);
+        WorkoutList plainSearched = new WorkoutList();
+        for (int i = 0; i < PREFILLED; i++) {
+            searched.addWorkout(workout(i));
+            plainSearched.addWorkout(workout(i));
+        }
+        double lookup = run(threads, LOOKUPS, i -> searched.findWorkouts(TYPES[i % TYPES.length], "High"));
+        double lookupLocked = run(threads, LOOKUPS, i -> {
+            synchronized (plainSearched) {
+                plainSearched.findWorkouts(TYPES[i % TYPES.length], "High");
+            }
+        });
+
+        System.out.printf("%2d threads  append: %6.0f/ms (one monitor %6.0f/ms)  import: %6.0f/ms (one monitor "
+                        + "%6.0f/ms)  lookup: %5.1f/ms (one monitor %5.1f/ms)%n", threads, append, appendLocked,
+                mixed, mixedLocked, lookup, lookupLocked);
+        // every workout, weight and exercise logged an event
+        EventLog.getInstance().clear();
+    }
+
+    // MODIFIES: workouts, weights, exercises
+    // EFFECTS: imports the i-th item into one of the three containers, in turn
+    private static void ingest(int i, WorkoutList workouts, WeightTracker weights, ExerciseDatabase exercises) {
+        switch (i % 3) {
+            case 0:
+                workouts.addWorkout(workout(i));
+                break;
+            case 1:
+                weights.logWeight(FIRST_DAY.plusDays(i % 2_000).toString(), 60 + i % 400 / 10.0);
+                break;
+            default:
+                exercises.addExercise(new Exercise("Exercise " + i, "Repeat " + i % 20 + " times."));
+        }
+    }
+
+    // EFFECTS: returns the i-th workout of the benchmark
+    private static Workout workout(int i) {
+        return new Workout(TYPES[i % TYPES.length], 10 + i % 50, INTENSITIES[i % INTENSITIES.length],
+                EPOCH.plusSeconds(60L * i));
+    }
+
+    // EFFECTS: runs operation for every index below operations, split evenly across the given number of
+    // threads started together, and returns the operations completed per millisecond
+    private static double run(int threads, int operations, Operation operation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = first; i < operations; i += threads) {
+                    operation.run(i);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations / ((System.nanoTime() - begin) / 1e6);
+    }
+
+    /**
+     * One operation of a workload, given its index.
+     */
+    private interface Operation {
+        void run(int i);
+    }
+}
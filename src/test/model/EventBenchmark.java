@@ -0,0 +1,69 @@
+package model;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Measures logging events on the model's hot paths, and reading them back as text, with typed events
+ * stamped from the system clock next to the Calendar-stamped free-text events logged before.
+ * Not part of the unit test suite; run its main method directly.
+ */
+public class EventBenchmark {
+    private static final int EVENTS = 2_000_000;
+    private static final int READS = 16_384;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            EventLog log = new EventLog(READS);
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                log.logEvent(new Event(EventType.WORKOUT_ADDED, i % 60));
+            }
+            long typed = System.nanoTime() - start;
+
+            Object[] legacyLog = new Object[READS];
+            start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                legacyLog[i & (READS - 1)] = new LegacyEvent("Workout added.");
+            }
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Event event : log) {
+                sink += event.toString().length();
+            }
+            long typedReads = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Object event : legacyLog) {
+                sink += event.toString().length();
+            }
+            long legacyReads = System.nanoTime() - start;
+
+            System.out.printf("log: %5.1f ns/event (Calendar %5.1f ns/event)  read as text: %6.0f ns/event "
+                            + "(Calendar %6.0f ns/event)%n", (double) typed / EVENTS, (double) legacy / EVENTS,
+                    (double) typedReads / READS, (double) legacyReads / READS);
+        }
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    /**
+     * An event as it was logged before events were typed: stamped with the date from a new Calendar and
+     * described by text.
+     */
+    private static final class LegacyEvent {
+        private final Date dateLogged;
+        private final String description;
+
+        private LegacyEvent(String description) {
+            dateLogged = Calendar.getInstance().getTime();
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return dateLogged.toString() + "\n" + description;
+        }
+    }
+}
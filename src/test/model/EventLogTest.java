@@ -6,9 +6,12 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -56,4 +59,81 @@ public class EventLogTest {
         assertEquals("Event log cleared.", itr.next().getDescription());
         assertFalse(itr.hasNext());
     }
+
+    @Test
+    public void testFullLogOverwritesOldestEvents() {
+        EventLog el = new EventLog(4);
+        for (int i = 0; i < 6; i++) {
+            el.logEvent(new Event("E" + i));
+        }
+        List<String> descriptions = new ArrayList<>();
+        for (Event next : el) {
+            descriptions.add(next.getDescription());
+        }
+        List<String> visited = new ArrayList<>();
+        el.forEach(e -> visited.add(e.getDescription()));
+
+        assertEquals(4, el.getCapacity());
+        assertEquals(List.of("E2", "E3", "E4", "E5"), descriptions);
+        assertEquals(descriptions, visited);
+        assertEquals(2, el.getDroppedCount());
+        el.clear();
+        assertEquals(0, el.getDroppedCount());
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(6));
+    }
+
+    @Test
+    public void testIteratorLeavesOutEventsLoggedAfterIt() {
+        EventLog el = new EventLog(4);
+        el.logEvent(e1);
+        Iterator<Event> itr = el.iterator();
+        el.logEvent(e2);
+        assertEquals(e1, itr.next());
+        assertFalse(itr.hasNext());
+        assertThrows(NoSuchElementException.class, itr::next);
+    }
+
+    @Test
+    public void testLappedWriterIsCountedOnce() throws InterruptedException {
+        EventLog el = new EventLog(4);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch lapped = new CountDownLatch(1);
+        Thread slow = new Thread(() -> el.logEvent(new Event("Slow")));
+        el.setReader(new EventLog.Reader() {
+            @Override
+            public long position() {
+                // hold the slow logger between claiming its sequence number and writing its slot
+                if (Thread.currentThread() == slow) {
+                    claimed.countDown();
+                    try {
+                        lapped.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void behind() {
+            }
+
+            @Override
+            public long maxWaitNanos() {
+                return 0;
+            }
+        });
+        slow.start();
+        claimed.await();
+        for (int i = 1; i <= 5; i++) {
+            el.logEvent(new Event("E" + i));
+        }
+        lapped.countDown();
+        slow.join();
+
+        List<String> descriptions = new ArrayList<>();
+        el.forEach(e -> descriptions.add(e.getDescription()));
+        assertEquals(List.of("E2", "E3", "E4", "E5"), descriptions);
+        assertEquals(2, el.getDroppedCount());
+    }
 }
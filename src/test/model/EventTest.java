@@ -3,8 +3,10 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +27,8 @@ public class EventTest {
 
     @BeforeEach
     public void runBefore() {
+        // events no longer read the Calendar, so load it here rather than between (1) and (2)
+        Calendar.getInstance();
         e1 = new Event("Sensor open at door");   // (1)
         e2 = new Event("Sensor close at door");   // (1)
         e = new Event("Sensor open at door");   // (1)
@@ -66,4 +70,31 @@ public class EventTest {
         assertFalse(e1.equals(null));
     }
 
+    @Test
+    public void testTypedEvents() {
+        Event weight = new Event(EventType.WEIGHT_LOGGED, 75.5);
+        Event goal = new Event(EventType.GOAL_SET);
+        assertEquals(EventType.WEIGHT_LOGGED, weight.getType());
+        assertTrue(weight.hasValue());
+        assertEquals(75.5, weight.getValue());
+        assertEquals("Weight logged.", weight.getDescription());
+        assertEquals(weight.getDate().getTime(), weight.getEpochNanos() / 1_000_000);
+        assertEquals(weight.getDate().toString() + "\n" + "Weight logged.", weight.toString());
+        assertFalse(goal.hasValue());
+        assertEquals("Goal set successfully.", goal.getDescription());
+        assertEquals(EventType.MESSAGE, e.getType());
+        assertFalse(e.hasValue());
+        assertFalse(goal.equals(new Event(EventType.LOG_CLEARED)));
+    }
+
+    @Test
+    public void testModelLogsTypedEvents() {
+        EventLog.getInstance().clear();
+        new WorkoutList().addWorkout(new Workout("Running", 30, "High"));
+        List<Event> logged = new ArrayList<>();
+        EventLog.getInstance().forEach(logged::add);
+        assertEquals(EventType.LOG_CLEARED, logged.get(0).getType());
+        assertEquals(EventType.WORKOUT_ADDED, logged.get(1).getType());
+        assertEquals(30, logged.get(1).getValue());
+    }
 }
@@ -0,0 +1,104 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures bulk insertion, lookup by name and prefix completion on an ExerciseDatabase of 100k exercises,
+ * next to the linear duplicate scan the database used before it had a name index, and ranked full-text
+ * search over the instructions of 50k exercises.
+ * Not part of the unit test suite; run its main method directly.
+ */
+public class ExerciseDatabaseBenchmark {
+    private static final int EXERCISES = 100_000;
+    private static final int LINEAR_EXERCISES = 20_000;
+    private static final int COMPLETIONS = 10_000;
+    private static final int ROUNDS = 3;
+    private static final int SEARCHED_EXERCISES = 50_000;
+    private static final int SEARCHES = 10_000;
+    private static final String[] WORDS = {"dumbbell", "barbell", "kettlebell", "core", "squat", "hold",
+        "press", "pull", "push", "slowly", "brace", "hips", "knees", "shoulders", "lower", "raise", "repeat",
+        "breathe", "bench", "floor", "jump", "land", "softly", "arms", "legs", "back", "straight", "lunge",
+        "twist", "rotate", "grip", "extend", "bend", "pause", "seconds", "side", "each", "step", "forward"};
+
+    public static void main(String[] args) {
+        List<Exercise> catalog = new ArrayList<>();
+        for (int i = 0; i < EXERCISES; i++) {
+            catalog.add(new Exercise("Exercise " + Integer.toString(i, 36) + " variation " + i % 7, "Do it."));
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            ExerciseDatabase db = new ExerciseDatabase();
+            long start = System.nanoTime();
+            for (Exercise exercise : catalog) {
+                db.addExercise(new Exercise(exercise.getName(), exercise.getInstructions()));
+            }
+            long added = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int found = 0;
+            for (Exercise exercise : catalog) {
+                found += db.findByName(exercise.getName().toUpperCase()) != null ? 1 : 0;
+            }
+            long lookedUp = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int completed = 0;
+            for (int i = 0; i < COMPLETIONS; i++) {
+                completed += db.completeName("exercise " + Integer.toString(i, 36).charAt(0), 10).size();
+            }
+            long completing = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            linearAdd(catalog.subList(0, LINEAR_EXERCISES));
+            long linear = System.nanoTime() - start;
+
+            System.out.printf("add %d: %4d ms  findByName: %4d ms (%d found)  %d completions: %4d ms (%d results)"
+                            + "  linear add %d: %5d ms%n", EXERCISES, added / 1_000_000, lookedUp / 1_000_000,
+                    found, COMPLETIONS, completing / 1_000_000, completed, LINEAR_EXERCISES, linear / 1_000_000);
+        }
+        benchmarkSearch();
+    }
+
+    // EFFECTS: prints the mean time of a two-word top 10 search over exercises with generated instructions
+    private static void benchmarkSearch() {
+        Random random = new Random(42);
+        ExerciseDatabase db = new ExerciseDatabase();
+        for (int i = 0; i < SEARCHED_EXERCISES; i++) {
+            StringBuilder instructions = new StringBuilder();
+            for (int w = 10 + random.nextInt(30); w > 0; w--) {
+                instructions.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            db.addExercise(new Exercise("Exercise " + i, instructions.toString()));
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int results = 0;
+            for (int i = 0; i < SEARCHES; i++) {
+                String query = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                results += db.search(query, 10).size();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("search %d exercises: %.3f ms per two-word query (%d results)%n",
+                    SEARCHED_EXERCISES, elapsed / 1e6 / SEARCHES, results);
+        }
+    }
+
+    // EFFECTS: adds the exercises to a list with the linear equalsIgnoreCase duplicate check
+    private static List<Exercise> linearAdd(List<Exercise> catalog) {
+        List<Exercise> exercises = new ArrayList<>();
+        for (Exercise exercise : catalog) {
+            boolean duplicate = false;
+            for (Exercise existing : exercises) {
+                if (existing.getName().equalsIgnoreCase(exercise.getName())) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                exercises.add(exercise);
+            }
+        }
+        return exercises;
+    }
+}
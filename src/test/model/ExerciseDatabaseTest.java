@@ -1,8 +1,15 @@
 package model;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ExerciseDatabaseTest {
@@ -38,4 +45,174 @@ public class ExerciseDatabaseTest {
         assertEquals(1, db.getExercises().size());
         assertEquals(exercise, db.getExercises().get(0));
     }
+
+    @Test
+    public void testAddDuplicateIgnoresCase() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        assertTrue(db.addExercise(new Exercise("Push-ups", "Do a set of 10 push-ups.")));
+        assertFalse(db.addExercise(new Exercise("PUSH-UPS", "Shouting.")));
+        assertEquals(1, db.getExercises().size());
+    }
+
+    @Test
+    public void testFindByName() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise pushUps = new Exercise("Push-ups", "Do a set of 10 push-ups.");
+        db.addExercise(pushUps);
+        assertEquals(pushUps, db.findByName("push-UPS"));
+        assertNull(db.findByName("Pull-ups"));
+
+        pushUps.setName("Wide Push-ups");
+        assertNull(db.findByName("Push-ups"));
+        assertEquals(pushUps, db.findByName("wide push-ups"));
+        assertTrue(db.addExercise(new Exercise("Push-ups", "Back again.")));
+
+        db.loadExercises(List.of(new Exercise("Squat", "Bend your knees.")));
+        assertNull(db.findByName("Wide Push-ups"));
+        assertEquals("Squat", db.findByName("SQUAT").getName());
+    }
+
+    @Test
+    public void testRenameOntoExistingNameKeepsIndex() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise first = new Exercise("Row", "");
+        Exercise second = new Exercise("Dip", "");
+        db.addExercise(first);
+        db.addExercise(second);
+        second.setName("row");
+        assertEquals(first, db.findByName("Row"));
+        first.setName("Bent-over Row");
+        assertEquals(second, db.findByName("Row"));
+        assertFalse(db.addExercise(new Exercise("ROW", "")));
+    }
+
+    @Test
+    public void testRenamesHandTheNameToTheEarliestWaitingExercise() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise first = new Exercise("Row", "");
+        Exercise second = new Exercise("Dip", "");
+        Exercise third = new Exercise("Fly", "");
+        Exercise fourth = new Exercise("Curl", "");
+        db.addExercise(first);
+        db.addExercise(second);
+        db.addExercise(third);
+        db.addExercise(fourth);
+        fourth.setName("ROW");
+        third.setName("row");
+        second.setName("Row");
+        second.setName("Dip");
+        first.setName("Bent-over Row");
+        assertEquals(third, db.findByName("Row"));
+        third.setName("Fly");
+        assertEquals(fourth, db.findByName("Row"));
+        assertEquals(third, db.findByName("fly"));
+        assertEquals(second, db.findByName("dip"));
+    }
+
+    @Test
+    public void testChangesReachTheSnapshotAtTheirPosition() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise squat = new Exercise("Squat", "Bend your knees.");
+        Exercise plank = new Exercise("Plank", "Brace your core.");
+        db.addExercise(new Exercise("Row", ""));
+        db.loadExercises(List.of(new Exercise("Dip", ""), squat, plank));
+        db.snapshot();
+        plank.setInstructions("Keep your hips level.");
+        squat.setName("Goblet Squat");
+        List<Exercise> snapshot = db.snapshot();
+        assertEquals("Goblet Squat", snapshot.get(1).getName());
+        assertEquals("Keep your hips level.", snapshot.get(2).getInstructions());
+
+        Exercise lunge = new Exercise("Lunge", "");
+        db.addExercise(lunge);
+        lunge.setInstructions("Step forward.");
+        assertEquals("Step forward.", db.snapshot().get(3).getInstructions());
+    }
+
+    @Test
+    public void testCompleteNameRanksShortestFirst() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        db.addExercise(new Exercise("Squat Jump", ""));
+        db.addExercise(new Exercise("Squat", ""));
+        db.addExercise(new Exercise("Split Squat", ""));
+        db.addExercise(new Exercise("Sit-ups", ""));
+        db.addExercise(new Exercise("Squat Hold", ""));
+
+        List<Exercise> completions = db.completeName("sq", 10);
+        assertEquals(3, completions.size());
+        assertEquals("Squat", completions.get(0).getName());
+        assertEquals("Squat Hold", completions.get(1).getName());
+        assertEquals("Squat Jump", completions.get(2).getName());
+        assertEquals(2, db.completeName("S", 2).size());
+        assertEquals("Sit-ups", db.completeName("S", 2).get(1).getName());
+        assertTrue(db.completeName("Lunge", 5).isEmpty());
+    }
+
+    @Test
+    public void testSearchRanksByRelevance() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise curl = new Exercise("Dumbbell Curl", "Hold a dumbbell in each hand and curl both dumbbells up.");
+        Exercise plank = new Exercise("Plank", "Brace your core and hold the position.");
+        Exercise lunge = new Exercise("Walking Lunges", "Step forward into a lunge holding dumbbells.");
+        db.addExercise(curl);
+        db.addExercise(plank);
+        db.addExercise(lunge);
+
+        assertEquals(List.of(curl, lunge), db.search("DUMBBELL", 10));
+        assertEquals(List.of(curl), db.search("dumbbell", 1));
+        assertEquals(List.of(lunge), db.search("lunging", 10));
+        assertEquals(List.of(plank), db.search("core", 10));
+        assertEquals(3, db.search("hold", 10).size());
+        assertTrue(db.search("the and", 10).isEmpty());
+        assertTrue(db.search("kettlebell", 10).isEmpty());
+    }
+
+    @Test
+    public void testSearchFollowsEditsAndLoads() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        Exercise plank = new Exercise("Plank", "Brace your core.");
+        db.addExercise(plank);
+        plank.setInstructions("Keep your hips level.");
+        assertTrue(db.search("core", 10).isEmpty());
+        assertEquals(List.of(plank), db.search("hip", 10));
+        plank.setName("Side Plank");
+        assertEquals(List.of(plank), db.search("side", 10));
+
+        Exercise row = new Exercise("Row", "Pull the handle to your core.");
+        db.loadExercises(List.of(row));
+        assertTrue(db.search("plank", 10).isEmpty());
+        assertEquals(List.of(row), db.search("core", 10));
+        plank.setName("Detached Plank");
+        assertTrue(db.search("detached", 10).isEmpty());
+    }
+
+    @Test
+    public void testViewsPagesAndVisitorsReadWithoutCopying() {
+        ExerciseDatabase db = new ExerciseDatabase();
+        List<Exercise> view = db.getExercisesView();
+        assertTrue(view.isEmpty());
+        Exercise squat = new Exercise("Squat", "Bend your knees.");
+        db.addExercise(squat);
+        db.addExercise(new Exercise("Lunge", "Step forward."));
+        db.addExercise(new Exercise("Plank", "Hold still."));
+
+        assertEquals(3, view.size());
+        assertSame(squat, view.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(squat));
+        assertEquals(List.of("Lunge", "Plank"), names(db.getExercises(1, 5)));
+        assertTrue(db.getExercises(3, 5).isEmpty());
+        assertEquals(List.of("Squat"), names(db.getExercises(0, 1)));
+        List<Exercise> visited = new ArrayList<>();
+        db.forEachExercise(visited::add);
+        assertEquals(view, visited);
+    }
+
+    // EFFECTS: returns the names of the given exercises, in order
+    private static List<String> names(List<Exercise> exercises) {
+        List<String> names = new ArrayList<>();
+        for (Exercise exercise : exercises) {
+            names.add(exercise.getName());
+        }
+        return names;
+    }
 }
@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ModelSnapshotTest {
+
+    @Test
+    public void testWorkoutSnapshotsKeepTheirContents() {
+        for (boolean columnar : new boolean[] {false, true}) {
+            WorkoutList list = new WorkoutList(columnar);
+            Workout running = new Workout("Running", 30, "High");
+            list.addWorkout(running);
+            list.addWorkout(new Workout("Swimming", 45, "Low"));
+            List<Workout> first = list.snapshot();
+
+            running = list.getWorkouts().get(0);
+            running.setDuration(35);
+            list.addWorkout(new Workout("Rowing", 20, "Low"));
+            list.removeWorkout(list.getWorkouts().get(1));
+            List<Workout> second = list.snapshot();
+
+            assertEquals(2, first.size());
+            assertEquals(30, first.get(0).getDuration());
+            assertEquals("Swimming", first.get(1).getExerciseType());
+            assertEquals(2, second.size());
+            assertEquals(35, second.get(0).getDuration());
+            assertEquals("Rowing", second.get(1).getExerciseType());
+            assertNotSame(second.get(0), second.get(0));
+            second.get(0).setDuration(90);
+            assertEquals(35, list.getWorkouts().get(0).getDuration());
+            assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+
+            list.loadWorkouts(List.of(new Workout("Yoga", 60, "Low")));
+            assertEquals("Yoga", list.snapshot().get(0).getExerciseType());
+            assertEquals(2, second.size());
+        }
+    }
+
+    @Test
+    public void testModelSnapshotOfEveryContainer() {
+        ExerciseDatabase exercises = new ExerciseDatabase();
+        exercises.addExercise(new Exercise("Squat", "Bend your knees"));
+        WorkoutList workouts = new WorkoutList();
+        workouts.addWorkout(new Workout("Running", 30, "High"));
+        Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+        WeightTracker weights = new WeightTracker();
+        weights.logWeight("2023-01-02", 75);
+        weights.logWeight("2023-01-01", 76);
+        ModelSnapshot before = ModelSnapshot.of(exercises, workouts, goals, weights);
+
+        exercises.getExercises().get(0).setInstructions("Keep your back straight");
+        exercises.addExercise(new Exercise("Lunge", "Step forward"));
+        goals.setDescription("Lose 4 kg");
+        weights.logWeight("2022-12-31", 77);
+        ModelSnapshot after = ModelSnapshot.of(exercises, workouts, goals, weights);
+
+        assertEquals(1, before.getExercises().size());
+        assertEquals("Bend your knees", before.getExercises().get(0).getInstructions());
+        assertEquals("Lose 5 kg", before.getGoalDescription());
+        assertEquals("Lose Weight", before.getGoalType());
+        assertEquals(List.of("2023-01-01", "2023-01-02"), dates(before.getWeightRecords()));
+        assertEquals(1, before.getWorkouts().size());
+
+        assertEquals(2, after.getExercises().size());
+        assertEquals("Keep your back straight", after.getExercises().get(0).getInstructions());
+        assertEquals("Lose 4 kg", after.getGoalDescription());
+        assertEquals(dates(weights.getWeightRecords()), dates(after.getWeightRecords()));
+    }
+
+    // EFFECTS: returns the dates of the given records, in order
+    private static List<String> dates(List<WeightRecord> records) {
+        return records.stream().map(WeightRecord::getDate).collect(Collectors.toList());
+    }
+}
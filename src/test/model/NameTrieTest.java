@@ -0,0 +1,50 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NameTrieTest {
+
+    @Test
+    public void testAddRemoveAndContains() {
+        NameTrie trie = new NameTrie();
+        assertTrue(trie.add("run"));
+        assertTrue(trie.add("running"));
+        assertFalse(trie.add("run"));
+        assertEquals(2, trie.size());
+
+        assertTrue(trie.remove("running"));
+        assertFalse(trie.remove("running"));
+        assertFalse(trie.remove("ru"));
+        assertTrue(trie.contains("run"));
+        assertFalse(trie.contains("runn"));
+        assertEquals(List.of("run"), trie.complete("r", 5));
+
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertTrue(trie.complete("", 5).isEmpty());
+    }
+
+    @Test
+    public void testCompleteIsShortestFirst() {
+        NameTrie trie = new NameTrie();
+        for (String key : new String[] {"bench press", "bike", "burpee", "b", "box jump"}) {
+            trie.add(key);
+        }
+        assertEquals(List.of("b", "bike", "burpee", "box jump", "bench press"), trie.complete("b", 10));
+        assertEquals(List.of("b", "bike"), trie.complete("b", 2));
+        assertTrue(trie.complete("c", 10).isEmpty());
+        assertTrue(trie.complete("b", 0).isEmpty());
+
+        trie.remove("b");
+        trie.remove("bike");
+        assertEquals(List.of("burpee"), trie.complete("b", 1));
+        trie.remove("burpee");
+        assertEquals(List.of("box jump", "bench press"), trie.complete("b", 10));
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void testSnapshotsMatchAListAndNeverChange() {
+        Random random = new Random(42);
+        PersistentVector.Editor<Integer> editor = new PersistentVector.Editor<>();
+        List<Integer> expected = new ArrayList<>();
+        List<List<Integer>> copies = new ArrayList<>();
+        List<PersistentVector<Integer>> snapshots = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 5 || expected.isEmpty()) {
+                editor.add(step);
+                expected.add(step);
+            } else if (op < 7) {
+                int index = random.nextInt(expected.size());
+                editor.set(index, -step);
+                expected.set(index, -step);
+            } else if (op < 8) {
+                int index = random.nextInt(expected.size() + 1);
+                editor.add(index, step);
+                expected.add(index, step);
+            } else if (op < 9) {
+                int index = random.nextInt(expected.size());
+                editor.remove(index);
+                expected.remove(index);
+            } else if (step % 50 == 9) {
+                snapshots.add(editor.snapshot(i -> i));
+                copies.add(new ArrayList<>(expected));
+            }
+        }
+        assertEquals(expected.size(), editor.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), editor.get(i));
+        }
+        assertEquals(expected, editor.snapshot(i -> i));
+        for (int s = 0; s < snapshots.size(); s++) {
+            assertEquals(copies.get(s), snapshots.get(s));
+        }
+    }
+
+    @Test
+    public void testSnapshotsGrowPastOneLevelAndClear() {
+        PersistentVector.Editor<Integer> editor = new PersistentVector.Editor<>();
+        int size = PersistentVector.WIDTH * PersistentVector.WIDTH + 1;
+        for (int i = 0; i < size; i++) {
+            editor.add(i);
+        }
+        PersistentVector<Integer> full = editor.snapshot(i -> i * 2);
+        editor.clear();
+        editor.add(7);
+        PersistentVector<Integer> cleared = editor.snapshot(i -> i);
+
+        assertEquals(size, full.size());
+        assertEquals(0, full.get(0));
+        assertEquals(2 * (size - 1), full.get(size - 1));
+        assertEquals(List.of(7), cleared);
+        assertThrows(IndexOutOfBoundsException.class, () -> full.get(size));
+        assertThrows(UnsupportedOperationException.class, () -> full.add(1));
+    }
+
+    @Test
+    public void testShrinkingAndRegrowingAroundSnapshots() {
+        PersistentVector.Editor<Integer> editor = new PersistentVector.Editor<>();
+        List<Integer> expected = new ArrayList<>();
+        int size = PersistentVector.WIDTH * PersistentVector.WIDTH * 2 + 7;
+        for (int i = 0; i < size; i++) {
+            editor.add(i);
+            expected.add(i);
+        }
+        PersistentVector<Integer> full = editor.snapshot(i -> i);
+        List<Integer> fullCopy = new ArrayList<>(expected);
+        for (int step = 0; expected.size() > 1; step++) {
+            int index = step % 3 == 0 ? 0 : step % 3 == 1 ? expected.size() - 1 : expected.size() / 2;
+            editor.remove(index);
+            expected.remove(index);
+            if (step % 500 == 0) {
+                assertEquals(expected, editor.snapshot(i -> i));
+            }
+        }
+        assertEquals(expected, editor.snapshot(i -> i));
+        for (int i = 0; i < size; i++) {
+            editor.add(i % 2 == 0 ? 0 : editor.size(), -i);
+            expected.add(i % 2 == 0 ? 0 : expected.size(), -i);
+        }
+        editor.remove(0);
+        expected.remove(0);
+        assertEquals(expected, editor.snapshot(i -> i));
+        assertEquals(fullCopy, full);
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextIndexTest {
+
+    @Test
+    public void testTokenizeStemsAndSkipsStopWords() {
+        assertEquals(List.of("lung", "lung", "lung", "lung"), TextIndex.tokenize("Lunges, lunging; lunged LUNGE"));
+        assertEquals(List.of("press", "press", "press"), TextIndex.tokenize("presses pressing pressed"));
+        assertEquals(List.of("crunch", "crunch", "run", "body", "slow"),
+                TextIndex.tokenize("crunches crunch running bodies slowly"));
+        assertEquals(List.of("abs", "core", "3x10"), TextIndex.tokenize("the abs and the core: 3x10"));
+        assertTrue(TextIndex.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    public void testRemoveAndReuseIds() {
+        TextIndex<String> index = new TextIndex<>();
+        for (int i = 0; i < 40; i++) {
+            index.add("doc" + i, i % 2 == 0 ? "even squat" : "odd squat");
+        }
+        assertEquals(40, index.size());
+        for (int i = 0; i < 40; i += 4) {
+            assertTrue(index.remove("doc" + i));
+        }
+        assertFalse(index.remove("doc0"));
+        assertEquals(30, index.size());
+        assertEquals(10, index.search("even", 100).size());
+
+        index.add("late", "even even even");
+        index.update("doc1", "plank");
+        assertEquals("late", index.search("even", 1).get(0));
+        assertEquals(List.of("doc1"), index.search("plank", 5));
+        assertEquals(29, index.search("squat", 100).size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("squat", 10).isEmpty());
+    }
+}
@@ -4,6 +4,8 @@ import model.WeightRecord;
 import model.WeightTracker;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,4 +34,139 @@ public class WeightTrackerTest {
         assertEquals("2023-02-01", secondRecord.getDate());
         assertEquals(148.0, secondRecord.getWeight());
     }
+
+    @Test
+    public void testArchivedMonthsLoadOnDemand() {
+        WeightTracker tracker = new WeightTracker();
+        List<String> requested = new ArrayList<>();
+        tracker.loadWeightRecords(List.of(new WeightRecord("2023-03-01", 70.0)), List.of("2023-01", "2023-02"),
+                month -> {
+                    requested.add(month);
+                    return List.of(new WeightRecord(month + "-10", 72.0));
+                });
+        assertEquals(1, tracker.getLoadedRecordCount());
+        assertEquals(2, tracker.getWeightRecordsSince("2023-02-05").size());
+        assertEquals(List.of("2023-02"), requested);
+        List<WeightRecord> records = tracker.getWeightRecords();
+        assertEquals(3, records.size());
+        assertEquals("2023-01-10", records.get(0).getDate());
+        assertEquals(List.of("2023-02", "2023-01"), requested);
+        assertTrue(tracker.getArchivedMonths().isEmpty());
+    }
+
+    @Test
+    public void testRecordsStayInDateOrderForRangeAndNearestLookups() {
+        WeightTracker tracker = new WeightTracker();
+        tracker.logWeight("2023-03-10", 71.0);
+        tracker.logWeight("2023-01-05", 74.0);
+        tracker.logWeight("last Monday", 70.0);
+        tracker.logWeight("2023-02-20", 72.5);
+        tracker.logWeight("2023-02-20", 72.0);
+
+        List<String> dates = new ArrayList<>();
+        for (WeightRecord record : tracker.getWeightRecords()) {
+            dates.add(record.getDate());
+        }
+        assertEquals(List.of("2023-01-05", "2023-02-20", "2023-02-20", "2023-03-10", "last Monday"), dates);
+        assertEquals(2, tracker.getWeightRecordsBetween("2023-02-01", "2023-02-20").size());
+        assertEquals(3, tracker.getWeightRecordsBetween("2023-02-20", "2023-03-10").size());
+        assertTrue(tracker.getWeightRecordsBetween("2023-03-11", "2023-12-31").isEmpty());
+        assertEquals(71.0, tracker.getLatestWeightRecord().getWeight());
+        assertEquals(72.0, tracker.getNearestWeightRecord("2023-02-20").getWeight());
+        assertEquals(74.0, tracker.getNearestWeightRecord("2023-01-28").getWeight());
+        assertEquals(72.0, tracker.getNearestWeightRecord("2023-01-29").getWeight());
+        assertEquals(71.0, tracker.getNearestWeightRecord("2024-01-01").getWeight());
+        assertEquals(74.0, tracker.getNearestWeightRecord("2020-01-01").getWeight());
+
+        double[] total = new double[1];
+        int[] firstDay = {Integer.MAX_VALUE};
+        tracker.forEachWeight("2023-02-01", "2023-03-31", (day, weight) -> {
+            total[0] += weight;
+            firstDay[0] = Math.min(firstDay[0], day);
+        });
+        assertEquals(215.5, total[0]);
+        assertEquals(WeightRecord.epochDay("2023-02-20"), firstDay[0]);
+        assertTrue(new WeightTracker().getLatestWeightRecord() == null);
+    }
+
+    @Test
+    public void testLookupsLoadOnlyTheArchivedMonthsTheyNeed() {
+        WeightTracker tracker = new WeightTracker();
+        List<String> requested = new ArrayList<>();
+        tracker.loadWeightRecords(List.of(new WeightRecord("2023-04-02", 70.0), new WeightRecord("soon", 69.0)),
+                List.of("2023-01", "2023-02", "2023-03"), month -> {
+                    requested.add(month);
+                    return List.of(new WeightRecord(month + "-10", 72.0), new WeightRecord(month + "-01", 73.0));
+                });
+        assertEquals(70.0, tracker.getLatestWeightRecord().getWeight());
+        assertTrue(requested.isEmpty());
+        assertEquals("2023-03-10", tracker.getNearestWeightRecord("2023-03-20").getDate());
+        assertEquals(List.of("2023-03"), requested);
+        assertEquals(2, tracker.getWeightRecordsBetween("2023-02-01", "2023-02-28").size());
+        assertEquals(List.of("2023-03", "2023-02"), requested);
+        assertEquals("2023-02-01", tracker.getWeightRecords().get(2).getDate());
+        assertEquals("soon", tracker.getWeightRecords().get(7).getDate());
+    }
+
+    @Test
+    public void testWeightSeriesDownsamplesToThePointBudget() {
+        WeightTracker tracker = new WeightTracker();
+        LocalDate first = LocalDate.parse("2024-01-01");
+        for (int day = 0; day < 366; day++) {
+            tracker.logWeight(first.plusDays(day).toString(), 80.0 - day / 100.0);
+        }
+        tracker.logWeight("2024-01-03", 90.0);
+
+        List<WeightSummary> daily = tracker.getWeightSeries("2024-01-01", "2024-01-07", 10);
+        assertEquals(7, daily.size());
+        assertEquals(90.0, daily.get(2).getMax());
+        assertEquals(2, daily.get(2).getCount());
+        assertEquals("2024-01-07", daily.get(6).getLastDate());
+
+        List<WeightSummary> weekly = tracker.getWeightSeries("2024-01-01", "2024-03-31", 20);
+        assertEquals(13, weekly.size());
+        assertEquals("2024-01-01", weekly.get(0).getFirstDate());
+        assertEquals("2024-01-07", weekly.get(0).getLastDate());
+        assertEquals(8, weekly.get(0).getCount());
+        assertEquals(80.0 - 6 / 100.0, weekly.get(0).getMin(), 1e-9);
+
+        List<WeightSummary> monthly = tracker.getWeightSeries("2024-01-01", "2024-12-31", 12);
+        assertEquals(12, monthly.size());
+        assertEquals("2024-02-29", monthly.get(1).getLastDate());
+        assertEquals(29, monthly.get(1).getCount());
+        List<WeightSummary> quarters = tracker.getWeightSeries("2024-01-01", "2024-12-31", 4);
+        assertEquals(4, quarters.size());
+        assertEquals("2024-03-31", quarters.get(0).getLastDate());
+        assertEquals(92, quarters.get(0).getCount());
+
+        tracker.logWeight("2024-02-10", 70.0);
+        WeightTracker loaded = new WeightTracker();
+        loaded.loadWeightRecords(tracker.getWeightRecords());
+        List<WeightSummary> logged = tracker.getWeightSeries("2024-01-15", "2024-06-15", 30);
+        List<WeightSummary> rebuilt = loaded.getWeightSeries("2024-01-15", "2024-06-15", 30);
+        assertEquals(logged.toString(), rebuilt.toString());
+        assertEquals(70.0, logged.get(3).getMin());
+        assertTrue(tracker.getWeightSeries("2025-06-01", "2025-07-01", 10).isEmpty());
+    }
+
+    @Test
+    public void testViewPagesAndVisitorLoadArchivedMonths() {
+        WeightTracker tracker = new WeightTracker();
+        tracker.loadWeightRecords(List.of(new WeightRecord("2023-03-01", 70.0), new WeightRecord("soon", 69.0)),
+                List.of("2023-02"), month -> List.of(new WeightRecord(month + "-10", 72.0)));
+        List<WeightRecord> view = tracker.getWeightRecordsView();
+        assertEquals(1, tracker.getArchivedMonths().size());
+
+        assertEquals(3, view.size());
+        assertTrue(tracker.getArchivedMonths().isEmpty());
+        assertEquals("2023-02-10", view.get(0).getDate());
+        assertEquals("soon", view.get(2).getDate());
+        tracker.logWeight("2023-02-20", 71.0);
+        assertEquals("2023-02-20", view.get(1).getDate());
+        assertEquals(2, tracker.getWeightRecords(2, 5).size());
+        assertEquals("2023-03-01", tracker.getWeightRecords(2, 1).get(0).getDate());
+        List<String> dates = new ArrayList<>();
+        tracker.forEachWeightRecord(record -> dates.add(record.getDate()));
+        assertEquals(List.of("2023-02-10", "2023-02-20", "2023-03-01", "soon"), dates);
+    }
 }
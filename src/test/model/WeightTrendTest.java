@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WeightTrendTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testWindowAverageSlopeAndMovingAverage() {
+        WeightTracker tracker = new WeightTracker();
+        WeightTrend trend = tracker.addTrend(7, 0.5);
+        assertTrue(Double.isNaN(trend.getWindowAverage()));
+        assertTrue(Double.isNaN(trend.getMovingAverage()));
+
+        tracker.logWeight("2024-01-01", 80.0);
+        assertTrue(Double.isNaN(trend.getSlope()));
+        tracker.logWeight("2024-01-03", 79.0);
+        tracker.logWeight("2024-01-05", 78.0);
+        assertEquals(3, trend.getWindowCount());
+        assertEquals(79.0, trend.getWindowAverage(), DELTA);
+        assertEquals(-0.5, trend.getSlope(), DELTA);
+        assertEquals(78.75, trend.getMovingAverage(), DELTA);
+
+        tracker.logWeight("2024-01-10", 76.0);
+        assertEquals(2, trend.getWindowCount());
+        assertEquals(77.0, trend.getWindowAverage(), DELTA);
+        tracker.logWeight("not a date", 10.0);
+        assertEquals(2, trend.getWindowCount());
+        assertEquals(7, trend.getWindowDays());
+        assertEquals(0.5, trend.getSmoothing());
+    }
+
+    @Test
+    public void testOutOfOrderLogsAndLoadsMatchRecomputing() {
+        Random random = new Random(17);
+        WeightTracker tracker = new WeightTracker();
+        WeightTrend weekly = tracker.addTrend(7, 0.3);
+        WeightTrend monthly = tracker.addTrend(30, 0.05);
+        LocalDate first = LocalDate.parse("2023-01-01");
+        for (int i = 0; i < 400; i++) {
+            int day = i < 300 ? i : random.nextInt(320);
+            tracker.logWeight(first.plusDays(day).toString(), 70 + random.nextInt(100) / 10.0);
+            if (i % 37 == 0 || i >= 300) {
+                check(tracker, weekly);
+                check(tracker, monthly);
+            }
+        }
+        tracker.loadWeightRecords(tracker.getWeightRecords().subList(0, 50));
+        check(tracker, weekly);
+        tracker.removeTrend(monthly);
+        tracker.logWeight("2030-01-01", 60.0);
+        check(tracker, weekly);
+    }
+
+    // EFFECTS: checks every value of trend against a computation from scratch over the tracker's records
+    private static void check(WeightTracker tracker, WeightTrend trend) {
+        List<WeightRecord> records = tracker.getWeightRecords();
+        double average = records.get(0).getWeight();
+        for (WeightRecord record : records) {
+            average += trend.getSmoothing() * (record.getWeight() - average);
+        }
+        long last = LocalDate.parse(records.get(records.size() - 1).getDate()).toEpochDay();
+        List<Double> days = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (WeightRecord record : records) {
+            long day = LocalDate.parse(record.getDate()).toEpochDay();
+            if (day > last - trend.getWindowDays()) {
+                days.add((double) day);
+                weights.add(record.getWeight());
+            }
+        }
+        double meanDay = days.stream().mapToDouble(d -> d).average().orElse(0);
+        double meanWeight = weights.stream().mapToDouble(w -> w).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < days.size(); i++) {
+            covariance += (days.get(i) - meanDay) * (weights.get(i) - meanWeight);
+            variance += (days.get(i) - meanDay) * (days.get(i) - meanDay);
+        }
+        assertEquals(average, trend.getMovingAverage(), 1e-6);
+        assertEquals(days.size(), trend.getWindowCount());
+        assertEquals(meanWeight, trend.getWindowAverage(), 1e-6);
+        if (variance > 0) {
+            assertEquals(covariance / variance, trend.getSlope(), 1e-6);
+        }
+    }
+}
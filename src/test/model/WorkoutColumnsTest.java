@@ -0,0 +1,57 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WorkoutColumnsTest {
+
+    @Test
+    public void testRemoveAcrossChunksKeepsRowsAndViews() {
+        WorkoutColumns columns = new WorkoutColumns(null);
+        int rows = WorkoutColumns.CHUNK_SIZE * 2 + 10;
+        for (int i = 0; i < rows; i++) {
+            columns.add(new Workout("Type" + (i % 7), i, i % 2 == 0 ? "Low" : "High",
+                    Instant.ofEpochSecond(i, i)), i);
+        }
+        Workout last = columns.get(rows - 1);
+        Workout removed = columns.get(5);
+        columns.remove(5);
+
+        assertEquals(rows - 1, columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            int value = row < 5 ? row : row + 1;
+            assertEquals(value, columns.sequenceAt(row));
+            assertEquals(value, columns.durationAt(row));
+            assertEquals("Type" + (value % 7), columns.exerciseTypeAt(row));
+            assertEquals(value % 2 == 0 ? "Low" : "High", columns.intensityAt(row));
+            assertEquals(Instant.ofEpochSecond(value, value), columns.startAt(row));
+        }
+        assertEquals(rows - 2, last.getRow().row());
+        assertEquals(-1, removed.getRow().row());
+        assertEquals(5, removed.getDuration());
+        assertEquals(-1, columns.rowOf(5));
+    }
+
+    @Test
+    public void testDictionariesShareStringsAndLimitIntensities() {
+        WorkoutColumns columns = new WorkoutColumns(null);
+        columns.add(new Workout(new String("Running"), 30, "Low", null), 0);
+        columns.add(new Workout(new String("Running"), 40, "Low", null), 1);
+        assertSame(columns.exerciseTypeAt(0), columns.exerciseTypeAt(1));
+        assertNull(columns.startAt(0));
+
+        for (int i = 1; i < WorkoutColumns.MAX_INTENSITIES; i++) {
+            columns.setIntensityAt(1, "Level " + i);
+        }
+        assertThrows(IllegalStateException.class, () -> columns.add(new Workout("Running", 5, "Extreme"), 2));
+        assertThrows(IllegalStateException.class, () -> columns.get(0).setIntensity("Extreme"));
+        assertEquals(2, columns.size());
+        assertEquals("Low", columns.intensityAt(0));
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap taken by a WorkoutList of a million workouts, loaded the way JsonReader loads them
+ * (every workout with its own String instances), in the default object mode and in columnar mode, and
+ * the time taken to load them and to answer a filtered lookup and a time range query.
+ * Not part of the unit test suite; run its main method directly.
+ */
+public class WorkoutListFootprintBenchmark {
+    private static final int WORKOUTS = 1_000_000;
+    private static final String[] TYPES = {"Running", "Cycling", "Swimming", "Rowing", "Yoga", "Lifting",
+        "Walking", "Hiking", "Climbing", "Boxing"};
+    private static final String[] INTENSITIES = {"Low", "Medium", "High"};
+    private static final Instant FIRST = Instant.parse("2015-01-01T06:00:00Z");
+
+    public static void main(String[] args) {
+        for (boolean columnar : new boolean[] {false, true, false, true}) {
+            measure(columnar);
+        }
+    }
+
+    // EFFECTS: loads WORKOUTS workouts into a list of the given mode and prints what it costs
+    private static void measure(boolean columnar) {
+        long before = usedHeap();
+        WorkoutList list = new WorkoutList(columnar);
+        long start = System.nanoTime();
+        list.loadWorkouts(generate());
+        long loading = System.nanoTime() - start;
+        long used = usedHeap() - before;
+
+        start = System.nanoTime();
+        int found = list.findWorkouts("Rowing", "High").size();
+        long finding = System.nanoTime() - start;
+        start = System.nanoTime();
+        int inRange = 0;
+        for (Workout workout : list.getWorkoutsBetween(FIRST.plusSeconds(86_400L * 365), FIRST.plusSeconds(
+                86_400L * 730))) {
+            inRange += workout.getDuration() > 0 ? 1 : 0;
+        }
+        long ranging = System.nanoTime() - start;
+
+        System.out.printf("%-8s %,d workouts: %6.1f bytes/workout  load: %4d ms  find: %3d ms (%d)"
+                        + "  one year: %3d ms (%d)%n", columnar ? "columnar" : "objects", WORKOUTS,
+                (double) used / WORKOUTS, loading / 1_000_000, finding / 1_000_000, found,
+                ranging / 1_000_000, inRange);
+        if (list.getWorkouts().isEmpty()) {
+            throw new AssertionError();
+        }
+    }
+
+    // EFFECTS: returns WORKOUTS workouts, three an hour apart each day, each with its own copies of the strings
+    private static List<Workout> generate() {
+        List<Workout> workouts = new ArrayList<>(WORKOUTS);
+        for (int i = 0; i < WORKOUTS; i++) {
+            workouts.add(new Workout(new String(TYPES[i % TYPES.length]), 15 + i % 90,
+                    new String(INTENSITIES[i % 7 % INTENSITIES.length]),
+                    FIRST.plusSeconds(i / 3 * 86_400L + i % 3 * 3_600L)));
+        }
+        return workouts;
+    }
+
+    // EFFECTS: returns the heap in use after collecting garbage
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
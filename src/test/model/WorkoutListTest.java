@@ -3,6 +3,14 @@ package model;
 import model.Workout;
 import model.WorkoutList;
 import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,4 +42,172 @@ public class WorkoutListTest {
         assertFalse(list.getWorkouts().contains(workout1));
         assertTrue(list.getWorkouts().contains(workout2));
     }
+
+    @Test
+    public void testModCountTracksChanges() {
+        WorkoutList list = new WorkoutList();
+        Workout workout = new Workout("Running", 30, "Medium");
+        long start = list.getModCount();
+        list.addWorkout(workout);
+        long added = list.getModCount();
+        assertTrue(added != start);
+        list.getWorkouts();
+        assertEquals(added, list.getModCount());
+        workout.setIntensity("High");
+        long updated = list.getModCount();
+        assertTrue(updated != added);
+        list.removeWorkout(workout);
+        assertTrue(list.getModCount() != updated);
+        long removed = list.getModCount();
+        workout.setDuration(45);
+        assertEquals(removed, list.getModCount());
+    }
+
+    @Test
+    public void testFindWorkoutsByTypeAndIntensity() {
+        WorkoutList list = new WorkoutList();
+        Workout run = new Workout("Running", 30, "High");
+        Workout swim = new Workout("Swimming", 45, "High");
+        Workout jog = new Workout(" running ", 20, "Low");
+        Workout sprint = new Workout("RUNNING", 10, "high");
+        list.addWorkout(run);
+        list.addWorkout(swim);
+        list.addWorkout(jog);
+        list.addWorkout(sprint);
+
+        assertEquals(List.of(run, jog, sprint), list.findWorkouts("running", null));
+        assertEquals(List.of(run, swim, sprint), list.findWorkouts(null, "HIGH"));
+        assertEquals(List.of(run, sprint), list.findWorkouts("Running", "High"));
+        assertEquals(4, list.findWorkouts(null, null).size());
+        assertTrue(list.findWorkouts("Rowing", null).isEmpty());
+        assertTrue(list.findWorkouts("Swimming", "Low").isEmpty());
+
+        list.removeWorkout(run);
+        assertEquals(List.of(sprint), list.findWorkouts("Running", "High"));
+    }
+
+    @Test
+    public void testIndexesFollowSettersAndLoads() {
+        WorkoutList list = new WorkoutList();
+        Workout first = new Workout("Running", 30, "Low");
+        Workout second = new Workout("Cycling", 60, "Low");
+        list.addWorkout(first);
+        list.addWorkout(second);
+
+        second.setExerciseType("Running");
+        first.setIntensity("High");
+        assertEquals(List.of(first, second), list.findWorkouts("Running", null));
+        assertEquals(List.of(second), list.findWorkouts("Running", "Low"));
+        assertTrue(list.findWorkouts("Cycling", null).isEmpty());
+
+        list.addWorkout(first);
+        list.removeWorkout(first);
+        assertEquals(List.of(first), list.findWorkouts(null, "High"));
+        first.setIntensity("Medium");
+        assertEquals(List.of(first), list.findWorkouts(null, "Medium"));
+
+        Workout loaded = new Workout("Rowing", 20, "Medium");
+        list.loadWorkouts(List.of(loaded));
+        assertEquals(List.of(loaded), list.findWorkouts(null, "Medium"));
+        assertTrue(list.findWorkouts("Running", null).isEmpty());
+        second.setExerciseType("Rowing");
+        assertEquals(List.of(loaded), list.findWorkouts("Rowing", null));
+    }
+
+    @Test
+    public void testTimeIndexRangesAndLatest() {
+        Instant monday = Instant.parse("2024-03-04T07:00:00Z");
+        WorkoutList list = new WorkoutList();
+        Workout tuesday = new Workout("Running", 30, "Medium", monday.plus(Duration.ofDays(1)));
+        Workout early = new Workout("Swimming", 45, "High", monday);
+        Workout alsoMonday = new Workout("Rowing", 20, "Low", monday);
+        Workout undated = new Workout("Yoga", 60, "Low", null);
+        list.addWorkout(tuesday);
+        list.addWorkout(early);
+        list.addWorkout(undated);
+        list.addWorkout(alsoMonday);
+
+        Collection<Workout> mondayOnly = list.getWorkoutsBetween(monday, monday.plus(Duration.ofDays(1)));
+        assertEquals(List.of(early, alsoMonday), List.copyOf(mondayOnly));
+        assertEquals(3, list.getWorkoutsBetween(Instant.EPOCH, monday.plus(Duration.ofDays(7))).size());
+        assertTrue(list.getWorkoutsBetween(monday, monday).isEmpty());
+        assertEquals(List.of(tuesday, alsoMonday), list.getLatestWorkouts(2));
+        assertEquals(3, list.getLatestWorkouts(10).size());
+
+        early.setStart(monday.minus(Duration.ofDays(7)));
+        assertEquals(List.of(alsoMonday), List.copyOf(mondayOnly));
+        undated.setStart(monday.plus(Duration.ofHours(12)));
+        assertEquals(List.of(alsoMonday, undated), List.copyOf(mondayOnly));
+        list.removeWorkout(alsoMonday);
+        assertEquals(List.of(undated), List.copyOf(mondayOnly));
+        alsoMonday.setStart(monday.plus(Duration.ofHours(1)));
+        assertEquals(List.of(undated), List.copyOf(mondayOnly));
+
+        list.loadWorkouts(List.of(alsoMonday));
+        assertEquals(List.of(alsoMonday), List.copyOf(mondayOnly));
+        assertEquals(List.of(alsoMonday), list.getLatestWorkouts(5));
+    }
+
+    @Test
+    public void testColumnarListHandsOutViews() {
+        Instant monday = Instant.parse("2024-03-04T07:00:00Z");
+        WorkoutList list = new WorkoutList(true);
+        assertTrue(list.isColumnar());
+        Workout run = new Workout("Running", 30, "High", monday);
+        Workout swim = new Workout("Swimming", 45, "Low", monday.minus(Duration.ofDays(1)));
+        list.addWorkout(run);
+        list.addWorkout(swim);
+        list.addWorkout(new Workout("running", 20, "Low", null));
+
+        assertEquals(List.of("Running", "Swimming", "running"), types(list.getWorkouts()));
+        Workout view = list.findWorkouts("Running", "High").get(0);
+        view.setDuration(35);
+        assertEquals(35, run.getDuration());
+        view.setExerciseType("Rowing");
+        assertEquals(List.of("running"), types(list.findWorkouts("Running", null)));
+        assertEquals(List.of("Rowing"), types(list.findWorkouts("rowing", "high")));
+        swim.setStart(monday.plus(Duration.ofHours(1)));
+        assertEquals(List.of("Swimming", "Rowing"), types(list.getLatestWorkouts(5)));
+
+        assertTrue(list.removeWorkout(view));
+        assertFalse(list.removeWorkout(run));
+        assertEquals(List.of("Swimming", "running"), types(list.getWorkouts()));
+        assertEquals(List.of("Swimming"), types(list.getWorkoutsBetween(monday, monday.plus(Duration.ofDays(1)))));
+        assertEquals("Rowing", view.getExerciseType());
+        swim.setIntensity("High");
+        assertEquals(List.of("Swimming"), types(list.findWorkouts(null, "High")));
+
+        list.loadWorkouts(List.of(view, new Workout("Yoga", 60, "Low", monday)));
+        assertEquals(List.of("Rowing", "Yoga"), types(list.getWorkouts()));
+        assertEquals(List.of("Yoga", "Rowing"), types(list.getLatestWorkouts(2)));
+        assertEquals("Swimming", swim.getExerciseType());
+        assertEquals(1, list.findWorkouts(null, "Low").size());
+    }
+
+    // EFFECTS: returns the exercise types of the given workouts, in order
+    private static List<String> types(Collection<Workout> workouts) {
+        return workouts.stream().map(Workout::getExerciseType).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testViewsPagesAndVisitors() {
+        for (boolean columnar : new boolean[] {false, true}) {
+            WorkoutList list = new WorkoutList(columnar);
+            List<Workout> view = list.getWorkoutsView();
+            list.addWorkout(new Workout("Running", 30, "High"));
+            list.addWorkout(new Workout("Swimming", 45, "Low"));
+            list.addWorkout(new Workout("Rowing", 20, "Low"));
+
+            assertEquals(List.of("Running", "Swimming", "Rowing"), types(view));
+            assertEquals(List.of("Swimming", "Rowing"), types(list.getWorkouts(1, 10)));
+            assertTrue(list.getWorkouts(5, 10).isEmpty());
+            list.removeWorkout(view.get(0));
+            assertEquals(List.of("Swimming", "Rowing"), types(view));
+            List<Workout> visited = new ArrayList<>();
+            list.forEachWorkout(visited::add);
+            assertEquals(types(view), types(visited));
+            view.get(1).setDuration(25);
+            assertEquals(25, list.getWorkouts(1, 1).get(0).getDuration());
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkoutStatsTest {
+    private static final LocalDate MONDAY = LocalDate.parse("2024-03-04");
+
+    @Test
+    public void testTotalsFollowAddsRemovesAndSetters() {
+        WorkoutList list = new WorkoutList();
+        WorkoutStats stats = list.getStats();
+        Workout run = new Workout("Running", 30, "High", noon(list, MONDAY));
+        Workout swim = new Workout("Swimming", 45, "Low", noon(list, MONDAY.plusDays(1)));
+        list.addWorkout(run);
+        list.addWorkout(swim);
+        list.addWorkout(new Workout(" running ", 20, "high", null));
+
+        assertEquals(3, stats.getSessionCount());
+        assertEquals(95, stats.getTotalMinutes());
+        assertEquals(2, stats.getSessionCount("RUNNING"));
+        assertEquals(50, stats.getMinutes("Running"));
+        assertEquals(Map.of("Running", 2, "Swimming", 1), stats.getSessionsByType());
+        assertEquals(Map.of("High", 2, "Low", 1), stats.getSessionsByIntensity());
+        assertEquals(75, stats.getWeeklyMinutes(MONDAY.plusDays(6)));
+        assertEquals(2, stats.getWeeklySessions(MONDAY));
+
+        run.setDuration(40);
+        swim.setExerciseType("Running");
+        swim.setIntensity("High");
+        assertEquals(105, stats.getMinutes("running"));
+        assertEquals(3, stats.getSessionCountAt("HIGH"));
+        assertEquals(0, stats.getSessionCount("Swimming"));
+        swim.setStart(noon(list, MONDAY.plusDays(7)));
+        assertEquals(40, stats.getWeeklyMinutes(MONDAY));
+        assertEquals(List.of(40L, 45L, 0L), List.copyOf(stats.getWeeklyMinutes(MONDAY.plusDays(2),
+                MONDAY.plusDays(20)).values()));
+
+        list.removeWorkout(run);
+        run.setDuration(1000);
+        assertEquals(2, stats.getSessionCount());
+        assertEquals(65, stats.getTotalMinutes());
+        assertEquals(0, stats.getWeeklyMinutes(MONDAY));
+    }
+
+    @Test
+    public void testStreaksJoinAndSplit() {
+        WorkoutList list = new WorkoutList();
+        WorkoutStats stats = list.getStats();
+        Workout[] days = new Workout[5];
+        for (int i = 0; i < days.length; i++) {
+            if (i != 2) {
+                days[i] = new Workout("Running", 30, "Low", noon(list, MONDAY.plusDays(i)));
+                list.addWorkout(days[i]);
+            }
+        }
+        assertEquals(2, stats.getLongestStreak());
+        assertEquals(2, stats.getCurrentStreak(MONDAY.plusDays(5)));
+        assertEquals(0, stats.getCurrentStreak(MONDAY.plusDays(6)));
+
+        days[2] = new Workout("Yoga", 60, "Low", noon(list, MONDAY.plusDays(2)));
+        list.addWorkout(days[2]);
+        list.addWorkout(new Workout("Yoga", 15, "Low", noon(list, MONDAY.plusDays(2))));
+        assertEquals(5, stats.getLongestStreak());
+        assertEquals(5, stats.getCurrentStreak(MONDAY.plusDays(4)));
+
+        list.removeWorkout(days[2]);
+        assertEquals(5, stats.getLongestStreak());
+        days[3].setStart(noon(list, MONDAY.plusDays(10)));
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(1, stats.getCurrentStreak(MONDAY.plusDays(10)));
+
+        list.loadWorkouts(List.of(days[0]));
+        assertEquals(1, stats.getSessionCount());
+        assertEquals(1, stats.getLongestStreak());
+        assertEquals(0, stats.getCurrentStreak(MONDAY.plusDays(10)));
+    }
+
+    @Test
+    public void testRandomChangesMatchRecounting() {
+        Random random = new Random(19);
+        String[] types = {"Running", "Yoga", "Rowing"};
+        String[] intensities = {"Low", "Medium", "High"};
+        for (boolean columnar : new boolean[] {false, true}) {
+            WorkoutList list = new WorkoutList(columnar);
+            for (int i = 0; i < 500; i++) {
+                List<Workout> workouts = list.getWorkouts();
+                int action = workouts.isEmpty() ? 0 : random.nextInt(5);
+                Workout workout = workouts.isEmpty() ? null : workouts.get(random.nextInt(workouts.size()));
+                if (action == 0) {
+                    list.addWorkout(new Workout(types[random.nextInt(3)], 10 + random.nextInt(50),
+                            intensities[random.nextInt(3)], noon(list, MONDAY.plusDays(random.nextInt(40)))));
+                } else if (action == 1) {
+                    list.removeWorkout(workout);
+                } else if (action == 2) {
+                    workout.setDuration(10 + random.nextInt(50));
+                } else if (action == 3) {
+                    workout.setExerciseType(types[random.nextInt(3)]);
+                } else {
+                    workout.setStart(noon(list, MONDAY.plusDays(random.nextInt(40))));
+                }
+            }
+            WorkoutList recounted = new WorkoutList();
+            recounted.loadWorkouts(list.getWorkouts());
+            WorkoutStats expected = recounted.getStats();
+            WorkoutStats actual = list.getStats();
+            assertEquals(expected.getSessionCount(), actual.getSessionCount());
+            assertEquals(expected.getMinutesByType(), actual.getMinutesByType());
+            assertEquals(expected.getSessionsByIntensity(), actual.getSessionsByIntensity());
+            assertEquals(expected.getWeeklyMinutes(MONDAY, MONDAY.plusDays(40)),
+                    actual.getWeeklyMinutes(MONDAY, MONDAY.plusDays(40)));
+            assertEquals(expected.getLongestStreak(), actual.getLongestStreak());
+            assertEquals(expected.getCurrentStreak(MONDAY.plusDays(40)), actual.getCurrentStreak(MONDAY.plusDays(40)));
+            assertTrue(actual.getLongestStreak() > 0);
+        }
+    }
+
+    // EFFECTS: returns noon of the given day in the time zone the statistics of list count days in
+    private static Instant noon(WorkoutList list, LocalDate day) {
+        ZoneId zone = list.getStats().getZone();
+        return day.atTime(12, 0).atZone(zone).toInstant();
+    }
+}
@@ -1,7 +1,13 @@
 package model;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class WorkoutTest {
 
@@ -40,4 +46,21 @@ public class WorkoutTest {
         String expectedToString = "Exercise Type: Running, Duration: 30 minutes, Intensity: Medium";
         assertEquals(expectedToString, workout.toString());
     }
+
+    @Test
+    public void testStartRoundTripsThroughJson() {
+        Instant start = Instant.parse("2024-03-01T07:30:15.250Z");
+        Workout workout = new Workout("Running", 30, "Medium", start);
+        assertEquals(start, workout.getStart());
+        assertEquals(start, new Workout(workout.toJson()).getStart());
+
+        JSONObject legacy = new JSONObject().put("exerciseType", "Rowing").put("duration", 20)
+                .put("intensity", "Low");
+        Workout old = new Workout(legacy);
+        assertNull(old.getStart());
+        assertFalse(old.toJson().has("start"));
+        old.setStart(start);
+        assertEquals("2024-03-01T07:30:15.250Z", old.toJson().getString("start"));
+        assertNotNull(new Workout("Cycling", 45, "High").getStart());
+    }
 }
@@ -0,0 +1,180 @@
+package persistence;
+
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutosaveServiceTest extends JsonTest {
+    private static final long QUIET_PERIOD = 100;
+
+    private InMemoryStorage storage;
+    private AutosaveService autosave;
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    @BeforeEach
+    void runBefore() {
+        storage = new InMemoryStorage();
+        autosave = new AutosaveService(storage, Runnable::run, QUIET_PERIOD, 10 * QUIET_PERIOD);
+        exerciseDatabase = new ExerciseDatabase();
+        workoutList = new WorkoutList();
+        goals = new Goals("", "");
+        weightTracker = new WeightTracker();
+        autosave.attach(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        autosave.close(false);
+    }
+
+    @Test
+    void testBurstIsSavedOnce() throws InterruptedException, IOException {
+        for (int i = 0; i < 10; i++) {
+            workoutList.addWorkout(new Workout("Running", 30 + i, "Medium"));
+        }
+        goals.setGoalType("Run more");
+        assertEquals(11, autosave.getPendingChangeCount());
+        awaitSaves(1);
+        Thread.sleep(3 * QUIET_PERIOD);
+
+        assertEquals(1, autosave.getSaveCount());
+        assertEquals(0, autosave.getPendingChangeCount());
+        assertTrue(autosave.getLastSaveLatencyMillis() >= 0);
+        assertNull(autosave.getLastFailure());
+        WorkoutList saved = new WorkoutList();
+        Goals savedGoals = new Goals("", "");
+        storage.load(new ExerciseDatabase(), saved, savedGoals, new WeightTracker());
+        assertEquals(10, saved.getWorkouts().size());
+        assertEquals("Run more", savedGoals.getGoalType());
+    }
+
+    @Test
+    void testSaveNowIncludesLatestChanges() throws InterruptedException, ExecutionException, IOException {
+        assertEquals(-1, autosave.getLastSaveLatencyMillis());
+        weightTracker.logWeight("2023-01-01", 75);
+        autosave.saveNow().get();
+        assertEquals(0, autosave.getPendingChangeCount());
+
+        workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+        autosave.saveNow().get();
+        WorkoutList saved = new WorkoutList();
+        WeightTracker savedWeights = new WeightTracker();
+        storage.load(new ExerciseDatabase(), saved, new Goals("", ""), savedWeights);
+        checkWorkout("Swimming", 45, "High", saved.getWorkouts().get(0));
+        checkWeightRecord("2023-01-01", 75, savedWeights.getWeightRecords().get(0));
+        assertEquals(2, autosave.getSaveCount());
+    }
+
+    @Test
+    void testCloseWithoutSavingDropsPendingChanges() throws InterruptedException, IOException {
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        autosave.close(false);
+        Thread.sleep(3 * QUIET_PERIOD);
+        assertFalse(storage.hasData());
+        assertEquals(1, autosave.getPendingChangeCount());
+    }
+
+    @Test
+    void testJournalKeepsFollowingTheModel(@TempDir Path directory)
+            throws InterruptedException, ExecutionException, IOException {
+        String snapshot = directory.resolve("fitnessApp.json").toString();
+        JsonStorage json = new JsonStorage(snapshot, directory.resolve("fitnessApp.journal").toString());
+        json.save(exerciseDatabase, workoutList, goals, weightTracker);
+        AutosaveService journaled = new AutosaveService(json, Runnable::run, QUIET_PERIOD, 10 * QUIET_PERIOD);
+        journaled.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        journaled.saveNow().get();
+        workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+        journaled.close(true);
+
+        WorkoutList inSnapshot = new WorkoutList();
+        new JsonReader(snapshot).read(new ExerciseDatabase(), inSnapshot, new Goals("", ""), new WeightTracker());
+        assertTrue(inSnapshot.getWorkouts().isEmpty());
+        WorkoutList saved = new WorkoutList();
+        new JsonStorage(snapshot, directory.resolve("fitnessApp.journal").toString())
+                .load(new ExerciseDatabase(), saved, new Goals("", ""), new WeightTracker());
+        assertEquals(2, saved.getWorkouts().size());
+        checkWorkout("Swimming", 45, "High", saved.getWorkouts().get(1));
+    }
+
+    @Test
+    void testSegmentsStayIncrementalAndArchived(@TempDir Path directory)
+            throws InterruptedException, ExecutionException, IOException {
+        for (int month = 1; month <= 6; month++) {
+            weightTracker.logWeight("2023-0" + month + "-01", 80 - month);
+        }
+        SegmentStorage segments = new SegmentStorage(directory.toString(), 1);
+        segments.save(exerciseDatabase, workoutList, goals, weightTracker);
+        ExerciseDatabase loadedExercises = new ExerciseDatabase();
+        WorkoutList loadedWorkouts = new WorkoutList();
+        Goals loadedGoals = new Goals("", "");
+        WeightTracker loadedWeights = new WeightTracker();
+        segments.load(loadedExercises, loadedWorkouts, loadedGoals, loadedWeights);
+        List<String> archived = List.of("2023-01", "2023-02", "2023-03", "2023-04", "2023-05");
+        assertEquals(archived, loadedWeights.getArchivedMonths());
+
+        AutosaveService segmented = new AutosaveService(segments, Runnable::run, QUIET_PERIOD, 10 * QUIET_PERIOD);
+        segmented.attach(loadedExercises, loadedWorkouts, loadedGoals, loadedWeights);
+        loadedWorkouts.addWorkout(new Workout("Running", 30, "Medium"));
+        loadedWeights.logWeight("2023-06-20", 70);
+        segmented.saveNow().get();
+        assertEquals(archived, loadedWeights.getArchivedMonths());
+
+        Map<Path, Object> segmentFiles = segmentFiles(directory);
+        loadedWeights.logWeight("2023-06-25", 69);
+        synchronized (segments) {
+            segments.append(loadedExercises, loadedWorkouts, loadedGoals, loadedWeights);
+        }
+        assertEquals(segmentFiles, segmentFiles(directory));
+        assertEquals(archived, loadedWeights.getArchivedMonths());
+        segmented.close(false);
+
+        WorkoutList saved = new WorkoutList();
+        WeightTracker savedWeights = new WeightTracker();
+        new SegmentStorage(directory.toString(), 1).load(new ExerciseDatabase(), saved, new Goals("", ""),
+                savedWeights);
+        assertEquals(1, saved.getWorkouts().size());
+        assertEquals(8, savedWeights.getWeightRecords().size());
+        checkWeightRecord("2023-06-25", 69, savedWeights.getLatestWeightRecord());
+    }
+
+    // EFFECTS: returns the identity of each segment file in directory, which changes when the file is replaced
+    private Map<Path, Object> segmentFiles(Path directory) throws IOException {
+        Map<Path, Object> files = new HashMap<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*.seg")) {
+            for (Path segment : segments) {
+                files.put(segment, Files.readAttributes(segment, BasicFileAttributes.class).fileKey());
+            }
+        }
+        return files;
+    }
+
+    // EFFECTS: waits up to a few seconds until at least the given number of saves has completed
+    private void awaitSaves(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (autosave.getSaveCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
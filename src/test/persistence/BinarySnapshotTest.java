@@ -0,0 +1,173 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest extends JsonTest {
+    @TempDir
+    Path directory;
+
+    private String snapshotPath;
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    @BeforeEach
+    void runBefore() {
+        snapshotPath = directory.resolve("fitnessApp.bin").toString();
+        exerciseDatabase = new ExerciseDatabase();
+        exerciseDatabase.addExercise(new Exercise("Squat", "Bend your knees \u00e9"));
+        workoutList = new WorkoutList();
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+        workoutList.addWorkout(new Workout("Running", 20, "Medium"));
+        goals = new Goals("Lose Weight", "Lose 5 kg");
+        weightTracker = new WeightTracker();
+        weightTracker.logWeight("2023-01-01", 75);
+        weightTracker.logWeight("last Monday", 74.6);
+    }
+
+    @Test
+    void testRoundTrip() {
+        try {
+            new BinaryWriter(snapshotPath).write(exerciseDatabase, workoutList, goals, weightTracker);
+            assertTrue(BinaryReader.isBinary(Paths.get(snapshotPath)));
+            assertTrue(SnapshotFiles.isIntact(Paths.get(snapshotPath)));
+
+            ExerciseDatabase readDatabase = new ExerciseDatabase();
+            WorkoutList readWorkouts = new WorkoutList();
+            Goals readGoals = new Goals("", "");
+            WeightTracker readTracker = new WeightTracker();
+            new BinaryReader(snapshotPath).read(readDatabase, readWorkouts, readGoals, readTracker);
+
+            checkExercise("Squat", "Bend your knees \u00e9", readDatabase.getExercises().get(0));
+            assertEquals(3, readWorkouts.getWorkouts().size());
+            checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+            checkWorkout("Swimming", 45, "High", readWorkouts.getWorkouts().get(1));
+            checkWorkout("Running", 20, "Medium", readWorkouts.getWorkouts().get(2));
+            checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+            checkWeightRecord("2023-01-01", 75, readTracker.getWeightRecords().get(0));
+            checkWeightRecord("last Monday", 74.6, readTracker.getWeightRecords().get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testJsonReaderDetectsFormat() {
+        try {
+            new BinaryWriter(snapshotPath).write(exerciseDatabase, workoutList, goals, weightTracker);
+            for (boolean streaming : new boolean[] {false, true}) {
+                WorkoutList readWorkouts = new WorkoutList();
+                Goals readGoals = new Goals("", "");
+                new JsonReader(snapshotPath, streaming).read(new ExerciseDatabase(), readWorkouts, readGoals,
+                        new WeightTracker());
+                assertEquals(3, readWorkouts.getWorkouts().size());
+                checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+            }
+            assertFalse(BinaryReader.isBinary(Paths.get("./data/testGeneralFitnessApp.json")));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotRejected() throws IOException {
+        new BinaryWriter(snapshotPath).write(exerciseDatabase, workoutList, goals, weightTracker);
+        byte[] bytes = Files.readAllBytes(Paths.get(snapshotPath));
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(Paths.get(snapshotPath), bytes);
+        Files.delete(SnapshotFiles.checksumFor(Paths.get(snapshotPath)));
+        try {
+            new BinaryReader(snapshotPath).read(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""),
+                    new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testNewerVersionRejected() throws IOException {
+        new BinaryWriter(snapshotPath).write(exerciseDatabase, workoutList, goals, weightTracker);
+        byte[] bytes = Files.readAllBytes(Paths.get(snapshotPath));
+        ByteBuffer.wrap(bytes).putShort(4, (short) (BinaryWriter.VERSION + 1));
+        Files.write(Paths.get(snapshotPath), bytes);
+        try {
+            new BinaryReader(snapshotPath).read(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""),
+                    new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test
+    void testWorkoutStartsRoundTrip() throws IOException {
+        Instant start = Instant.parse("2024-03-01T07:30:15.123456789Z");
+        workoutList.getWorkouts().get(0).setStart(start);
+        workoutList.getWorkouts().get(1).setStart(null);
+        new BinaryWriter(snapshotPath).write(exerciseDatabase, workoutList, goals, weightTracker);
+
+        WorkoutList readWorkouts = new WorkoutList();
+        new BinaryReader(snapshotPath).read(new ExerciseDatabase(), readWorkouts, new Goals("", ""),
+                new WeightTracker());
+        assertEquals(start, readWorkouts.getWorkouts().get(0).getStart());
+        assertNull(readWorkouts.getWorkouts().get(1).getStart());
+        assertEquals(workoutList.getWorkouts().get(2).getStart(), readWorkouts.getWorkouts().get(2).getStart());
+    }
+
+    @Test
+    void testVersion1SnapshotLoadsWithoutStarts() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryWriter.MAGIC);
+        out.writeShort(1);
+        out.writeShort(0);
+        String[] dictionary = {"Running", "Medium", "Goal", "Description"};
+        out.writeInt(dictionary.length);
+        for (String s : dictionary) {
+            out.writeInt(s.length());
+            out.writeBytes(s);
+        }
+        out.writeInt(0);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeInt(30);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.writeInt(3);
+        out.writeInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        Files.write(Paths.get(snapshotPath), bytes.toByteArray());
+
+        WorkoutList readWorkouts = new WorkoutList();
+        Goals readGoals = new Goals("", "");
+        new BinaryReader(snapshotPath).read(new ExerciseDatabase(), readWorkouts, readGoals, new WeightTracker());
+        checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+        assertNull(readWorkouts.getWorkouts().get(0).getStart());
+        checkGoal("Goal", "Description", readGoals);
+    }
+}
@@ -0,0 +1,166 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.EventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogSinkTest {
+    private static final Instant T0 = Instant.parse("2024-01-01T07:00:00Z");
+    private static final int OVERFLOW = 3 * EventLog.CAPACITY;
+
+    @TempDir
+    Path directory;
+
+    private EventLog log;
+    private EventLogSink sink;
+
+    @BeforeEach
+    void runBefore() {
+        log = EventLog.getInstance();
+        log.clear();
+        sink = new EventLogSink(log, directory.toString(), 60_000);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        sink.close();
+    }
+
+    @Test
+    void testEventsRoundTripByTimeRange() throws IOException, ExecutionException, InterruptedException {
+        sink.start();
+        log.logEvent(at(0, EventType.WORKOUT_ADDED, 30, null));
+        log.logEvent(at(1, EventType.MESSAGE, Double.NaN, "Tab\there, line\nthere \\ done"));
+        log.logEvent(at(2, EventType.WEIGHT_LOGGED, 74.5, null));
+        sink.flush().get();
+
+        List<Event> all = EventLogSink.read(directory.toString(), T0, T0.plusSeconds(10));
+        assertEquals(3, all.size());
+        assertEquals(3, sink.getWrittenCount());
+        assertEquals(at(0, EventType.WORKOUT_ADDED, 30, null), all.get(0));
+        assertEquals("Tab\there, line\nthere \\ done", all.get(1).getDescription());
+        assertEquals(at(2, EventType.WEIGHT_LOGGED, 74.5, null), all.get(2));
+        List<Event> middle = EventLogSink.read(directory.toString(), T0.plusMillis(500), T0.plusSeconds(1));
+        assertEquals(1, middle.size());
+        assertEquals(EventType.MESSAGE, middle.get(0).getType());
+        assertTrue(EventLogSink.read(directory.resolve("noSuchEvents").toString(), T0, T0.plusSeconds(10)).isEmpty());
+    }
+
+    @Test
+    void testFilesRotateBySizeAndAge() throws IOException, ExecutionException, InterruptedException {
+        sink.setRotation(200, 60_000);
+        sink.setRetainedFiles(3);
+        sink.start();
+        for (int i = 0; i < 20; i++) {
+            log.logEvent(at(i, EventType.WORKOUT_ADDED, i, null));
+            // a batch is written to one file, so only a full file before a batch starts a new one
+            if (i % 2 == 1) {
+                sink.flush().get();
+            }
+        }
+        assertEquals(3, files().size());
+        List<Event> kept = EventLogSink.read(directory.toString(), T0, T0.plusSeconds(100));
+        assertEquals(19, kept.get(kept.size() - 1).getValue());
+        assertTrue(kept.size() < 20);
+
+        sink.setRotation(10_000, 60_000);
+        log.logEvent(at(1_000, EventType.GOAL_SET, Double.NaN, null));
+        sink.flush().get();
+        log.logEvent(at(2_000, EventType.GOAL_SET, Double.NaN, null));
+        sink.flush().get();
+        List<Path> files = files();
+        assertEquals(3, files.size());
+        assertEquals(1, Files.readAllLines(files.get(2)).size());
+        assertEquals(1, EventLogSink.read(directory.toString(), T0.plusSeconds(1_500), T0.plusSeconds(3_000)).size());
+    }
+
+    @Test
+    void testFailedBatchIsNotDuplicated() throws IOException, InterruptedException {
+        sink.start();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        // enough events that part of the batch reaches the file before the failure
+        for (int i = 0; i < 500; i++) {
+            log.logEvent(at(i, EventType.WORKOUT_ADDED, i, null));
+        }
+        log.logEvent(new Event("Disk full") {
+            @Override
+            public String getDescription() {
+                if (failing.getAndSet(false)) {
+                    throw new UncheckedIOException(new IOException("Disk full"));
+                }
+                return super.getDescription();
+            }
+        });
+        try {
+            sink.flush().get();
+            fail("The batch should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertNotNull(sink.getLastFailure());
+        assertTrue(EventLogSink.read(directory.toString(), T0, Instant.now().plusSeconds(1)).isEmpty());
+
+        sink.close();
+        List<Event> written = EventLogSink.read(directory.toString(), T0, Instant.now().plusSeconds(1));
+        assertEquals(501, written.size());
+        assertEquals(499, written.get(499).getValue());
+        assertEquals("Disk full", written.get(500).getDescription());
+        assertNull(sink.getLastFailure());
+    }
+
+    @Test
+    void testDropLosesEventsTheLogOverwrites() throws IOException {
+        sink.start();
+        for (int i = 0; i < OVERFLOW; i++) {
+            log.logEvent(new Event(EventType.WORKOUT_ADDED, i));
+        }
+        sink.close();
+        assertTrue(sink.getMissedCount() > 0);
+        assertEquals(OVERFLOW, sink.getWrittenCount() + sink.getMissedCount());
+    }
+
+    @Test
+    void testBlockWaitsForTheSink() throws IOException {
+        sink.setBackpressure(EventLogSink.Backpressure.BLOCK, 10_000);
+        sink.start();
+        for (int i = 0; i < OVERFLOW; i++) {
+            log.logEvent(new Event(EventType.WORKOUT_ADDED, i));
+        }
+        sink.close();
+        assertEquals(0, sink.getMissedCount());
+        assertEquals(OVERFLOW, sink.getWrittenCount());
+        assertNull(sink.getLastFailure());
+    }
+
+    // EFFECTS: returns an event logged the given number of seconds after T0
+    private static Event at(long seconds, EventType type, double value, String description) {
+        return new Event(type, (T0.getEpochSecond() + seconds) * 1_000_000_000L, value, description);
+    }
+
+    // EFFECTS: returns the files in the test directory, in name order
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+}
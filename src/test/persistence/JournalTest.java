@@ -0,0 +1,204 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest extends JsonTest {
+    @TempDir
+    Path directory;
+
+    private String snapshotPath;
+    private String journalPath;
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        snapshotPath = directory.resolve("fitnessApp.json").toString();
+        journalPath = directory.resolve("fitnessApp.journal").toString();
+        exerciseDatabase = new ExerciseDatabase();
+        workoutList = new WorkoutList();
+        goals = new Goals("", "");
+        weightTracker = new WeightTracker();
+        new JsonWriter(snapshotPath, true).write(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    @Test
+    void testReplayRecordedChanges() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        Workout running = new Workout("Running", 30, "Medium");
+        workoutList.addWorkout(running);
+        workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+        running.setDuration(35);
+        workoutList.removeWorkout(workoutList.getWorkouts().get(1));
+        Exercise plank = new Exercise("Plank", "Hold for 60 seconds.");
+        exerciseDatabase.addExercise(plank);
+        plank.setInstructions("Hold for 90 seconds.");
+        goals.setGoalType("Endurance");
+        goals.setDescription("Run 10k");
+        weightTracker.logWeight("2024-01-01", 70.5);
+        journal.sync();
+        assertTrue(journal.size() > 0);
+
+        WorkoutList readWorkouts = new WorkoutList();
+        ExerciseDatabase readDatabase = new ExerciseDatabase();
+        Goals readGoals = new Goals("", "");
+        WeightTracker readTracker = new WeightTracker();
+        loadAndReplay(readDatabase, readWorkouts, readGoals, readTracker);
+
+        assertEquals(1, readWorkouts.getWorkouts().size());
+        checkWorkout("Running", 35, "Medium", readWorkouts.getWorkouts().get(0));
+        checkExercise("Plank", "Hold for 90 seconds.", readDatabase.getExercises().get(0));
+        checkGoal("Endurance", "Run 10k", readGoals);
+        checkWeightRecord("2024-01-01", 70.5, readTracker.getWeightRecords().get(0));
+    }
+
+    @Test
+    void testDetachedChangesAreNotRecorded() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        journal.detach();
+        assertFalse(journal.isAttached());
+        workoutList.addWorkout(new Workout("Rowing", 20, "Low"));
+
+        WorkoutList readWorkouts = new WorkoutList();
+        loadAndReplay(new ExerciseDatabase(), readWorkouts, new Goals("", ""), new WeightTracker());
+        assertEquals(1, readWorkouts.getWorkouts().size());
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        weightTracker.logWeight("2024-01-01", 70);
+        weightTracker.logWeight("2024-01-02", 69);
+        journal.detach();
+        try (RandomAccessFile file = new RandomAccessFile(journalPath, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        WeightTracker readTracker = new WeightTracker();
+        loadAndReplay(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), readTracker);
+        assertEquals(1, readTracker.getWeightRecords().size());
+        checkWeightRecord("2024-01-01", 70, readTracker.getWeightRecords().get(0));
+    }
+
+    @Test
+    void testJournalOfOlderSnapshotIsIgnored() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        journal.detach();
+        new JsonWriter(snapshotPath, true).write(exerciseDatabase, workoutList, goals, weightTracker);
+
+        WorkoutList readWorkouts = new WorkoutList();
+        loadAndReplay(new ExerciseDatabase(), readWorkouts, new Goals("", ""), new WeightTracker());
+        assertEquals(1, readWorkouts.getWorkouts().size());
+    }
+
+    @Test
+    void testCompactionFoldsJournalIntoSnapshot() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath, 4, 256);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        for (int i = 0; i < 40; i++) {
+            workoutList.addWorkout(new Workout("Running " + i, i, "Low"));
+        }
+        journal.awaitCompaction();
+        journal.sync();
+        assertFalse(Files.exists(Paths.get(journalPath + ".old")));
+
+        WorkoutList snapshotOnly = new WorkoutList();
+        new JsonReader(snapshotPath, true).read(new ExerciseDatabase(), snapshotOnly, new Goals("", ""),
+                new WeightTracker());
+        assertTrue(snapshotOnly.getWorkouts().size() > 0);
+
+        journal.detach();
+        WorkoutList readWorkouts = new WorkoutList();
+        loadAndReplay(new ExerciseDatabase(), readWorkouts, new Goals("", ""), new WeightTracker());
+        assertEquals(40, readWorkouts.getWorkouts().size());
+        checkWorkout("Running 39", 39, "Low", readWorkouts.getWorkouts().get(39));
+    }
+
+    @Test
+    void testCompactionWithConcurrentWritersFinishes() throws Exception {
+        WorkoutList sharedWorkouts = new WorkoutList(false, true);
+        WeightTracker sharedTracker = new WeightTracker(true);
+        Journal journal = new Journal(journalPath, snapshotPath, 4, 512);
+        journal.attach(exerciseDatabase, sharedWorkouts, goals, sharedTracker);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        LocalDate firstDay = LocalDate.parse("2020-01-01");
+        Future<?> workouts = writers.submit(() -> {
+            for (int i = 0; i < 500; i++) {
+                sharedWorkouts.addWorkout(new Workout("Running " + i, i, "Low"));
+            }
+        });
+        Future<?> weights = writers.submit(() -> {
+            for (int i = 0; i < 500; i++) {
+                sharedTracker.logWeight(firstDay.plusDays(i).toString(), 70 + i % 10);
+            }
+        });
+        // each writer holds its own container's lock while the journal records its change
+        workouts.get(30, TimeUnit.SECONDS);
+        weights.get(30, TimeUnit.SECONDS);
+        writers.shutdown();
+        journal.detach();
+
+        WorkoutList readWorkouts = new WorkoutList();
+        WeightTracker readTracker = new WeightTracker();
+        loadAndReplay(new ExerciseDatabase(), readWorkouts, new Goals("", ""), readTracker);
+        assertEquals(500, readWorkouts.getWorkouts().size());
+        assertEquals(500, readTracker.getWeightRecords().size());
+        checkWorkout("Running 499", 499, "Low", readWorkouts.getWorkouts().get(499));
+    }
+
+    // EFFECTS: loads the test snapshot into the given model objects and replays the test journal on top
+    private void loadAndReplay(ExerciseDatabase readDatabase, WorkoutList readWorkouts,
+                               Goals readGoals, WeightTracker readTracker) throws IOException {
+        new JsonReader(snapshotPath, true).read(readDatabase, readWorkouts, readGoals, readTracker);
+        new Journal(journalPath, snapshotPath).replay(readDatabase, readWorkouts, readGoals, readTracker);
+    }
+
+    @Test
+    void testReplayKeepsWorkoutStarts() throws IOException {
+        Journal journal = new Journal(journalPath, snapshotPath);
+        journal.attach(exerciseDatabase, workoutList, goals, weightTracker);
+        Instant start = Instant.parse("2024-03-01T07:30:15.5Z");
+        Workout running = new Workout("Running", 30, "Medium", null);
+        workoutList.addWorkout(running);
+        workoutList.addWorkout(new Workout("Swimming", 45, "High", start));
+        running.setStart(start.minusSeconds(3600));
+        journal.sync();
+
+        WorkoutList readWorkouts = new WorkoutList();
+        loadAndReplay(new ExerciseDatabase(), readWorkouts, new Goals("", ""), new WeightTracker());
+        assertEquals(start.minusSeconds(3600), readWorkouts.getWorkouts().get(0).getStart());
+        assertEquals(start, readWorkouts.getWorkouts().get(1).getStart());
+        assertEquals(List.of(readWorkouts.getWorkouts().get(1)), readWorkouts.getLatestWorkouts(1));
+    }
+}
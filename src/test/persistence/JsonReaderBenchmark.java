@@ -0,0 +1,75 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares load time and heap growth of the DOM-based and the streaming JsonReader modes and of
+ * the binary snapshot format on a generated history. Not part of the unit test suite; run its main method directly.
+ */
+public class JsonReaderBenchmark {
+    private static final int WORKOUTS = 200_000;
+    private static final int WEIGHT_RECORDS = 50_000;
+    private static final int EXERCISES = 5_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("fitnessAppBenchmark", ".json");
+        file.deleteOnExit();
+        File binary = File.createTempFile("fitnessAppBenchmark", ".bin");
+        binary.deleteOnExit();
+        new File(binary.getPath() + ".crc").deleteOnExit();
+        writeHistory(file.getPath(), binary.getPath());
+        System.out.println("File size: " + file.length() / 1024 + " KiB (binary " + binary.length() / 1024
+                + " KiB)");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("DOM      ", new JsonReader(file.getPath(), false));
+            measure("streaming", new JsonReader(file.getPath(), true));
+            measure("binary   ", new JsonReader(binary.getPath(), true));
+        }
+    }
+
+    // EFFECTS: writes a generated history to the given path as JSON and to binaryPath as a binary snapshot
+    private static void writeHistory(String path, String binaryPath) throws IOException {
+        ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+        WorkoutList workoutList = new WorkoutList();
+        WeightTracker weightTracker = new WeightTracker();
+        String[] intensities = {"Low", "Medium", "High"};
+        for (int i = 0; i < EXERCISES; i++) {
+            exerciseDatabase.addExercise(new Exercise("Exercise " + i, "Do exercise " + i + " for 3 sets."));
+        }
+        for (int i = 0; i < WORKOUTS; i++) {
+            workoutList.addWorkout(new Workout("Exercise " + i % 50, 10 + i % 80, intensities[i % 3]));
+        }
+        for (int i = 0; i < WEIGHT_RECORDS; i++) {
+            weightTracker.logWeight("2020-01-" + (10 + i % 20), 60 + (i % 200) / 10.0);
+        }
+        Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+        new JsonWriter(path).write(exerciseDatabase, workoutList, goals, weightTracker);
+        BinaryWriter binaryWriter = new BinaryWriter(binaryPath);
+        binaryWriter.setKeptGenerations(0);
+        binaryWriter.write(exerciseDatabase, workoutList, goals, weightTracker);
+    }
+
+    // EFFECTS: loads the history with the given reader and prints elapsed time and heap growth
+    private static void measure(String label, JsonReader reader) throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        WorkoutList workoutList = new WorkoutList();
+        reader.read(new ExerciseDatabase(), workoutList, new Goals("", ""), new WeightTracker());
+        long elapsed = System.nanoTime() - start;
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%s  %6d ms  heap +%6d KiB  (%d workouts)%n", label, elapsed / 1_000_000,
+                (heapAfter - heapBefore) / 1024, workoutList.getWorkouts().size());
+    }
+}
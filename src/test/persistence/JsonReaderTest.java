@@ -5,8 +5,13 @@ import model.WorkoutList;
 import model.Goals;
 import model.WeightTracker;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,6 +19,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * This class is adapted from the JsonReaderTest class of JsonSerializationDemo.
  */
 class JsonReaderTest extends JsonTest {
+    @TempDir
+    Path directory;
 
     @Test
     void testReaderNonExistentFile() {
@@ -65,4 +72,122 @@ class JsonReaderTest extends JsonTest {
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testStreamingReaderNonExistentFile() {
+        JsonReader reader = new JsonReader("./data/noSuchFile.json", true);
+        try {
+            reader.read(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testStreamingReaderEmptyFitnessApp() {
+        JsonReader reader = new JsonReader("./data/testEmptyFitnessApp.json", true);
+        try {
+            ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+            WorkoutList workoutList = new WorkoutList();
+            Goals goals = new Goals("x", "y");
+            WeightTracker weightTracker = new WeightTracker();
+
+            reader.read(exerciseDatabase, workoutList, goals, weightTracker);
+            assertTrue(reader.isStreaming());
+            assertTrue(exerciseDatabase.getExercises().isEmpty());
+            assertTrue(workoutList.getWorkouts().isEmpty());
+            assertEquals("", goals.getGoalType());
+            assertEquals("", goals.getDescription());
+            assertTrue(weightTracker.getWeightRecords().isEmpty());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testStreamingReaderGeneralFitnessApp() {
+        JsonReader reader = new JsonReader("./data/testGeneralFitnessApp.json", true);
+        try {
+            ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+            WorkoutList workoutList = new WorkoutList();
+            Goals goals = new Goals("", "");
+            WeightTracker weightTracker = new WeightTracker();
+
+            reader.read(exerciseDatabase, workoutList, goals, weightTracker);
+            checkExercise("Push-ups", "Do 3 sets of 10 push-ups.", exerciseDatabase.getExercises().get(0));
+            checkWorkout("Running", 30, "Medium", workoutList.getWorkouts().get(0));
+            checkGoal("Lose Weight", "Lose 5 kg in 2 months", goals);
+            checkWeightRecord("2023-01-01", 75, weightTracker.getWeightRecords().get(0));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderFallsBackToIntactGeneration() {
+        try {
+            String source = directory.resolve("testFallbackFitnessApp.json").toString();
+            writeGenerations(source);
+            // damage the newest snapshot without touching its length, so only the checksum can tell
+            byte[] bytes = Files.readAllBytes(Paths.get(source));
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(Paths.get(source), bytes);
+
+            for (boolean streaming : new boolean[] {false, true}) {
+                JsonReader reader = new JsonReader(source, streaming);
+                reader.setFallbackGenerations(2);
+                Goals goals = new Goals("", "");
+                reader.read(new ExerciseDatabase(), new WorkoutList(), goals, new WeightTracker());
+                assertTrue(reader.usedFallback());
+                checkGoal("Save 2", "", goals);
+            }
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderFallsBackWhenNewestIsMissing() {
+        try {
+            String source = directory.resolve("testFallbackFitnessApp.json").toString();
+            writeGenerations(source);
+            Files.delete(Paths.get(source));
+
+            JsonReader reader = new JsonReader(source, true);
+            reader.setFallbackGenerations(2);
+            Goals goals = new Goals("", "");
+            reader.read(new ExerciseDatabase(), new WorkoutList(), goals, new WeightTracker());
+            checkGoal("Save 2", "", goals);
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderWithoutFallbackRejectsDamagedFile() {
+        String source = directory.resolve("testFallbackFitnessApp.json").toString();
+        try {
+            writeGenerations(source);
+            Files.write(Paths.get(source), "{\"exerciseDatabase\": [".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail("Couldn't prepare files");
+        }
+        JsonReader reader = new JsonReader(source, false);
+        try {
+            reader.read(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertFalse(reader.usedFallback());
+        }
+    }
+
+    // EFFECTS: writes two atomic snapshots of source whose goal types are "Save 1" and "Save 2", then a third
+    private void writeGenerations(String source) throws IOException {
+        JsonWriter writer = new JsonWriter(source, true);
+        writer.setAtomic(true);
+        for (int i = 1; i <= 3; i++) {
+            writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Save " + i, ""), new WeightTracker());
+        }
+    }
 }
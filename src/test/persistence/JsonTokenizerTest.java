@@ -0,0 +1,147 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTokenizerTest {
+
+    @Test
+    void testReadObjectAndArray() throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader(
+                "{ \"a\": [1, 2.5, -3e2], \"b\" : \"text\" }"));
+        tokenizer.beginObject();
+        assertEquals("a", tokenizer.nextName());
+        tokenizer.beginArray();
+        assertEquals(1, tokenizer.nextInt());
+        assertEquals(2.5, tokenizer.nextDouble());
+        assertEquals(-300.0, tokenizer.nextDouble());
+        assertFalse(tokenizer.hasNext());
+        tokenizer.endArray();
+        assertEquals("b", tokenizer.nextName());
+        assertEquals("text", tokenizer.nextString());
+        tokenizer.endObject();
+        assertEquals(JsonTokenizer.Token.END_DOCUMENT, tokenizer.peek());
+    }
+
+    @Test
+    void testEscapes() throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("[\"a\\\"b\\\\c\\n\\u00e9\\/\"]"));
+        tokenizer.beginArray();
+        assertEquals("a\"b\\c\n\u00e9/", tokenizer.nextString());
+        tokenizer.endArray();
+    }
+
+    @Test
+    void testInvalidEscapesAreRejected() {
+        String[] documents = {"[\"\\x\"]", "[\"\\q\"]", "[\"\\'\"]", "[\"\\u+041\"]", "[\"\\u-041\"]",
+            "[\"\\u00g1\"]", "[\"\\u\uff10\uff10\uff14\uff11\"]"};
+        for (String document : documents) {
+            JsonTokenizer tokenizer = new JsonTokenizer(new StringReader(document));
+            try {
+                tokenizer.beginArray();
+                tokenizer.nextString();
+                fail("IOException expected for " + document);
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+
+    @Test
+    void testEveryDefinedEscapeIsRead() throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader(
+                "[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u0041\\u00E9\\uABcd\"]"));
+        tokenizer.beginArray();
+        assertEquals("\"\\/\b\f\n\r\tA\u00e9\uabcd", tokenizer.nextString());
+        tokenizer.endArray();
+    }
+
+    @Test
+    void testLongStringAcrossBufferRefills() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("[\"" + value + "\", 7]"));
+        tokenizer.beginArray();
+        assertEquals(value.toString(), tokenizer.nextString());
+        assertEquals(7, tokenizer.nextInt());
+        tokenizer.endArray();
+    }
+
+    @Test
+    void testSkipValue() throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader(
+                "{\"skip\": {\"x\": [true, false, null, {\"y\": 1}]}, \"keep\": \"k\"}"));
+        tokenizer.beginObject();
+        assertEquals("skip", tokenizer.nextName());
+        tokenizer.skipValue();
+        assertEquals("keep", tokenizer.nextName());
+        assertEquals("k", tokenizer.nextString());
+        tokenizer.endObject();
+    }
+
+    @Test
+    void testMissingSeparator() {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("{\"a\" 1}"));
+        try {
+            tokenizer.beginObject();
+            tokenizer.nextName();
+            tokenizer.nextInt();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testTruncatedDocument() {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("[\"unterminated"));
+        try {
+            tokenizer.beginArray();
+            tokenizer.nextString();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testTrailingContent() {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("{} {}"));
+        try {
+            tokenizer.beginObject();
+            tokenizer.endObject();
+            tokenizer.peek();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testMalformedValuesAreRejected() {
+        String[] documents = {"[tru]", "[truex]", "[falsy]", "[nul]", "[nullx]", "[@]", "{\"a\": x}",
+            "[1f]", "[-]", "[01]", "[1.]", "[1e]", "[0x10]", "[-Infinity]"};
+        for (String document : documents) {
+            JsonTokenizer tokenizer = new JsonTokenizer(new StringReader(document));
+            try {
+                tokenizer.skipValue();
+                fail("IOException expected for " + document);
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+
+    @Test
+    void testWellFormedNumbersAndLiteralsAreSkipped() throws IOException {
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("[-0.5e+3, 0, 10E2, true, false, null]"));
+        tokenizer.skipValue();
+        assertEquals(JsonTokenizer.Token.END_DOCUMENT, tokenizer.peek());
+    }
+}
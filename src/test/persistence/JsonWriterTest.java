@@ -6,18 +6,29 @@ import model.Workout;
 import model.ExerciseDatabase;
 import model.WorkoutList;
 import model.Goals;
+import model.ModelSnapshot;
 import model.WeightTracker;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * This class is adapted from the JsonWriterTest class of JsonSerializationDemo.
  */
 
 class JsonWriterTest extends JsonTest {
+    @TempDir
+    Path directory;
 
     @Test
     void testWriterInvalidFile() {
@@ -30,14 +41,31 @@ class JsonWriterTest extends JsonTest {
         }
     }
 
+    @Test
+    void testCloseReportsDataItCouldNotWrite() throws IOException {
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full), "needs a device that fails every write");
+        for (boolean streaming : new boolean[] {false, true}) {
+            JsonWriter writer = new JsonWriter(full.toString(), streaming);
+            writer.setCompression(Compression.GZIP, Compression.DEFAULT_LEVEL);
+            writer.open();
+            try {
+                writer.close();
+                fail("IOException expected");
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+
     @Test
     void testWriterEmptyFitnessApp() {
         try {
-            JsonWriter writer = new JsonWriter("./data/testEmptyFitnessApp.json");
+            JsonWriter writer = new JsonWriter(file("testEmptyFitnessApp.json"));
             writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
             writer.close();
 
-            JsonReader reader = new JsonReader("./data/testEmptyFitnessApp.json");
+            JsonReader reader = new JsonReader(file("testEmptyFitnessApp.json"));
             ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
             WorkoutList workoutList = new WorkoutList();
             Goals goals = new Goals("", "");
@@ -66,11 +94,11 @@ class JsonWriterTest extends JsonTest {
             WeightTracker weightTracker = new WeightTracker();
             weightTracker.logWeight("2023-01-01", 75);
 
-            JsonWriter writer = new JsonWriter("./data/testGeneralFitnessApp.json");
+            JsonWriter writer = new JsonWriter(file("testGeneralFitnessApp.json"));
             writer.write(exerciseDatabase, workoutList, goals, weightTracker);
             writer.close();
 
-            JsonReader reader = new JsonReader("./data/testGeneralFitnessApp.json");
+            JsonReader reader = new JsonReader(file("testGeneralFitnessApp.json"));
             exerciseDatabase = new ExerciseDatabase();
             workoutList = new WorkoutList();
             goals = new Goals("", "");
@@ -90,4 +118,340 @@ class JsonWriterTest extends JsonTest {
             fail("Exception should not have been thrown");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamingWriterRoundTripsThroughBothReaders() {
+        try {
+            ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+            exerciseDatabase.addExercise(new Exercise("Curl \"21s\"", "Line one\nline two \u00e9 \ud83d\udcaa"));
+            WorkoutList workoutList = new WorkoutList();
+            workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+            workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+            Goals goals = new Goals("Lose Weight", "Lose 5 kg in 2 months");
+            WeightTracker weightTracker = new WeightTracker();
+            weightTracker.logWeight("2023-01-01", 75);
+            weightTracker.logWeight("2023-01-02", 74.6);
+
+            JsonWriter writer = new JsonWriter(file("testStreamingFitnessApp.json"), true);
+            assertTrue(writer.isStreaming());
+            writer.write(exerciseDatabase, workoutList, goals, weightTracker);
+            writer.close();
+
+            for (boolean streaming : new boolean[] {false, true}) {
+                JsonReader reader = new JsonReader(file("testStreamingFitnessApp.json"), streaming);
+                ExerciseDatabase readDatabase = new ExerciseDatabase();
+                WorkoutList readWorkouts = new WorkoutList();
+                Goals readGoals = new Goals("", "");
+                WeightTracker readTracker = new WeightTracker();
+                reader.read(readDatabase, readWorkouts, readGoals, readTracker);
+
+                checkExercise("Curl \"21s\"", "Line one\nline two \u00e9 \ud83d\udcaa",
+                        readDatabase.getExercises().get(0));
+                checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+                checkWorkout("Swimming", 45, "High", readWorkouts.getWorkouts().get(1));
+                checkGoal("Lose Weight", "Lose 5 kg in 2 months", readGoals);
+                checkWeightRecord("2023-01-01", 75, readTracker.getWeightRecords().get(0));
+                checkWeightRecord("2023-01-02", 74.6, readTracker.getWeightRecords().get(1));
+            }
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSnapshotWriteMatchesLiveWrite() {
+        try {
+            ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+            exerciseDatabase.addExercise(new Exercise("Squat", "Bend your knees"));
+            WorkoutList workoutList = new WorkoutList();
+            workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+            Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+            WeightTracker weightTracker = new WeightTracker();
+            weightTracker.logWeight("2023-01-01", 75);
+            ModelSnapshot snapshot = ModelSnapshot.of(exerciseDatabase, workoutList, goals, weightTracker);
+            workoutList.getWorkouts().get(0).setDuration(40);
+            goals.setDescription("Lose 4 kg");
+
+            for (boolean streaming : new boolean[] {false, true}) {
+                new JsonWriter(file("testCachedFitnessApp.json"), streaming).write(snapshot);
+                WorkoutList readWorkouts = new WorkoutList();
+                Goals readGoals = new Goals("", "");
+                WeightTracker readTracker = new WeightTracker();
+                ExerciseDatabase readDatabase = new ExerciseDatabase();
+                new JsonReader(file("testCachedFitnessApp.json"), true).read(readDatabase, readWorkouts,
+                        readGoals, readTracker);
+                checkExercise("Squat", "Bend your knees", readDatabase.getExercises().get(0));
+                checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+                checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+                checkWeightRecord("2023-01-01", 75, readTracker.getWeightRecords().get(0));
+            }
+            workoutList.getWorkouts().get(0).setDuration(30);
+            goals.setDescription("Lose 5 kg");
+            assertSameAsFreshWrite(exerciseDatabase, workoutList, goals, weightTracker);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testStreamingWriterCompactOutput() {
+        try {
+            JsonWriter writer = new JsonWriter(file("testStreamingFitnessApp.json"), true);
+            writer.setPrettyPrint(false);
+            writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
+
+            String json = new String(Files.readAllBytes(directory.resolve("testStreamingFitnessApp.json")),
+                    StandardCharsets.UTF_8);
+            assertEquals("{\"exerciseDatabase\":[],\"workoutList\":[],"
+                    + "\"goals\":{\"goalType\":\"\",\"description\":\"\"},\"weightTracker\":[]}", json);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testStreamingWriterRejectsNonFiniteWeight() {
+        WeightTracker weightTracker = new WeightTracker();
+        weightTracker.logWeight("2023-01-01", Double.NaN);
+        JsonWriter writer = new JsonWriter(file("testStreamingFitnessApp.json"), true);
+        try {
+            writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), weightTracker);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testFailedAtomicWriteLeavesNoTemporaryFile() throws IOException {
+        String destination = file("testFailedFitnessApp.json");
+        WeightTracker weightTracker = new WeightTracker();
+        weightTracker.logWeight("2023-01-01", Double.NaN);
+        for (boolean streaming : new boolean[] {false, true}) {
+            JsonWriter writer = new JsonWriter(destination, streaming);
+            writer.setAtomic(true);
+            writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Saved", ""), new WeightTracker());
+            try {
+                writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Failed", ""), weightTracker);
+                fail("Exception expected");
+            } catch (IOException | RuntimeException e) {
+                // pass
+            }
+            assertFalse(Files.exists(Paths.get(destination + ".tmp")));
+            assertFalse(Files.exists(Paths.get(destination + ".tmp.crc")));
+            assertTrue(SnapshotFiles.isIntact(Paths.get(destination)));
+            assertEquals("Saved", readGoals(destination).getGoalType());
+        }
+    }
+
+    @Test
+    void testAtomicWriterKeepsGenerations() {
+        try {
+            String destination = file("testAtomicFitnessApp.json");
+            JsonWriter writer = new JsonWriter(destination, true);
+            writer.setAtomic(true);
+            writer.setKeptGenerations(2);
+            assertTrue(writer.isAtomic());
+            for (int i = 1; i <= 4; i++) {
+                writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Save " + i, ""),
+                        new WeightTracker());
+            }
+
+            assertFalse(Files.exists(Paths.get(destination + ".tmp")));
+            assertFalse(Files.exists(Paths.get(destination + ".3")));
+            assertEquals("Save 4", readGoals(destination).getGoalType());
+            assertEquals("Save 3", readGoals(destination + ".1").getGoalType());
+            assertEquals("Save 2", readGoals(destination + ".2").getGoalType());
+            assertTrue(Files.exists(Paths.get(destination + ".crc")));
+            assertTrue(Files.exists(Paths.get(destination + ".2.crc")));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testAtomicWriterLeavesTheTargetInPlace() throws IOException {
+        String destination = file("testInPlaceFitnessApp.json");
+        JsonWriter writer = new JsonWriter(destination, true);
+        writer.setAtomic(true);
+        writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Save 1", ""), new WeightTracker());
+        writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Save 2", ""), new WeightTracker());
+        assertTrue(SnapshotFiles.isIntact(Paths.get(destination + ".1")));
+
+        // a crash after the new snapshot was moved into place but before its checksum followed
+        String next = file("testNextFitnessApp.json");
+        JsonWriter nextWriter = new JsonWriter(next, true);
+        nextWriter.setAtomic(true);
+        nextWriter.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Save 3", ""), new WeightTracker());
+        Files.move(Paths.get(next), Paths.get(destination), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(Paths.get(next + ".crc"), Paths.get(destination + ".tmp.crc"));
+        assertTrue(SnapshotFiles.isIntact(Paths.get(destination)));
+        Goals goals = new Goals("", "");
+        new JsonReader(destination).read(new ExerciseDatabase(), new WorkoutList(), goals, new WeightTracker());
+        assertEquals("Save 3", goals.getGoalType());
+
+        // a crash after the next write linked the target as generation 1: a plain write then replaces the
+        // target rather than writing through to the generation linked to it
+        Files.delete(Paths.get(destination + ".1"));
+        Files.delete(Paths.get(destination + ".1.crc"));
+        Files.createLink(Paths.get(destination + ".1"), Paths.get(destination));
+        new JsonWriter(destination).write(new ExerciseDatabase(), new WorkoutList(), new Goals("Plain", ""),
+                new WeightTracker());
+        assertEquals("Plain", readGoals(destination).getGoalType());
+        assertEquals("Save 3", readGoals(destination + ".1").getGoalType());
+    }
+
+    @Test
+    void testPlainWriteKeepsALinkedDestination() throws IOException {
+        Path real = directory.resolve("testRealFitnessApp.json");
+        Path link = Files.createSymbolicLink(directory.resolve("testLinkedFitnessApp.json"), real);
+        new JsonWriter(link.toString()).write(new ExerciseDatabase(), new WorkoutList(), new Goals("Linked", ""),
+                new WeightTracker());
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("Linked", readGoals(real.toString()).getGoalType());
+    }
+
+    @Test
+    void testSectionCachingMatchesFreshEncoding() {
+        try {
+            ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+            exerciseDatabase.addExercise(new Exercise("Squat", "Bend your knees"));
+            WorkoutList workoutList = new WorkoutList();
+            Workout running = new Workout("Running", 30, "Medium");
+            workoutList.addWorkout(running);
+            Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+            WeightTracker weightTracker = new WeightTracker();
+            weightTracker.logWeight("2023-01-01", 75);
+
+            JsonWriter cached = new JsonWriter(file("testCachedFitnessApp.json"), true);
+            cached.setSectionCaching(true);
+            assertTrue(cached.isSectionCaching());
+            cached.write(exerciseDatabase, workoutList, goals, weightTracker);
+
+            goals.setDescription("Lose 4 kg");
+            cached.write(exerciseDatabase, workoutList, goals, weightTracker);
+            assertSameAsFreshWrite(exerciseDatabase, workoutList, goals, weightTracker);
+
+            running.setDuration(40);
+            weightTracker.logWeight("2023-01-02", 74.5);
+            cached.write(exerciseDatabase, workoutList, goals, weightTracker);
+            assertSameAsFreshWrite(exerciseDatabase, workoutList, goals, weightTracker);
+
+            cached.setPrettyPrint(false);
+            cached.write(exerciseDatabase, workoutList, goals, weightTracker);
+            String json = new String(Files.readAllBytes(directory.resolve("testCachedFitnessApp.json")),
+                    StandardCharsets.UTF_8);
+            assertTrue(json.startsWith("{\"exerciseDatabase\":[{\"name\":\"Squat\""));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testCompressedSnapshotsAreDetected() {
+        try {
+            WorkoutList workoutList = new WorkoutList();
+            for (int i = 0; i < 100; i++) {
+                workoutList.addWorkout(new Workout("Running", 30 + i, "Medium"));
+            }
+            Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+            String destination = file("testCompressedFitnessApp.json");
+            long plainSize = 0;
+            for (Compression compression : Compression.values()) {
+                for (boolean streaming : new boolean[] {false, true}) {
+                    JsonWriter writer = new JsonWriter(destination, streaming);
+                    writer.setCompression(compression, Compression.DEFAULT_LEVEL);
+                    assertEquals(compression, writer.getCompression());
+                    writer.write(new ExerciseDatabase(), workoutList, goals, new WeightTracker());
+                    assertEquals(compression, Compression.detect(Paths.get(destination)));
+                    long size = Files.size(Paths.get(destination));
+                    if (compression == Compression.NONE) {
+                        plainSize = Math.max(plainSize, size);
+                    } else {
+                        assertTrue(size < plainSize / 4);
+                    }
+
+                    for (boolean streamingRead : new boolean[] {false, true}) {
+                        WorkoutList readWorkouts = new WorkoutList();
+                        Goals readGoals = new Goals("", "");
+                        new JsonReader(destination, streamingRead).read(new ExerciseDatabase(), readWorkouts,
+                                readGoals, new WeightTracker());
+                        assertEquals(100, readWorkouts.getWorkouts().size());
+                        checkWorkout("Running", 129, "Medium", readWorkouts.getWorkouts().get(99));
+                        checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testAtomicCompressedSnapshotChecksum() {
+        try {
+            String destination = file("testCompressedFitnessApp.json");
+            JsonWriter writer = new JsonWriter(destination, true);
+            writer.setAtomic(true);
+            writer.setCompression(Compression.GZIP, 9);
+            writer.write(new ExerciseDatabase(), new WorkoutList(), new Goals("Gzip", ""), new WeightTracker());
+            assertTrue(SnapshotFiles.isIntact(Paths.get(destination)));
+            assertEquals("Gzip", readGoals(destination).getGoalType());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    // EFFECTS: checks that the cached output file matches what a writer without a cache produces
+    private void assertSameAsFreshWrite(ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                                        Goals goals, WeightTracker weightTracker) throws IOException {
+        new JsonWriter(file("testStreamingFitnessApp.json"), true)
+                .write(exerciseDatabase, workoutList, goals, weightTracker);
+        assertEquals(new String(Files.readAllBytes(directory.resolve("testStreamingFitnessApp.json")),
+                        StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(directory.resolve("testCachedFitnessApp.json")),
+                        StandardCharsets.UTF_8));
+    }
+
+    // EFFECTS: returns the path of the file with the given name in the test directory
+    private String file(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    // EFFECTS: returns the goals read from the given file
+    private Goals readGoals(String source) throws IOException {
+        Goals goals = new Goals("", "");
+        new JsonReader(source, true).read(new ExerciseDatabase(), new WorkoutList(), goals, new WeightTracker());
+        return goals;
+    }
+
+    @Test
+    void testWorkoutStartsRoundTrip() throws IOException {
+        Instant start = Instant.parse("2024-03-01T07:30:15.123456789Z");
+        WorkoutList workoutList = new WorkoutList();
+        workoutList.addWorkout(new Workout("Running", 30, "Medium", start));
+        workoutList.addWorkout(new Workout("Rowing", 20, "Low", null));
+        for (boolean streamingWriter : new boolean[] {false, true}) {
+            new JsonWriter(file("testStartsFitnessApp.json"), streamingWriter).write(new ExerciseDatabase(),
+                    workoutList, new Goals("", ""), new WeightTracker());
+            for (boolean streamingReader : new boolean[] {false, true}) {
+                WorkoutList readWorkouts = new WorkoutList();
+                new JsonReader(file("testStartsFitnessApp.json"), streamingReader).read(new ExerciseDatabase(),
+                        readWorkouts, new Goals("", ""), new WeightTracker());
+                assertEquals(start, readWorkouts.getWorkouts().get(0).getStart());
+                assertNull(readWorkouts.getWorkouts().get(1).getStart());
+            }
+        }
+        Path file = directory.resolve("testStartsFitnessApp.json");
+        Files.writeString(file, Files.readString(file).replace("2024-03-01T", "yesterday "));
+        for (boolean streamingReader : new boolean[] {false, true}) {
+            try {
+                new JsonReader(file("testStartsFitnessApp.json"), streamingReader).read(new ExerciseDatabase(),
+                        new WorkoutList(), new Goals("", ""), new WeightTracker());
+                fail("IOException expected");
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+}
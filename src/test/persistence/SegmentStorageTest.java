@@ -0,0 +1,158 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightRecord;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentStorageTest extends JsonTest {
+    @TempDir
+    Path directory;
+
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    @BeforeEach
+    void runBefore() {
+        exerciseDatabase = new ExerciseDatabase();
+        exerciseDatabase.addExercise(new Exercise("Squat", "Bend your knees"));
+        workoutList = new WorkoutList();
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        goals = new Goals("Lose Weight", "Lose 5 kg");
+        weightTracker = new WeightTracker();
+        for (int month = 1; month <= 6; month++) {
+            weightTracker.logWeight("2023-0" + month + "-01", 80 - month);
+            weightTracker.logWeight("2023-0" + month + "-15", 79.5 - month);
+        }
+        weightTracker.logWeight("yesterday", 70);
+    }
+
+    @Test
+    void testLoadKeepsOlderMonthsArchived() {
+        try {
+            new SegmentStorage(directory.toString(), 2).save(exerciseDatabase, workoutList, goals, weightTracker);
+            assertTrue(Files.exists(directory.resolve("2023-01.1.seg")));
+
+            ExerciseDatabase readDatabase = new ExerciseDatabase();
+            WorkoutList readWorkouts = new WorkoutList();
+            Goals readGoals = new Goals("", "");
+            WeightTracker readTracker = new WeightTracker();
+            new SegmentStorage(directory.toString(), 2).load(readDatabase, readWorkouts, readGoals, readTracker);
+
+            checkExercise("Squat", "Bend your knees", readDatabase.getExercises().get(0));
+            checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+            checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+            assertEquals(5, readTracker.getLoadedRecordCount());
+            assertEquals(List.of("2023-01", "2023-02", "2023-03", "2023-04"), readTracker.getArchivedMonths());
+
+            List<WeightRecord> since = readTracker.getWeightRecordsSince("2023-04-10");
+            assertEquals(6, since.size());
+            checkWeightRecord("2023-04-15", 75.5, since.get(0));
+            assertEquals(List.of("2023-01", "2023-02", "2023-03"), readTracker.getArchivedMonths());
+
+            List<WeightRecord> all = readTracker.getWeightRecords();
+            assertEquals(13, all.size());
+            checkWeightRecord("2023-01-01", 79, all.get(0));
+            checkWeightRecord("yesterday", 70, all.get(12));
+            assertTrue(readTracker.getArchivedMonths().isEmpty());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testAppendWritesOnlyNewRecords() {
+        try {
+            SegmentStorage storage = new SegmentStorage(directory.toString(), 1);
+            storage.save(exerciseDatabase, workoutList, goals, weightTracker);
+
+            ExerciseDatabase readDatabase = new ExerciseDatabase();
+            WorkoutList readWorkouts = new WorkoutList();
+            Goals readGoals = new Goals("", "");
+            WeightTracker readTracker = new WeightTracker();
+            storage.load(readDatabase, readWorkouts, readGoals, readTracker);
+            long baseModified = Files.getLastModifiedTime(directory.resolve("base.bin")).toMillis();
+            readTracker.logWeight("2023-02-20", 77);
+            readTracker.logWeight("2023-07-01", 72);
+            storage.append(readDatabase, readWorkouts, readGoals, readTracker);
+            assertEquals(5, readTracker.getLoadedRecordCount());
+            assertEquals(baseModified, Files.getLastModifiedTime(directory.resolve("base.bin")).toMillis());
+
+            WeightTracker reloaded = new WeightTracker();
+            new SegmentStorage(directory.toString(), 1).load(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""),
+                    reloaded);
+            List<WeightRecord> all = reloaded.getWeightRecords();
+            assertEquals(15, all.size());
+            checkWeightRecord("2023-02-20", 77, all.get(4));
+            checkWeightRecord("2023-07-01", 72, all.get(13));
+
+            readWorkouts.addWorkout(new Workout("Cycling", 60, "High"));
+            storage.append(readDatabase, readWorkouts, readGoals, readTracker);
+            WorkoutList reloadedWorkouts = new WorkoutList();
+            new SegmentStorage(directory.toString(), 1).load(new ExerciseDatabase(), reloadedWorkouts, new Goals("", ""),
+                    new WeightTracker());
+            assertEquals(2, reloadedWorkouts.getWorkouts().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testManifestCarriesItsChecksum() throws IOException {
+        SegmentStorage storage = new SegmentStorage(directory.toString(), 2);
+        storage.save(exerciseDatabase, workoutList, goals, weightTracker);
+        assertFalse(Files.exists(directory.resolve("manifest.crc")));
+        Path manifest = directory.resolve("manifest");
+        String contents = Files.readString(manifest);
+        // a crash after the new manifest was written but before it was moved into place
+        Files.writeString(directory.resolve("manifest.tmp"), contents.replace("2023-01 2", "2023-01 1"));
+        WeightTracker readTracker = new WeightTracker();
+        storage.load(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), readTracker);
+        assertEquals(13, readTracker.getWeightRecords().size());
+
+        Files.writeString(manifest, contents.replace("2023-01 2", "2023-01 1"));
+        try {
+            storage.load(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+        }
+    }
+
+    @Test
+    void testFullSaveLeavesEarlierSegmentsUntilTheManifestIsReplaced() throws IOException {
+        SegmentStorage storage = new SegmentStorage(directory.toString(), 2);
+        storage.save(exerciseDatabase, workoutList, goals, weightTracker);
+        // what a crash during the next full save leaves behind: a new segment the manifest does not refer to
+        Files.write(directory.resolve("2023-01.2.seg"), new byte[] {1, 2, 3});
+        WeightTracker readTracker = new WeightTracker();
+        storage.load(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), readTracker);
+        checkWeightRecord("2023-01-01", 79, readTracker.getWeightRecords().get(0));
+
+        weightTracker.logWeight("2023-01-10", 78);
+        storage.save(exerciseDatabase, workoutList, goals, weightTracker);
+        assertTrue(Files.exists(directory.resolve("2023-01.3.seg")));
+        assertFalse(Files.exists(directory.resolve("2023-01.1.seg")));
+        assertFalse(Files.exists(directory.resolve("2023-01.2.seg")));
+        WeightTracker reloaded = new WeightTracker();
+        new SegmentStorage(directory.toString(), 2).load(new ExerciseDatabase(), new WorkoutList(),
+                new Goals("", ""), reloaded);
+        assertEquals(14, reloaded.getWeightRecords().size());
+        checkWeightRecord("2023-01-10", 78, reloaded.getWeightRecords().get(1));
+    }
+}
@@ -0,0 +1,73 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Compares save time, load time and file size of plain and compressed JSON snapshots
+ * on a generated history. Not part of the unit test suite; run its main method directly.
+ */
+public class SnapshotCompressionBenchmark {
+    private static final int WORKOUTS = 200_000;
+    private static final int WEIGHT_RECORDS = 50_000;
+    private static final int EXERCISES = 5_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        ExerciseDatabase exerciseDatabase = new ExerciseDatabase();
+        WorkoutList workoutList = new WorkoutList();
+        WeightTracker weightTracker = new WeightTracker();
+        String[] intensities = {"Low", "Medium", "High"};
+        for (int i = 0; i < EXERCISES; i++) {
+            exerciseDatabase.addExercise(new Exercise("Exercise " + i, "Do exercise " + i + " for 3 sets."));
+        }
+        for (int i = 0; i < WORKOUTS; i++) {
+            workoutList.addWorkout(new Workout("Exercise " + i % 50, 10 + i % 80, intensities[i % 3]));
+        }
+        for (int i = 0; i < WEIGHT_RECORDS; i++) {
+            weightTracker.logWeight("2020-01-" + (10 + i % 20), 60 + (i % 200) / 10.0);
+        }
+        Goals goals = new Goals("Lose Weight", "Lose 5 kg");
+
+        File file = File.createTempFile("fitnessAppCompression", ".json");
+        file.deleteOnExit();
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("plain       ", file, Compression.NONE, Compression.DEFAULT_LEVEL,
+                    exerciseDatabase, workoutList, goals, weightTracker);
+            measure("gzip fast   ", file, Compression.GZIP, Deflater.BEST_SPEED,
+                    exerciseDatabase, workoutList, goals, weightTracker);
+            measure("gzip default", file, Compression.GZIP, Compression.DEFAULT_LEVEL,
+                    exerciseDatabase, workoutList, goals, weightTracker);
+            measure("gzip best   ", file, Compression.GZIP, Deflater.BEST_COMPRESSION,
+                    exerciseDatabase, workoutList, goals, weightTracker);
+            measure("deflate     ", file, Compression.DEFLATE, Compression.DEFAULT_LEVEL,
+                    exerciseDatabase, workoutList, goals, weightTracker);
+        }
+    }
+
+    // EFFECTS: saves and loads the history with the given compression and prints the times and file size
+    private static void measure(String label, File file, Compression compression, int level,
+                                ExerciseDatabase exerciseDatabase, WorkoutList workoutList,
+                                Goals goals, WeightTracker weightTracker) throws IOException {
+        JsonWriter writer = new JsonWriter(file.getPath(), true);
+        writer.setCompression(compression, level);
+        long start = System.nanoTime();
+        writer.write(exerciseDatabase, workoutList, goals, weightTracker);
+        long saved = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        new JsonReader(file.getPath(), true).read(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""),
+                new WeightTracker());
+        long loaded = System.nanoTime() - start;
+        System.out.printf("%s  save %5d ms  load %5d ms  %7d KiB%n", label, saved / 1_000_000,
+                loaded / 1_000_000, file.length() / 1024);
+    }
+}
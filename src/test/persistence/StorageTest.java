@@ -0,0 +1,112 @@
+package persistence;
+
+import model.Exercise;
+import model.ExerciseDatabase;
+import model.Goals;
+import model.WeightTracker;
+import model.Workout;
+import model.WorkoutList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageTest extends JsonTest {
+    @TempDir
+    Path directory;
+
+    private String snapshotPath;
+    private String journalPath;
+    private ExerciseDatabase exerciseDatabase;
+    private WorkoutList workoutList;
+    private Goals goals;
+    private WeightTracker weightTracker;
+
+    @BeforeEach
+    void runBefore() {
+        snapshotPath = directory.resolve("fitnessApp.json").toString();
+        journalPath = directory.resolve("fitnessApp.journal").toString();
+        exerciseDatabase = new ExerciseDatabase();
+        exerciseDatabase.addExercise(new Exercise("Squat", "Bend your knees"));
+        workoutList = new WorkoutList();
+        workoutList.addWorkout(new Workout("Running", 30, "Medium"));
+        goals = new Goals("Lose Weight", "Lose 5 kg");
+        weightTracker = new WeightTracker();
+        weightTracker.logWeight("2023-01-01", 75);
+    }
+
+    @Test
+    void testNamedStorages() {
+        assertTrue(Storage.named("json") instanceof JsonStorage);
+        assertTrue(Storage.named("memory") instanceof InMemoryStorage);
+        assertTrue(Storage.named("segments") instanceof SegmentStorage);
+        try {
+            Storage.named("floppy");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testInMemoryStorageKeepsCopies() {
+        InMemoryStorage storage = new InMemoryStorage();
+        assertFalse(storage.hasData());
+        try {
+            storage.load(new ExerciseDatabase(), new WorkoutList(), new Goals("", ""), new WeightTracker());
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        try {
+            storage.save(exerciseDatabase, workoutList, goals, weightTracker);
+            workoutList.getWorkouts().get(0).setDuration(99);
+            goals.setGoalType("Gain Muscle");
+
+            WorkoutList readWorkouts = new WorkoutList();
+            Goals readGoals = new Goals("", "");
+            storage.load(new ExerciseDatabase(), readWorkouts, readGoals, new WeightTracker());
+            checkWorkout("Running", 30, "Medium", readWorkouts.getWorkouts().get(0));
+            checkGoal("Lose Weight", "Lose 5 kg", readGoals);
+
+            storage.append(exerciseDatabase, workoutList, goals, weightTracker);
+            storage.load(new ExerciseDatabase(), readWorkouts, readGoals, new WeightTracker());
+            checkWorkout("Running", 99, "Medium", readWorkouts.getWorkouts().get(0));
+            assertEquals(2, storage.getSaveCount());
+            assertEquals("memory", storage.getLocation());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testJsonStorageAppendsChanges() {
+        try {
+            JsonStorage storage = new JsonStorage(snapshotPath, journalPath);
+            storage.append(exerciseDatabase, workoutList, goals, weightTracker);
+            long snapshotSize = Files.size(Paths.get(snapshotPath));
+
+            workoutList.addWorkout(new Workout("Swimming", 45, "High"));
+            weightTracker.logWeight("2023-01-02", 74.5);
+            storage.append(exerciseDatabase, workoutList, goals, weightTracker);
+            assertEquals(snapshotSize, Files.size(Paths.get(snapshotPath)));
+
+            WorkoutList readWorkouts = new WorkoutList();
+            WeightTracker readTracker = new WeightTracker();
+            new JsonStorage(snapshotPath, journalPath).load(new ExerciseDatabase(), readWorkouts, new Goals("", ""),
+                    readTracker);
+            assertEquals(2, readWorkouts.getWorkouts().size());
+            checkWorkout("Swimming", 45, "High", readWorkouts.getWorkouts().get(1));
+            checkWeightRecord("2023-01-02", 74.5, readTracker.getWeightRecords().get(1));
+            assertEquals(snapshotPath, storage.getLocation());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+}